@@ -1,14 +1,12 @@
 package de.unibremen.gradelog.controller;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
-import static java.lang.String.format;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 
 import javax.annotation.PostConstruct;
@@ -24,6 +22,7 @@ import org.primefaces.context.RequestContext;
 import org.primefaces.event.FileUploadEvent;
 import org.primefaces.event.RowEditEvent;
 import org.primefaces.event.SelectEvent;
+import org.primefaces.model.UploadedFile;
 
 import de.unibremen.gradelog.exception.DuplicateEmailException;
 import de.unibremen.gradelog.exception.DuplicatePageNameException;
@@ -32,8 +31,9 @@ import de.unibremen.gradelog.persistence.PageDAO;
 import de.unibremen.gradelog.persistence.RepresentationDAO;
 import de.unibremen.gradelog.persistence.SessionDAO;
 import de.unibremen.gradelog.persistence.UserDAO;
+import de.unibremen.gradelog.persistence.UserImporter;
 import de.unibremen.gradelog.util.CSVParser;
-import de.unibremen.gradelog.util.LoginGenerator;
+import de.unibremen.gradelog.util.DIFColumns;
 
 /**
  * Dieser Controller umfasst die Aufgaben, die im Adminbereich anfallen wie z.
@@ -50,10 +50,6 @@ public class AdminController extends AbstractController {
 	 * des Facelets geschrieben und gelesen werden.
 	 */
 	private User user;
-	/**
-	 * Benutzer, der in das System importiert wird.
-	 */
-	private User tmpUser;
 	/**
 	 * Die aktuell selektierten Benutzer in einer Tabelle.
 	 */
@@ -81,6 +77,10 @@ public class AdminController extends AbstractController {
 	 * Vertretungen übernimmt.
 	 */
 	private final RepresentationDAO representationDAO;
+	/**
+	 * Der nach Datum und Stunde sortierte, gespeicherte Vertretungsplan.
+	 */
+	private List<Representation> representations;
 	/**
 	 * Die Liste aller innerhalb der Applikation bekannten Seiten.
 	 */
@@ -98,6 +98,21 @@ public class AdminController extends AbstractController {
 	 */
 	private Session exporter;
 
+	/**
+	 * Legt importierte Benutzer im Hintergrund an.
+	 */
+	private final UserImporter userImporter;
+
+	/**
+	 * Fortschritt des zuletzt gestarteten Benutzerimports oder {@code null}
+	 */
+	private ImportProgress importProgress;
+
+	/**
+	 * Wurde das Ergebnis des letzten Imports bereits gemeldet?
+	 */
+	private boolean importReported;
+
 	/**
 	 * Die eindeutige SerialisierungsID.
 	 */
@@ -120,8 +135,8 @@ public class AdminController extends AbstractController {
 
 	/**
 	 * Erzeugt einen {@link AdminController} mit definierter {@link Session},
-	 * {@link UserDAO}, {@link PageDAO}, {@link RepresentationDAO} und
-	 * {@link SessionDAO}.
+	 * {@link UserDAO}, {@link PageDAO}, {@link RepresentationDAO},
+	 * {@link SessionDAO} und {@link UserImporter}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erzeugenden {@link AdminController}s.
@@ -137,6 +152,8 @@ public class AdminController extends AbstractController {
      * @param pExporter
 	 * 		Die {@link Session}, mit derer importierte Benutzer exportiert
 	 * 		werden.
+	 * @param pUserImporter
+	 * 		Der {@link UserImporter} des zu erzeugenden {@link AdminController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
@@ -146,13 +163,15 @@ public class AdminController extends AbstractController {
 						   final PageDAO pPageDAO,
 						   final RepresentationDAO pRepresentationDAO,
 						   final SessionDAO pSessionDAO,
-						   final Session pExporter) {
+						   final Session pExporter,
+						   final UserImporter pUserImporter) {
 		super(Assertion.assertNotNull(pSession));
 		userDAO = Assertion.assertNotNull(pUserDAO);
 		pageDAO = Assertion.assertNotNull(pPageDAO);
 		representationDAO = Assertion.assertNotNull(pRepresentationDAO);
 		sessionDAO = Assertion.assertNotNull(pSessionDAO);
 		exporter = Assertion.assertNotNull(pExporter);
+		userImporter = Assertion.assertNotNull(pUserImporter);
 	}
 
 	/**
@@ -167,7 +186,8 @@ public class AdminController extends AbstractController {
 		selectedPage = new Page();
 		allUsers = userDAO.getAllUsers();
 		allPages = pageDAO.getAllPages();
-		getSession().setImportedRepresentations(representationDAO.getAllRepresentations());
+		representations = representationDAO.getAllRepresentations();
+		getSession().setImportedRepresentations(representations);
 	}
 
 	/**
@@ -200,7 +220,7 @@ public class AdminController extends AbstractController {
 	 */
 	public void remove() {
 		Logger logger = getLogger();
-		if (sessionDAO.isUserLoggedIn(assertNotNull(user))) {
+		if (sessionDAO.isUserOnline(assertNotNull(user))) {
 			addMessage("errorLoggedinDeletion");
 			if (logger.isInfoEnabled()) {
 				final User sessionUser = getSession().getUser();
@@ -247,70 +267,84 @@ public class AdminController extends AbstractController {
 			addMessage("errorUsersDelete");
 	}
 
-		/**
-         * Importiert die jeweiligen Benutzer anhand eines DIF-Files und erzeugt
-         * Benutzernamen als auch Passwörter mithilfe eines Generators. Im Anschluss
-         * daran wird eine Möglichkeit generiert, sich diese Liste in der jeweiligen
-         * Session ausdrucken zu lassen.
-         *
-         * @param event
-         *            Das hochzuladene File
-         */
+	/**
+	 * Startet den Import der Benutzer aus einem DIF-File im Hintergrund (vgl.
+	 * {@link UserImporter}). Benutzernamen und Passwörter werden dabei
+	 * generiert. Der Fortschritt kann über {@link #getImportProgress()}
+	 * abgefragt werden; ist der Import abgeschlossen, übernimmt
+	 * {@link #checkImport()} die Zugangsdaten in die Session, sodass sie sich
+	 * ausdrucken lassen.
+	 *
+	 * Die Datei wird nicht in den Speicher kopiert, sondern als Datenstrom an
+	 * den Import übergeben, der ihn nach dem Lesen schließt. Der Strom wird
+	 * noch in dieser Anfrage geöffnet und bleibt daher lesbar, auch wenn die
+	 * temporäre Datei des Uploads nach der Anfrage entfernt wird.
+	 *
+	 * @param event
+	 *            Das hochzuladene File
+	 */
 	public void uploadDIF(FileUploadEvent event) {
 		Logger logger = getLogger();
 		if (!isLoggedIn()) {
 			logger.info("Session without user tried to import users!");
 			return;
 		}
+		if (importProgress != null && !importProgress.isDone()) {
+			addMessage("errorImportRunning");
+			return;
+		}
+		final UploadedFile file = assertNotNull(event.getFile());
+		final InputStream input;
 		try {
-			ArrayList<User> list = new ArrayList<>();
-			Map<String, String> importedUsers = new HashMap<>();
-			CSVParser csvParser = new CSVParser(event.getFile().getInputstream(), 15);
-			while (csvParser.nextLine()) {
-				User user = new User();
-				user.getProfile().setFirstName(csvParser.getString(7));
-				user.getProfile().setLastName(csvParser.getString(0));
-				user.getProfile().setCourse(csvParser.getString(9));
-				int sex = csvParser.getInt(10);
-				if (sex == 1)
-					user.getProfile().setSex("female");
-				else if (sex == 2)
-					user.getProfile().setSex("male");
-				user.getProfile().setBirthday(csvParser.getDate(12));
-				user.setEmail(csvParser.getString(13));
-
-				String name = LoginGenerator.generateName(user.getProfile().getFirstName(), user.getProfile().getLastName());
-				user.setLogin(name);
-				String password = LoginGenerator.generatePassword(8, 16, 1, 1, 1, 1);
-				user.setPassword(password);
-				if (userDAO.getUserByUsername(name) != null) {
-					tmpUser = user;
-					throw new DuplicateUsernameException(format("Username '%s' is already in use", tmpUser.getLogin()));
-				}
-				if (userDAO.getUserByEmail(user.getEmail()) != null) {
-					tmpUser = user;
-					throw new DuplicateEmailException(format("Email '%s' is already in use", tmpUser.getEmail()));
-				}
-				list.add(user);
-				importedUsers.put(name, password);
-			}
-			for (User u : list) {
-				userDAO.create(u);
-			}
-			for (String key : importedUsers.keySet()) {
-				exporter.getImportedUserMap().put(key, importedUsers.get(key));
-			}
-			addMessage("successImportUsers");
-			init();
-		} catch (IllegalArgumentException e) {
-			addMessageWithLogging(e, logger, Level.DEBUG, "errorInvalidFormat");
+			input = file.getInputstream();
 		} catch (IOException e) {
 			addMessageWithLogging(e, logger, Level.DEBUG, "errorInvalidBinaryStream");
-		} catch (DuplicateUsernameException e) {
-			addMessageWithLogging(e, logger, Level.DEBUG, "errorUsernameAlreadyInUse", tmpUser.getLogin());
-		} catch (DuplicateEmailException e) {
-			addMessageWithLogging(e, logger, Level.DEBUG, "errorEmailAlreadyInUse", tmpUser.getEmail());
+			return;
 		}
+		importProgress = new ImportProgress();
+		importReported = false;
+		userImporter.importUsers(input, UserImporter.BATCH_SIZE, importProgress);
+		addMessage("successImportStarted");
+	}
+
+	/**
+	 * Übernimmt nach Abschluss des Imports einmalig die Zugangsdaten der
+	 * importierten Benutzer in die Session, meldet das Ergebnis und öffnet den
+	 * Dialog zum Ausdrucken der Zugangsdaten.
+	 */
+	public void checkImport() {
+		if (importProgress == null || !importProgress.isDone() || importReported) {
+			return;
+		}
+		importReported = true;
+		exporter.getImportedUserMap().putAll(importProgress.getCredentials());
+		if (importProgress.isFailed()) {
+			addMessage("errorInvalidBinaryStream");
+		} else if (importProgress.getErrorCount() > 0) {
+			addMessage("warningImportRowsRejected", importProgress.getErrorCount());
+		} else {
+			addMessage("successImportUsers");
+		}
+		final RequestContext context = RequestContext.getCurrentInstance();
+		if (context != null) {
+			context.execute("PF('uploadDialog').show()");
+		}
+		init();
+	}
+
+	/**
+	 * Gibt die übersetzte Begründung für eine nicht importierte Zeile zurück.
+	 *
+	 * @param error
+	 *            Die nicht importierte Zeile.
+	 * @return Die Begründung.
+	 */
+	public String getImportErrorText(final ImportProgress.RowError error) {
+		return getTranslation(error.getMessageKey(), error.getValue());
+	}
+
+	public ImportProgress getImportProgress() {
+		return importProgress;
 	}
 
 	/**
@@ -327,30 +361,28 @@ public class AdminController extends AbstractController {
 			logger.info("Session without user tried to import a representation plan!");
 			return;
 		}
-		try {
+		try (CSVParser csvParser = new CSVParser(event.getFile().getInputstream(), StandardCharsets.UTF_8,
+				DIFColumns.REPRESENTATION_CELLS)) {
 			ArrayList<Representation> list = new ArrayList<>();
-			CSVParser csvParser = new CSVParser(event.getFile().getInputstream(), 20);
 			while (csvParser.nextLine()) {
 				Representation newRep = new Representation();
-				newRep.setDate(csvParser.getDate(1));
-				newRep.setHour(csvParser.getInt(2));
-				newRep.setTeacher(csvParser.getString(5));
-				newRep.setRepreTeacher(csvParser.getString(6));
-				newRep.setSubject(csvParser.getString(7));
-				newRep.setRoom(csvParser.getString(11));
-				newRep.setRepreRoom(csvParser.getString(12));
-				newRep.setClasses(csvParser.getString(14));
+				newRep.setDate(csvParser.getDate(DIFColumns.Representation.DATE));
+				newRep.setHour(csvParser.getInt(DIFColumns.Representation.HOUR));
+				newRep.setTeacher(csvParser.getString(DIFColumns.Representation.TEACHER));
+				newRep.setRepreTeacher(csvParser.getString(DIFColumns.Representation.REPRESENTATIVE_TEACHER));
+				newRep.setSubject(csvParser.getString(DIFColumns.Representation.SUBJECT));
+				newRep.setRoom(csvParser.getString(DIFColumns.Representation.ROOM));
+				newRep.setRepreRoom(csvParser.getString(DIFColumns.Representation.REPRESENTATIVE_ROOM));
+				newRep.setClasses(csvParser.getString(DIFColumns.Representation.CLASSES));
 				list.add(newRep);
 			}
-			representationDAO.clearRepresentations();
-			for (Representation r : list) {
-				representationDAO.create(r);
-			}
+			RepresentationDAO.Changes changes = representationDAO.synchronize(list);
 			exporter.getImportedRepresentations().clear();
 			for (Representation r : list) {
 				exporter.getImportedRepresentations().add(r);
 			}
-			addMessage("successImportRepresentation");
+			addMessage("successImportRepresentation", changes.getInserted().size(), changes.getUpdated(),
+					changes.getDeleted().size());
 			init();
 		} catch (IllegalArgumentException e) {
 			addMessageWithLogging(e, logger, Level.DEBUG, "errorInvalidFormat");
@@ -430,9 +462,7 @@ public class AdminController extends AbstractController {
 	}
 
 	public List<Representation> getRepresentations() {
-		List<Representation> result = representationDAO.getAllRepresentations();
-		Collections.sort(result);
-		return result;
+		return representations;
 	}
 
 	public Set<Group> getGroups() {
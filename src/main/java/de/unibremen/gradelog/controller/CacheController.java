@@ -0,0 +1,102 @@
+package de.unibremen.gradelog.controller;
+
+import java.util.List;
+
+import javax.faces.view.ViewScoped;
+import javax.inject.Inject;
+import javax.inject.Named;
+
+import de.unibremen.gradelog.model.CacheUsage;
+import de.unibremen.gradelog.model.Session;
+import de.unibremen.gradelog.persistence.CacheMonitor;
+import de.unibremen.gradelog.util.Assertion;
+
+/**
+ * Dieser Controller zeigt im Adminbereich, wie viele Leseabfragen je Entität
+ * aus den Caches beantwortet wurden, und erlaubt, die Zähler zurückzusetzen
+ * sowie den gemeinsamen Cache zu leeren.
+ *
+ * @author Marco Glander
+ */
+@Named("cacheBean")
+@ViewScoped
+public class CacheController extends AbstractController {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -3396164932569546301L;
+
+	/**
+	 * Liefert die Zähler der Caches.
+	 */
+	private final CacheMonitor cacheMonitor;
+
+	/**
+	 * Die angezeigte Nutzung der Caches oder {@code null}, falls sie neu
+	 * geladen werden muss
+	 */
+	private List<CacheUsage> usage;
+
+	/**
+	 * Erzeugt einen {@link CacheController} mit definierter {@link Session}
+	 * und {@link CacheMonitor}.
+	 *
+	 * @param pSession
+	 * 		Die {@link Session} des zu erzeugenden {@link CacheController}s.
+	 * @param pCacheMonitor
+	 * 		Der {@link CacheMonitor} des zu erzeugenden
+	 * 		{@link CacheController}s.
+	 * @throws IllegalArgumentException
+	 * 		Falls einer der übergebenen Parameter {@code null} ist.
+	 */
+	@Inject
+	public CacheController(final Session pSession, final CacheMonitor pCacheMonitor) {
+		super(Assertion.assertNotNull(pSession));
+		cacheMonitor = Assertion.assertNotNull(pCacheMonitor);
+	}
+
+	/**
+	 * Gibt die Nutzung der Caches je Entität zurück.
+	 *
+	 * @return Die Nutzung der Caches, niemals {@code null}.
+	 */
+	public List<CacheUsage> getUsage() {
+		if (usage == null)
+			usage = cacheMonitor.getUsage();
+		return usage;
+	}
+
+	/**
+	 * Lädt die Zähler neu.
+	 */
+	public void refresh() {
+		usage = null;
+	}
+
+	/**
+	 * Setzt die Zähler zurück (vgl. {@link CacheMonitor#reset()}).
+	 */
+	public void reset() {
+		if (!isLoggedIn()) {
+			getLogger().info("Session without user tried to reset the cache statistics!");
+			return;
+		}
+		cacheMonitor.reset();
+		usage = null;
+		addMessage("cacheStatisticsReset");
+	}
+
+	/**
+	 * Leert den gemeinsamen Cache (vgl. {@link CacheMonitor#clear()}).
+	 */
+	public void clear() {
+		if (!isLoggedIn()) {
+			getLogger().info("Session without user tried to clear the cache!");
+			return;
+		}
+		cacheMonitor.clear();
+		usage = null;
+		addMessage("cacheCleared");
+	}
+}
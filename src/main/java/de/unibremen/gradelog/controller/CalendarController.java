@@ -1,8 +1,6 @@
 package de.unibremen.gradelog.controller;
 
 import java.util.Date;
-import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
@@ -19,6 +17,7 @@ import org.primefaces.event.ScheduleEntryMoveEvent;
 import org.primefaces.event.SelectEvent;
 
 import de.unibremen.gradelog.persistence.CalendarDAO;
+import de.unibremen.gradelog.persistence.ReminderService;
 import de.unibremen.gradelog.persistence.TaskDAO;
 
 /**
@@ -58,10 +57,19 @@ public class CalendarController extends AbstractController {
 	 * Task-Objekte übernimmt.
 	 */
 	private final TaskDAO taskDAO;
+	/**
+	 * Die Erinnerungen an anstehende Termine
+	 */
+	private final ReminderService reminderService;
+	/**
+	 * Lazy-Model des angezeigten Kalenders
+	 */
+	private CalendarScheduleModel scheduleModel;
 
 	/**
 	 * Erzeugt einen {@link CalendarController} mit definierter
-	 * {@link Session}, {@link CalendarDAO} und {@link TaskDAO}.
+	 * {@link Session}, {@link CalendarDAO}, {@link TaskDAO} und
+	 * {@link ReminderService}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erzeugenden {@link CalendarController}s.
@@ -70,16 +78,21 @@ public class CalendarController extends AbstractController {
 	 * 		{@link CalendarController}s.
 	 * @param pTaskDAO
 	 * 		Die {@link TaskDAO} des zu erzeugenden {@link CalendarController}s.
+	 * @param pReminderService
+	 * 		Der {@link ReminderService} des zu erzeugenden
+	 * 		{@link CalendarController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
 	@Inject
 	public CalendarController(final Session pSession,
 							  final CalendarDAO pCalendarDAO,
-							  final TaskDAO pTaskDAO) {
+							  final TaskDAO pTaskDAO,
+							  final ReminderService pReminderService) {
 		super(Assertion.assertNotNull(pSession));
 		calendarDAO = Assertion.assertNotNull(pCalendarDAO);
 		taskDAO = Assertion.assertNotNull(pTaskDAO);
+		reminderService = Assertion.assertNotNull(pReminderService);
 	}
 
 	/**
@@ -117,6 +130,8 @@ public class CalendarController extends AbstractController {
 		}
 		taskDAO.update(assertNotNull(task));
 		calendarDAO.update(assertNotNull(calendar));
+		reminderService.taskSaved(calendar, task);
+		getScheduleModel().updateEvent(task.getCalendarEvent());
 		addMessage("successTodoAdded");
 		task = new Task();
 	}
@@ -138,6 +153,8 @@ public class CalendarController extends AbstractController {
 		calendar.removeTask(task);
 		calendarDAO.update(assertNotNull(calendar));
 		taskDAO.delete(assertNotNull(task));
+		reminderService.taskRemoved(calendar, task);
+		getScheduleModel().deleteEvent(task.getCalendarEvent());
 		addMessage("successTodoDeleted");
 		task = new Task();
 	}
@@ -176,6 +193,8 @@ public class CalendarController extends AbstractController {
 		}
 		taskDAO.update(assertNotNull(task));
 		calendarDAO.update(assertNotNull(calendar));
+		reminderService.taskSaved(calendar, task);
+		getScheduleModel().updateEvent(task.getCalendarEvent());
 		addMessage("successTodoMoved");
 	}
 
@@ -197,26 +216,13 @@ public class CalendarController extends AbstractController {
 	/**
 	 * Wenn der Benutzer den Erinnerungsdienst eingeschaltet hat, so wird eine
 	 * Meldung in jedem Bereich des Systems dargestellt, dass bald ein Termin
-	 * anliegt.
+	 * anliegt. Ob ein Termin ansteht, berechnet der {@link ReminderService}
+	 * im Hintergrund.
 	 * 
 	 * @return Statusnachricht des Tasks
 	 */
 	public boolean reminder() {
-		if (user.isActivatedReminder()) {
-			Set<Task> tasks = calendar.getTasks();
-			for (Task t : tasks) {
-				long start = t.getStartTime().getTime();
-				long current = new java.util.Date().getTime();
-				long dif = start - current;
-				long res = TimeUnit.MILLISECONDS.toMinutes(dif);
-				boolean isDaylight = java.util.TimeZone.getTimeZone("Europe/Berlin").inDaylightTime( new Date() );
-				res = isDaylight ? res - 60 : res;
-				if (res < 60 && res > 0) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return user.isActivatedReminder() && reminderService.isDue(calendar);
 	}
 
 	public Calendar getCalendar() {
@@ -227,6 +233,18 @@ public class CalendarController extends AbstractController {
 		this.calendar = calendar;
 	}
 
+	/**
+	 * Gibt das Lazy-Model des Kalenders zurück, das nur die Termine des
+	 * angezeigten Zeitraums lädt.
+	 *
+	 * @return Das Lazy-Model des Kalenders.
+	 */
+	public CalendarScheduleModel getScheduleModel() {
+		if (scheduleModel == null)
+			scheduleModel = new CalendarScheduleModel(taskDAO, calendar);
+		return scheduleModel;
+	}
+
 	public Task getTask() {
 		return task;
 	}
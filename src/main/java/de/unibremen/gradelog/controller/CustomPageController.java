@@ -6,6 +6,8 @@ import java.util.Date;
 import java.util.HashSet;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.annotation.PostConstruct;
 import javax.faces.view.ViewScoped;
@@ -15,19 +17,23 @@ import javax.inject.Named;
 import de.unibremen.gradelog.model.CustomPage;
 import de.unibremen.gradelog.model.CustomPageHistory;
 import de.unibremen.gradelog.model.Group;
-import de.unibremen.gradelog.model.MessageReceiver;
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.Shareable;
 import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.util.Assertion;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
 
 import de.unibremen.gradelog.exception.DuplicateEmailException;
 import de.unibremen.gradelog.exception.DuplicateUsernameException;
 import de.unibremen.gradelog.persistence.CustomPageDAO;
+import de.unibremen.gradelog.persistence.CustomPageHistoryDAO;
 import de.unibremen.gradelog.persistence.UserDAO;
 import de.unibremen.gradelog.persistence.GroupDAO;
+import de.unibremen.gradelog.persistence.PageViewCounter;
+import de.unibremen.gradelog.persistence.ReceiverIndex;
 
 /**
  * Der CustomPageConstroller stellt Funktionen zu Interaktion mit CustomPage
@@ -54,6 +60,11 @@ public class CustomPageController extends AbstractController {
 	 * CustomPage-Objekte übernimmt.
 	 */
 	private final CustomPageDAO customPageDao;
+	/**
+	 * Das Data-Access-Objekt, das die Verwaltung der Persistierung für
+	 * die Versionen der CustomPages übernimmt.
+	 */
+	private final CustomPageHistoryDAO historyDao;
 	/**
 	 * Das Data-Access-Objekt, das die Verwaltung der Persistierung für
 	 * Benutzer-Objekte übernimmt.
@@ -64,6 +75,14 @@ public class CustomPageController extends AbstractController {
 	 * Gruppen-Objekte übernimmt.
 	 */
 	private final GroupDAO groupDao;
+	/**
+	 * Suchindex für die Autovervollständigung der Empfänger
+	 */
+	private final ReceiverIndex receiverIndex;
+	/**
+	 * Zählt die Besuche der CustomPages
+	 */
+	private final PageViewCounter pageViews;
 	/**
 	 * Hält nach einem redirect die ID der zu bearbeitenden CustomPage.
 	 */
@@ -90,15 +109,50 @@ public class CustomPageController extends AbstractController {
 	 */
 	private List<CustomPage> sharedPages;
 	/**
-	 * Liste zum Sortieren
+	 * Seitenweise geladene Versionsliste der zuletzt angezeigten CustomPage
 	 */
-	private List<CustomPageHistory> histories;
-	private CustomPage lastPage;
+	private HistoryModel historyModel;
+	/**
+	 * Rekonstruierter Inhalt von {@link #selectedHistory}
+	 */
+	private String selectedHistoryContent;
+
+	/**
+	 * Lädt die Versionen einer CustomPage ohne deren Inhalt seitenweise für
+	 * die Versionsliste.
+	 */
+	private final class HistoryModel extends LazyDataModel<CustomPageHistory.Info> {
+
+		/**
+		 * Die eindeutige id für Serialisierung.
+		 */
+		private static final long serialVersionUID = 6048257011985327702L;
+
+		/**
+		 * Die CustomPage, deren Versionen geladen werden, oder {@code null}
+		 */
+		private final CustomPage page;
+
+		private HistoryModel(final CustomPage page) {
+			this.page = page;
+			setRowCount(null == page ? 0 : historyDao.count(page));
+		}
+
+		@Override
+		public List<CustomPageHistory.Info> load(final int first, final int pageSize, final String sortField,
+				final SortOrder sortOrder, final Map<String, Object> filters) {
+			if (null == page)
+				return new ArrayList<>();
+			setRowCount(historyDao.count(page));
+			return historyDao.getInfos(page, first, pageSize);
+		}
+	}
 
 	/**
 	 * Erzeugt einen {@link CustomPageController} mit definierter
-	 * {@link Session}, {@link CustomPageDAO}, {@link UserDAO} und
-	 * {@link GroupDAO}.
+	 * {@link Session}, {@link CustomPageDAO}, {@link CustomPageHistoryDAO},
+	 * {@link UserDAO}, {@link GroupDAO}, {@link ReceiverIndex} und
+	 * {@link PageViewCounter}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erstellenden
@@ -106,24 +160,39 @@ public class CustomPageController extends AbstractController {
 	 * @param pCustomPageDao
 	 * 		Die {@link CustomPageDAO} des zu erstellenden
 	 * 		{@link CustomPageController}s.
+	 * @param pHistoryDao
+	 * 		Die {@link CustomPageHistoryDAO} des zu erstellenden
+	 * 		{@link CustomPageController}s.
 	 * @param pUserDao
 	 * 		Die {@link UserDAO} des zu erstellenden
 	 * 		{@link CustomPageController}s.
 	 * @param pGroupDao
 	 * 		Die {@link GroupDAO} des zu erstellenden
 	 * 		{@link CustomPageController}s.
+	 * @param pReceiverIndex
+	 * 		Der {@link ReceiverIndex} des zu erstellenden
+	 * 		{@link CustomPageController}s.
+	 * @param pPageViews
+	 * 		Der {@link PageViewCounter} des zu erstellenden
+	 * 		{@link CustomPageController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
 	@Inject
 	public CustomPageController(final Session pSession,
 								final CustomPageDAO pCustomPageDao,
+								final CustomPageHistoryDAO pHistoryDao,
 								final UserDAO pUserDao,
-								final GroupDAO pGroupDao) {
+								final GroupDAO pGroupDao,
+								final ReceiverIndex pReceiverIndex,
+								final PageViewCounter pPageViews) {
 		super(Assertion.assertNotNull(pSession));
 		customPageDao = Assertion.assertNotNull(pCustomPageDao);
+		historyDao = Assertion.assertNotNull(pHistoryDao);
 		userDao = Assertion.assertNotNull(pUserDao);
 		groupDao = Assertion.assertNotNull(pGroupDao);
+		receiverIndex = Assertion.assertNotNull(pReceiverIndex);
+		pageViews = Assertion.assertNotNull(pPageViews);
 	}
 
 	/**
@@ -265,10 +334,11 @@ public class CustomPageController extends AbstractController {
 	}
 
 	/**
-	 * Speichert den aktuellen Stand der CustomPage in eine CusomPageHistory und
-	 * aktualisiert die Custompage mit den Änderungen im Parameter cp, es wird
-	 * hier davon ausgegangen, dass onRedirect davor aufgerufen wurde, sodass
-	 * sichergestellt ist, dass 'data' validen Inhalt hat.
+	 * Speichert den aktuellen Stand der CustomPage als neue Version, sofern
+	 * sich Titel oder Inhalt ändern, und aktualisiert die Custompage mit den
+	 * Änderungen im Parameter cp, es wird hier davon ausgegangen, dass
+	 * onRedirect davor aufgerufen wurde, sodass sichergestellt ist, dass
+	 * 'data' validen Inhalt hat.
 	 * 
 	 * @param cp
 	 *            Die CustomPage, dessen Zustand übernommen werden soll.
@@ -284,8 +354,8 @@ public class CustomPageController extends AbstractController {
 		CustomPage found = getCustomPageById(data, false);
 		assertNotNull(found);
 		assertNotNull(cp);
-		CustomPageHistory history = new CustomPageHistory(found.getTitle(), found.getContent(), found.getDate(), found);
-		found.saveToHistory(history);
+		if (!found.getTitle().equals(cp.getTitle()) || !found.getContent().equals(cp.getContent()))
+			historyDao.record(found, user.getDisplayName());
 		found.apply(cp, new Date());
 		customPageDao.update(found);
 		addMessage("successPageUpdated");
@@ -347,20 +417,20 @@ public class CustomPageController extends AbstractController {
 	}
 
 	/**
-	 * Wendet die übergebene CustomPageHistory auf das übergebene CustomPage
-	 * Objekt an. Dabei wird der alte Status wieder als CustomPageHistory
-	 * hinzugefügt und daraufhin die bearbeitete Custompage in der Datenbank
-	 * aktualisiert.
+	 * Wendet die übergebene Version auf das übergebene CustomPage Objekt an.
+	 * Dabei wird der alte Status als neue Version gespeichert, die
+	 * angewendete Version entfernt und daraufhin die bearbeitete Custompage in
+	 * der Datenbank aktualisiert.
 	 * 
 	 * @param cp
 	 *            Die zu bearbeitende CustomPage
 	 * @param cph
-	 *            Die anzuwendende CustomPageHistory
+	 *            Die anzuwendende Version
 	 * @throws IllegalArgumentException
 	 *             Wenn {@link Assertion#assertNotNull} feststellt dass cp oder
 	 *             der Controller-interne User null ist.
 	 */
-	public void applyHistory(final CustomPage cp, final CustomPageHistory cph) {
+	public void applyHistory(final CustomPage cp, final CustomPageHistory.Info cph) {
 		Logger logger = getLogger();
 		if (!isLoggedIn()) {
 			getLogger().info("Session without user tried to update a CustomPage with a CustomPageHistory.");
@@ -371,11 +441,12 @@ public class CustomPageController extends AbstractController {
 			assertNotNull(cph);
 			assertNotNull(cp);
 			CustomPage current = cp;
-			CustomPageHistory history = new CustomPageHistory(current.getTitle(), current.getContent(),
-					current.getDate(), current);
-			current.saveToHistory(history);
-			current.applyHistory(assertNotNull(cph));
+			String content = assertNotNull(historyDao.getContent(cph.getId()));
+			historyDao.record(current, user.getDisplayName());
+			current.restore(cph.getTitle(), content, cph.getDate());
 			customPageDao.update(current);
+			historyDao.remove(cph.getId());
+			historyModel = null;
 			addMessage("successPageHistoryUpdated");
 		} catch (IllegalArgumentException e) {
 			addMessageWithLogging(e, logger, Level.DEBUG, "errorPageUserHistoryNull");
@@ -383,18 +454,18 @@ public class CustomPageController extends AbstractController {
 	}
 
 	/**
-	 * Löscht die angegebene CustomPageHistory aus der übergebenen CustomPage
-	 * und aktualisiert daraufhin die Datenbank.
+	 * Löscht die angegebene Version der übergebenen CustomPage aus der
+	 * Datenbank.
 	 * 
 	 * @param cp
 	 *            Die zu bearbeitende CustomPage
 	 * @param cph
-	 *            Die zu löschende CustomPageHistory
+	 *            Die zu löschende Version
 	 * @throws IllegalArgumentException
 	 *             Wenn {@link Assertion#assertNotNull} feststellt dass cp oder
 	 *             der Controller-interne User null ist.
 	 */
-	public void removeHistory(final CustomPage cp, final CustomPageHistory cph) {
+	public void removeHistory(final CustomPage cp, final CustomPageHistory.Info cph) {
 		Logger logger = getLogger();
 		if (!isLoggedIn()) {
 			getLogger().info("Session without user tried to remove CustomPageHistory from a CustomPage.");
@@ -402,9 +473,9 @@ public class CustomPageController extends AbstractController {
 		}
 		try {
 			assertNotNull(user);
-			CustomPage current = assertNotNull(cp);
-			current.removeHistory(assertNotNull(cph));
-			customPageDao.update(current);
+			assertNotNull(cp);
+			historyDao.remove(assertNotNull(cph).getId());
+			historyModel = null;
 			addMessage("successPageHistoryRemoved");
 		} catch (IllegalArgumentException e) {
 			addMessageWithLogging(e, logger, Level.DEBUG, "errorPageUserHistoryNull");
@@ -520,16 +591,14 @@ public class CustomPageController extends AbstractController {
 				// Page gefunden && user war Besitzer
 				if (found != null && user.equals(found.getUser())) {
 					if (type.equals("show")) {
-						found.increment();
-						customPageDao.update(found);
+						pageViews.increment(found);
 					}
 					return found;
 				}
 				// Page gefunden && es war show.xhtml && User besitzt eine
 				// Freigabe zur seite
 				if (found != null && onlyShow && contains(found)) {
-					found.increment();
-					customPageDao.update(found);
+					pageViews.increment(found);
 					return found;
 					// Page nicht gefunden || Aufruf nicht durch show erfolgt ||
 					// User hat überhaupt keinen Zugriff
@@ -609,25 +678,19 @@ public class CustomPageController extends AbstractController {
 	}
 
 	/**
-	 * Gibt für die übergebene CustomPage eine Liste von CustomPageHistory
-	 * Objekten zurück. Ist die CustomPage {@code null}, so wird eine leere
-	 * Liste zurückgegeben.
+	 * Gibt für die übergebene CustomPage ein Modell zurück, das ihre Versionen
+	 * ohne Inhalt seitenweise lädt. Ist die CustomPage {@code null}, so ist
+	 * das Modell leer.
 	 * 
 	 * @param page
 	 *            Die CustomPage, dessen Versionen aufgelistet werden sollen.
 	 * @return Versionen der CustomPage (ohne den aktuellen Zustand)
 	 */
-	public List<CustomPageHistory> getHistoryList(final CustomPage page) {
-		if (null == page) {
-			return new ArrayList<>();
-		} else if(null == histories || !page.equals(lastPage)) {
-			lastPage = page;
-			histories = new ArrayList<>();
-			histories.addAll(page.getHistories());
-			return histories;
-		} else{
-			return histories;
+	public LazyDataModel<CustomPageHistory.Info> getHistoryModel(final CustomPage page) {
+		if (null == historyModel || (null == page ? null != historyModel.page : !page.equals(historyModel.page))) {
+			historyModel = new HistoryModel(page);
 		}
+		return historyModel;
 	}
 
 	/**
@@ -693,17 +756,13 @@ public class CustomPageController extends AbstractController {
 	 * @return Die Liste aller User und Gruppen (um ein Objekt erweitert sofern
 	 *         die Vervollständigung erfolgreich war)
 	 */
-	public List<MessageReceiver> completeReceiver(final String query) {
-		List<MessageReceiver> receivers = new ArrayList<>();
-		List<MessageReceiver> result = new ArrayList<>();
-		receivers.addAll(user.getGroups());
-		receivers.addAll(userDao.getAllUsers());
-		for (MessageReceiver mr : receivers) {
-			if (mr.getDisplayName().toLowerCase().contains(query.toLowerCase())) {
-				result.add(mr);
-			}
+	public List<ReceiverIndex.Entry> completeReceiver(final String query) {
+		final Set<Integer> groupIds = new HashSet<>();
+		for (final Group group : user.getGroups()) {
+			groupIds.add(group.getId());
 		}
-		return result;
+		return receiverIndex.search(query, ReceiverIndex.SUGGESTIONS,
+				entry -> !entry.isGroup() || groupIds.contains(entry.getId()));
 	}
 
 	public void onFileClick(String file) {
@@ -731,7 +790,7 @@ public class CustomPageController extends AbstractController {
 	//+----------------+
 	
 	CustomPage selectedPage = null;
-	CustomPageHistory selectedHistory = null;
+	CustomPageHistory.Info selectedHistory = null;
 	Shareable selectedShared = null;
 	
 	public CustomPage getSelectedPage() {
@@ -742,12 +801,29 @@ public class CustomPageController extends AbstractController {
 		this.selectedPage = selectedPage;
 	}
 
-	public CustomPageHistory getSelectedHistory() {
+	public CustomPageHistory.Info getSelectedHistory() {
 		return selectedHistory;
 	}
 
-	public void setSelectedHistory(final CustomPageHistory selectedHistory) {
+	public void setSelectedHistory(final CustomPageHistory.Info selectedHistory) {
 		this.selectedHistory = selectedHistory;
+		this.selectedHistoryContent = null;
+	}
+
+	/**
+	 * Rekonstruiert den Inhalt der ausgewählten Version für die Vorschau.
+	 * 
+	 * @return Der Inhalt der ausgewählten Version oder ein leerer String, falls
+	 *         keine Version ausgewählt ist.
+	 */
+	public String getSelectedHistoryContent() {
+		if (null == selectedHistory)
+			return "";
+		if (null == selectedHistoryContent) {
+			String content = historyDao.getContent(selectedHistory.getId());
+			selectedHistoryContent = null == content ? "" : content;
+		}
+		return selectedHistoryContent;
 	}
 
 	public Shareable getSelectedShared() {
@@ -16,7 +16,8 @@ import de.unibremen.gradelog.model.Message;
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.Task;
 import de.unibremen.gradelog.model.User;
-import de.unibremen.gradelog.persistence.CustomPageDAO;
+import de.unibremen.gradelog.persistence.DashboardSummary;
+import de.unibremen.gradelog.persistence.PageViewCounter;
 import de.unibremen.gradelog.persistence.UserDAO;
 
 import de.unibremen.gradelog.util.Assertion;
@@ -50,7 +51,15 @@ public class DashboardController extends AbstractController {
 	 */
 	private final UserDAO userDAO;
 
-	private final CustomPageDAO customPageDAO;
+	/**
+	 * Die vorberechneten Daten der Widgets.
+	 */
+	private final DashboardSummary dashboardSummary;
+
+	/**
+	 * Zählt die Besuche der Seiten.
+	 */
+	private final PageViewCounter pageViews;
 
 	/**
 	 * Der aktuelle Benutzer
@@ -77,16 +86,24 @@ public class DashboardController extends AbstractController {
 	 * @param pUserDAO
 	 * 		Die {@link UserDAO} des zu erzeugenden
 	 * 		{@link DashboardController}s.
+	 * @param pDashboardSummary
+	 * 		Die {@link DashboardSummary} des zu erzeugenden
+	 * 		{@link DashboardController}s.
+	 * @param pPageViews
+	 * 		Der {@link PageViewCounter} des zu erzeugenden
+	 * 		{@link DashboardController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
 	@Inject
 	public DashboardController(final Session pSession,
 							   final UserDAO pUserDAO,
-							   final CustomPageDAO pCustomPageDAO) {
+							   final DashboardSummary pDashboardSummary,
+							   final PageViewCounter pPageViews) {
 		super(Assertion.assertNotNull(pSession));
 		userDAO = Assertion.assertNotNull(pUserDAO);
-		customPageDAO = Assertion.assertNotNull(pCustomPageDAO);
+		dashboardSummary = Assertion.assertNotNull(pDashboardSummary);
+		pageViews = Assertion.assertNotNull(pPageViews);
 	}
 
 	/**
@@ -133,43 +150,21 @@ public class DashboardController extends AbstractController {
 	 * @return Tasks
 	 */
 	public List<Task> getLastTodos() {
+		if (!user.isActivatedAllTodos())
+			return dashboardSummary.getNextTasks(user);
 		List<Task> tasks = new ArrayList<>();
 		tasks.addAll(user.getCalendar().getTasks());
 		Collections.sort(tasks);
-		if (!user.isActivatedAllTodos()) {
-			List<Task> lastTasks = new ArrayList<>();
-			Task task = new Task();
-			task.setStartTime(new java.sql.Date(new java.util.Date().getTime()));
-			int i = 0;
-			for (Task t : tasks) {
-				if (i == 5)
-					break;
-				if (t.compareTo(task) >= 0) {
-					lastTasks.add(t);
-					i++;
-				}
-			}
-			return lastTasks;
-		}
 		return tasks;
 	}
 
 	/**
-	 * Berechnet die letzten fünf empfangenen Nachrichten für einen Benutzer.
+	 * Ermittelt die letzten fünf ungelesenen Nachrichten für einen Benutzer.
 	 * 
 	 * @return Empfangene Nachrichten
 	 */
 	public List<Message> getLastMessages() {
-		List<Message> messages = new ArrayList<>();
-		messages.addAll(user.getMessages());
-		Collections.sort(messages);
-		Collections.reverse(messages);
-		List<Message> lastMessages = new ArrayList<>();
-		for (Message m : messages) {
-			if (!m.getReadStatus(user.getReceiverName()) && !m.getAuthor().equals(user.getReceiverName()))
-				lastMessages.add(m);
-		}
-		return lastMessages;
+		return dashboardSummary.getLatestUnread(user);
 	}
 
 	/**
@@ -178,19 +173,7 @@ public class DashboardController extends AbstractController {
 	 * @return Eigene Seiten
 	 */
 	public List<CustomPage> getLastCustomPages() {
-		List<CustomPage> pages = new ArrayList<>();
-		pages.addAll(customPageDAO.getOwnedByUser(user));
-		Collections.reverse(pages);
-		List<CustomPage> lastPages = new ArrayList<>();
-		int i = 5;
-		for (CustomPage cp : pages) {
-			if (i > 0)
-				lastPages.add(cp);
-			else
-				break;
-			i--;
-		}
-		return lastPages;
+		return dashboardSummary.getLatestPages(user);
 	}
 
 	/**
@@ -211,40 +194,20 @@ public class DashboardController extends AbstractController {
 		return lastPages;
 	}
 
-	/**
-	 * Ermittelt die Besucherzahlen der eigenen Seiten.
-	 * 
-	 * @return Eigene Seiten
-	 */
-	private List<CustomPage> getCountedCustomPages() {
-		List<CustomPage> pages = userDAO.getSharedPages(user);
-		Collections.sort(pages, (cp, cp2) ->
-				cp.getCounter() - cp2.getCounter());
-		List<CustomPage> countedPages = new ArrayList<>();
-		int i = 0;
-		for (CustomPage cp : pages) {
-			if (i < 5)
-				countedPages.add(cp);
-			else
-				break;
-			i++;
-		}
-		return countedPages;
-	}
-
 	/**
 	 * Erstellt anhand der besuchten eigenen Seiten ein Kuchendiagramm mit den
-	 * jeweiligen Besucherzahlen der jeweiligen Seite.
+	 * jeweiligen Besucherzahlen der jeweiligen Seite. Die noch nicht
+	 * geschriebenen Besuche werden mitgezählt.
 	 * 
 	 * @return Diagramm über Besucherzahlen der eigenen Seiten.
 	 */
 	public PieChartModel getPieModel() {
 		PieChartModel pieModel = new PieChartModel();
 		pieModel.setLegendPosition("w");
-		List<CustomPage> countedCustomPages = getCountedCustomPages();
+		List<CustomPage> countedCustomPages = dashboardSummary.getMostViewedPages(user);
 		pieModel.setTitle("empty");
 		for (CustomPage page : countedCustomPages) {
-			pieModel.set(page.getTitle(), page.getCounter());
+			pieModel.set(page.getTitle(), pageViews.getViews(page));
 			pieModel.setTitle("");
 		}
 		pieModel.setLegendPlacement(LegendPlacement.OUTSIDE);
@@ -2,7 +2,7 @@ package de.unibremen.gradelog.controller;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
-import java.io.FileOutputStream;
+import java.io.InputStream;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Calendar;
@@ -12,7 +12,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Set;
 import java.util.TimeZone;
-import java.util.UUID;
 
 import javax.annotation.PostConstruct;
 import javax.faces.context.FacesContext;
@@ -33,6 +32,7 @@ import de.unibremen.gradelog.exception.DuplicateUsernameException;
 import de.unibremen.gradelog.model.File;
 import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.persistence.FileDAO;
+import de.unibremen.gradelog.persistence.FileStore;
 import de.unibremen.gradelog.persistence.UserDAO;
 
 /**
@@ -48,11 +48,6 @@ public class FileController extends AbstractController {
 	 */
 	private static final long serialVersionUID = 7399431776339532745L;
 
-	/**
-	 * Dateipfad für hochzuladene Dateien
-	 */
-	private String filePath;
-
 	/**
 	 * Datei, die beschrieben wird, sollte der Nutzer eine neue Datei hochladen
 	 */
@@ -70,6 +65,10 @@ public class FileController extends AbstractController {
 	 * DAO, die für die Persistenz von Nutzern verantwortlich ist.
 	 */
 	private final UserDAO userDao;
+	/**
+	 * Speicher, in dem die Inhalte der Dateien abgelegt werden.
+	 */
+	private final FileStore fileStore;
 
 	/**
 	 * Nutzer, der diese Seite derzeit benutzt.
@@ -82,7 +81,7 @@ public class FileController extends AbstractController {
 
 	/**
 	 * Erzeugt einen {@link FileController} mit definierter {@link Session},
-	 * {@link FileDAO} und {@link UserDAO}.
+	 * {@link FileDAO}, {@link UserDAO} und {@link FileStore}.
 	 *
 	 * @param pSession
 	 *            Die {@link Session} des zu erzeugenden
@@ -93,27 +92,30 @@ public class FileController extends AbstractController {
 	 * @param pUserDao
 	 *            Die {@link UserDAO} des zu erzeugenden
 	 *            {@link FileController}s.
+	 * @param pFileStore
+	 *            Der {@link FileStore} des zu erzeugenden
+	 *            {@link FileController}s.
 	 * @throws IllegalArgumentException
 	 *             Falls einer der übergebenen Parameter {@code null} ist.
 	 */
 	@Inject
-	public FileController(final Session pSession, final FileDAO pFileDao, final UserDAO pUserDao) {
+	public FileController(final Session pSession, final FileDAO pFileDao, final UserDAO pUserDao,
+			final FileStore pFileStore) {
 		super(Assertion.assertNotNull(pSession));
 		fileDao = Assertion.assertNotNull(pFileDao);
 		userDao = Assertion.assertNotNull(pUserDao);
+		fileStore = Assertion.assertNotNull(pFileStore);
 	}
 
 	/**
 	 * Diese Methode wird von JSF automatisch aufgerufen, sobald diese Bean als
 	 * eingebunden deklariert wird. Sie bereitet die Benutzung der Seite durch
-	 * den User vor, indem sie den Dateipfad für die Dateien generiert, sowie
-	 * eine neue Datei, die der Nutzer manipuliert, sollte er eine Datei
-	 * hochladen. Außerdem wird hier files initialisiert.
+	 * den User vor, indem sie eine neue Datei erzeugt, die der Nutzer
+	 * manipuliert, sollte er eine Datei hochladen. Außerdem wird hier files
+	 * initialisiert.
 	 **/
 	@PostConstruct
 	public void init() {
-		filePath = FacesContext.getCurrentInstance().getExternalContext().getRealPath("/");
-		filePath += "resources/pdf/";
 		user = getSession().getUser();
 		file = new File();
 		files = new ArrayList<>(user.getFiles());
@@ -140,8 +142,9 @@ public class FileController extends AbstractController {
 	 * Lädt ein neue Datei hoch. Dabei wird kontrolliert, ob der Nutzer dazu
 	 * berechtigt ist. Danach wird sich das UploadedFile von Primefaces geholt,
 	 * sodass die Daten der Datei auf ein neues Objekt der Klasse {link File}
-	 * gesetzt werden können. Danach wird der Inhalt der hochgeladenen Datei in
-	 * das Objekt geschrieben.
+	 * gesetzt werden können. Der Inhalt der hochgeladenen Datei wird dabei
+	 * ohne vollständige Pufferung in den {@link FileStore} geschrieben; das
+	 * Objekt verweist nur über den Hash darauf.
 	 * 
 	 * Sobald der Upload durchgeführt wurde, wird init() aufgerufen, um die
 	 * Seite in den Ursprungszustand zurückzuversetzen.
@@ -164,23 +167,16 @@ public class FileController extends AbstractController {
 			return;
 		}
 		try {
-			java.io.File checkFile = null;
-			String dataEnd="";
-			String generatedId="";
-			while (checkFile == null || checkFile.exists()) {
-				generatedId = UUID.randomUUID().toString();
-				String[] splitter = uploadedFile.getFileName().split("\\.");
-				dataEnd = "." + splitter[splitter.length - 1];
-				checkFile = new java.io.File(filePath + generatedId + dataEnd);
+			final String hash;
+			try (InputStream in = uploadedFile.getInputstream()) {
+				hash = fileStore.store(in);
 			}
-			FileOutputStream fos = new FileOutputStream(filePath + generatedId + dataEnd);
-			fos.write(uploadedFile.getContents());
-			fos.close();
 			file.setUser(user);
 			file.setFile(uploadedFile);
-			file.setName(generatedId + dataEnd);
-			file.setContent(uploadedFile.getContents());
-			file.setPath(filePath);
+			file.setName(uploadedFile.getFileName());
+			file.setHash(hash);
+			file.setSize(uploadedFile.getSize());
+			file.setContentType(uploadedFile.getContentType());
 			file.setDate(Calendar.getInstance(TimeZone.getTimeZone("CEST"), Locale.GERMANY).getTime());
 			user.addFile(file);
 
@@ -208,7 +204,10 @@ public class FileController extends AbstractController {
 
 	/**
 	 * Löscht die vom Nutzer ausgewählte Datei. Dabei wird die Datei aus dem
-	 * User entfernt und der entsprechende Datenbankeintrag gelöscht.
+	 * User entfernt und der entsprechende Datenbankeintrag gelöscht. Der
+	 * Inhalt bleibt im {@link FileStore}, bis
+	 * {@link de.unibremen.gradelog.persistence.FileStoreCollector} ihn
+	 * entfernt.
 	 */
 	public void delete() {
 		Logger logger = getLogger();
@@ -228,13 +227,12 @@ public class FileController extends AbstractController {
 		} catch (final DuplicateEmailException e) {
 			addMessageWithLogging(e, logger, Level.DEBUG, "errorEmailAlreadyInUse", user.getEmail());
 		}
-		java.io.File deleteFile = new java.io.File(selectedFile.getPath() + selectedFile.getName());
-		deleteFile.delete();
 		addMessage("successFileDelete");
 	}
 
 	/**
-	 * Generiert den Link zu der angegebenen Datei.
+	 * Generiert den Link zu der angegebenen Datei, die über das
+	 * {@link FileDownloadServlet} ausgeliefert wird.
 	 * 
 	 * @param file
 	 *            die Datei, dessen Dateipfad generiert werden soll.
@@ -243,15 +241,8 @@ public class FileController extends AbstractController {
 	public String generateLink(File file) {
 		HttpServletRequest requestObj = (HttpServletRequest) FacesContext.getCurrentInstance().getExternalContext()
 				.getRequest();
-		String result = getBaseUrl(requestObj);
-		try {
-			assertNotNull(file);
-			assertNotNull(file.fileExists() ? file : null);
-			result += "/gradelog/resources/pdf/" + file.getName();
-		} catch (IllegalArgumentException e) {
-			result += "/gradelog/resources/pdf/ERROR_FILE_NOT_FOUND.pdf";
-		}
-		return result;
+		return getBaseUrl(requestObj) + requestObj.getContextPath() + FileDownloadServlet.PATH
+				+ assertNotNull(file).getToken();
 	}
 
 	public User getUser() {
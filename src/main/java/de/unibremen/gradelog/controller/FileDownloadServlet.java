@@ -0,0 +1,170 @@
+package de.unibremen.gradelog.controller;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+import javax.inject.Inject;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import de.unibremen.gradelog.model.File;
+import de.unibremen.gradelog.model.Session;
+import de.unibremen.gradelog.persistence.FileDAO;
+import de.unibremen.gradelog.persistence.FileStore;
+import de.unibremen.gradelog.util.ByteRange;
+
+/**
+ * Liefert hochgeladene Dateien unter {@value #PATH}{@code <token>} direkt aus dem
+ * {@link FileStore} aus. Da sich der Inhalt einer Datei nie ändert, dient sein
+ * Hash als {@code ETag}; unveränderte Dateien werden mit {@code 304}
+ * beantwortet. Über {@code Range} können Teile einer Datei angefordert werden,
+ * z. B. zum Fortsetzen eines Downloads oder von PDF-Betrachtern. Der Inhalt
+ * wird per {@link FileChannel#transferTo(long, long, WritableByteChannel)}
+ * übertragen, ohne ihn vollständig in den Speicher zu lesen.
+ *
+ * Dateien können nur von eingeloggten Benutzern abgerufen werden. Da Links
+ * auf Dateien in Nachrichten und Seiten geteilt werden, wird eine Datei über
+ * ihr zufälliges Token (vgl. {@link File#getToken()}) und nicht über ihre
+ * fortlaufende Id adressiert, sodass nur Empfänger eines Links sie abrufen
+ * können.
+ *
+ * @author Marco Glander
+ */
+@WebServlet(FileDownloadServlet.PATH + "*")
+public class FileDownloadServlet extends HttpServlet {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -2183571032410938513L;
+
+	/**
+	 * Pfad, unter dem die Dateien abgerufen werden
+	 */
+	public static final String PATH = "/files/";
+
+	/**
+	 * Gültige Tokens
+	 */
+	private static final Pattern TOKEN = Pattern.compile("[0-9a-f-]{36}");
+
+	/**
+	 * Die Session des anfragenden Benutzers
+	 */
+	@Inject
+	private Session session;
+
+	/**
+	 * DAO, die für die Persistenz von Dateien verantwortlich ist.
+	 */
+	@Inject
+	private FileDAO fileDao;
+
+	/**
+	 * Speicher, in dem die Inhalte der Dateien abgelegt sind.
+	 */
+	@Inject
+	private FileStore fileStore;
+
+	@Override
+	protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+			throws ServletException, IOException {
+		if (!session.isLoggedIn()) {
+			response.sendError(HttpServletResponse.SC_FORBIDDEN);
+			return;
+		}
+		final File file = findFile(request.getPathInfo());
+		final Path path = file == null ? null : fileStore.resolve(file.getHash());
+		if (path == null) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		final String etag = '"' + file.getHash() + '"';
+		response.setHeader("ETag", etag);
+		response.setHeader("Accept-Ranges", "bytes");
+		response.setHeader("Cache-Control", "private, max-age=86400");
+		if (matches(request.getHeader("If-None-Match"), etag)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		final long length = Files.size(path);
+		final String ifRange = request.getHeader("If-Range");
+		ByteRange range = ifRange == null || ifRange.equals(etag) ? ByteRange.parse(request.getHeader("Range"), length)
+				: null;
+		if (range != null && !range.isSatisfiable()) {
+			response.setHeader("Content-Range", range.toContentRange(length));
+			response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+			return;
+		}
+		if (range == null) {
+			range = ByteRange.full(length);
+		} else {
+			response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+			response.setHeader("Content-Range", range.toContentRange(length));
+		}
+
+		response.setContentType(contentType(file));
+		response.setHeader("Content-Disposition", "inline; filename*=UTF-8''" + encode(file.getShowName()));
+		response.setContentLengthLong(range.getLength());
+		if ("HEAD".equals(request.getMethod()) || range.getLength() <= 0)
+			return;
+
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+			long position = range.getStart();
+			long remaining = range.getLength();
+			while (remaining > 0) {
+				final long sent = channel.transferTo(position, remaining, out);
+				if (sent <= 0)
+					break;
+				position += sent;
+				remaining -= sent;
+			}
+		}
+	}
+
+	private File findFile(final String pathInfo) {
+		if (pathInfo == null || pathInfo.isEmpty() || !TOKEN.matcher(pathInfo.substring(1)).matches())
+			return null;
+		return fileDao.getByToken(pathInfo.substring(1));
+	}
+
+	private String contentType(final File file) {
+		if (file.getContentType() != null)
+			return file.getContentType();
+		final String guessed = getServletContext().getMimeType(file.getShowName());
+		return guessed == null ? "application/octet-stream" : guessed;
+	}
+
+	/**
+	 * Prüft, ob einer der im {@code If-None-Match}-Header angegebenen Tags
+	 * {@code etag} entspricht.
+	 */
+	static boolean matches(final String ifNoneMatch, final String etag) {
+		if (ifNoneMatch == null)
+			return false;
+		for (final String candidate : ifNoneMatch.split(",")) {
+			final String tag = candidate.trim();
+			if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag))
+				return true;
+		}
+		return false;
+	}
+
+	private static String encode(final String name) throws UnsupportedEncodingException {
+		return URLEncoder.encode(name == null ? "download" : name, "UTF-8").replace("+", "%20");
+	}
+}
@@ -22,6 +22,7 @@ import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.persistence.GroupDAO;
 import de.unibremen.gradelog.persistence.GroupInviteDAO;
+import de.unibremen.gradelog.persistence.ReceiverIndex;
 import de.unibremen.gradelog.persistence.UserDAO;
 import de.unibremen.gradelog.persistence.CustomPageDAO;
 import de.unibremen.gradelog.util.Assertion;
@@ -66,6 +67,10 @@ public class GroupController extends AbstractController {
 	 * Gruppeneinladung-Objekte übernimmt.
 	 */
 	private final GroupInviteDAO groupInviteDao;
+	/**
+	 * Suchindex für die Autovervollständigung der Benutzer
+	 */
+	private final ReceiverIndex receiverIndex;
 	/**
 	 * Das Data-Access-Objekt, das die Verwaltung der Persistierung für
 	 * CustomPage-Objekte übernimmt.
@@ -82,8 +87,8 @@ public class GroupController extends AbstractController {
 
 	/**
 	 * Erzeugt einen {@link GroupController} mit definierter {@link Session},
-	 * {@link GroupDAO}, {@link UserDAO}, {@link GroupInviteDAO} und
-	 * {@link CustomPageDAO}.
+	 * {@link GroupDAO}, {@link UserDAO}, {@link GroupInviteDAO},
+	 * {@link CustomPageDAO} und {@link ReceiverIndex}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erzeugenden {@link GroupController}s.
@@ -97,6 +102,9 @@ public class GroupController extends AbstractController {
 	 * @param pCustomPageDao
 	 * 		Die {@link CustomPageDAO} des zu erzeugenden
 	 * 		{@link GroupController}s.
+	 * @param pReceiverIndex
+	 * 		Der {@link ReceiverIndex} des zu erzeugenden
+	 * 		{@link GroupController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
@@ -105,12 +113,14 @@ public class GroupController extends AbstractController {
 						   final GroupDAO pGroupDao,
 						   final UserDAO pUserDao,
 						   final GroupInviteDAO pGroupInviteDao,
-						   final CustomPageDAO pCustomPageDao) {
+						   final CustomPageDAO pCustomPageDao,
+						   final ReceiverIndex pReceiverIndex) {
 		super(Assertion.assertNotNull(pSession));
 		groupDao = Assertion.assertNotNull(pGroupDao);
 		userDao = Assertion.assertNotNull(pUserDao);
 		groupInviteDao = Assertion.assertNotNull(pGroupInviteDao);
 		customPageDao = Assertion.assertNotNull(pCustomPageDao);
+		receiverIndex = Assertion.assertNotNull(pReceiverIndex);
 	}
 
 	/**
@@ -366,24 +376,19 @@ public class GroupController extends AbstractController {
 	 * @param query
 	 * @return
 	 */
-	public List<User> completeUsers(String query) {
-		List<User> allUsers = userDao.getAllUsers();
-		List<User> filteredUsers = new ArrayList<>();
-
-		for (final User user : allUsers) {
-			if (user.equals(getSession().getUser())) {
-				continue;
-			}
-
-			if (user.getDisplayName().toLowerCase().contains(query.toLowerCase())) {
-				if (!(user.getGroups().contains(getSelectedGroup())
-						|| user.getInvites().contains(getSelectedGroupInvite()))) {
-					filteredUsers.add(user);
-				}
+	public List<ReceiverIndex.Entry> completeUsers(String query) {
+		final Set<Integer> excluded = new HashSet<>();
+		excluded.add(getSession().getUser().getId());
+		if (getSelectedGroup() != null) {
+			for (final User member : getSelectedGroup().getUsers()) {
+				excluded.add(member.getId());
 			}
 		}
-
-		return filteredUsers;
+		if (getSelectedGroupInvite() != null && getSelectedGroupInvite().getUser() != null) {
+			excluded.add(getSelectedGroupInvite().getUser().getId());
+		}
+		return receiverIndex.search(query, ReceiverIndex.SUGGESTIONS,
+				entry -> !entry.isGroup() && !excluded.contains(entry.getId()));
 	}
 
 	public void setReturnedUsers(List<String> returnedUsers) {
@@ -0,0 +1,186 @@
+package de.unibremen.gradelog.controller;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.util.function.Supplier;
+
+import javax.inject.Inject;
+import javax.servlet.ServletException;
+import javax.servlet.annotation.WebServlet;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import de.unibremen.gradelog.model.Session;
+import de.unibremen.gradelog.model.User;
+import de.unibremen.gradelog.persistence.ImageCache;
+import de.unibremen.gradelog.persistence.ImageCache.Variant;
+import de.unibremen.gradelog.persistence.MissingDAO;
+import de.unibremen.gradelog.persistence.UserDAO;
+
+/**
+ * Liefert Profilbilder unter {@value #PATH}{@code profile/<profilId>/<variante>}
+ * und Bilder von Fehlzeiten unter
+ * {@value #PATH}{@code missing/<fehlzeitId>/<variante>} aus, wobei die
+ * Variante {@code 48}, {@code 128}, {@code 256} oder {@code original} ist
+ * (vgl. {@link ImageCache.Variant}). Gibt es kein Bild, wird ein Platzhalter
+ * ausgeliefert.
+ *
+ * Die Seiten hängen die Version des Bildes als Parameter {@code v} an. Stimmt
+ * sie mit der aktuellen überein, darf der Browser das Bild dauerhaft
+ * zwischenspeichern; andernfalls muss er es über das {@code ETag} erneut
+ * prüfen.
+ *
+ * @author Marco Glander
+ */
+@WebServlet(ImageServlet.PATH + "*")
+public class ImageServlet extends HttpServlet {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = 6103837461235517302L;
+
+	/**
+	 * Pfad, unter dem die Bilder abgerufen werden
+	 */
+	public static final String PATH = "/images/";
+
+	/**
+	 * Platzhalter für Fehlzeiten ohne Bild
+	 */
+	private static final String MISSING_PLACEHOLDER = "placeholder";
+
+	/**
+	 * Die Session des anfragenden Benutzers
+	 */
+	@Inject
+	private Session session;
+
+	/**
+	 * DAO, die für die Persistenz von Nutzern und ihren Profilen
+	 * verantwortlich ist.
+	 */
+	@Inject
+	private UserDAO userDao;
+
+	/**
+	 * DAO, die für die Persistenz von Fehlzeiten verantwortlich ist.
+	 */
+	@Inject
+	private MissingDAO missingDao;
+
+	/**
+	 * Die zwischengespeicherten Varianten der Bilder
+	 */
+	@Inject
+	private ImageCache imageCache;
+
+	/**
+	 * Kodiert die Platzhalter einmalig.
+	 */
+	@Override
+	public void init() throws ServletException {
+		try {
+			imageCache.registerPlaceholder("male", readResource("/resources/img/profile/male.jpg"));
+			imageCache.registerPlaceholder("female", readResource("/resources/img/profile/female.jpg"));
+			imageCache.registerPlaceholder(MISSING_PLACEHOLDER,
+					readResource("/resources/img/placeholder/placeholder.jpeg"));
+		} catch (final IOException e) {
+			throw new ServletException("Could not load the image placeholders!", e);
+		}
+	}
+
+	@Override
+	protected void doGet(final HttpServletRequest request, final HttpServletResponse response)
+			throws ServletException, IOException {
+		final User viewer = session.getUser();
+		if (viewer == null) {
+			response.sendError(HttpServletResponse.SC_FORBIDDEN);
+			return;
+		}
+		final String[] path = request.getPathInfo() == null ? new String[0] : request.getPathInfo().split("/");
+		final Variant variant = path.length == 4 ? Variant.forName(path[3]) : null;
+		final int id;
+		try {
+			id = path.length == 4 ? Integer.parseInt(path[2]) : -1;
+		} catch (final NumberFormatException e) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+		if (variant == null || id < 0) {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		final String key;
+		final int version;
+		final Supplier<byte[]> source;
+		final String placeholder;
+		if ("profile".equals(path[1])) {
+			final Object[] info = userDao.getPictureInfo(id);
+			if (info == null) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			version = (Integer) info[0];
+			placeholder = "female".equals(info[1]) ? "female" : "male";
+			if ((Boolean) info[2] && !Integer.valueOf(viewer.getId()).equals(info[3])
+					&& viewer.getRole() != User.Roles.ADMIN) {
+				response.sendError(HttpServletResponse.SC_FORBIDDEN);
+				return;
+			}
+			key = String.format("profile-%d-v%d-%s", id, version, placeholder);
+			source = () -> userDao.getPicture(id);
+		} else if ("missing".equals(path[1])) {
+			final Object[] info = missingDao.getImageInfo(id);
+			if (info == null) {
+				response.sendError(HttpServletResponse.SC_NOT_FOUND);
+				return;
+			}
+			if (!Integer.valueOf(viewer.getId()).equals(info[1]) && viewer.getRole() == User.Roles.STUDENT) {
+				response.sendError(HttpServletResponse.SC_FORBIDDEN);
+				return;
+			}
+			version = (Integer) info[0];
+			placeholder = MISSING_PLACEHOLDER;
+			key = String.format("missing-%d-v%d", id, version);
+			source = () -> missingDao.getImage(id);
+		} else {
+			response.sendError(HttpServletResponse.SC_NOT_FOUND);
+			return;
+		}
+
+		final String etag = '"' + key + '-' + variant.getName() + '"';
+		response.setHeader("ETag", etag);
+		response.setHeader("Cache-Control", String.valueOf(version).equals(request.getParameter("v"))
+				? "private, max-age=31536000, immutable" : "private, no-cache");
+		if (FileDownloadServlet.matches(request.getHeader("If-None-Match"), etag)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+
+		final byte[] image = imageCache.get(key, variant, source, placeholder);
+		final String contentType = URLConnection.guessContentTypeFromStream(new ByteArrayInputStream(image));
+		response.setContentType(contentType == null ? "image/jpeg" : contentType);
+		response.setContentLength(image.length);
+		response.getOutputStream().write(image);
+	}
+
+	private byte[] readResource(final String name) throws IOException {
+		try (InputStream in = getServletContext().getResourceAsStream(name)) {
+			if (in == null)
+				throw new IOException("Missing resource " + name);
+			final ByteArrayOutputStream out = new ByteArrayOutputStream();
+			final byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				out.write(buffer, 0, read);
+			}
+			return out.toByteArray();
+		}
+	}
+}
@@ -14,8 +14,6 @@ import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
 
 import de.unibremen.gradelog.util.Crypt;
-import de.unibremen.gradelog.exception.DuplicateEmailException;
-import de.unibremen.gradelog.exception.DuplicateUsernameException;
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.persistence.UserDAO;
@@ -109,14 +107,6 @@ public class LoginController extends AbstractController {
 			return null;
 		}
 		if (registeredUser.getPassword().equals(password)) {
-			registeredUser.setOnline(true);
-			try {
-				userDAO.update(registeredUser);
-			} catch (DuplicateUsernameException e) {
-				addMessageWithLogging(e, logger, Level.DEBUG, "errorUsernameAlreadyInUse");
-			} catch (DuplicateEmailException e) {
-				addMessageWithLogging(e, logger, Level.DEBUG, "errorEmailAlreadyInUse");
-			}
 			setUser(registeredUser);
 			session.setLoginTime(LocalDateTime.now());
 			if (logger.isInfoEnabled()) {
@@ -149,14 +139,6 @@ public class LoginController extends AbstractController {
 			User user = getSession().getUser();
 			if (logger.isInfoEnabled())
 				logger.info(String.format("User %s logged out.", user.getLogin()));
-			user.setOnline(false);
-			try {
-				userDAO.update(user);
-			} catch (DuplicateUsernameException e) {
-				addMessageWithLogging(e, logger, Level.DEBUG, "errorUsernameAlreadyInUse");
-			} catch (DuplicateEmailException e) {
-				addMessageWithLogging(e, logger, Level.DEBUG, "errorEmailAlreadyInUse");
-			}
 			setInvalidateSession();
 			return "/scheduler/index.xhtml?faces-redirect=true";
 		}
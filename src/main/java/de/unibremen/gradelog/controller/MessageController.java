@@ -2,8 +2,9 @@ package de.unibremen.gradelog.controller;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Date;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
@@ -17,15 +18,17 @@ import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.util.Assertion;
 import org.apache.log4j.Level;
 
-import de.unibremen.gradelog.exception.DuplicateEmailException;
-import de.unibremen.gradelog.exception.DuplicateUsernameException;
+import de.unibremen.gradelog.model.DeliveryProgress;
+import de.unibremen.gradelog.model.Group;
 import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.persistence.UserDAO;
 
 import de.unibremen.gradelog.model.Message;
-import de.unibremen.gradelog.model.MessageReceiver;
-import de.unibremen.gradelog.persistence.GroupDAO;
+import de.unibremen.gradelog.model.MessageDataModel;
 import de.unibremen.gradelog.persistence.MessageDAO;
+import de.unibremen.gradelog.persistence.MessageDAO.Mailbox;
+import de.unibremen.gradelog.persistence.MessageDispatcher;
+import de.unibremen.gradelog.persistence.ReceiverIndex;
 
 /**
  * Diese Bean kümmert sich um die Message-Komponente dieser Applikation. Sie ist
@@ -56,13 +59,22 @@ public class MessageController extends AbstractController {
 	 */
 	private List<String> selectedReceivers;
 	/**
-	 * Alle Nutzer der Applikation
+	 * Seitenweise geladener Posteingang des Nutzers
 	 */
-	private List<User> allUsers;
+	private MessageDataModel inbox;
 	/**
-	 * Alle Nachrichten des Nutzers, der diese Seite verwendet.
+	 * Erster Tag, ab dem der Posteingang angezeigt wird, oder {@code null}
 	 */
-	private List<Message> allMessages;
+	private Date inboxFrom;
+	/**
+	 * Letzter Tag, bis zu dem der Posteingang angezeigt wird, oder
+	 * {@code null}
+	 */
+	private Date inboxTo;
+	/**
+	 * Seitenweise geladener Postausgang des Nutzers
+	 */
+	private MessageDataModel outbox;
 	/**
 	 * User, der die aktuelle Seite verwendet.
 	 */
@@ -81,13 +93,31 @@ public class MessageController extends AbstractController {
 	 */
 	private final UserDAO userDao;
 	/**
-	 * DAO für die Persistenz von Gruppen
+	 * Stellt Nachrichten im Hintergrund an die Empfänger zu
 	 */
-	private final GroupDAO groupDao;
+	private final MessageDispatcher messageDispatcher;
+	/**
+	 * Suchindex für die Autovervollständigung der Empfänger
+	 */
+	private final ReceiverIndex receiverIndex;
+	/**
+	 * Fortschritt der zuletzt abgeschickten Nachricht
+	 */
+	private DeliveryProgress deliveryProgress;
+	/**
+	 * Anzahl der ungelesenen Nachrichten des Nutzers. Wird einmal je View
+	 * ermittelt, da der Header sie mehrfach abfragt.
+	 */
+	private Integer unreadCount;
+	/**
+	 * Ids der für den Nutzer ungelesenen Nachrichten.
+	 */
+	private Set<Integer> unreadMessageIds;
 
 	/**
 	 * Erzeugt einen {@link MessageController} mit definierter {@link Session},
-	 * {@link MessageDAO}, {@link UserDAO} und {@link GroupDAO}.
+	 * {@link MessageDAO}, {@link UserDAO}, {@link MessageDispatcher} und
+	 * {@link ReceiverIndex}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erzeugenden {@link MessageController}s.
@@ -96,8 +126,12 @@ public class MessageController extends AbstractController {
 	 *		{@link MessageController}s.
 	 * @param pUserDao
 	 * 		Die {@link UserDAO} des zu erzeugenden {@link MessageController}s.
-	 * @param pGroupDao
-	 * 		Die {@link GroupDAO} des zu erzeugenden {@link MessageController}s.
+	 * @param pMessageDispatcher
+	 * 		Der {@link MessageDispatcher} des zu erzeugenden
+	 * 		{@link MessageController}s.
+	 * @param pReceiverIndex
+	 * 		Der {@link ReceiverIndex} des zu erzeugenden
+	 * 		{@link MessageController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
@@ -105,11 +139,13 @@ public class MessageController extends AbstractController {
 	public MessageController(final Session pSession,
 							 final MessageDAO pMessageDao,
 							 final UserDAO pUserDao,
-							 final GroupDAO pGroupDao) {
+							 final MessageDispatcher pMessageDispatcher,
+							 final ReceiverIndex pReceiverIndex) {
 		super(Assertion.assertNotNull(pSession));
 		messageDao = Assertion.assertNotNull(pMessageDao);
 		userDao = Assertion.assertNotNull(pUserDao);
-		groupDao = Assertion.assertNotNull(pGroupDao);
+		messageDispatcher = Assertion.assertNotNull(pMessageDispatcher);
+		receiverIndex = Assertion.assertNotNull(pReceiverIndex);
 	}
 
 	/**
@@ -123,19 +159,17 @@ public class MessageController extends AbstractController {
 	public void init() {
 		message = new Message();
 		user = getSession().getUser();
-		allMessages = new ArrayList<>();
-		allMessages.addAll(getSession().getUser().getMessages());
-		for (Message m : allMessages) {
-			messageDao.update(m);
-		}
-		Collections.sort(allMessages);
-		allUsers = userDao.getAllUsers();
+		inbox = null;
+		outbox = null;
 		selectedReceivers = new ArrayList<>();
 	}
 
 	/**
-	 * Schreibt die Attributswerte dieses Models per DAO in die Datenbank.
-	 * Außerdem wird die Nachricht an alle ausgewählten Empfänger verschickt.
+	 * Schreibt die Attributswerte dieses Models per DAO in die Datenbank und
+	 * legt sie im Postausgang des Nutzers ab. Die Zustellung an alle
+	 * ausgewählten Empfänger läuft im Hintergrund über den
+	 * {@link MessageDispatcher}; ihr Fortschritt kann über
+	 * {@link #getDeliveryProgress()} abgefragt werden.
 	 */
 	public void save() {
 		if (!isLoggedIn()) {
@@ -156,30 +190,9 @@ public class MessageController extends AbstractController {
 		message.setAuthor(user.getEmail());
 		message.setReceivers(new HashSet<>(selectedReceivers));
 		messageDao.create(message);
-		user.addMessage(message);
-		for (String parse : selectedReceivers) {
-			MessageReceiver found = userDao.getUserByEmail(parse);
-			if (found == null)
-				found = groupDao.getGroupByName(parse);
-			for (User u : found.getUserSet()) {
-				u.addMessage(message);
-
-				try {
-					userDao.update(u);
-				} catch (DuplicateUsernameException e) {
-					e.printStackTrace();
-				} catch (DuplicateEmailException e) {
-					e.printStackTrace();
-				}
-			}
-		}
-		try {
-			userDao.update(user);
-		} catch (DuplicateUsernameException e) {
-			e.printStackTrace();
-		} catch (DuplicateEmailException e) {
-			e.printStackTrace();
-		}
+		messageDao.addAuthorReceipt(message, user);
+		deliveryProgress = new DeliveryProgress();
+		messageDispatcher.deliver(message, user.getId(), new ArrayList<>(selectedReceivers), deliveryProgress);
 		addMessage("successMessageSaved");
 		init();
 	}
@@ -191,23 +204,37 @@ public class MessageController extends AbstractController {
 	 *            die Nachricht, die als gelesen markiert werden soll
 	 */
 	public void confirmRead(Message m) {
-		m.confirmRead(user.getReceiverName());
-		messageDao.update(m);
+		messageDao.confirmRead(m, user);
+		if (unreadMessageIds != null)
+			unreadMessageIds.remove(m.getId());
+		unreadCount = null;
 	}
 
 	/**
 	 * Gibt die Anzahl der ungelesenen Nachrichten des aktiven Nutzers zurück.
+	 * Der Wert wird über eine einzige Zählabfrage ermittelt und bis zur
+	 * nächsten Änderung des Lesestatus innerhalb dieser View zwischengespeichert.
 	 * 
 	 * @return Anzahl ungelesene Nachrichten
 	 */
 	public int checkUnread() {
-		Set<Message> messages = user.getMessages();
-		int count = 0;
-		for (Message m : messages) {
-			if (!m.getAuthor().equals(user.getReceiverName()) && !m.getReadStatus(user.getReceiverName()))
-				count++;
-		}
-		return count;
+		if (unreadCount == null)
+			unreadCount = messageDao.getUnreadCount(user);
+		return unreadCount;
+	}
+
+	/**
+	 * Gibt an, ob der aktive Nutzer die übergebene Nachricht bereits gelesen
+	 * hat. Eigene Nachrichten gelten stets als gelesen.
+	 * 
+	 * @param m
+	 *            die zu prüfende Nachricht
+	 * @return {@code true}, falls die Nachricht gelesen wurde
+	 */
+	public boolean isRead(Message m) {
+		if (unreadMessageIds == null)
+			unreadMessageIds = messageDao.getUnreadMessageIds(user);
+		return !unreadMessageIds.contains(m.getId());
 	}
 
 	/**
@@ -222,17 +249,14 @@ public class MessageController extends AbstractController {
 			getLogger().info("Session without user tried to save message values!");
 			return;
 		}
-		user.getMessages().remove(message);
-		try {
-			userDao.update(user);
-			addMessage("messageDeleted");
-		} catch (final DuplicateUsernameException e) {
-			addMessageWithLogging("registerUserForm:username", e, getLogger(), Level.DEBUG, "errorUsernameAlreadyInUse",
-					getSession().getUser().getLogin());
-		} catch (final DuplicateEmailException e) {
-			addMessageWithLogging("registerUserForm:email", e, getLogger(), Level.DEBUG, "errorEmailAlreadyInUse",
-					getSession().getUser().getEmail());
-		}
+		messageDao.removeReceipt(message, user);
+		unreadCount = null;
+		unreadMessageIds = null;
+		if (inbox != null)
+			inbox.reset();
+		if (outbox != null)
+			outbox.reset();
+		addMessage("messageDeleted");
 	}
 
 	public void save(Message m) {
@@ -292,41 +316,64 @@ public class MessageController extends AbstractController {
 		}
 	}
 
-	public List<Message> getMessages() {
-		return allMessages;
-
-	}
-
 	/**
-	 * Gibt alle gesendeten Nachrichten des Nutzers zurück
+	 * Gibt die gesendeten Nachrichten des Nutzers als seitenweise ladendes
+	 * Model zurück.
 	 * 
 	 * @return gesendete Nachrichten des Nutzers
 	 */
-	public List<Message> getSentMessages() {
-		List<Message> result = new ArrayList<>();
-		for (Message m : allMessages) {
-			if (!m.getReceivers().contains(user.getReceiverName()))
-				result.add(m);
-		}
-		return result;
+	public MessageDataModel getOutbox() {
+		if (outbox == null)
+			outbox = new MessageDataModel(messageDao, Mailbox.OUTBOX, user);
+		return outbox;
+	}
 
+	/**
+	 * Gibt die empfangenen Nachrichten des Nutzers als seitenweise ladendes
+	 * Model zurück.
+	 * 
+	 * @return empfangene Nachrichten des Nutzers
+	 */
+	public MessageDataModel getInbox() {
+		if (inbox == null)
+			inbox = new MessageDataModel(messageDao, Mailbox.INBOX, user);
+		return inbox;
 	}
 
 	/**
-	 * Gibt alle empfangenen Nachrichten des Nutzers zurück
+	 * Gibt den Fortschritt der Zustellung der zuletzt in dieser View
+	 * abgeschickten Nachricht zurück.
 	 * 
-	 * @return Liste aller empfangenen Nachrichten
+	 * @return Fortschritt oder {@code null}, falls noch nichts verschickt wurde
 	 */
-	public List<Message> getReceivedMessages() {
-		List<Message> result = new ArrayList<>();
-		for (Message m : allMessages) {
-			if (!m.getAuthor().equals(user.getReceiverName())) {
-				result.add(m);
-			}
+	public DeliveryProgress getDeliveryProgress() {
+		return deliveryProgress;
+	}
 
-		}
-		return result;
+	/**
+	 * Beschränkt den Posteingang auf die Nachrichten, die zwischen
+	 * {@link #getInboxFrom()} und einschließlich {@link #getInboxTo()}
+	 * empfangen wurden. Ohne Grenzen werden wieder alle Nachrichten angezeigt.
+	 */
+	public void filterInbox() {
+		final Date to = inboxTo == null ? null : Date.from(inboxTo.toInstant().plus(1, ChronoUnit.DAYS));
+		getInbox().setDateRange(inboxFrom, to);
+	}
+
+	public Date getInboxFrom() {
+		return inboxFrom;
+	}
+
+	public void setInboxFrom(final Date inboxFrom) {
+		this.inboxFrom = inboxFrom;
+	}
+
+	public Date getInboxTo() {
+		return inboxTo;
+	}
 
+	public void setInboxTo(final Date inboxTo) {
+		this.inboxTo = inboxTo;
 	}
 
 	public Message getMessage() {
@@ -341,37 +388,21 @@ public class MessageController extends AbstractController {
 		this.selectedReceivers = selectedReceivers;
 	}
 
-	/**
-	 * Gibt eine anzuzeigende Liste mit allen innerhalb der Applikation
-	 * bekannten Benutzern zurück. Diese Liste ist keine Kopie, sondern Teil des
-	 * internen Zustands der Bean.
-	 *
-	 * @return Die anzuzeigende Liste aller innerhalb der Applikation bekannten
-	 *         Benutzern.
-	 */
-	public List<User> getAllUsers() {
-		return allUsers;
-	}
-
 	/**
 	 * Wird vom AutoCompleteFeld genutzt, damit dieses Vorschläge machen kann.
-	 * Der Nutzer der Session wird hierbei ignoriert. Es können auch Gruppen
-	 * vorgeschlagen werden.
+	 * Der Nutzer der Session wird hierbei ignoriert. Es können auch die
+	 * Gruppen des Nutzers vorgeschlagen werden.
 	 * 
 	 * @param query
 	 * @return result Liste von allen Vorschlägen
 	 */
-	public List<MessageReceiver> completeReceiver(String query) {
-		List<MessageReceiver> receivers = new ArrayList<>();
-		List<MessageReceiver> result = new ArrayList<>();
-		receivers.addAll(getSession().getUser().getGroups());
-		receivers.addAll(allUsers);
-		for (MessageReceiver mr : receivers) {
-			if (mr.getDisplayName().toLowerCase().contains(query.toLowerCase())
-					&& !mr.getDisplayName().equals(user.getDisplayName())) {
-				result.add(mr);
-			}
+	public List<ReceiverIndex.Entry> completeReceiver(String query) {
+		final Set<Integer> groupIds = new HashSet<>();
+		for (final Group group : getSession().getUser().getGroups()) {
+			groupIds.add(group.getId());
 		}
-		return result;
+		final int userId = user.getId();
+		return receiverIndex.search(query, ReceiverIndex.SUGGESTIONS,
+				entry -> entry.isGroup() ? groupIds.contains(entry.getId()) : entry.getId() != userId);
 	}
 }
@@ -173,8 +173,7 @@ public class MissingController extends AbstractController {
 		if (file != null) {
 			try {
 				assertNotNull(selectedMissing);
-				selectedMissing.setImage(file.getContents());
-				missingDao.update(selectedMissing);
+				missingDao.updateImage(selectedMissing, file.getContents());
 				addMessage("successfulUpload");
 			} catch (Exception e) {
 				addMessageWithLogging(e, logger, Level.DEBUG, "errorCannotUpload");
@@ -193,8 +192,7 @@ public class MissingController extends AbstractController {
 		}
 		try {
 			assertNotNull(selectedMissing);
-			selectedMissing.setImage(null);
-			missingDao.update(selectedMissing);
+			missingDao.updateImage(selectedMissing, null);
 			addMessage("successfulReset");
 		} catch (Exception e) {
 			addMessageWithLogging(e, logger, Level.DEBUG, "errorReset");
@@ -8,10 +8,9 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import de.unibremen.gradelog.model.Session;
-import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.model.Page;
 import de.unibremen.gradelog.persistence.PageDAO;
-import de.unibremen.gradelog.persistence.UserDAO;
+import de.unibremen.gradelog.persistence.UserStatistics;
 import de.unibremen.gradelog.util.Assertion;
 
 /**
@@ -30,10 +29,9 @@ public class PageController extends AbstractController {
 	private final PageDAO pageDAO;
 
 	/**
-	 * Das Data-Access-Objekt, das die Verwaltung der Persistierung für
-	 * Benutzer-Objekte übernimmt.
+	 * Die Anzahl der registrierten und eingeloggten Benutzer.
 	 */
-	private final UserDAO userDAO;
+	private final UserStatistics userStatistics;
 
 	/**
 	 * Die Liste aller innerhalb der Applikation bekannten Seiten.
@@ -45,55 +43,44 @@ public class PageController extends AbstractController {
 	 */
 	private static final long serialVersionUID = -6560012086857165997L;
 
-	/**
-	 * Die Liste aller innerhalb der Applikation bekannten Benutzer.
-	 */
-	private List<User> allUsers;
-
 	/**
 	 * Erzeugt einen {@link PageController} mit definierter {@link Session},
-	 * {@link PageDAO} und {@link UserDAO}.
+	 * {@link PageDAO} und {@link UserStatistics}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erzeugenden {@link PageController}s.
 	 * @param pPageDao
 	 * 		Die {@link PageDAO} des zu erzeugenden {@link PageController}s.
-	 * @param pUserDao
-	 * 		Die {@link UserDAO} des zu erzeugenden {@link PageController}s.
+	 * @param pUserStatistics
+	 * 		Die {@link UserStatistics} des zu erzeugenden {@link PageController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
 	 */
 	@Inject
 	public PageController(final Session pSession,
 						  final PageDAO pPageDao,
-						  final UserDAO pUserDao) {
+						  final UserStatistics pUserStatistics) {
 		super(Assertion.assertNotNull(pSession));
 		pageDAO = Assertion.assertNotNull(pPageDao);
-		userDAO = Assertion.assertNotNull(pUserDao);
+		userStatistics = Assertion.assertNotNull(pUserStatistics);
 	}
 
 	/**
-	 * Initialisiert alle Seiten und Benutzer. Diese werden für das Frontend
-	 * benötigt, um bspw. alle registrierten Benutzer anzuzeigen.
+	 * Initialisiert alle Seiten. Diese werden für das Frontend benötigt, um
+	 * bspw. die Navigation anzuzeigen.
 	 */
 	@PostConstruct
 	public void init() {
 		allPages = pageDAO.getAllPages();
-		allUsers = userDAO.getAllUsers();
 	}
 
 	/**
-	 * Geht die Benutzer durch und prüft, wer gerade online ist.
+	 * Gibt die Anzahl der Benutzer zurück, die gerade online sind.
 	 * 
 	 * @return Anzahl der Benutzer, welche gerade online sind.
 	 */
 	public int getAllOnlineUsers() {
-		int n = 0;
-		for (User u : allUsers) {
-			if (u.isOnline())
-				n++;
-		}
-		return n;
+		return userStatistics.getOnlineUserCount();
 	}
 
 	public List<Page> getAllPages() {
@@ -104,7 +91,7 @@ public class PageController extends AbstractController {
 		this.allPages = allPages;
 	}
 
-	public int getAllUsers() {
-		return allUsers.size();
+	public long getAllUsers() {
+		return userStatistics.getUserCount();
 	}
 }
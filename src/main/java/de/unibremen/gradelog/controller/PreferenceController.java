@@ -4,7 +4,7 @@ import de.unibremen.gradelog.exception.DuplicateTemplateNameException;
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.Preference;
 import de.unibremen.gradelog.persistence.PreferenceDAO;
-import de.unibremen.gradelog.persistence.UserDAO;
+import de.unibremen.gradelog.persistence.SiteConfiguration;
 import de.unibremen.gradelog.util.Assertion;
 
 import javax.annotation.PostConstruct;
@@ -31,10 +31,9 @@ public class PreferenceController extends AbstractController {
      */
     private final PreferenceDAO preferenceDAO;
     /**
-     * Das Data-Access-Objekt, das die Verwaltung der Persistierung für
-     * Benutzer-Objekte übernimmt.
+     * Die zwischengespeicherte Konfiguration der Seite.
      */
-    private final UserDAO userDAO;
+    private final SiteConfiguration siteConfiguration;
     /**
      * Die eindeutige SerialisierungsID.
      */
@@ -46,32 +45,33 @@ public class PreferenceController extends AbstractController {
 
     /**
      * Erzeugt einen {@link PreferenceController} mit definierter {@link Session},
-     * {@link PreferenceDAO} und {@link UserDAO}.
+     * {@link PreferenceDAO} und {@link SiteConfiguration}.
      *
      * @param pSession
      * 		Die {@link Session} des zu erzeugenden {@link PreferenceController}s.
      * @param pPreferenceDao
      * 		Die {@link PreferenceDAO} des zu erzeugenden {@link PreferenceController}s.
-     * @param pUserDao
-     * 		Die {@link UserDAO} des zu erzeugenden {@link PreferenceController}s.
+     * @param pSiteConfiguration
+     * 		Die {@link SiteConfiguration} des zu erzeugenden {@link PreferenceController}s.
      * @throws IllegalArgumentException
      * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
     @Inject
     public PreferenceController(final Session pSession,
                           final PreferenceDAO pPreferenceDao,
-                          final UserDAO pUserDao) {
+                          final SiteConfiguration pSiteConfiguration) {
         super(assertNotNull(pSession));
         preferenceDAO = assertNotNull(pPreferenceDao);
-        userDAO = assertNotNull(pUserDao);
+        siteConfiguration = assertNotNull(pSiteConfiguration);
     }
 
     /**
-     * Initialisiert alle Einstellungen.
+     * Initialisiert alle Einstellungen mit einer Kopie aus der
+     * {@link SiteConfiguration}.
      */
     @PostConstruct
     public void init() {
-        preference = preferenceDAO.getPreference();
+        preference = siteConfiguration.getPreference();
     }
 
     /**
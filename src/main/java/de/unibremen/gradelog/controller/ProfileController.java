@@ -89,7 +89,7 @@ public class ProfileController extends AbstractController {
 		}
 		FacesContext fc = FacesContext.getCurrentInstance();
 		int userId = Integer.parseInt(getUserParam(fc));
-		user = userDAO.getById(userId);
+		user = userDAO.getById(userId, User.FULL);
 		return "/scheduler/community/profile" + "?faces-redirect=true";
 	}
 
@@ -1,18 +1,25 @@
 package de.unibremen.gradelog.controller;
 
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
 import javax.annotation.PostConstruct;
 import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 
 import de.unibremen.gradelog.model.Question;
+import de.unibremen.gradelog.model.QuestionStatistics;
 import de.unibremen.gradelog.model.Session;
+import de.unibremen.gradelog.persistence.EvaluationStatisticDAO;
 import de.unibremen.gradelog.persistence.QuestionDAO;
 import de.unibremen.gradelog.util.Assertion;
 
 /**
  * Dieser Controller kümmert sich um die Logik hinsichtlich der Fragen, d.h dem
- * Hinzufügen oder Löschen usw. einer Frage.
+ * Hinzufügen oder Löschen usw. einer Frage. Außerdem liefert er die Auswertung
+ * der Antworten je Frage für einen wählbaren Zeitraum.
  * 
  * @author Steffen Gerken
  *
@@ -38,24 +45,51 @@ public class QuestionController extends AbstractController {
 	 * Fragen-Objekte übernimmt.
 	 */
 	private final QuestionDAO questionDao;
+	/**
+	 * Das Data-Access-Objekt, das die voraggregierten Antworten aller
+	 * Selbsteinschätzungen verwaltet.
+	 */
+	private final EvaluationStatisticDAO statisticDao;
+	/**
+	 * Beginn des ausgewerteten Zeitraums oder {@code null}
+	 */
+	private Date statisticsFrom;
+	/**
+	 * Ende des ausgewerteten Zeitraums oder {@code null}
+	 */
+	private Date statisticsTo;
+	/**
+	 * Alle Fragen, auch die nicht mehr verwendeten
+	 */
+	private List<Question> allQuestions;
+	/**
+	 * Die Auswertung des Zeitraums je Id einer Frage oder {@code null}, falls
+	 * sie neu geladen werden muss
+	 */
+	private Map<Integer, QuestionStatistics> statistics;
 
 	/**
-	 * Erzeugt einen {@link QuestionController} mit definierter {@link Session}
-	 * und {@link QuestionDAO}.
+	 * Erzeugt einen {@link QuestionController} mit definierter {@link Session},
+	 * {@link QuestionDAO} und {@link EvaluationStatisticDAO}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erzeugenden {@link QuestionController}s.
 	 * @param pQuestionDao
 	 * 		Die {@link QuestionDAO} des zu erzeugenden
 	 * 		{@link QuestionController}s.
+	 * @param pStatisticDao
+	 * 		Die {@link EvaluationStatisticDAO} des zu erzeugenden
+	 * 		{@link QuestionController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
 	@Inject
 	public QuestionController(final Session pSession,
-							  final QuestionDAO pQuestionDao) {
+							  final QuestionDAO pQuestionDao,
+							  final EvaluationStatisticDAO pStatisticDao) {
 		super(Assertion.assertNotNull(pSession));
 		questionDao = Assertion.assertNotNull(pQuestionDao);
+		statisticDao = Assertion.assertNotNull(pStatisticDao);
 	}
 
 	/**
@@ -128,6 +162,64 @@ public class QuestionController extends AbstractController {
 
 	}
 
+	/**
+	 * Lädt die Auswertung für den gewählten Zeitraum neu.
+	 */
+	public void filterStatistics() {
+		statistics = null;
+	}
+
+	/**
+	 * Berechnet die Auswertung aller Selbsteinschätzungen neu (vgl.
+	 * {@link EvaluationStatisticDAO#rebuild()}).
+	 */
+	public void rebuildStatistics() {
+		if (!isLoggedIn()) {
+			getLogger().info("Session without user tried to rebuild evaluation statistics!");
+			return;
+		}
+		statisticDao.rebuild();
+		statistics = null;
+		addMessage("statisticsRebuilt");
+	}
+
+	/**
+	 * Gibt die Auswertung der Antworten auf {@code q} im gewählten Zeitraum
+	 * zurück.
+	 *
+	 * @param q
+	 *            Die Frage.
+	 * @return Die Auswertung, niemals {@code null}.
+	 */
+	public QuestionStatistics getStatistics(final Question q) {
+		if (statistics == null)
+			statistics = statisticDao.getStatistics(statisticsFrom, statisticsTo);
+		final QuestionStatistics found = statistics.get(Assertion.assertNotNull(q).getId());
+		return found == null ? new QuestionStatistics() : found;
+	}
+
+	public List<Question> getAllQuestions() {
+		if (allQuestions == null)
+			allQuestions = questionDao.getAllQuestions();
+		return allQuestions;
+	}
+
+	public Date getStatisticsFrom() {
+		return statisticsFrom;
+	}
+
+	public void setStatisticsFrom(final Date statisticsFrom) {
+		this.statisticsFrom = statisticsFrom;
+	}
+
+	public Date getStatisticsTo() {
+		return statisticsTo;
+	}
+
+	public void setStatisticsTo(final Date statisticsTo) {
+		this.statisticsTo = statisticsTo;
+	}
+
 	public Question getQuestion() {
 		return question;
 	}
@@ -2,28 +2,25 @@ package de.unibremen.gradelog.controller;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.PostConstruct;
 import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import de.unibremen.gradelog.exception.DuplicateEmailException;
-import de.unibremen.gradelog.exception.DuplicateUsernameException;
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.Telephone;
-import de.unibremen.gradelog.persistence.UserDAO;
+import de.unibremen.gradelog.model.TelephoneChain;
+import de.unibremen.gradelog.persistence.TelephoneChainCache;
 import de.unibremen.gradelog.persistence.TelephoneDAO;
 
 import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.model.TelephoneNode;
 
 import de.unibremen.gradelog.util.Assertion;
-import org.apache.log4j.Level;
-import org.primefaces.event.SelectEvent;
 import org.primefaces.event.organigram.OrganigramNodeSelectEvent;
 import org.primefaces.model.OrganigramNode;
 
@@ -45,10 +42,10 @@ public class TelephoneController extends AbstractController {
 	 */
 	private static final long serialVersionUID = 4722790806367250294L;
 
-	/** DAO für den User */
-	private final UserDAO userDao;
 	/** DAO für Telephone */
 	private final TelephoneDAO telephoneDao;
+	/** Die zwischengespeicherten Telefonketten */
+	private final TelephoneChainCache telephoneChainCache;
 
 	/** Selektierter Knoten */
 	private TelephoneNode selectedNode;
@@ -62,35 +59,42 @@ public class TelephoneController extends AbstractController {
 	/** Das Diagramm-Modell */
 	private OrganigramNode root = null;
 
+	/** Die Kette, aus der das Diagramm erzeugt wurde */
+	private TelephoneChain chain;
+
+	/** Die Knoten des Diagramms in der Reihenfolge der Kette */
+	private TelephoneNode[] nodes;
+
 	/**
 	 * Erzeugt einen {@link TelephoneController} mit definierter
-	 * {@link Session}, {@link UserDAO} und {@link TelephoneDAO}.
+	 * {@link Session}, {@link TelephoneDAO} und {@link TelephoneChainCache}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erzeugenden
 	 * 		{@link TelephoneController}s.
-	 * @param pUserDao
-	 * 		Die {@link UserDAO} des zu erzeugenden
-	 * 		{@link TelephoneController}s.
 	 * @param pTelephoneDao
 	 * 		Die {@link TelephoneDAO} des zu erzeugenden
 	 * 		{@link TelephoneController}s.
+	 * @param pTelephoneChainCache
+	 * 		Der {@link TelephoneChainCache} des zu erzeugenden
+	 * 		{@link TelephoneController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
 	@Inject
 	public TelephoneController(final Session pSession,
-							   final UserDAO pUserDao,
-							   final TelephoneDAO pTelephoneDao) {
+							   final TelephoneDAO pTelephoneDao,
+							   final TelephoneChainCache pTelephoneChainCache) {
 		super(Assertion.assertNotNull(pSession));
-		userDao = Assertion.assertNotNull(pUserDao);
 		telephoneDao = Assertion.assertNotNull(pTelephoneDao);
+		telephoneChainCache = Assertion.assertNotNull(pTelephoneChainCache);
 	}
 
 	/**
 	 * Wird nach dem Konstrukor ausgeführt (beim Aufruf der Seite). Besitzt der
 	 * Benutzer noch keine Telefonkette, so wird eine neue für diesen generiert.
-	 * Zudem wird die Struktur der Telefonkette erstellt und gefüllt.
+	 * Das Diagramm wird aus der zwischengespeicherten Kette des Benutzers
+	 * erstellt (vgl. {@link TelephoneChainCache}).
 	 */
 	@PostConstruct
 	public void init() {
@@ -99,40 +103,39 @@ public class TelephoneController extends AbstractController {
 		selectedTelephone = null;
 
 		if (user.getTelephones().size() == 0) {
-			for (int i = 0; i < 31; i++) {
-				Telephone tf = new Telephone(user, "Person " + i, "");
-				telephoneDao.create(tf);
-				user.addTelephone(tf);
-			}
-			try {
-				userDao.update(assertNotNull(user));
-			} catch (final IllegalArgumentException e) {
-				addMessage("errorIllegalArgument");
-			} catch (final DuplicateUsernameException e) {
-				addMessageWithLogging("registerUserForm:username", e, getLogger(), Level.DEBUG,
-						"errorUsernameAlreadyInUse", getSession().getUser().getLogin());
-			} catch (final DuplicateEmailException e) {
-				addMessageWithLogging("registerUserForm:email", e, getLogger(), Level.DEBUG, "errorEmailAlreadyInUse",
-						getSession().getUser().getEmail());
+			final List<Telephone> telephones = telephoneDao.createChain(user);
+			for (final Telephone telephone : telephones) {
+				telephone.setUser(user);
 			}
+			user.getTelephones().addAll(telephones);
 		}
-		Collections.sort(user.getTelephones());
-
-		List<TelephoneNode> nodeList = new ArrayList<>();
-		for (int i = 0, parent = 0; nodeList.size() < 23; i++) {
-			TelephoneNode newNode = new TelephoneNode(user.getTelephones().get(i).getName(),
-					user.getTelephones().get(i).getNumber(), i > 0 ? nodeList.get(parent) : null);
-			newNode.setSelectable(true);
-			newNode.setTelephone(user.getTelephones().get(i));
-			nodeList.add(newNode);
-			if (i < 15 && i % 2 == 0 && i > 0)
-				parent++;
-			else if (i >= 15)
-				parent++;
+		chain = telephoneChainCache.get(user);
+		buildTree();
+	}
+
+	/**
+	 * Erzeugt die Knoten des Diagramms aus {@link #chain}.
+	 */
+	private void buildTree() {
+		final Map<Integer, Telephone> telephones = new HashMap<>();
+		for (final Telephone telephone : user.getTelephones()) {
+			telephones.put(telephone.getId(), telephone);
+		}
+		nodes = new TelephoneNode[chain.size()];
+		for (int i = 0; i < chain.size(); i++) {
+			final int parent = chain.getParent(i);
+			nodes[i] = new TelephoneNode(chain.getName(i), chain.getNumber(i), parent < 0 ? null : nodes[parent]);
+			nodes[i].setSelectable(true);
+			nodes[i].setTelephone(telephones.get(chain.getId(i)));
 		}
-		root = nodeList.get(0);
+		root = nodes.length == 0 ? null : nodes[0];
 	}
 
+	/**
+	 * Speichert den selektierten Eintrag und übernimmt ihn in die
+	 * zwischengespeicherte Kette. War das Diagramm auf dem Stand der Kette,
+	 * wird nur der geänderte Knoten angepasst, sonst wird es neu erstellt.
+	 */
 	public void update() {
 		if (!isLoggedIn()) {
 			getLogger().info("Session without user tried to save telephone values!");
@@ -140,11 +143,19 @@ public class TelephoneController extends AbstractController {
 		}
 		try {
 			telephoneDao.update(assertNotNull(selectedTelephone));
+			final boolean current = telephoneChainCache.get(user).getVersion() == chain.getVersion();
+			chain = telephoneChainCache.update(user, selectedTelephone);
+			final int index = chain.indexOf(selectedTelephone.getId());
+			if (current && index >= 0) {
+				nodes[index].setName(selectedTelephone.getName());
+				nodes[index].setNumber(selectedTelephone.getNumber());
+			} else {
+				buildTree();
+			}
 			addMessage("successfulEditTelephone");
 		} catch (final IllegalArgumentException e) {
 			addMessage("errorIllegalArgument");
 		}
-		init();
 	}
 
 	public TelephoneNode getSelectedNode() {
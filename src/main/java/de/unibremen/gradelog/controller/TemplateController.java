@@ -16,8 +16,8 @@ import org.apache.log4j.Logger;
 
 import de.unibremen.gradelog.exception.DuplicateTemplateNameException;
 import de.unibremen.gradelog.model.Template;
+import de.unibremen.gradelog.persistence.SiteConfiguration;
 import de.unibremen.gradelog.persistence.TemplateDAO;
-import de.unibremen.gradelog.persistence.UserDAO;
 
 /**
  * Ermöglicht das Konfigurieren des Front- und Backends hinsichtlich
@@ -45,10 +45,9 @@ public class TemplateController extends AbstractController {
 	private final TemplateDAO templateDAO;
 
 	/**
-	 * Das Data-Access-Objekt, das die Verwaltung der Persistierung für
-	 * User-Objekte übernimmt.
+	 * Die zwischengespeicherte Konfiguration der Seite.
 	 */
-	private final UserDAO userDAO;
+	private final SiteConfiguration siteConfiguration;
 
 	/**
 	 * Die Liste aller innerhalb der Applikation bekannten Templates.
@@ -61,36 +60,38 @@ public class TemplateController extends AbstractController {
 	private static final long serialVersionUID = -6560012086857165997L;
 
 	/**
-	 * Erzeugt einen {@link TelephoneController} mit definierter
-	 * {@link Session}, {@link TemplateDAO} und {@link UserDAO}.
+	 * Erzeugt einen {@link TemplateController} mit definierter
+	 * {@link Session}, {@link TemplateDAO} und {@link SiteConfiguration}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erzeugenden {@link TemplateController}s.
 	 * @param pTemplateDAO
 	 *		Die {@link TemplateDAO} des zu erzeugenden
 	 *		{@link TemplateController}s.
-	 * @param pUserDAO
-	 * 		Die {@link UserDAO} des zu erzeugenden {@link TemplateController}s.
+	 * @param pSiteConfiguration
+	 * 		Die {@link SiteConfiguration} des zu erzeugenden
+	 * 		{@link TemplateController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
 	@Inject
 	public TemplateController(final Session pSession,
 							  final TemplateDAO pTemplateDAO,
-							  final UserDAO pUserDAO) {
+							  final SiteConfiguration pSiteConfiguration) {
 		super(Assertion.assertNotNull(pSession));
 		templateDAO = Assertion.assertNotNull(pTemplateDAO);
-		userDAO = Assertion.assertNotNull(pUserDAO);
+		siteConfiguration = Assertion.assertNotNull(pSiteConfiguration);
 	}
 
 	/**
-	 * Holt sich alle Templates sowie das aktuelle Template.
+	 * Holt sich Kopien der aktuellen Templates aus der
+	 * {@link SiteConfiguration}, sodass Änderungen erst nach dem Speichern für
+	 * andere Benutzer sichtbar werden.
 	 */
 	@PostConstruct
 	public void init() {
-		allTemplates = templateDAO.getAllTemplates();
-		backendTemplate = templateDAO.getTemplateByName("backend");
-		frontendTemplate = templateDAO.getTemplateByName("frontend");
+		backendTemplate = siteConfiguration.getBackendTemplate();
+		frontendTemplate = siteConfiguration.getFrontendTemplate();
 	}
 
 	/**
@@ -156,6 +157,8 @@ public class TemplateController extends AbstractController {
 	}
 
 	public List<Template> getAllTemplates() {
+		if (allTemplates == null)
+			allTemplates = templateDAO.getAllTemplates();
 		return allTemplates;
 	}
 
@@ -180,6 +183,6 @@ public class TemplateController extends AbstractController {
 	}
 
 	public String getAdminEmail() {
-		return userDAO.getById(1).getEmail();
+		return siteConfiguration.getAdminEmail();
 	}
 }
\ No newline at end of file
@@ -8,7 +8,6 @@ import java.text.DateFormat;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.*;
-import java.util.Calendar;
 
 import javax.annotation.PostConstruct;
 import javax.faces.event.ActionEvent;
@@ -21,9 +20,9 @@ import de.unibremen.gradelog.exception.DuplicateUsernameException;
 import de.unibremen.gradelog.model.*;
 import de.unibremen.gradelog.persistence.TimetableDAO;
 import de.unibremen.gradelog.persistence.TimetableEntryDAO;
+import de.unibremen.gradelog.persistence.TimetableImporter;
 import de.unibremen.gradelog.util.Assertion;
 
-import de.unibremen.gradelog.util.CSVParser;
 import de.unibremen.gradelog.util.LoginGenerator;
 import org.apache.log4j.Level;
 import org.apache.log4j.Logger;
@@ -55,6 +54,10 @@ public class TimetableController extends AbstractController {
 	private final TimetableDAO timetableDao;
 	/** DAO für den Stundenplaneintrag */
 	private final TimetableEntryDAO timetableEntryDao;
+	/** Importiert Stundenpläne aus UNTIS */
+	private final TimetableImporter timetableImporter;
+	/** Lazy-Model des angezeigten Stundenplans */
+	private TimetableScheduleModel scheduleModel;
 
 	/** Startdatum */
 	private Date startDate;
@@ -66,7 +69,8 @@ public class TimetableController extends AbstractController {
 
 	/**
 	 * Erzeugt einen {@link TimetableController} mit definierter
-	 * {@link Session}, {@link TimetableDAO} und {@link TimetableEntryDAO}.
+	 * {@link Session}, {@link TimetableDAO}, {@link TimetableEntryDAO} und
+	 * {@link TimetableImporter}.
 	 *
 	 * @param pSession
 	 * 		Die {@link Session} des zu erzeugenden
@@ -77,16 +81,21 @@ public class TimetableController extends AbstractController {
 	 * @param pTimetableEntryDao
 	 * 		Die {@link TimetableEntryDAO} des zu erzeugenden
 	 * 		{@link TimetableController}s.
+	 * @param pTimetableImporter
+	 * 		Der {@link TimetableImporter} des zu erzeugenden
+	 * 		{@link TimetableController}s.
 	 * @throws IllegalArgumentException
 	 * 		Falls einer der übergebenen Parameter {@code null} ist.
      */
 	@Inject
 	public TimetableController(final Session pSession,
 							   final TimetableDAO pTimetableDao,
-							   final TimetableEntryDAO pTimetableEntryDao) {
+							   final TimetableEntryDAO pTimetableEntryDao,
+							   final TimetableImporter pTimetableImporter) {
 		super(Assertion.assertNotNull(pSession));
 		timetableDao = Assertion.assertNotNull(pTimetableDao);
 		timetableEntryDao = Assertion.assertNotNull(pTimetableEntryDao);
+		timetableImporter = Assertion.assertNotNull(pTimetableImporter);
 	}
 
 	/**
@@ -131,6 +140,7 @@ public class TimetableController extends AbstractController {
 			return;
 		}
 		if (!timetable.getEntries().contains(timetableEntry)) {
+			timetableEntry.setTimetable(timetable);
 			timetableEntryDao.create(assertNotNull(timetableEntry));
 			timetable.addEntry(timetableEntry);
 		}
@@ -141,6 +151,7 @@ public class TimetableController extends AbstractController {
 		timetableEntry.setEndTime(new java.sql.Date(startDate.getTime() + endTime.getTime() + 3600000));
 		timetableEntryDao.update(timetableEntry);
 		timetableDao.update(timetable);
+		getScheduleModel().updateEvent(timetableEntry.getTimetableEvent());
 		
 		addMessage("successEntryAdded");
 		init();
@@ -163,6 +174,7 @@ public class TimetableController extends AbstractController {
 		timetable.removeEntry(timetableEntry);
 		timetableDao.update(timetable);
 		timetableEntryDao.delete(timetableEntry);
+		getScheduleModel().deleteEvent(timetableEntry.getTimetableEvent());
 		addMessage("successEntryDeleted");
 		timetableEntry = new TimetableEntry();
 	}
@@ -226,6 +238,7 @@ public class TimetableController extends AbstractController {
 		
 		timetableEntryDao.update(assertNotNull(timetableEntry));
 		timetableDao.update(assertNotNull(timetable));
+		getScheduleModel().updateEvent(timetableEntry.getTimetableEvent());
 	
 		addMessage("successTodoMoved");
 	}
@@ -243,39 +256,11 @@ public class TimetableController extends AbstractController {
 			return;
 		}
 		try {
-			ArrayList<TimetableEntry> list = new ArrayList<>();
-			CSVParser csvParser = new CSVParser(event.getFile().getInputstream(), 8);
-			while (csvParser.nextLine()) {
-				TimetableEntry newEnt = new TimetableEntry();
-				newEnt.setTitle(csvParser.getString(3));
-				newEnt.setPlace(csvParser.getString(4));
-				
-				Calendar cal = Calendar.getInstance();
-				cal.setTime(new Date(518400000));
-				cal.add(Calendar.DAY_OF_YEAR, csvParser.getInt(5)-3);
-				cal.add(Calendar.HOUR, csvParser.getInt(6) / 60 - 1);
-				cal.add(Calendar.MINUTE, csvParser.getInt(6) % 60);
-				
-				java.sql.Date date = new java.sql.Date(cal.getTime().getTime());
-				newEnt.setStartTime(date);
-				
-				cal = Calendar.getInstance();
-				cal.setTime(new Date(date.getTime()));
-				cal.add(Calendar.HOUR, csvParser.getInt(7) / 60);
-				cal.add(Calendar.MINUTE, csvParser.getInt(7) % 60);
-				
-				newEnt.setEndTime(new java.sql.Date(cal.getTime().getTime()));
-				
-				list.add(newEnt);
-			}
-			
-			for (TimetableEntry r : list) {
-				timetableEntryDao.create(r);
-				timetable.addEntry(r);
-			}
-			
-			timetableDao.update(timetable);
-			
+			final List<TimetableEntry> imported = timetableImporter.importDIF(timetable,
+					event.getFile().getInputstream());
+			logger.debug(format("Imported %d timetable entries", imported.size()));
+			getScheduleModel().invalidate();
+
 			addMessage("successImportTimetable");
 			init();
 		} catch (IllegalArgumentException e) {
@@ -293,6 +278,18 @@ public class TimetableController extends AbstractController {
 		this.timetable = timetable;
 	}
 
+	/**
+	 * Gibt das Lazy-Model des Stundenplans zurück, das nur die Einträge des
+	 * angezeigten Zeitraums lädt.
+	 *
+	 * @return Das Lazy-Model des Stundenplans.
+	 */
+	public TimetableScheduleModel getScheduleModel() {
+		if (scheduleModel == null)
+			scheduleModel = new TimetableScheduleModel(timetableEntryDao, timetable);
+		return scheduleModel;
+	}
+
 	public TimetableEntry getTimetableEntry() {
 		return timetableEntry;
 	}
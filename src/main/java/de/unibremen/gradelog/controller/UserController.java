@@ -7,7 +7,8 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.util.Collections;
+import java.util.Calendar;
+import java.util.Date;
 import java.util.List;
 import java.util.Set;
 import java.util.stream.Collectors;
@@ -91,8 +92,29 @@ public class UserController extends AbstractController {
 	 */
 	private User selectedUser;
 
+	/**
+	 * Anzahl der Tage ab heute, für die der Vertretungsplan angezeigt wird.
+	 */
+	static final int REPRESENTATION_DAYS = 14;
+
 	private final RepresentationDAO representationDao;
 
+	/**
+	 * Der angezeigte Vertretungsplan, wird beim ersten Zugriff geladen.
+	 */
+	private List<Representation> representations;
+
+	/**
+	 * Sollen nur die Vertretungen der eigenen Klasse angezeigt werden?
+	 */
+	private boolean ownClassOnly;
+
+	/**
+	 * Sollen nur die Vertretungen angezeigt werden, in denen der Lehrer
+	 * vertreten wird oder vertritt?
+	 */
+	private boolean ownLessonsOnly;
+
 	/**
 	 * Erzeugt einen {@link UserController} mit definierter {@link Session},
 	 * {@link UserDAO} und {@link RepresentationDAO}.
@@ -170,9 +192,8 @@ public class UserController extends AbstractController {
 		}
 		UploadedFile file = assertNotNull(event.getFile());
 		try {
-			user.getProfile().setPicture(file.getContents());
 			getProfile().setOwnPicture(true);
-			userDAO.update(user);
+			userDAO.updatePicture(user, file.getContents());
 			addMessage("successUserdataComplete");
 			init();
 		} catch (Exception e) {
@@ -187,11 +208,10 @@ public class UserController extends AbstractController {
 	public void deletePicture() {
 		if (getProfile().isOwnPicture()) {
 			Logger logger = getLogger();
-			user.getProfile().setPicture(null);
 			getProfile().setOwnPicture(false);
 			addMessage("successPictureDelete");
 			try {
-				userDAO.update(assertNotNull(user));
+				userDAO.updatePicture(assertNotNull(user), null);
 			} catch (final DuplicateUsernameException e) {
 				addMessageWithLogging(e, logger, Level.DEBUG, "errorUsernameAlreadyInUse", user.getLogin());
 			} catch (final DuplicateEmailException e) {
@@ -224,10 +244,63 @@ public class UserController extends AbstractController {
 		return userDAO.getAllTeachers();
 	}
 
+	/**
+	 * Gibt die Vertretungen der nächsten {@link #REPRESENTATION_DAYS} Tage
+	 * sortiert nach Datum und Stunde zurück. Ist {@link #isOwnClassOnly()}
+	 * gesetzt, werden nur die Vertretungen der Klasse des Benutzers
+	 * zurückgegeben, ist bei einem Lehrer {@link #isOwnLessonsOnly()} gesetzt,
+	 * nur die Vertretungen, in denen er (unter seinem Nachnamen) vertreten wird
+	 * oder vertritt.
+	 * 
+	 * @return Die anzuzeigenden Vertretungen.
+	 */
 	public List<Representation> getRepresentations() {
-		List<Representation> result = representationDao.getAllRepresentations();
-		Collections.sort(result);
-		return result;
+		if (representations == null) {
+			final Calendar calendar = Calendar.getInstance();
+			calendar.set(Calendar.HOUR_OF_DAY, 0);
+			calendar.set(Calendar.MINUTE, 0);
+			calendar.set(Calendar.SECOND, 0);
+			calendar.set(Calendar.MILLISECOND, 0);
+			final Date from = calendar.getTime();
+			calendar.add(Calendar.DAY_OF_MONTH, REPRESENTATION_DAYS);
+			final Date to = calendar.getTime();
+			final String course = user == null ? null : user.getProfile().getCourse();
+			final String teacher = isTeacher() ? user.getProfile().getLastName() : null;
+			if (ownLessonsOnly && teacher != null && !teacher.isEmpty())
+				representations = representationDao.getRepresentationsForTeacher(teacher, from, to);
+			else if (ownClassOnly && course != null && !course.isEmpty())
+				representations = representationDao.getRepresentationsForClasses(course, from, to);
+			else
+				representations = representationDao.getRepresentations(from, to);
+		}
+		return representations;
+	}
+
+	public boolean isOwnClassOnly() {
+		return ownClassOnly;
+	}
+
+	public void setOwnClassOnly(final boolean ownClassOnly) {
+		this.ownClassOnly = ownClassOnly;
+		representations = null;
+	}
+
+	public boolean isOwnLessonsOnly() {
+		return ownLessonsOnly;
+	}
+
+	public void setOwnLessonsOnly(final boolean ownLessonsOnly) {
+		this.ownLessonsOnly = ownLessonsOnly;
+		representations = null;
+	}
+
+	/**
+	 * Gibt zurück, ob der aktuelle Benutzer ein Lehrer ist.
+	 *
+	 * @return {@code true}, falls der Benutzer ein Lehrer ist.
+	 */
+	public boolean isTeacher() {
+		return user != null && user.getRole() == User.Roles.TEACHER;
 	}
 
 	public Set<Group> getGroups() {
@@ -1,10 +1,14 @@
 package de.unibremen.gradelog.exception;
 
+import javax.ejb.ApplicationException;
+
 /**
  * Diese Exception signalisiert, dass das Speichern eines Datums (vgl.
  * {@link de.unibremen.gradelog.persistence.GenericDAO#save(Object)}) dazu führen würde,
- * dass ein als `unique` deklariertes Attribut doppelt vorkommen würde.
+ * dass ein als `unique` deklariertes Attribut doppelt vorkommen würde. Die
+ * laufende Transaktion wird dabei zurückgerollt.
  */
+@ApplicationException(rollback = true)
 public class DuplicateUniqueFieldException extends Exception {
 
     /**
@@ -0,0 +1,72 @@
+package de.unibremen.gradelog.model;
+
+import java.io.Serializable;
+
+/**
+ * Die Nutzung der Caches von EclipseLink für eine Entität: wie viele
+ * Leseabfragen ausgeführt wurden und wie viele SQL-Anweisungen dafür an die
+ * Datenbank gingen. Jede Leseabfrage, die ohne SQL-Anweisung auskam, wurde aus
+ * dem Objekt- oder Abfrage-Cache beantwortet.
+ *
+ * Objekte dieser Klasse werden nicht persistiert!
+ *
+ * @author Marco Glander
+ */
+public class CacheUsage implements Serializable {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -5215493364816360317L;
+
+	/**
+	 * Der Name der Entität
+	 */
+	private final String entity;
+
+	/**
+	 * Anzahl der ausgeführten Leseabfragen
+	 */
+	private final long queries;
+
+	/**
+	 * Anzahl der dafür ausgeführten SQL-Anweisungen
+	 */
+	private final long statements;
+
+	public CacheUsage(final String entity, final long queries, final long statements) {
+		this.entity = entity;
+		this.queries = queries;
+		this.statements = statements;
+	}
+
+	public String getEntity() {
+		return entity;
+	}
+
+	public long getQueries() {
+		return queries;
+	}
+
+	public long getStatements() {
+		return statements;
+	}
+
+	/**
+	 * Gibt den Anteil der Leseabfragen zurück, die ohne Zugriff auf die
+	 * Datenbank beantwortet wurden. Lädt eine Abfrage Beziehungen in weiteren
+	 * Anweisungen nach, kann es mehr Anweisungen als Abfragen geben, der Anteil
+	 * ist dann {@code 0}.
+	 *
+	 * @return Der Anteil zwischen {@code 0} und {@code 1} oder {@code 0},
+	 *         falls es keine Abfragen gab.
+	 */
+	public double getHitRatio() {
+		return queries == 0 ? 0 : Math.max(1 - (double) statements / queries, 0);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("CacheUsage {entity: %s, queries: %d, statements: %d}", entity, queries, statements);
+	}
+}
@@ -0,0 +1,48 @@
+package de.unibremen.gradelog.model;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import de.unibremen.gradelog.persistence.TaskDAO;
+
+/**
+ * Lazy-Model für die Termine eines {@link Calendar}s. Lädt je Fenster nur die
+ * Termine, die es überschneiden (vgl. {@link TaskDAO#getInRange}).
+ *
+ * @author Marco Glander
+ */
+public class CalendarScheduleModel extends RangeScheduleModel {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = 3398021766315841120L;
+
+	/**
+	 * DAO für die Persistenz von Tasks
+	 */
+	private final TaskDAO taskDao;
+
+	/**
+	 * Der angezeigte Kalender
+	 */
+	private final Calendar calendar;
+
+	public CalendarScheduleModel(final TaskDAO taskDao, final Calendar calendar) {
+		this.taskDao = assertNotNull(taskDao);
+		this.calendar = assertNotNull(calendar);
+	}
+
+	@Override
+	protected List<CalendarEvent> fetch(final Date from, final Date to) {
+		final List<Task> tasks = taskDao.getInRange(calendar, from, to);
+		final List<CalendarEvent> events = new ArrayList<>(tasks.size());
+		for (final Task task : tasks) {
+			events.add(task.getCalendarEvent());
+		}
+		return events;
+	}
+}
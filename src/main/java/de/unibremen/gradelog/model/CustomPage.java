@@ -9,10 +9,11 @@ import java.util.Set;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.CascadeType;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
-import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.ManyToMany;
 import javax.persistence.Table;
@@ -30,10 +31,16 @@ import java.text.SimpleDateFormat;
  * @author Christopher Wojtkow
  */
 @Entity
-@Table(name = "Pages")
+@Table(name = "Pages", indexes = @Index(name = "IDX_PAGE_OWNER", columnList = "USER_ID"))
 @NamedQueries({ @NamedQuery(name = "CustomPage.findAll", query = "SELECT c FROM CustomPage c"),
 				@NamedQuery(name = "CustomPage.findById", query = "SELECT c FROM CustomPage c WHERE c.id = ?1"),
-				@NamedQuery(name = "CustomPage.findOwnedByUser", query = "SELECT c FROM CustomPage c WHERE c.user.id = ?1")})
+				@NamedQuery(name = "CustomPage.findOwnedByUser", query = "SELECT c FROM CustomPage c WHERE c.user.id = ?1"),
+				@NamedQuery(name = "CustomPage.findLatestOwnedByUser", query = "SELECT c FROM CustomPage c WHERE c.user.id = ?1 ORDER BY c.id DESC"),
+				@NamedQuery(name = "CustomPage.findMostViewedOwnedByUser", query = "SELECT c FROM CustomPage c WHERE c.user.id = ?1 ORDER BY c.counter DESC, c.id DESC"),
+				@NamedQuery(name = "CustomPage.findSharedWithUser", query = "SELECT c FROM CustomPage c LEFT JOIN FETCH c.user WHERE EXISTS (SELECT s FROM CustomPage p JOIN p.subs s WHERE p = c AND s.id = ?1) OR EXISTS (SELECT m FROM CustomPage q JOIN q.groups g JOIN g.users m WHERE q = c AND m.id = ?1) ORDER BY c.id"),
+				@NamedQuery(name = "CustomPage.findGroupReaders", query = "SELECT DISTINCT m FROM CustomPage c JOIN c.groups g JOIN g.users m WHERE c.id = ?1"),
+				@NamedQuery(name = "CustomPage.findSubReaders", query = "SELECT s FROM CustomPage c JOIN c.subs s WHERE c.id = ?1"),
+				@NamedQuery(name = "CustomPage.addViews", query = "UPDATE CustomPage c SET c.counter = c.counter + ?1 WHERE c.id IN ?2")})
 
 public class CustomPage extends JPAEntity implements Comparable<CustomPage> {
 
@@ -59,12 +66,6 @@ public class CustomPage extends JPAEntity implements Comparable<CustomPage> {
 	 */
 	private Date date;
 
-	/**
-	 * Menge an Versionen der CustomPage
-	 */
-	@OneToMany(targetEntity = CustomPageHistory.class, cascade = CascadeType.REMOVE)
-	private Set<CustomPageHistory> history;
-
 	/**
 	 * Besitzer der CustomPage
 	 */
@@ -75,17 +76,23 @@ public class CustomPage extends JPAEntity implements Comparable<CustomPage> {
 	 * Menge an User-Objekten den die CustomPage explizit freigegeben wurde
 	 */
 	@ManyToMany
+	@JoinTable(name = "PAGES_SUBS", joinColumns = @JoinColumn(name = "PAGE_ID"), inverseJoinColumns = @JoinColumn(name = "USER_ID"), indexes = @Index(name = "IDX_PAGE_SUB", columnList = "USER_ID"))
 	private Set<User> subs;
 
 	/**
 	 * Menge an Gruppen denen die CustomPage freigegeben wurde.
 	 */
 	@ManyToMany
+	@JoinTable(name = "PAGES_GROUPS", joinColumns = @JoinColumn(name = "PAGE_ID"), inverseJoinColumns = @JoinColumn(name = "GROUP_ID"), indexes = @Index(name = "IDX_PAGE_GROUP", columnList = "GROUP_ID"))
 	private Set<Group> groups;
 
 	/**
-	 * Besucherzähler
+	 * Besucherzähler. Wird nur gesammelt per Abfrage erhöht (vgl.
+	 * {@link de.unibremen.gradelog.persistence.PageViewCounter}) und beim
+	 * Speichern der Seite nicht geschrieben, damit ein veralteter Stand keine
+	 * Besuche überschreibt.
 	 */
+	@Column(updatable = false)
 	private int counter;
 
 	public CustomPage() {
@@ -107,59 +114,6 @@ public class CustomPage extends JPAEntity implements Comparable<CustomPage> {
 		return str;
 	}
 
-	public Set<CustomPageHistory> getHistories() {
-		return history;
-	}
-
-	public void setHistory(final Set<CustomPageHistory> history) {
-		this.history = history;
-	}
-
-	/**
-	 * Gibt das Objekt einer CustomPageHistory mit der angegebenen ID zurück.
-	 * 
-	 * @param id
-	 *            ID der CustomPageHistory, die zurückgegeben werden soll.
-	 * @return das gewünschte Objekt einer CustomPageHistory
-	 */
-	public Set<CustomPageHistory> getHistory(final int id) {
-		return history;
-	}
-
-	/**
-	 * Speichert den Inhalt dieser Seite in die angegebene CustomPageHistory.
-	 * 
-	 * @param h
-	 *            Objekt einer CustomPageHistory, in welcher diese Seite
-	 *            gespeichert werden soll.
-	 * @return Gibt den Link der nächsten Seite als String zurück
-	 */
-	public void saveToHistory(final CustomPageHistory h) {
-		h.setTitle(title);
-		h.setContent(content);
-		h.setCustomPage(this);
-		h.setDate(date);
-		getHistories().add(h);
-	}
-
-	/**
-	 * Benutzt das angegebene Objekt einer CustomPageHistory, um diese Seite in
-	 * den Status der angegebenen History zu versetzen. Dabei wird aus dem
-	 * aktuellen Status der Seite eine neue History erstellt.
-	 * 
-	 * @param h
-	 *            Objekt einer CustomPageHistory, dessen Status angenommen
-	 *            werden soll
-	 */
-	public void applyHistory(final CustomPageHistory h) {
-		CustomPageHistory newH = new CustomPageHistory();
-		saveToHistory(newH);
-		this.title = h.getTitle();
-		this.content = h.getContent();
-		this.date = new java.sql.Date(h.getDate().getTime());
-		removeHistory(h);
-	}
-
 	/**
 	 * Überträgt Title, Inhalt der übergebenen CustomPage sowie ein date in die
 	 * attribute der aufrufenden CustomPage
@@ -174,15 +128,19 @@ public class CustomPage extends JPAEntity implements Comparable<CustomPage> {
 	}
 
 	/**
-	 * Entfernt das angegebene Objekt einer CustomPageHistory aus der Liste
-	 * dieser Seite.
+	 * Versetzt diese Seite in den Zustand einer älteren Version.
 	 * 
-	 * @param h
-	 *            Das zu löschende Objekt
-	 * @return Gibt den Link der nächsten Seite als String zurück
+	 * @param title
+	 *            Der Titel der Version
+	 * @param content
+	 *            Der rekonstruierte Inhalt der Version
+	 * @param date
+	 *            Das Datum der Version
 	 */
-	public void removeHistory(final CustomPageHistory h) {
-		getHistories().remove(h);
+	public void restore(final String title, final String content, final java.util.Date date) {
+		this.title = title;
+		this.content = content;
+		this.date = new java.sql.Date(date.getTime());
 	}
 
 	@Override
@@ -278,10 +236,6 @@ public class CustomPage extends JPAEntity implements Comparable<CustomPage> {
 		}
 	}
 
-	public void increment() {
-		counter++;
-	}
-
 	public int getCounter() {
 		return counter;
 	}
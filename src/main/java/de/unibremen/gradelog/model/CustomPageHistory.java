@@ -8,15 +8,34 @@ import java.text.SimpleDateFormat;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 /**
- * Klasse, die den alten Zustand einer CustomPage wiederherstellen kann. Alle
- * alten Daten wie Text etc. werden hier zwischengespeichert.
- * 
+ * Klasse, die den alten Zustand einer CustomPage wiederherstellen kann. Die
+ * Versionen einer Seite sind über {@link #getRevision()} geordnet. Der Inhalt
+ * wird entweder vollständig gespeichert ({@link #isSnapshot()}) oder als
+ * Delta zur vorherigen Version der Seite (vgl.
+ * {@link de.unibremen.gradelog.util.TextDelta}). Titel, Größe und Autor
+ * stehen ohne Rekonstruktion zur Verfügung, damit die Versionsliste den
+ * Inhalt nicht laden muss (vgl. {@link Info}). Jede Revision kommt je Seite
+ * nur einmal vor.
+ *
  * @author Marco Glander
  * @author Christopher Wojtkow
  */
 @Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "UNQ_PAGEHISTORY_REVISION", columnNames = { "CUSTOMPAGE_ID",
+		"REVISION" }))
+@NamedQueries({
+		@NamedQuery(name = "CustomPageHistory.findInfoByPage", query = "SELECT h.id, h.revision, h.date, h.title, h.size, h.author FROM CustomPageHistory h WHERE h.customPage.id = ?1 ORDER BY h.revision DESC"),
+		@NamedQuery(name = "CustomPageHistory.countByPage", query = "SELECT COUNT(h) FROM CustomPageHistory h WHERE h.customPage.id = ?1"),
+		@NamedQuery(name = "CustomPageHistory.findLatest", query = "SELECT h FROM CustomPageHistory h WHERE h.customPage.id = ?1 ORDER BY h.revision DESC"),
+		@NamedQuery(name = "CustomPageHistory.findNext", query = "SELECT h FROM CustomPageHistory h WHERE h.customPage.id = ?1 AND h.revision > ?2 ORDER BY h.revision"),
+		@NamedQuery(name = "CustomPageHistory.findChain", query = "SELECT h FROM CustomPageHistory h WHERE h.customPage.id = ?1 AND h.revision <= ?2 AND h.revision >= (SELECT MAX(s.revision) FROM CustomPageHistory s WHERE s.customPage.id = ?1 AND s.snapshot = TRUE AND s.revision <= ?2) ORDER BY h.revision"),
+		@NamedQuery(name = "CustomPageHistory.deleteByPage", query = "DELETE FROM CustomPageHistory h WHERE h.customPage.id = ?1") })
 public class CustomPageHistory extends JPAEntity {
 
 	/**
@@ -24,8 +43,39 @@ public class CustomPageHistory extends JPAEntity {
 	 */
 	private static final long serialVersionUID = -8683579981657627518L;
 
+	/**
+	 * Der vollständige Inhalt oder das Delta zur vorherigen Version
+	 */
 	@Column(length = 8192)
-	private String content;
+	private String data;
+
+	/**
+	 * Ist {@link #data} der vollständige Inhalt?
+	 */
+	private boolean snapshot;
+
+	/**
+	 * Anzahl der Deltas seit der letzten vollständig gespeicherten Version
+	 */
+	private int depth;
+
+	/**
+	 * Laufende Nummer der Version innerhalb der Seite
+	 */
+	@Column(nullable = false)
+	private int revision;
+
+	/**
+	 * Länge des vollständigen Inhalts
+	 */
+	@Column(name = "CONTENTSIZE")
+	private int size;
+
+	/**
+	 * Anzeigename des Benutzers, der die Version gespeichert hat
+	 */
+	@Column(length = 128)
+	private String author;
 
 	@Column(length = 64)
 	private String title;
@@ -36,18 +86,89 @@ public class CustomPageHistory extends JPAEntity {
 	@ManyToOne
 	private CustomPage customPage;
 
+	/**
+	 * Die in der Versionsliste angezeigten Daten einer Version ohne deren
+	 * Inhalt.
+	 */
+	public static final class Info implements Serializable {
+
+		/**
+		 * Die eindeutige id für Serialisierung.
+		 */
+		private static final long serialVersionUID = 5170351623380957246L;
+
+		private final int id;
+
+		private final int revision;
+
+		private final java.util.Date date;
+
+		private final String title;
+
+		private final int size;
+
+		private final String author;
+
+		public Info(final int id, final int revision, final java.util.Date date, final String title, final int size,
+				final String author) {
+			this.id = id;
+			this.revision = revision;
+			this.date = new java.util.Date(date.getTime());
+			this.title = title;
+			this.size = size;
+			this.author = author;
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		public int getRevision() {
+			return revision;
+		}
+
+		public java.util.Date getDate() {
+			return new java.util.Date(date.getTime());
+		}
+
+		public String getTitle() {
+			return title;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public String getAuthor() {
+			return author;
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			return other instanceof Info && ((Info) other).id == id;
+		}
+
+		@Override
+		public int hashCode() {
+			return id;
+		}
+	}
+
 	public CustomPageHistory() {
 		title = "";
-		content = "";
+		data = "";
+		snapshot = true;
+		author = "";
 		date = new Date(0);
 		customPage = null;
 	}
 
-	public CustomPageHistory(final String title, final String content, final java.util.Date date, final CustomPage cp) {
-		this.title = title;
-		this.content = content;
-		this.date = new java.sql.Date(date.getTime());
+	public CustomPageHistory(final CustomPage cp, final int revision, final String author) {
 		this.customPage = cp;
+		this.revision = revision;
+		this.author = author;
+		this.title = cp.getTitle();
+		this.date = cp.getDateSql();
 	}
 
 	public String getSimpleDate() {
@@ -56,6 +177,46 @@ public class CustomPageHistory extends JPAEntity {
 		return str;
 	}
 
+	/**
+	 * Speichert {@code content} vollständig.
+	 *
+	 * @param content
+	 *            Der Inhalt dieser Version.
+	 */
+	public void setSnapshot(final String content) {
+		data = content;
+		snapshot = true;
+		depth = 0;
+		size = content.length();
+	}
+
+	/**
+	 * Speichert den Inhalt als Delta zur vorherigen Version.
+	 *
+	 * @param delta
+	 *            Das Delta zum Inhalt der vorherigen Version.
+	 * @param contentSize
+	 *            Die Länge des Inhalts dieser Version.
+	 * @param deltaDepth
+	 *            Die Anzahl der Deltas seit der letzten vollständig
+	 *            gespeicherten Version einschließlich dieser.
+	 */
+	public void setDelta(final String delta, final int contentSize, final int deltaDepth) {
+		data = delta;
+		snapshot = false;
+		depth = deltaDepth;
+		size = contentSize;
+	}
+
+	/**
+	 * Liefert die in der Versionsliste angezeigten Daten dieser Version.
+	 *
+	 * @return Die Daten ohne Inhalt.
+	 */
+	public Info toInfo() {
+		return new Info(getId(), revision, date, title, size, author);
+	}
+
 	@Override
 	public boolean equals(final Object other) {
 		return other instanceof CustomPageHistory && ((CustomPageHistory) other).getId() == getId();
@@ -68,16 +229,32 @@ public class CustomPageHistory extends JPAEntity {
 
 	@Override
 	public String toString() {
-		return String.format("CustomPageHistory {id: %d, content: %s, title: %s, date: %s}",
-				getId(), content, title, date);
+		return String.format("CustomPageHistory {id: %d, revision: %d, snapshot: %b, size: %d, title: %s, date: %s}",
+				getId(), revision, snapshot, size, title, date);
+	}
+
+	public String getData() {
+		return data;
+	}
+
+	public boolean isSnapshot() {
+		return snapshot;
+	}
+
+	public int getDepth() {
+		return depth;
+	}
+
+	public int getRevision() {
+		return revision;
 	}
 
-	public String getContent() {
-		return content;
+	public int getSize() {
+		return size;
 	}
 
-	public void setContent(final String content) {
-		this.content = content;
+	public String getAuthor() {
+		return author;
 	}
 
 	public String getTitle() {
@@ -107,4 +284,4 @@ public class CustomPageHistory extends JPAEntity {
 	public void setDate(final java.util.Date date) {
 		this.date = new java.sql.Date(date.getTime());
 	}
-}
\ No newline at end of file
+}
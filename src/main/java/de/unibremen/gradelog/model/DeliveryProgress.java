@@ -0,0 +1,85 @@
+package de.unibremen.gradelog.model;
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fortschritt einer im Hintergrund laufenden Nachrichtenzustellung. Wird vom
+ * Zusteller fortgeschrieben und vom Absender abgefragt, daher sind alle Felder
+ * threadsicher.
+ *
+ * Objekte dieser Klasse werden nicht persistiert!
+ *
+ * @author Marco Glander
+ */
+public class DeliveryProgress implements Serializable {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = 2519760213473329474L;
+
+	/**
+	 * Anzahl aller zu beliefernden Empfänger
+	 */
+	private volatile int total;
+
+	/**
+	 * Anzahl der bereits belieferten Empfänger
+	 */
+	private final AtomicInteger delivered;
+
+	/**
+	 * Ist die Zustellung abgeschlossen?
+	 */
+	private volatile boolean done;
+
+	/**
+	 * Ist die Zustellung fehlgeschlagen?
+	 */
+	private volatile boolean failed;
+
+	public DeliveryProgress() {
+		delivered = new AtomicInteger();
+	}
+
+	public int getTotal() {
+		return total;
+	}
+
+	public void setTotal(final int total) {
+		this.total = total;
+	}
+
+	public int getDelivered() {
+		return delivered.get();
+	}
+
+	public void addDelivered(final int count) {
+		delivered.addAndGet(count);
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+
+	public boolean isFailed() {
+		return failed;
+	}
+
+	/**
+	 * Schließt die Zustellung ab.
+	 *
+	 * @param success
+	 *            {@code false}, falls die Zustellung abgebrochen wurde.
+	 */
+	public void finish(final boolean success) {
+		failed = !success;
+		done = true;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("DeliveryProgress {delivered: %d, total: %d, done: %b}", getDelivered(), total, done);
+	}
+}
@@ -0,0 +1,106 @@
+package de.unibremen.gradelog.model;
+
+import java.sql.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.LockModeType;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Zählt, wie oft eine {@link Question} in den Selbsteinschätzungen eines
+ * Monats mit einer Antwort beantwortet wurde. Die Zeilen einer Frage bilden so
+ * ihr Histogramm je Monat, aus dem Anzahl, Summe und Quadratsumme der
+ * Antworten folgen (vgl. {@link QuestionStatistics}), ohne die
+ * {@link Evaluation}s zu laden.
+ *
+ * @author Marco Glander
+ */
+@Entity
+@Table(name = "EvaluationStatistics", uniqueConstraints = @UniqueConstraint(name = "UNQ_EVALUATIONSTATISTIC_BUCKET", columnNames = {
+		"QUESTION_ID", "PERIOD", "ANSWER" }))
+@NamedQueries({
+		@NamedQuery(name = "EvaluationStatistic.add", query = "UPDATE EvaluationStatistic s SET s.count = s.count + ?1 WHERE s.question.id = ?2 AND s.period = ?3 AND s.answer = ?4"),
+		@NamedQuery(name = "EvaluationStatistic.sumInRange", query = "SELECT s.question.id, s.answer, SUM(s.count) FROM EvaluationStatistic s WHERE s.period >= ?1 AND s.period < ?2 GROUP BY s.question.id, s.answer"),
+		@NamedQuery(name = "EvaluationStatistic.deleteAll", query = "DELETE FROM EvaluationStatistic s"),
+		@NamedQuery(name = "EvaluationStatistic.lockQuestions", query = "SELECT q FROM Question q", lockMode = LockModeType.PESSIMISTIC_WRITE),
+		@NamedQuery(name = "EvaluationStatistic.findAnswers", query = "SELECT KEY(x).id, VALUE(x), e.date FROM Evaluation e JOIN e.entries x") })
+public class EvaluationStatistic extends JPAEntity {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = 6071958231574468213L;
+
+	/**
+	 * Die beantwortete Frage
+	 */
+	@ManyToOne(optional = false)
+	private Question question;
+
+	/**
+	 * Der erste Tag des Monats
+	 */
+	@Column(nullable = false)
+	private Date period;
+
+	/**
+	 * Die Antwort
+	 */
+	@Column(nullable = false)
+	private int answer;
+
+	/**
+	 * Wie oft {@link #answer} gegeben wurde
+	 */
+	@Column(nullable = false)
+	private long count;
+
+	public EvaluationStatistic() {
+		question = null;
+		period = null;
+	}
+
+	public EvaluationStatistic(final Question question, final Date period, final int answer, final long count) {
+		this.question = question;
+		this.period = period;
+		this.answer = answer;
+		this.count = count;
+	}
+
+	public Question getQuestion() {
+		return question;
+	}
+
+	public Date getPeriod() {
+		return period;
+	}
+
+	public int getAnswer() {
+		return answer;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof EvaluationStatistic && ((EvaluationStatistic) other).getId() == getId();
+	}
+
+	@Override
+	public int hashCode() {
+		return getId();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("EvaluationStatistic {id: %d, period: %s, answer: %d, count: %d}", getId(), period,
+				answer, count);
+	}
+}
@@ -3,22 +3,39 @@ package de.unibremen.gradelog.model;
 import java.io.Serializable;
 import java.sql.Date;
 import java.text.SimpleDateFormat;
+import java.util.UUID;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
 import javax.persistence.Transient;
+import javax.persistence.UniqueConstraint;
 
 import org.primefaces.model.UploadedFile;
 
 /**
- * Klasse, die Daten zu einer hochgeladenen Datei speichert. Dazu gehören Pfad,
- * Dateiname und dem Nutzer, der diese Datei hochgeladen hat. Außerdem werden
+ * Klasse, die Daten zu einer hochgeladenen Datei speichert. Dazu gehören der
+ * Dateiname, der Hash des Inhalts und der Nutzer, der diese Datei hochgeladen
+ * hat. Der Inhalt selbst liegt im
+ * {@link de.unibremen.gradelog.persistence.FileStore}. Außerdem werden
  * wichtige Daten zur Verarbeitung hier zwischengespeichert.
  *
+ * Abgerufen wird eine Datei über ein zufälliges, nicht erratbares Token, nicht
+ * über ihre fortlaufende Id, da Links auf Dateien in Nachrichten und Seiten
+ * weitergegeben werden.
+ *
  * @author Marco Glander
  */
 @Entity
+@Table(indexes = @Index(name = "IDX_FILE_HASH", columnList = "HASH"),
+		uniqueConstraints = @UniqueConstraint(name = "UNQ_FILE_TOKEN", columnNames = "TOKEN"))
+@NamedQueries({
+		@NamedQuery(name = "File.countByHash", query = "SELECT COUNT(f) FROM File f WHERE f.hash = ?1"),
+		@NamedQuery(name = "File.findByToken", query = "SELECT f FROM File f WHERE f.token = ?1") })
 public class File extends JPAEntity implements Comparable<File> {
 
     /**
@@ -38,10 +55,27 @@ public class File extends JPAEntity implements Comparable<File> {
     private String name;
 
     /**
-     * Pfad zur Datei
+     * SHA-256-Hash des Inhalts, unter dem er im FileStore abgelegt ist
+     */
+    @Column(length = 64, nullable = false)
+    private String hash;
+
+    /**
+     * Zufälliges Token, unter dem die Datei abgerufen wird
      */
-    @Column(length = 512)
-    private String path;
+    @Column(length = 36, nullable = false)
+    private String token;
+
+    /**
+     * Größe des Inhalts in Bytes
+     */
+    private long size;
+
+    /**
+     * MIME-Typ des Inhalts
+     */
+    @Column(length = 128)
+    private String contentType;
 
     /**
      * Datum
@@ -54,11 +88,6 @@ public class File extends JPAEntity implements Comparable<File> {
     @ManyToOne
     private User user;
 
-    /**
-     * Dateiinhalt
-     */
-    private byte[] content;
-
     /**
      * Datei
      */
@@ -68,7 +97,8 @@ public class File extends JPAEntity implements Comparable<File> {
     public File() {
         name = "";
         user = null;
-        path = "";
+        hash = "";
+        token = UUID.randomUUID().toString();
         date = new Date(0);
     }
 
@@ -96,14 +126,6 @@ public class File extends JPAEntity implements Comparable<File> {
         this.user = user;
     }
 
-    public byte[] getContent() {
-        return content;
-    }
-
-    public void setContent(byte[] content) {
-        this.content = content;
-    }
-
     public UploadedFile getFile() {
         return file;
     }
@@ -112,12 +134,36 @@ public class File extends JPAEntity implements Comparable<File> {
         this.file = file;
     }
 
-    public String getPath() {
-        return path;
+    public String getHash() {
+        return hash;
+    }
+
+    public void setHash(String hash) {
+        this.hash = hash;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public void setToken(String token) {
+        this.token = token;
     }
 
-    public void setPath(String path) {
-        this.path = path;
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
     }
 
     public java.util.Date getDate() {
@@ -128,10 +174,6 @@ public class File extends JPAEntity implements Comparable<File> {
         this.date = new Date(date.getTime());
     }
 
-    public boolean fileExists() {
-        return new java.io.File(path + name).exists();
-    }
-    
     public int compareTo(File other)
     {
     	return other.getDate().compareTo(this.getDate());
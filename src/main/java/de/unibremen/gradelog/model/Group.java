@@ -7,6 +7,9 @@ import java.util.Set;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
@@ -23,7 +26,9 @@ import javax.persistence.Table;
 @Entity
 @Table(name = "Groups")
 @NamedQueries({ @NamedQuery(name = "Group.findAll", query = "SELECT g FROM Group g"),
-		@NamedQuery(name = "Group.findByName", query = "SELECT g FROM Group g WHERE g.name = ?1"), })
+		@NamedQuery(name = "Group.findByName", query = "SELECT g FROM Group g WHERE g.name = ?1"),
+		@NamedQuery(name = "Group.findReceivers", query = "SELECT g.id, g.name FROM Group g"),
+		@NamedQuery(name = "Group.findMemberIds", query = "SELECT u.id FROM Group g JOIN g.users u WHERE g.name = ?1"), })
 public class Group extends JPAEntity implements Shareable, MessageReceiver {
 
 	/**
@@ -40,6 +45,7 @@ public class Group extends JPAEntity implements Shareable, MessageReceiver {
 	 * Liste der Benutzer in dieser Gruppe
 	 */
 	@ManyToMany(targetEntity = User.class, cascade = CascadeType.PERSIST)
+	@JoinTable(name = "GROUPS_USERS", joinColumns = @JoinColumn(name = "GROUP_ID"), inverseJoinColumns = @JoinColumn(name = "USER_ID"), indexes = @Index(name = "IDX_GROUP_MEMBER", columnList = "USER_ID"))
 	private Set<User> users;
 	/**
 	 * Set der CustomPages, welche mit dieser Gruppe geteilt wurden.
@@ -113,7 +119,18 @@ public class Group extends JPAEntity implements Shareable, MessageReceiver {
 	}
 
 	public String getDisplayName() {
-		return "(G) " + getName();
+		return toDisplayName(getName());
+	}
+
+	/**
+	 * Bildet den Anzeigenamen einer Gruppe (vgl. {@link #getDisplayName()}).
+	 *
+	 * @param name
+	 *            Der Name der Gruppe.
+	 * @return Der Anzeigename.
+	 */
+	public static String toDisplayName(final String name) {
+		return "(G) " + name;
 	}
 
 	public String getReceiverName() {
@@ -0,0 +1,204 @@
+package de.unibremen.gradelog.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fortschritt eines im Hintergrund laufenden Benutzerimports. Wird vom
+ * Importer fortgeschrieben und vom Administrator abgefragt, daher sind alle
+ * Felder threadsicher. Neben den Zählern werden die Zugangsdaten der
+ * importierten Benutzer und je abgelehnter Zeile ein {@link RowError}
+ * gesammelt.
+ *
+ * Objekte dieser Klasse werden nicht persistiert!
+ *
+ * @author Marco Glander
+ */
+public class ImportProgress implements Serializable {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -1190523744010316442L;
+
+	/**
+	 * Eine abgelehnte Zeile der Importdatei.
+	 */
+	public static class RowError implements Serializable {
+
+		/**
+		 * Die eindeutige id für Serialisierung.
+		 */
+		private static final long serialVersionUID = 4273300520869128565L;
+
+		/**
+		 * Die Zeilennummer in der Importdatei, beginnend bei 1
+		 */
+		private final int line;
+
+		/**
+		 * Schlüssel der Fehlermeldung in den Übersetzungen
+		 */
+		private final String messageKey;
+
+		/**
+		 * Der abgelehnte Wert, z. B. die E-Mail-Adresse
+		 */
+		private final String value;
+
+		public RowError(final int line, final String messageKey, final String value) {
+			this.line = line;
+			this.messageKey = messageKey;
+			this.value = value;
+		}
+
+		public int getLine() {
+			return line;
+		}
+
+		public String getMessageKey() {
+			return messageKey;
+		}
+
+		public String getValue() {
+			return value;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("RowError {line: %d, message: %s, value: %s}", line, messageKey, value);
+		}
+	}
+
+	/**
+	 * Anzahl der bisher gelesenen Zeilen
+	 */
+	private final AtomicInteger read;
+
+	/**
+	 * Anzahl der bisher angelegten Benutzer
+	 */
+	private final AtomicInteger imported;
+
+	/**
+	 * Die abgelehnten Zeilen
+	 */
+	private final List<RowError> errors;
+
+	/**
+	 * Benutzername und Passwort der angelegten Benutzer
+	 */
+	private final Map<String, String> credentials;
+
+	/**
+	 * Ist der Import abgeschlossen?
+	 */
+	private volatile boolean done;
+
+	/**
+	 * Ist der Import abgebrochen?
+	 */
+	private volatile boolean failed;
+
+	public ImportProgress() {
+		read = new AtomicInteger();
+		imported = new AtomicInteger();
+		errors = Collections.synchronizedList(new ArrayList<>());
+		credentials = Collections.synchronizedMap(new LinkedHashMap<>());
+	}
+
+	public int getRead() {
+		return read.get();
+	}
+
+	public void addRead(final int count) {
+		read.addAndGet(count);
+	}
+
+	public int getImported() {
+		return imported.get();
+	}
+
+	/**
+	 * Vermerkt einen angelegten Benutzer samt seiner Zugangsdaten.
+	 *
+	 * @param login
+	 *            Der Benutzername.
+	 * @param password
+	 *            Das Passwort im Klartext.
+	 */
+	public void addImported(final String login, final String password) {
+		credentials.put(login, password);
+		imported.incrementAndGet();
+	}
+
+	/**
+	 * Vermerkt eine abgelehnte Zeile.
+	 *
+	 * @param line
+	 *            Die Zeilennummer in der Importdatei.
+	 * @param messageKey
+	 *            Schlüssel der Fehlermeldung.
+	 * @param value
+	 *            Der abgelehnte Wert.
+	 */
+	public void addError(final int line, final String messageKey, final String value) {
+		errors.add(new RowError(line, messageKey, value));
+	}
+
+	/**
+	 * Gibt eine Kopie der abgelehnten Zeilen zurück.
+	 *
+	 * @return Die abgelehnten Zeilen in der Reihenfolge ihres Auftretens.
+	 */
+	public List<RowError> getErrors() {
+		synchronized (errors) {
+			return new ArrayList<>(errors);
+		}
+	}
+
+	public int getErrorCount() {
+		return errors.size();
+	}
+
+	/**
+	 * Gibt eine Kopie der Zugangsdaten der angelegten Benutzer zurück.
+	 *
+	 * @return Benutzername und Passwort der angelegten Benutzer.
+	 */
+	public Map<String, String> getCredentials() {
+		synchronized (credentials) {
+			return new LinkedHashMap<>(credentials);
+		}
+	}
+
+	public boolean isDone() {
+		return done;
+	}
+
+	public boolean isFailed() {
+		return failed;
+	}
+
+	/**
+	 * Schließt den Import ab.
+	 *
+	 * @param success
+	 *            {@code false}, falls der Import abgebrochen wurde.
+	 */
+	public void finish(final boolean success) {
+		failed = !success;
+		done = true;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("ImportProgress {read: %d, imported: %d, errors: %d, done: %b}", getRead(),
+				getImported(), getErrorCount(), done);
+	}
+}
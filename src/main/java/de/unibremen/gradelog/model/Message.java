@@ -5,17 +5,25 @@ import java.sql.Timestamp;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Set;
 
 /**
- * Hält eine Nachricht. Enthält die Gruppe und den eingeladenen Nutzer.
+ * Hält eine Nachricht. Enthält die Gruppe und den eingeladenen Nutzer. Der
+ * Lesestatus je Empfänger wird in {@link MessageReceipt} gehalten.
  * 
  * @author Marco Glander
  * @author Christos Dhimitris
  */
 @Entity
+@Table(indexes = @Index(name = "IDX_MESSAGE_AUTHOR", columnList = "AUTHOR"))
+@NamedQueries({
+		@NamedQuery(name = "Message.findInbox", query = "SELECT m FROM MessageReceipt r JOIN r.message m WHERE r.receiver.id = ?1 AND m.author <> ?2 AND m.id < ?3 ORDER BY m.id DESC"),
+		@NamedQuery(name = "Message.countInbox", query = "SELECT COUNT(m) FROM MessageReceipt r JOIN r.message m WHERE r.receiver.id = ?1 AND m.author <> ?2"),
+		@NamedQuery(name = "Message.findOutbox", query = "SELECT m FROM MessageReceipt r JOIN r.message m WHERE r.receiver.id = ?1 AND m.author = ?2 AND m.id < ?3 ORDER BY m.id DESC"),
+		@NamedQuery(name = "Message.countOutbox", query = "SELECT COUNT(m) FROM MessageReceipt r JOIN r.message m WHERE r.receiver.id = ?1 AND m.author = ?2"),
+		@NamedQuery(name = "Message.findUnread", query = "SELECT m FROM MessageReceipt r JOIN r.message m WHERE r.receiver.id = ?1 AND r.confirmed = false AND m.id < ?3 AND m.author <> ?2 ORDER BY m.id DESC"),
+		@NamedQuery(name = "Message.findInboxByDate", query = "SELECT m FROM MessageReceipt r JOIN r.message m WHERE r.receiver.id = ?1 AND m.author <> ?2 AND m.id < ?3 AND m.date >= ?4 AND m.date < ?5 ORDER BY m.id DESC"),
+		@NamedQuery(name = "Message.countInboxByDate", query = "SELECT COUNT(m) FROM MessageReceipt r JOIN r.message m WHERE r.receiver.id = ?1 AND m.author <> ?2 AND m.date >= ?3 AND m.date < ?4") })
 public class Message extends JPAEntity implements Comparable<Message> {
 
 	/**
@@ -51,16 +59,10 @@ public class Message extends JPAEntity implements Comparable<Message> {
 	 */
 	private Set<String> receivers;
 
-	/**
-	 * Alle Nutzer, die diese Nachricht gelesen haben
-	 */
-	private Map<String, Boolean> confirmMap;
-
 	public Message() {
 		subject = "";
 		content = "";
 		date = new Timestamp(new java.util.Date().getTime());
-		confirmMap = new HashMap<>();
 	}
 
 	public String getSubject() {
@@ -92,14 +94,6 @@ public class Message extends JPAEntity implements Comparable<Message> {
 		return df.format(new Date(date.getTime()));
 	}
 
-	public boolean getReadStatus(String s) {
-		return confirmMap.containsKey(s) ? confirmMap.get(s) : false;
-	}
-
-	public void confirmRead(String s) {
-		confirmMap.put(s, true);
-	}
-
 	public String getAuthor() {
 		return author;
 	}
@@ -0,0 +1,152 @@
+package de.unibremen.gradelog.model;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
+
+import de.unibremen.gradelog.persistence.MessageDAO;
+import de.unibremen.gradelog.persistence.MessageDAO.Mailbox;
+
+/**
+ * Lazy-Model für die Postfächer eines Benutzers. Es lädt je Anfrage nur die
+ * angezeigte Seite über {@link MessageDAO#getMailbox}. Zu jedem bereits
+ * geladenen Seitenanfang wird die Id der letzten Nachricht der vorherigen Seite
+ * gemerkt, sodass beim Blättern per Schlüssel statt per Offset gelesen wird.
+ * Springt der Benutzer auf eine unbekannte Seite, wird vom nächstgelegenen
+ * bekannten Schlüssel aus übersprungen. Der Posteingang kann zusätzlich auf
+ * einen Zeitraum beschränkt werden (vgl. {@link #setDateRange(Date, Date)}).
+ *
+ * @author Marco Glander
+ */
+public class MessageDataModel extends LazyDataModel<Message> {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = 6127930480523161838L;
+
+	/**
+	 * Obere Grenze eines nach oben unbeschränkten Zeitraums
+	 */
+	private static final Timestamp END = Timestamp.valueOf(LocalDateTime.of(9999, 1, 1, 0, 0));
+
+	/**
+	 * DAO für die Persistenz von Nachrichten
+	 */
+	private final MessageDAO messageDao;
+
+	/**
+	 * Das angezeigte Postfach
+	 */
+	private final Mailbox box;
+
+	/**
+	 * Besitzer des Postfachs
+	 */
+	private final User owner;
+
+	/**
+	 * Bekannte Seitenanfänge: Zeilenindex auf Id der vorherigen Nachricht
+	 */
+	private final TreeMap<Integer, Integer> anchors;
+
+	/**
+	 * Beginn (inklusive) des angezeigten Zeitraums oder {@code null} für alle
+	 * Nachrichten
+	 */
+	private Timestamp from;
+
+	/**
+	 * Ende (exklusive) des angezeigten Zeitraums oder {@code null} für alle
+	 * Nachrichten
+	 */
+	private Timestamp to;
+
+	/**
+	 * Die aktuell geladene Seite
+	 */
+	private List<Message> page;
+
+	public MessageDataModel(final MessageDAO messageDao, final Mailbox box, final User owner) {
+		this.messageDao = assertNotNull(messageDao);
+		this.box = assertNotNull(box);
+		this.owner = assertNotNull(owner);
+		anchors = new TreeMap<>();
+		reset();
+	}
+
+	/**
+	 * Verwirft alle gemerkten Seitenanfänge, z. B. nachdem eine Nachricht
+	 * gelöscht wurde.
+	 */
+	public void reset() {
+		anchors.clear();
+		anchors.put(0, Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Beschränkt den Posteingang auf die Nachrichten im Intervall
+	 * {@code [from, to)}. Ist eine der Grenzen {@code null}, ist das Intervall
+	 * in dieser Richtung unbeschränkt; sind beide {@code null}, werden wieder
+	 * alle Nachrichten angezeigt.
+	 *
+	 * @param from
+	 *            Untere Grenze (inklusive) oder {@code null}.
+	 * @param to
+	 *            Obere Grenze (exklusive) oder {@code null}.
+	 * @throws IllegalStateException
+	 *             Falls das Model nicht den Posteingang anzeigt.
+	 */
+	public void setDateRange(final Date from, final Date to) {
+		if (box != Mailbox.INBOX)
+			throw new IllegalStateException("Only the inbox can be filtered by date");
+		if (from == null && to == null) {
+			this.from = null;
+			this.to = null;
+		} else {
+			this.from = new Timestamp(from == null ? 0 : from.getTime());
+			this.to = to == null ? END : new Timestamp(to.getTime());
+		}
+		reset();
+	}
+
+	@Override
+	public List<Message> load(final int first, final int pageSize, final String sortField,
+			final SortOrder sortOrder, final Map<String, Object> filters) {
+		final Map.Entry<Integer, Integer> anchor = anchors.floorEntry(first);
+		if (from == null) {
+			page = messageDao.getMailbox(box, owner, anchor.getValue(), first - anchor.getKey(), pageSize);
+			setRowCount(messageDao.countMailbox(box, owner));
+		} else {
+			page = messageDao.getInboxBetween(owner, from, to, anchor.getValue(), first - anchor.getKey(), pageSize);
+			setRowCount(messageDao.countInboxBetween(owner, from, to));
+		}
+		if (!page.isEmpty())
+			anchors.put(first + page.size(), page.get(page.size() - 1).getId());
+		return page;
+	}
+
+	@Override
+	public Object getRowKey(final Message message) {
+		return message.getId();
+	}
+
+	@Override
+	public Message getRowData(final String rowKey) {
+		if (page != null) {
+			for (final Message m : page) {
+				if (String.valueOf(m.getId()).equals(rowKey))
+					return m;
+			}
+		}
+		return null;
+	}
+}
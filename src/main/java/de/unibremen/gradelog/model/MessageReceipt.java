@@ -0,0 +1,107 @@
+package de.unibremen.gradelog.model;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Index;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+/**
+ * Hält eine {@link Message} im Postfach genau eines Benutzers samt Lesestatus.
+ * Empfänger erhalten einen ungelesenen Eintrag, der Autor einen gelesenen für
+ * seinen Postausgang. Da das Postfach nicht Teil von {@link User} ist, kann die
+ * Zustellung Einträge anlegen, ohne Benutzer zu laden, und die Anzahl der
+ * ungelesenen Nachrichten wird über den Index {@code (receiver, confirmed)} mit
+ * einer einzigen Abfrage ermittelt.
+ *
+ * @author Marco Glander
+ */
+@Entity
+@Table(name = "MessageReceipts", uniqueConstraints = @UniqueConstraint(columnNames = { "MESSAGE_ID",
+		"RECEIVER_ID" }), indexes = @Index(name = "IDX_RECEIPT_UNREAD", columnList = "RECEIVER_ID, CONFIRMED"))
+@NamedQueries({
+		@NamedQuery(name = "MessageReceipt.countUnread", query = "SELECT COUNT(r) FROM MessageReceipt r WHERE r.receiver.id = ?1 AND r.confirmed = false"),
+		@NamedQuery(name = "MessageReceipt.findUnreadMessageIds", query = "SELECT r.message.id FROM MessageReceipt r WHERE r.receiver.id = ?1 AND r.confirmed = false"),
+		@NamedQuery(name = "MessageReceipt.confirm", query = "UPDATE MessageReceipt r SET r.confirmed = true WHERE r.message.id = ?1 AND r.receiver.id = ?2"),
+		@NamedQuery(name = "MessageReceipt.deleteByMessageAndReceiver", query = "DELETE FROM MessageReceipt r WHERE r.message.id = ?1 AND r.receiver.id = ?2"),
+		@NamedQuery(name = "MessageReceipt.deleteByMessage", query = "DELETE FROM MessageReceipt r WHERE r.message.id = ?1"),
+		@NamedQuery(name = "MessageReceipt.deleteByReceiver", query = "DELETE FROM MessageReceipt r WHERE r.receiver.id = ?1") })
+public class MessageReceipt extends JPAEntity {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -3171842266342716419L;
+
+	/**
+	 * Die empfangene Nachricht
+	 */
+	@ManyToOne(optional = false)
+	private Message message;
+
+	/**
+	 * Empfänger der Nachricht
+	 */
+	@ManyToOne(optional = false)
+	private User receiver;
+
+	/**
+	 * Hat der Empfänger die Nachricht gelesen?
+	 */
+	@Column(nullable = false)
+	private boolean confirmed;
+
+	public MessageReceipt() {
+		message = null;
+		receiver = null;
+	}
+
+	public MessageReceipt(final Message message, final User receiver, final boolean confirmed) {
+		this.message = message;
+		this.receiver = receiver;
+		this.confirmed = confirmed;
+	}
+
+	public Message getMessage() {
+		return message;
+	}
+
+	public void setMessage(Message message) {
+		this.message = message;
+	}
+
+	public User getReceiver() {
+		return receiver;
+	}
+
+	public void setReceiver(User receiver) {
+		this.receiver = receiver;
+	}
+
+	public boolean isConfirmed() {
+		return confirmed;
+	}
+
+	public void setConfirmed(boolean confirmed) {
+		this.confirmed = confirmed;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		return other instanceof MessageReceipt && ((MessageReceipt) other).getId() == getId();
+	}
+
+	@Override
+	public int hashCode() {
+		return getId();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("MessageReceipt {id: %d, message: %d, confirmed: %b}", getId(),
+				message == null ? 0 : message.getId(), confirmed);
+	}
+}
@@ -1,22 +1,12 @@
 package de.unibremen.gradelog.model;
 
-import org.primefaces.model.DefaultStreamedContent;
-import org.primefaces.model.StreamedContent;
 import org.primefaces.model.UploadedFile;
 
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.sql.Timestamp;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.Date;
 
-import javax.faces.context.FacesContext;
-import javax.faces.event.PhaseId;
-import javax.imageio.ImageIO;
 import javax.persistence.*;
 
 /**
@@ -29,6 +19,8 @@ import javax.persistence.*;
  * @author Mirco Bockholt
  */
 @Entity
+@NamedQueries({
+        @NamedQuery(name = "Missing.findImageInfo", query = "SELECT m.imageVersion, m.user.id FROM Missing m WHERE m.id = ?1") })
 public class Missing extends JPAEntity {
 
     /**
@@ -60,10 +52,12 @@ public class Missing extends JPAEntity {
     private boolean confirmed;
 
     /**
-     * Bild (Bytestream)
+     * Wird bei jeder Änderung des Bildes hochgezählt und dient als Schlüssel
+     * für zwischengespeicherte Bilder (vgl.
+     * {@link de.unibremen.gradelog.persistence.ImageCache}). Das Bild selbst
+     * liegt in einem eigenen {@link MissingImage}.
      */
-    @Column(length = 10240000)
-    private byte[] image;
+    private int imageVersion;
 
     /**
      * Zugehöriger Benutzer
@@ -85,7 +79,6 @@ public class Missing extends JPAEntity {
         endTime = new Timestamp(new Date().getTime());
         description = "";
         confirmed = false;
-        image = null;
         user = null;
     }
 
@@ -139,30 +132,15 @@ public class Missing extends JPAEntity {
         this.confirmed = confirmed;
     }
 
-    public StreamedContent getImage() throws IOException {
-        FacesContext context = FacesContext.getCurrentInstance();
-        if (context.getCurrentPhaseId() == PhaseId.RENDER_RESPONSE) {
-            return new DefaultStreamedContent();
-        } else {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            try {
-                return new DefaultStreamedContent(new ByteArrayInputStream(image), "image/jpg");
-            } catch (Exception e) {
-                BufferedImage img = ImageIO.read(context.getExternalContext()
-                        .getResourceAsStream("/resources/img/placeholder/placeholder.jpeg"));
-                int w = img.getWidth(null);
-                int h = img.getHeight(null);
-                BufferedImage bi = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
-                Graphics g = bi.getGraphics();
-                g.drawImage(img, 0, 0, w, h, null);
-                ImageIO.write(bi, "jpg", bos);
-                return new DefaultStreamedContent(new ByteArrayInputStream(bos.toByteArray()), "image/jpg");
-            }
-        }
-    }
-
-    public void setImage(byte[] image) {
-        this.image = image;
+    /**
+     * Vermerkt, dass sich das Bild geändert hat.
+     */
+    public void incrementImageVersion() {
+        imageVersion++;
+    }
+
+    public int getImageVersion() {
+        return imageVersion;
     }
 
     public User getUser() {
@@ -197,7 +175,7 @@ public class Missing extends JPAEntity {
 
     @Override
     public String toString() {
-        return String.format("Missing {id: %d, user: %s, image: %s}", getId(),
-                user.getProfile().getFirstName() + " " + user.getProfile().getLastName(), image);
+        return String.format("Missing {id: %d, user: %s, imageVersion: %d}", getId(),
+                user.getProfile().getFirstName() + " " + user.getProfile().getLastName(), imageVersion);
     }
 }
@@ -0,0 +1,61 @@
+package de.unibremen.gradelog.model;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.OneToOne;
+
+/**
+ * Das Bestätigungsbild einer {@link Missing}. Das Bild ist getrennt von der
+ * Fehlzeit abgebildet und nur von dieser Seite aus referenziert, sodass das
+ * Laden von Fehlzeiten es niemals mitlädt.
+ *
+ * @author Marco Glander
+ */
+@Entity
+@NamedQueries({
+		@NamedQuery(name = "MissingImage.findData", query = "SELECT i.data FROM MissingImage i WHERE i.missing.id = ?1"),
+		@NamedQuery(name = "MissingImage.deleteByMissing", query = "DELETE FROM MissingImage i WHERE i.missing.id = ?1") })
+public class MissingImage extends JPAEntity {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -3349196860941716052L;
+
+	/**
+	 * Die Fehlzeit, zu der das Bild gehört
+	 */
+	@OneToOne(optional = false)
+	@JoinColumn(unique = true, nullable = false)
+	private Missing missing;
+
+	/**
+	 * Das Bild (Bytestream)
+	 */
+	@Lob
+	@Basic(fetch = FetchType.LAZY)
+	@Column(length = 10240000)
+	private byte[] data;
+
+	MissingImage() {
+	}
+
+	public MissingImage(final Missing missing, final byte[] data) {
+		this.missing = missing;
+		this.data = data;
+	}
+
+	public Missing getMissing() {
+		return missing;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+}
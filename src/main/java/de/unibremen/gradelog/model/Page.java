@@ -4,6 +4,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 
 /**
  * Beinhaltet eine Seite wie 'FAQ' mit sprachabhängigen Inhalten.
@@ -11,8 +12,12 @@ import javax.persistence.NamedQuery;
  * @author Rune Krauss
  */
 @Entity
-@NamedQueries({ @NamedQuery(name = "Page.findAll", query = "SELECT p FROM Page p"),
-		@NamedQuery(name = "Page.findByName", query = "SELECT p FROM Page p WHERE p.englishName = ?1"), })
+@NamedQueries({ @NamedQuery(name = "Page.findAll", query = "SELECT p FROM Page p", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }),
+		@NamedQuery(name = "Page.findByName", query = "SELECT p FROM Page p WHERE p.englishName = ?1", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }), })
 public class Page extends JPAEntity {
 
 	/**
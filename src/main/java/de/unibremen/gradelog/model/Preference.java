@@ -5,6 +5,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Transient;
 
 /**
@@ -13,7 +14,9 @@ import javax.persistence.Transient;
  * @author Rune Krauss
  */
 @Entity
-@NamedQueries({ @NamedQuery(name = "Preference.find", query = "SELECT p FROM Preference p") })
+@NamedQueries({ @NamedQuery(name = "Preference.find", query = "SELECT p FROM Preference p", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }) })
 public class Preference extends JPAEntity {
 
     /**
@@ -50,6 +53,19 @@ public class Preference extends JPAEntity {
      */
     public Preference() {}
 
+    /**
+     * Erzeugt eine Kopie der gegebenen Einstellung inklusive ihrer Id.
+     *
+     * @param other
+     *            Die zu kopierende Einstellung.
+     */
+    public Preference(final Preference other) {
+        setId(other.getId());
+        fileSuffix = other.fileSuffix;
+        fileSize = other.fileSize;
+        fileNumber = other.fileNumber;
+    }
+
     public static Preference getInstance () {
         if (Preference.instance == null) {
             Preference.instance = new Preference();
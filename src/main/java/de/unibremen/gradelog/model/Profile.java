@@ -1,20 +1,11 @@
 package de.unibremen.gradelog.model;
 
-import org.primefaces.model.DefaultStreamedContent;
-import org.primefaces.model.StreamedContent;
-
-import javax.faces.context.FacesContext;
-import javax.faces.event.PhaseId;
-import javax.imageio.ImageIO;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 import javax.persistence.OneToOne;
-import java.awt.*;
-import java.awt.image.BufferedImage;
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
 import java.sql.Date;
 
 /**
@@ -23,6 +14,8 @@ import java.sql.Date;
  * @author Rune Krauss
  */
 @Entity
+@NamedQueries({
+        @NamedQuery(name = "Profile.findPictureInfo", query = "SELECT p.pictureVersion, p.sex, p.privated, p.user.id FROM Profile p WHERE p.id = ?1") })
 public class Profile extends JPAEntity {
     /**
      * Vorname
@@ -37,10 +30,12 @@ public class Profile extends JPAEntity {
     private String lastName;
 
     /**
-     * Profilbild
+     * Wird bei jeder Änderung des Profilbildes hochgezählt und dient als
+     * Schlüssel für zwischengespeicherte Bilder (vgl.
+     * {@link de.unibremen.gradelog.persistence.ImageCache}). Das Bild selbst
+     * liegt in einem eigenen {@link ProfilePicture}.
      */
-    @Column(length = 102400)
-    private byte[] picture;
+    private int pictureVersion;
 
     /**
      * Status Profilbild
@@ -100,37 +95,15 @@ public class Profile extends JPAEntity {
         this.lastName = lastName;
     }
 
-    public void setPicture(byte[] picture) {
-        this.picture = picture;
-    }
-
     /**
-     * Liefert das Bild dieses Users aus der Profilseite. Gibt es kein eigenes
-     * Bild, so wird ein Standardbild ausgewählt, je nachdem, ob man männlich
-     * oder weiblich ist.
-     *
-     * @return Bild des Users
+     * Vermerkt, dass sich das Profilbild geändert hat.
      */
-    public StreamedContent getPicture() throws IOException {
-        FacesContext context = FacesContext.getCurrentInstance();
-        if (context.getCurrentPhaseId() == PhaseId.RENDER_RESPONSE) {
-            return new DefaultStreamedContent();
-        } else {
-            ByteArrayOutputStream bos = new ByteArrayOutputStream();
-            try {
-                return new DefaultStreamedContent(new ByteArrayInputStream(picture), "image/jpg");
-            } catch (Exception e) {
-                BufferedImage img = ImageIO.read(
-                        context.getExternalContext().getResourceAsStream("/resources/img/profile/" + sex + ".jpg"));
-                int w = img.getWidth(null);
-                int h = img.getHeight(null);
-                BufferedImage bi = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
-                Graphics g = bi.getGraphics();
-                g.drawImage(img, 0, 0, w, h, null);
-                ImageIO.write(bi, "jpg", bos);
-                return new DefaultStreamedContent(new ByteArrayInputStream(bos.toByteArray()), "image/jpg");
-            }
-        }
+    public void incrementPictureVersion() {
+        pictureVersion++;
+    }
+
+    public int getPictureVersion() {
+        return pictureVersion;
     }
 
     public String getAboutMe() {
@@ -0,0 +1,61 @@
+package de.unibremen.gradelog.model;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.FetchType;
+import javax.persistence.JoinColumn;
+import javax.persistence.Lob;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.OneToOne;
+
+/**
+ * Das hochgeladene Bild eines {@link Profile}s. Das Bild ist getrennt vom
+ * Profil abgebildet und nur von dieser Seite aus referenziert, sodass das Laden
+ * eines Profils bzw. Benutzers es niemals mitlädt.
+ *
+ * @author Marco Glander
+ */
+@Entity
+@NamedQueries({
+		@NamedQuery(name = "ProfilePicture.findData", query = "SELECT p.data FROM ProfilePicture p WHERE p.profile.id = ?1"),
+		@NamedQuery(name = "ProfilePicture.deleteByProfile", query = "DELETE FROM ProfilePicture p WHERE p.profile.id = ?1") })
+public class ProfilePicture extends JPAEntity {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = 4605630178453126270L;
+
+	/**
+	 * Das Profil, zu dem das Bild gehört
+	 */
+	@OneToOne(optional = false)
+	@JoinColumn(unique = true, nullable = false)
+	private Profile profile;
+
+	/**
+	 * Das Bild (Bytestream)
+	 */
+	@Lob
+	@Basic(fetch = FetchType.LAZY)
+	@Column(length = 102400)
+	private byte[] data;
+
+	ProfilePicture() {
+	}
+
+	public ProfilePicture(final Profile profile, final byte[] data) {
+		this.profile = profile;
+		this.data = data;
+	}
+
+	public Profile getProfile() {
+		return profile;
+	}
+
+	public byte[] getData() {
+		return data;
+	}
+}
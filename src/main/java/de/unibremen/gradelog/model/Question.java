@@ -4,6 +4,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 
 /**
  * Hält eine Frage, welche für Selbsteinschätzungen benutzt werden. Enthält
@@ -13,8 +14,12 @@ import javax.persistence.NamedQuery;
  * @author Steffen Gerken
  */
 @Entity
-@NamedQueries({ @NamedQuery(name = "Question.findAll", query = "SELECT q FROM Question q"),
-				@NamedQuery(name = "Question.findAllRemaining", query = "SELECT q FROM Question q WHERE q.inUse = true"),})
+@NamedQueries({ @NamedQuery(name = "Question.findAll", query = "SELECT q FROM Question q", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }),
+				@NamedQuery(name = "Question.findAllRemaining", query = "SELECT q FROM Question q WHERE q.inUse = true", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }),})
 public class Question extends JPAEntity {
 
 	/**
@@ -0,0 +1,120 @@
+package de.unibremen.gradelog.model;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Die Auswertung der Antworten auf eine {@link Question} in einem Zeitraum:
+ * Verteilung der Antworten sowie die daraus laufend fortgeschriebene Anzahl,
+ * Summe und Quadratsumme, aus denen Mittelwert und Varianz folgen.
+ *
+ * Objekte dieser Klasse werden nicht persistiert!
+ *
+ * @author Marco Glander
+ */
+public class QuestionStatistics implements Serializable {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = 3522794460157314027L;
+
+	/**
+	 * Die Anzahl je Antwort
+	 */
+	private final SortedMap<Integer, Long> distribution = new TreeMap<>();
+
+	/**
+	 * Anzahl der Antworten
+	 */
+	private long count;
+
+	/**
+	 * Summe der Antworten
+	 */
+	private long sum;
+
+	/**
+	 * Summe der quadrierten Antworten
+	 */
+	private long sumOfSquares;
+
+	/**
+	 * Zählt {@code count}-mal die Antwort {@code answer}.
+	 *
+	 * @param answer
+	 *            Die Antwort.
+	 * @param count
+	 *            Wie oft die Antwort gegeben wurde.
+	 */
+	public void add(final int answer, final long count) {
+		if (count == 0)
+			return;
+		distribution.merge(answer, count, Long::sum);
+		this.count += count;
+		sum += answer * count;
+		sumOfSquares += (long) answer * answer * count;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public long getSum() {
+		return sum;
+	}
+
+	public long getSumOfSquares() {
+		return sumOfSquares;
+	}
+
+	/**
+	 * Gibt den Mittelwert der Antworten zurück.
+	 *
+	 * @return Der Mittelwert oder {@code 0}, falls es keine Antworten gibt.
+	 */
+	public double getMean() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * Gibt die (Populations-)Varianz der Antworten zurück.
+	 *
+	 * @return Die Varianz oder {@code 0}, falls es keine Antworten gibt.
+	 */
+	public double getVariance() {
+		if (count == 0)
+			return 0;
+		final double mean = getMean();
+		return Math.max((double) sumOfSquares / count - mean * mean, 0);
+	}
+
+	/**
+	 * Gibt zurück, wie oft {@code answer} gegeben wurde.
+	 *
+	 * @param answer
+	 *            Die Antwort.
+	 * @return Die Anzahl.
+	 */
+	public long getCount(final int answer) {
+		final Long answers = distribution.get(answer);
+		return answers == null ? 0 : answers;
+	}
+
+	/**
+	 * Gibt die Anzahl je Antwort aufsteigend nach Antwort zurück.
+	 *
+	 * @return Die nicht veränderbare Verteilung.
+	 */
+	public SortedMap<Integer, Long> getDistribution() {
+		return Collections.unmodifiableSortedMap(distribution);
+	}
+
+	@Override
+	public String toString() {
+		return String.format("QuestionStatistics {count: %d, mean: %.2f, variance: %.2f}", count, getMean(),
+				getVariance());
+	}
+}
@@ -0,0 +1,165 @@
+package de.unibremen.gradelog.model;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.primefaces.model.LazyScheduleModel;
+import org.primefaces.model.ScheduleEvent;
+
+import de.unibremen.gradelog.util.IntervalTree;
+
+/**
+ * Lazy-Model für einen Schedule, das je Anfrage nur die Events des angezeigten
+ * Zeitraums liefert. Liegt der angefragte Zeitraum außerhalb des bereits
+ * geladenen Fensters, wird ein Fenster mit je einem weiteren Zeitraum davor
+ * und danach über {@link #fetch(Date, Date)} geladen, sodass das Blättern zum
+ * vorherigen oder nächsten Zeitraum keine Abfrage auslöst. Die Events des
+ * Fensters liegen in einem {@link IntervalTree} und sind zusätzlich über ihre
+ * Id abrufbar (vgl. {@link #getEvent(String)}).
+ *
+ * Änderungen an Events müssen über {@link #updateEvent(ScheduleEvent)} und
+ * {@link #deleteEvent(ScheduleEvent)} übernommen werden und sind ab dem
+ * nächsten Laden sichtbar.
+ *
+ * @author Marco Glander
+ */
+public abstract class RangeScheduleModel extends LazyScheduleModel {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -1754009183126493521L;
+
+	/**
+	 * Die Events des geladenen Fensters
+	 */
+	private final IntervalTree<ScheduleEvent> index = new IntervalTree<>();
+
+	/**
+	 * Die Events des geladenen Fensters je Id
+	 */
+	private final Map<String, ScheduleEvent> byId = new HashMap<>();
+
+	/**
+	 * Die Events des angezeigten Zeitraums
+	 */
+	private List<ScheduleEvent> events = new ArrayList<>();
+
+	/**
+	 * Beginn des geladenen Fensters
+	 */
+	private long loadedFrom = Long.MAX_VALUE;
+
+	/**
+	 * Ende des geladenen Fensters (exklusiv)
+	 */
+	private long loadedTo = Long.MIN_VALUE;
+
+	/**
+	 * Lädt alle Events, die den Zeitraum {@code [from, to)} überschneiden. Es
+	 * dürfen auch Events außerhalb des Zeitraums enthalten sein.
+	 *
+	 * @param from
+	 *            Der Beginn des Zeitraums.
+	 * @param to
+	 *            Das Ende des Zeitraums.
+	 * @return Die Events.
+	 */
+	protected abstract List<? extends ScheduleEvent> fetch(Date from, Date to);
+
+	@Override
+	public void loadEvents(final Date start, final Date end) {
+		final long from = start.getTime();
+		final long to = end.getTime();
+		if (from < loadedFrom || to > loadedTo) {
+			final long span = Math.max(to - from, 0);
+			index.clear();
+			byId.clear();
+			loadedFrom = from - span;
+			loadedTo = to + span;
+			for (final ScheduleEvent event : fetch(new Date(loadedFrom), new Date(loadedTo))) {
+				put(event);
+			}
+		}
+		events = index.query(from, to);
+	}
+
+	/**
+	 * Verwirft das geladene Fenster, z. B. nachdem viele Events auf einmal
+	 * geändert wurden.
+	 */
+	public void invalidate() {
+		index.clear();
+		byId.clear();
+		loadedFrom = Long.MAX_VALUE;
+		loadedTo = Long.MIN_VALUE;
+	}
+
+	/**
+	 * Fügt {@code event} dem geladenen Fenster hinzu.
+	 */
+	@Override
+	public void addEvent(final ScheduleEvent event) {
+		put(assertNotNull(event));
+	}
+
+	/**
+	 * Entfernt das Event mit der Id von {@code event}.
+	 */
+	@Override
+	public boolean deleteEvent(final ScheduleEvent event) {
+		final ScheduleEvent removed = byId.remove(assertNotNull(event).getId());
+		if (removed == null)
+			return false;
+		index.remove(removed);
+		events.remove(removed);
+		return true;
+	}
+
+	/**
+	 * Ersetzt das Event mit der Id von {@code event}.
+	 */
+	@Override
+	public void updateEvent(final ScheduleEvent event) {
+		put(assertNotNull(event));
+	}
+
+	@Override
+	public List<ScheduleEvent> getEvents() {
+		return events;
+	}
+
+	@Override
+	public ScheduleEvent getEvent(final String id) {
+		return byId.get(id);
+	}
+
+	@Override
+	public int getEventCount() {
+		return events.size();
+	}
+
+	/**
+	 * Leert nur den angezeigten Zeitraum, das geladene Fenster bleibt erhalten.
+	 * Der Schedule ruft diese Methode vor jedem {@link #loadEvents(Date, Date)}
+	 * auf.
+	 */
+	@Override
+	public void clear() {
+		events = new ArrayList<>();
+	}
+
+	private void put(final ScheduleEvent event) {
+		final ScheduleEvent previous = byId.put(event.getId(), event);
+		if (previous != null)
+			index.remove(previous);
+		final long start = event.getStartDate().getTime();
+		final long end = event.getEndDate() == null ? start : event.getEndDate().getTime();
+		index.add(event, start, end);
+	}
+}
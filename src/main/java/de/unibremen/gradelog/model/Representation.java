@@ -5,20 +5,44 @@ import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
+import javax.persistence.Table;
 
 /**
  * Diese Klasse stellt den Eintrag in dem Vertretungsplan dar. Gespeichert
  * werden Datum, Stunde, Lehrer, vertretender Lehrer, Fach, Raum,
- * Vertretungsraum und die betroffenen Klassen.
+ * Vertretungsraum und die betroffenen Klassen. Beim Import wird ein Eintrag
+ * über Datum, Stunde, Klassen und Lehrer wiedererkannt, die übrigen Angaben
+ * können sich ändern (vgl. {@link #copyDetails(Representation)}).
  * 
  * @author Marco Glander
  *
  */
 @Entity
-@NamedQueries({ @NamedQuery(name = "Representation.findAll", query = "SELECT r FROM Representation r"),
-		@NamedQuery(name = "Representation.clear", query = "DELETE FROM Representation r") })
+@Table(indexes = { @Index(name = "IDX_REPRESENTATION_DATE", columnList = "DATE, LESSON"),
+		@Index(name = "IDX_REPRESENTATION_CLASSES", columnList = "CLASSES, DATE"),
+		@Index(name = "IDX_REPRESENTATION_TEACHER", columnList = "TEACHER, DATE"),
+		@Index(name = "IDX_REPRESENTATION_REPRETEACHER", columnList = "REPRETEACHER, DATE") })
+@NamedQueries({
+		@NamedQuery(name = "Representation.findAll", query = "SELECT r FROM Representation r ORDER BY r.date, r.lesson", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }),
+		@NamedQuery(name = "Representation.findBetween", query = "SELECT r FROM Representation r "
+				+ "WHERE r.date >= :from AND r.date < :to ORDER BY r.date, r.lesson", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }),
+		@NamedQuery(name = "Representation.findBetweenForClasses", query = "SELECT r FROM Representation r "
+				+ "WHERE r.classes = :classes AND r.date >= :from AND r.date < :to ORDER BY r.date, r.lesson", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }),
+		@NamedQuery(name = "Representation.findBetweenForTeacher", query = "SELECT r FROM Representation r "
+				+ "WHERE (r.teacher = :teacher OR r.repreTeacher = :teacher) AND r.date >= :from AND r.date < :to "
+				+ "ORDER BY r.date, r.lesson", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }) })
 public class Representation extends JPAEntity implements Comparable<Representation> {
 
 	/**
@@ -158,6 +182,34 @@ public class Representation extends JPAEntity implements Comparable<Representati
 		return str;
 	}
 
+	/**
+	 * Prüft, ob alle übrigen Angaben von {@code other} mit denen dieses
+	 * Eintrags übereinstimmen.
+	 * 
+	 * @param other
+	 *            Der zu vergleichende Eintrag.
+	 * @return {@code true}, falls Vertretungslehrer, Fach, Raum und
+	 *         Vertretungsraum übereinstimmen.
+	 */
+	public boolean hasSameDetails(final Representation other) {
+		return repreTeacher.equals(other.repreTeacher) && subject.equals(other.subject) && room.equals(other.room)
+				&& repreRoom.equals(other.repreRoom);
+	}
+
+	/**
+	 * Übernimmt Vertretungslehrer, Fach, Raum und Vertretungsraum von
+	 * {@code other}.
+	 * 
+	 * @param other
+	 *            Der Eintrag, dessen Angaben übernommen werden.
+	 */
+	public void copyDetails(final Representation other) {
+		repreTeacher = other.repreTeacher;
+		subject = other.subject;
+		room = other.room;
+		repreRoom = other.repreRoom;
+	}
+
 	@Override
 	public String toString() {
 		return String.format("Representation {id: %d}", getId());
@@ -12,11 +12,13 @@ import java.util.Set;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
+import javax.enterprise.context.ContextNotActiveException;
 import javax.enterprise.context.SessionScoped;
 import javax.inject.Inject;
 
 import de.unibremen.gradelog.persistence.SessionDAO;
 import de.unibremen.gradelog.persistence.UserDAO;
+import de.unibremen.gradelog.persistence.UserRequestCache;
 import de.unibremen.gradelog.persistence.MissingDAO;
 
 /**
@@ -56,6 +58,12 @@ public class Session implements Serializable {
 	 */
 	@Inject
 	private SessionDAO sessionDAO;
+
+	/**
+	 * Die in der aktuellen Anfrage bereits geladenen Benutzer.
+	 */
+	@Inject
+	private UserRequestCache userCache;
 	/**
 	 * Speichert den Zeitpunkt, an dem sich ein Benutzer in diese Session
 	 * eingeloggt hat.
@@ -100,6 +108,9 @@ public class Session implements Serializable {
 	 */
 	@PreDestroy
 	public void destroy() {
+		if (userId != -1) {
+			sessionDAO.logout(this, userId);
+		}
 		sessionDAO.delete(this);
 	}
 
@@ -129,26 +140,46 @@ public class Session implements Serializable {
 
 	/**
 	 * Gibt den innerhalb dieser Session eingeloggten {@link User} zurück. Ist
-	 * niemand eingeloggt, so wird {@code null} zurückgegeben.
+	 * niemand eingeloggt, so wird {@code null} zurückgegeben. Innerhalb einer
+	 * Anfrage wird der Benutzer nur einmal geladen (vgl.
+	 * {@link UserRequestCache}).
 	 *
 	 * @return Der innerhalb dieser Session eingeloggte {@link User} oder
 	 *         {@code null}.
 	 */
 	public User getUser() {
-		return userId == -1 ? null : userDAO.getById(userId);
+		if (userId == -1) {
+			return null;
+		}
+		try {
+			return userCache.get(userId);
+		} catch (final ContextNotActiveException e) {
+			return userDAO.getById(userId, User.SESSION);
+		}
 	}
 
 	/**
 	 * Setzt den innerhalb dieser Session eingeloggten {@link User} auf
 	 * {@code theUser}. Kann {@code null} sein, um einen {@link User} aus einer
-	 * Session zu entfernen.
+	 * Session zu entfernen. Der Online-Status wird in der {@link SessionDAO}
+	 * vermerkt.
 	 *
 	 * @param theUser
 	 *            Der innerhalb dieser Session eingeloggte {@link User}. Kann
 	 *            {@code null} sein.
 	 */
 	public void setUser(final User theUser) {
-		userId = theUser == null ? -1 : theUser.getId();
+		final int newUserId = theUser == null ? -1 : theUser.getId();
+		if (newUserId == userId) {
+			return;
+		}
+		if (userId != -1) {
+			sessionDAO.logout(this, userId);
+		}
+		userId = newUserId;
+		if (userId != -1) {
+			sessionDAO.login(this, userId);
+		}
 	}
 
 	/**
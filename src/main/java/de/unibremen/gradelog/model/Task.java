@@ -4,7 +4,11 @@ import java.sql.Date;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.Index;
 import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
 
 /**
  * Dieses Model verwaltet die Daten bezüglich der Tasks in dem Kalender eines
@@ -14,6 +18,10 @@ import javax.persistence.ManyToOne;
  * @author Marco Glander
  */
 @Entity
+@Table(indexes = @Index(name = "IDX_TASK_UPCOMING", columnList = "CALENDAR_ID, STARTTIME"))
+@NamedQueries({
+		@NamedQuery(name = "Task.findUpcoming", query = "SELECT t FROM Task t WHERE t.calendar.user.id = ?1 AND t.startTime >= ?2 ORDER BY t.startTime, t.id"),
+		@NamedQuery(name = "Task.findInRange", query = "SELECT t FROM Task t WHERE t.calendar.id = ?1 AND t.startTime <= ?3 AND t.endTime >= ?2 ORDER BY t.startTime, t.id") })
 public class Task extends JPAEntity implements Comparable<Task> {
 
 	/**
@@ -0,0 +1,184 @@
+package de.unibremen.gradelog.model;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Die unveränderliche Struktur der Telefonkette eines Benutzers: Id, Name und
+ * Telefonnummer je Knoten in der Reihenfolge der Ids sowie der Elternknoten
+ * jedes Knotens. Die Form der Kette ist für alle Benutzer gleich und wird
+ * einmalig berechnet (vgl. {@link #getParent(int)}).
+ *
+ * Jede Kette trägt einen Versionsstempel. Ändert sich ein Eintrag, wird mit
+ * {@link #with(Telephone, long)} eine neue Kette mit neuer Version erzeugt,
+ * sodass eine Ansicht an der Version erkennt, ob ihr Diagramm noch aktuell
+ * ist.
+ *
+ * Objekte dieser Klasse werden nicht persistiert!
+ *
+ * @author Marco Glander
+ */
+public final class TelephoneChain implements Serializable {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -1905628826436512383L;
+
+	/**
+	 * Anzahl der Einträge, die für einen Benutzer angelegt werden
+	 */
+	public static final int TELEPHONES = 31;
+
+	/**
+	 * Anzahl der Knoten im Diagramm
+	 */
+	public static final int NODES = 23;
+
+	/**
+	 * Der Index des Elternknotens je Knoten, {@code -1} für die Wurzel
+	 */
+	private static final int[] PARENTS = new int[NODES];
+
+	static {
+		PARENTS[0] = -1;
+		for (int i = 0, parent = 0; i < NODES; i++) {
+			if (i > 0)
+				PARENTS[i] = parent;
+			if (i < 15 && i % 2 == 0 && i > 0)
+				parent++;
+			else if (i >= 15)
+				parent++;
+		}
+	}
+
+	/**
+	 * Der Versionsstempel
+	 */
+	private final long version;
+
+	/**
+	 * Die Ids der Einträge je Knoten
+	 */
+	private final int[] ids;
+
+	/**
+	 * Die Namen je Knoten
+	 */
+	private final String[] names;
+
+	/**
+	 * Die Telefonnummern je Knoten
+	 */
+	private final String[] numbers;
+
+	private TelephoneChain(final long version, final int[] ids, final String[] names, final String[] numbers) {
+		this.version = version;
+		this.ids = ids;
+		this.names = names;
+		this.numbers = numbers;
+	}
+
+	/**
+	 * Erzeugt die Kette aus den nach Id sortierten {@code telephones}.
+	 * Überzählige Einträge erscheinen nicht im Diagramm.
+	 *
+	 * @param telephones
+	 *            Die Einträge eines Benutzers in beliebiger Reihenfolge.
+	 * @param version
+	 *            Der Versionsstempel der Kette.
+	 * @return Die Kette.
+	 */
+	public static TelephoneChain of(final List<Telephone> telephones, final long version) {
+		final List<Telephone> sorted = new ArrayList<>(telephones);
+		Collections.sort(sorted);
+		final int size = Math.min(sorted.size(), NODES);
+		final int[] ids = new int[size];
+		final String[] names = new String[size];
+		final String[] numbers = new String[size];
+		for (int i = 0; i < size; i++) {
+			ids[i] = sorted.get(i).getId();
+			names[i] = sorted.get(i).getName();
+			numbers[i] = sorted.get(i).getNumber();
+		}
+		return new TelephoneChain(version, ids, names, numbers);
+	}
+
+	/**
+	 * Gibt eine Kette zurück, in der Name und Telefonnummer von
+	 * {@code telephone} übernommen sind. Ist {@code telephone} nicht Teil der
+	 * Kette, wird diese Kette zurückgegeben.
+	 *
+	 * @param telephone
+	 *            Der geänderte Eintrag.
+	 * @param version
+	 *            Der Versionsstempel der neuen Kette.
+	 * @return Die geänderte Kette.
+	 */
+	public TelephoneChain with(final Telephone telephone, final long version) {
+		final int index = indexOf(telephone.getId());
+		if (index < 0)
+			return this;
+		final String[] newNames = names.clone();
+		final String[] newNumbers = numbers.clone();
+		newNames[index] = telephone.getName();
+		newNumbers[index] = telephone.getNumber();
+		return new TelephoneChain(version, ids, newNames, newNumbers);
+	}
+
+	/**
+	 * Gibt den Index des Knotens zum Eintrag mit der Id {@code telephoneId}
+	 * zurück.
+	 *
+	 * @param telephoneId
+	 *            Die Id des Eintrags.
+	 * @return Der Index oder {@code -1}, falls der Eintrag nicht Teil der Kette
+	 *         ist.
+	 */
+	public int indexOf(final int telephoneId) {
+		for (int i = 0; i < ids.length; i++) {
+			if (ids[i] == telephoneId)
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Gibt den Index des Elternknotens von Knoten {@code index} zurück.
+	 *
+	 * @param index
+	 *            Der Index des Knotens.
+	 * @return Der Index des Elternknotens oder {@code -1} für die Wurzel.
+	 */
+	public int getParent(final int index) {
+		return PARENTS[index];
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	public int size() {
+		return ids.length;
+	}
+
+	public int getId(final int index) {
+		return ids[index];
+	}
+
+	public String getName(final int index) {
+		return names[index];
+	}
+
+	public String getNumber(final int index) {
+		return numbers[index];
+	}
+
+	@Override
+	public String toString() {
+		return String.format("TelephoneChain {version: %d, ids: %s}", version, Arrays.toString(ids));
+	}
+}
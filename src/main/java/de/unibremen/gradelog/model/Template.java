@@ -4,6 +4,7 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 
 /**
  * Speichert Inhalte wie Farben und Hintergründe zum Template ab. Diese beziehen
@@ -14,8 +15,12 @@ import javax.persistence.NamedQuery;
  * 
  */
 @Entity
-@NamedQueries({ @NamedQuery(name = "Template.findByName", query = "SELECT t FROM Template t WHERE t.name = ?1"),
-		@NamedQuery(name = "Template.findAll", query = "SELECT t FROM Template t") })
+@NamedQueries({ @NamedQuery(name = "Template.findByName", query = "SELECT t FROM Template t WHERE t.name = ?1", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }),
+		@NamedQuery(name = "Template.findAll", query = "SELECT t FROM Template t", hints = {
+				@QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+				@QueryHint(name = "eclipselink.query-results-cache.expiry", value = "3600000") }) })
 public class Template extends JPAEntity {
 
 	/**
@@ -26,7 +31,7 @@ public class Template extends JPAEntity {
 	/**
 	 * Name des Templates
 	 */
-	@Column(length = 8, nullable = false)
+	@Column(length = 8, nullable = false, unique = true)
 	private String name;
 
 	/**
@@ -106,6 +111,31 @@ public class Template extends JPAEntity {
 	public Template() {
 	}
 
+	/**
+	 * Erzeugt eine Kopie des gegebenen Templates inklusive seiner Id, z. B.
+	 * als unveränderlicher Schnappschuss oder zur Bearbeitung.
+	 *
+	 * @param other
+	 *            Das zu kopierende Template.
+	 */
+	public Template(final Template other) {
+		setId(other.getId());
+		name = other.name;
+		title = other.title;
+		color = other.color;
+		background = other.background;
+		navbar = other.navbar;
+		sidebar = other.sidebar;
+		maintenanceContent = other.maintenanceContent;
+		maintenance = other.maintenance;
+		language = other.language;
+		userStatus = other.userStatus;
+		login = other.login;
+		intro = other.intro;
+		slogan = other.slogan;
+		copyright = other.copyright;
+	}
+
 	public String getName() {
 		return name;
 	}
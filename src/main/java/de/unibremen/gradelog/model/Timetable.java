@@ -4,20 +4,19 @@ import java.util.*;
 
 import javax.persistence.*;
 
-import org.primefaces.model.ScheduleEvent;
-import org.primefaces.model.ScheduleModel;
 import org.primefaces.model.UploadedFile;
 
 /**
  * Stellt den Stundenplan eines Nutzers dar. In diesem stehen der Besitzer und
- * alle Stundenplaneinträge.
+ * alle Stundenplaneinträge. Angezeigt wird er über ein
+ * {@link TimetableScheduleModel}.
  * 
  * @author Marco Glander
  * @author Mirco Bockholt
  */
 @Entity
 @NamedQueries({ @NamedQuery(name = "Timetable.findAll", query = "SELECT u FROM User u"), })
-public class Timetable extends JPAEntity implements ScheduleModel {
+public class Timetable extends JPAEntity {
 
 	/**
 	 * Die eindeutige id für Serialisierung.
@@ -29,7 +28,7 @@ public class Timetable extends JPAEntity implements ScheduleModel {
 	private User user;
 
 	/** Stundenplaneinträge */
-	@OneToMany
+	@OneToMany(mappedBy = "timetable")
 	private Set<TimetableEntry> entries;
 	
 	/** Wochenenden anzeigen? **/
@@ -117,67 +116,6 @@ public class Timetable extends JPAEntity implements ScheduleModel {
 				/* user.getFirstName() + " " + user.getLastName() */ "Pommes");
 	}
 
-	/**
-	 * Fügt ein Event dem TimetableEntry-Model hinzu.
-	 * 
-	 * @param event
-	 *            Das ScheduleEvent-Objekt, womit man Zugriff auf die Daten wie
-	 *            z. B. dem Titel aus dem PrimeFaces-Objekt hat.
-	 */
-	@Override
-	public void addEvent(ScheduleEvent event) {
-		TimetableEntry timetableEntry = new TimetableEntry();
-		timetableEntry.setTimetableEvent((TimetableEvent) event.getData());
-		addEntry(timetableEntry);
-	}
-
-	/**
-	 * Löscht ein Event aus diesem Stundenplan.
-	 * 
-	 * @param event
-	 *            Das ScheduleEvent-Objekt, womit man Zugriff auf die Daten wie
-	 *            z. B. dem Titel aus dem PrimeFaces-Objekt hat.
-	 * 
-	 * @return Status
-	 */
-	@Override
-	public boolean deleteEvent(ScheduleEvent event) {
-		removeEntry(((TimetableEvent) event.getData()).getTimetableEntry());
-		return true;
-	}
-
-	/**
-	 * Holt sich alle Stundenplan-Events aus einem Entry und fügt sie der Liste
-	 * von ScheduleEvents hinzu, welche dann zurückgegeben werden.
-	 * 
-	 * @return Event-Liste
-	 */
-	@Override
-	public List<ScheduleEvent> getEvents() {
-		List<ScheduleEvent> events = new ArrayList<ScheduleEvent>();
-		for (TimetableEntry t : entries) {
-			events.add(t.getTimetableEvent());
-		}
-		return events;
-	}
-
-	/**
-	 * Holt sich das jeweilige Event aus den Entries anhand der ID.
-	 * 
-	 * @param id
-	 *            ID des gesuchten Events.
-	 * 
-	 * @return Event, ansonsten null
-	 */
-	@Override
-	public ScheduleEvent getEvent(String id) {
-		for (TimetableEntry t : entries) {
-			if (t.getTimetableEvent().getId().equals(id))
-				return t.getTimetableEvent();
-		}
-		return null;
-	}
-
 	public boolean isShowWeekends() {
 		return showWeekends;
 	}
@@ -185,35 +123,4 @@ public class Timetable extends JPAEntity implements ScheduleModel {
 	public void setShowWeekends(boolean showWeekends) {
 		this.showWeekends = showWeekends;
 	}
-
-	/**
-	 * Aktualisiert ein Event. Zwei Events sind gleich, wenn sie dieselbe ID
-	 * besitzen.
-	 * 
-	 * @param event
-	 *            Das ScheduleEvent-Objekt, womit man Zugriff auf die Daten wie
-	 *            z. B. dem Titel aus dem PrimeFaces-Objekt hat.
-	 */
-	@Override
-	public void updateEvent(ScheduleEvent event) {
-		((TimetableEvent) event.getData()).getTimetableEntry().setTimetableEvent((TimetableEvent) event.getData());
-		;
-	}
-
-	@Override
-	public int getEventCount() {
-
-		return entries.size();
-	}
-
-	@Override
-	public void clear() {
-		entries.clear();
-
-	}
-
-	@Override
-	public boolean isEventLimit() {
-		return false;
-	}
 }
@@ -4,17 +4,27 @@ import java.sql.Date;
 
 import javax.persistence.Column;
 import javax.persistence.Entity;
-import javax.persistence.OneToOne;
+import javax.persistence.ManyToOne;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
 
 /**
  * Stellt den Eintrag in einem Stundenplan dar. Gespeichert werden Titel, Ort,
  * Beschreibung, Start-und Endzeit. Außerdem wird ein Rückverweis auf den
  * jeweiligen Stundenplan mit persistiert.
+ *
+ * Ein wöchentlicher Eintrag (vgl. {@link #isWeekly()}) wird nur einmal für die
+ * Woche seiner Start- und Endzeit gespeichert und erst beim Anzeigen in die
+ * jeweils sichtbare Woche verschoben (vgl. {@link #getTimetableEvent(int)}).
  * 
  * @author Marco Glander
  * @author Mirco Bockholt
  */
 @Entity
+@NamedQueries({
+		@NamedQuery(name = "TimetableEntry.findInRange", query = "SELECT e FROM TimetableEntry e WHERE e.timetable.id = ?1 AND e.weekly = FALSE AND e.startTime <= ?3 AND e.endTime >= ?2 ORDER BY e.startTime, e.id"),
+		@NamedQuery(name = "TimetableEntry.findWeekly", query = "SELECT e FROM TimetableEntry e WHERE e.timetable.id = ?1 AND e.weekly = TRUE ORDER BY e.startTime, e.id"),
+		@NamedQuery(name = "TimetableEntry.deleteByTimetable", query = "DELETE FROM TimetableEntry e WHERE e.timetable.id = ?1") })
 public class TimetableEntry extends JPAEntity {
 
 	/**
@@ -22,6 +32,11 @@ public class TimetableEntry extends JPAEntity {
 	 */
 	private static final long serialVersionUID = -2180296302733488042L;
 
+	/**
+	 * Länge einer Woche in Millisekunden
+	 */
+	public static final long WEEK = 7L * 24 * 60 * 60 * 1000;
+
 	/** Titel */
 	@Column(length = 64, nullable = false)
 	private String title;
@@ -40,8 +55,11 @@ public class TimetableEntry extends JPAEntity {
 	/** Endzeit */
 	private Date endTime;
 
+	/** Wiederholt sich der Eintrag wöchentlich? */
+	private boolean weekly;
+
 	/** Der zugehörige Stundenplan */
-	@OneToOne
+	@ManyToOne
 	private Timetable timetable;
 
 	/**
@@ -103,6 +121,14 @@ public class TimetableEntry extends JPAEntity {
 		this.endTime = endTime;
 	}
 
+	public boolean isWeekly() {
+		return weekly;
+	}
+
+	public void setWeekly(boolean weekly) {
+		this.weekly = weekly;
+	}
+
 	/**
 	 * Setzt die jeweiligen Werte wie Typ, Titel usw. in einem Stundenplan-Event
 	 * (TimetableEntry).
@@ -122,6 +148,26 @@ public class TimetableEntry extends JPAEntity {
 		return ce;
 	}
 
+	/**
+	 * Gibt das Stundenplan-Event dieses Eintrags in der um {@code weeks} Wochen
+	 * verschobenen Woche zurück. Nur das Event der gespeicherten Woche
+	 * ({@code weeks == 0}) kann im Stundenplan verschoben werden.
+	 *
+	 * @param weeks
+	 *            Die Anzahl der Wochen, um die verschoben wird.
+	 * @return Stundenplan-Event
+	 */
+	public TimetableEvent getTimetableEvent(final int weeks) {
+		TimetableEvent ce = getTimetableEvent();
+		if (weeks != 0) {
+			ce.setId(getId() + "-" + weeks);
+			ce.setStartDate(new Date(startTime.getTime() + weeks * WEEK));
+			ce.setEndDate(new Date(endTime.getTime() + weeks * WEEK));
+			ce.setEditable(false);
+		}
+		return ce;
+	}
+
 	/**
 	 * Holt sich die Werte aus dem Stundenplan-Event und speichert sie in diesem
 	 * Model ab, damit der Controller darauf einen kompatiblen Zugriff hat.
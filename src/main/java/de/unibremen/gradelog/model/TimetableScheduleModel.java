@@ -0,0 +1,92 @@
+package de.unibremen.gradelog.model;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.primefaces.model.ScheduleEvent;
+
+import de.unibremen.gradelog.persistence.TimetableEntryDAO;
+
+/**
+ * Lazy-Model für die Einträge eines {@link Timetable}s. Lädt je Fenster nur
+ * die Einträge, die es überschneiden (vgl.
+ * {@link TimetableEntryDAO#getInRange}). Wöchentliche Einträge werden einmal
+ * geladen und für jede Woche des Fensters verschoben angezeigt.
+ *
+ * @author Marco Glander
+ */
+public class TimetableScheduleModel extends RangeScheduleModel {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -6029851173964207705L;
+
+	/**
+	 * DAO für die Persistenz von Stundenplaneinträgen
+	 */
+	private final TimetableEntryDAO timetableEntryDao;
+
+	/**
+	 * Der angezeigte Stundenplan
+	 */
+	private final Timetable timetable;
+
+	public TimetableScheduleModel(final TimetableEntryDAO timetableEntryDao, final Timetable timetable) {
+		this.timetableEntryDao = assertNotNull(timetableEntryDao);
+		this.timetable = assertNotNull(timetable);
+	}
+
+	@Override
+	protected List<TimetableEvent> fetch(final Date from, final Date to) {
+		final List<TimetableEvent> events = new ArrayList<>();
+		for (final TimetableEntry entry : timetableEntryDao.getInRange(timetable, from, to)) {
+			events.add(entry.getTimetableEvent());
+		}
+		for (final TimetableEntry entry : timetableEntryDao.getWeekly(timetable)) {
+			final long start = entry.getStartTime().getTime();
+			final long end = entry.getEndTime().getTime();
+			// erste Woche, in der der Eintrag nach from enden kann
+			long weeks = Math.floorDiv(from.getTime() - end, TimetableEntry.WEEK);
+			while (start + weeks * TimetableEntry.WEEK < to.getTime()) {
+				if (end + weeks * TimetableEntry.WEEK > from.getTime())
+					events.add(entry.getTimetableEvent((int) weeks));
+				weeks++;
+			}
+		}
+		return events;
+	}
+
+	/**
+	 * Ersetzt das Event mit der Id von {@code event}. Gehört es zu einem
+	 * wöchentlichen Eintrag, wird das geladene Fenster verworfen, da der
+	 * Eintrag in jeder Woche angezeigt wird.
+	 */
+	@Override
+	public void updateEvent(final ScheduleEvent event) {
+		if (isWeekly(event))
+			invalidate();
+		else
+			super.updateEvent(event);
+	}
+
+	/**
+	 * Entfernt das Event mit der Id von {@code event}. Gehört es zu einem
+	 * wöchentlichen Eintrag, wird das geladene Fenster verworfen.
+	 */
+	@Override
+	public boolean deleteEvent(final ScheduleEvent event) {
+		if (!isWeekly(event))
+			return super.deleteEvent(event);
+		invalidate();
+		return true;
+	}
+
+	private static boolean isWeekly(final ScheduleEvent event) {
+		return event instanceof TimetableEvent && ((TimetableEvent) event).getTimetableEntry() != null
+				&& ((TimetableEvent) event).getTimetableEntry().isWeekly();
+	}
+}
@@ -12,13 +12,18 @@ import java.util.Set;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.ManyToMany;
+import javax.persistence.NamedAttributeNode;
+import javax.persistence.NamedEntityGraph;
+import javax.persistence.NamedEntityGraphs;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
 import javax.persistence.OneToMany;
 import javax.persistence.OneToOne;
 import javax.persistence.Table;
 import javax.persistence.Transient;
+import javax.persistence.UniqueConstraint;
 import java.sql.Date;
 
 import org.primefaces.model.UploadedFile;
@@ -26,7 +31,8 @@ import org.primefaces.model.UploadedFile;
 /**
  * Diese Klasse repräsentiert einen Nutzer dieser Applikation. Neben Daten zu
  * der Person hinter dem Nutzer werden Daten zu dem Nutzer wie z.B. freigebene
- * Seiten und Nachrichten gespeichert. Diese Klasse bildet den Kern der
+ * Seiten gespeichert. Das Postfach liegt außerhalb des Aggregats in
+ * {@link MessageReceipt}. Diese Klasse bildet den Kern der
  * Applikation, da sie mit allen anderen Klassen verbunden ist.
  * 
  * Die Email eines Benutzers wurde als Primärschlüssel gewählt, um Nutzer an
@@ -35,6 +41,10 @@ import org.primefaces.model.UploadedFile;
  * Ein Objekt dieser Klasse gilt als äquivalent, wenn ihre IDs oder Emails
  * gleich sind.
  * 
+ * Alle Beziehungen werden verzögert geladen. Welche davon eine Abfrage
+ * mitlädt, wählen die DAOs je Anwendungsfall über die Entity-Graphen
+ * {@link #DIRECTORY}, {@link #SESSION} und {@link #FULL}.
+ * 
  * @author Marco Glander
  * @author Rune Krauss
  * @author Christopher Wojtkow
@@ -42,10 +52,21 @@ import org.primefaces.model.UploadedFile;
  * @author Steffen Gerken
  */
 @Entity
-@Table(name = "Users")
+@Table(name = "Users", uniqueConstraints = { @UniqueConstraint(name = "UNQ_USER_LOGIN", columnNames = "LOGIN"),
+		@UniqueConstraint(name = "UNQ_USER_EMAIL", columnNames = "EMAIL") })
+@NamedEntityGraphs({ @NamedEntityGraph(name = User.DIRECTORY, attributeNodes = @NamedAttributeNode("profile")),
+		@NamedEntityGraph(name = User.SESSION, attributeNodes = { @NamedAttributeNode("profile"),
+				@NamedAttributeNode("timetable"), @NamedAttributeNode("calendar") }),
+		@NamedEntityGraph(name = User.FULL, attributeNodes = { @NamedAttributeNode("profile"),
+				@NamedAttributeNode("timetable"), @NamedAttributeNode("calendar"), @NamedAttributeNode("telephones"),
+				@NamedAttributeNode("groups"), @NamedAttributeNode("files") }) })
 @NamedQueries({ @NamedQuery(name = "User.findAll", query = "SELECT u FROM User u"),
+		@NamedQuery(name = "User.count", query = "SELECT COUNT(u) FROM User u"),
 		@NamedQuery(name = "User.findByName", query = "SELECT u FROM User u WHERE u.login = ?1"),
 		@NamedQuery(name = "User.findByEmail", query = "SELECT u FROM User u WHERE u.email = ?1"),
+		@NamedQuery(name = "User.findByLoginsOrEmails", query = "SELECT u.login, u.email FROM User u WHERE u.login IN ?1 OR u.email IN ?2"),
+		@NamedQuery(name = "User.findReceivers", query = "SELECT u.id, u.email, p.firstName, p.lastName FROM User u JOIN u.profile p"),
+		@NamedQuery(name = "User.findIdByEmail", query = "SELECT u.id FROM User u WHERE u.email = ?1"),
 		@NamedQuery(name = "User.findAllTeachers", query = "SELECT u FROM User u WHERE u.role = ?1 AND u.profile.privated = ?2") })
 public class User extends JPAEntity implements Shareable, MessageReceiver {
 
@@ -59,6 +80,24 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 	 */
 	private static final long serialVersionUID = -2841896419854631425L;
 
+	/**
+	 * Entity-Graph für Listen und Auswahlfelder: nur das Profil (Name,
+	 * Sichtbarkeit)
+	 */
+	public static final String DIRECTORY = "User.directory";
+
+	/**
+	 * Entity-Graph für den eingeloggten Benutzer: Profil, Stundenplan und
+	 * Kalender
+	 */
+	public static final String SESSION = "User.session";
+
+	/**
+	 * Entity-Graph für die Profilansicht: zusätzlich Telefonliste, Gruppen und
+	 * Dateien
+	 */
+	public static final String FULL = "User.full";
+
 	/**
 	 * Mögliche Rollen eines Benutzers
 	 */
@@ -75,7 +114,7 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 	/**
 	 * Benutzername
 	 */
-	@Column(length = 64, nullable = false, unique = true)
+	@Column(length = 64, nullable = false)
 	private String login;
 
 	/**
@@ -94,11 +133,6 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 	 */
 	private boolean blocked;
 
-	/**
-	 * Online-Status
-	 */
-	private boolean online;
-
 	/**
 	 * Erstellungsdatum
 	 */
@@ -122,7 +156,7 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 	/**
 	 * Profil des jeweiligen Benutzers
 	 */
-	@OneToOne(targetEntity = Profile.class, cascade = CascadeType.ALL)
+	@OneToOne(targetEntity = Profile.class, cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private Profile profile;
 
 	/**
@@ -140,7 +174,7 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 	/**
 	 * Menge der Stundenpläne
 	 */
-	@OneToOne(targetEntity = Timetable.class, cascade = CascadeType.ALL)
+	@OneToOne(targetEntity = Timetable.class, cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private Timetable timetable;
 
 	/**
@@ -152,7 +186,7 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 	/**
 	 * Menge der Kalender
 	 */
-	@OneToOne(targetEntity = Calendar.class, cascade = CascadeType.ALL)
+	@OneToOne(targetEntity = Calendar.class, cascade = CascadeType.ALL, fetch = FetchType.LAZY)
 	private Calendar calendar;
 
 	/**
@@ -179,12 +213,6 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 	@OneToMany(mappedBy = "user")
 	private Set<Missing> missings;
 
-	/**
-	 * Menge der Nachrichten
-	 */
-	@ManyToMany(targetEntity = Message.class)
-	private Set<Message> messages;
-
 	/**
 	 * Das hochgeladene File
 	 */
@@ -226,7 +254,6 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 		files = new HashSet<>();
 		evaluations = new HashSet<>();
 		missings = new HashSet<>();
-		messages = new HashSet<>();
 		widgets = new ArrayList<>();
 		widgets.add("messages");
 		widgets.add("todos");
@@ -435,22 +462,6 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 		this.missings = missings;
 	}
 
-	public Set<Message> getMessages() {
-		return messages;
-	}
-
-	public void setMessages(final Set<Message> messages) {
-		this.messages = messages;
-	}
-
-	public void setOnline(final boolean online) {
-		this.online = online;
-	}
-
-	public boolean isOnline() {
-		return online;
-	}
-
 	public boolean removeSharedPage(final CustomPage cp) {
 		return sharedPages.remove(cp);// remove gibt Boolean zurück
 	}
@@ -497,16 +508,6 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 		return missings;
 	}
 
-	public String removeMessage(final Message mes) {
-		getMessages().remove(mes);
-		return null;
-	}
-
-	public String addMessage(final Message mes) {
-		getMessages().add(mes);
-		return null;
-	}
-
 	public void removeGroup(final Group group) {
 		getGroups().remove(group);
 	}
@@ -552,7 +553,23 @@ public class User extends JPAEntity implements Shareable, MessageReceiver {
 	}
 
 	public String getDisplayName() {
-		return profile.getFirstName() + " " + profile.getLastName() + " (" + email + ")";
+		return toDisplayName(profile.getFirstName(), profile.getLastName(), email);
+	}
+
+	/**
+	 * Bildet den Anzeigenamen eines Benutzers aus seinen Bestandteilen (vgl.
+	 * {@link #getDisplayName()}).
+	 *
+	 * @param firstName
+	 *            Der Vorname.
+	 * @param lastName
+	 *            Der Nachname.
+	 * @param email
+	 *            Die E-Mail-Adresse.
+	 * @return Der Anzeigename.
+	 */
+	public static String toDisplayName(final String firstName, final String lastName, final String email) {
+		return firstName + " " + lastName + " (" + email + ")";
 	}
 
 	public String getReceiverName() {
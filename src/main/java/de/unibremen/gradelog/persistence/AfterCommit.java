@@ -0,0 +1,74 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import javax.annotation.Resource;
+import javax.enterprise.context.ApplicationScoped;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Führt Aktualisierungen der im Speicher gehaltenen Zusammenfassungen und
+ * Indizes (z. B. {@link DashboardSummary}, {@link ReceiverIndex},
+ * {@link UserStatistics}) erst aus, nachdem die laufende Transaktion
+ * festgeschrieben wurde. Wird die Transaktion zurückgerollt, entfallen sie,
+ * sodass die Caches nie Änderungen zeigen, die es in der Datenbank nicht gibt.
+ *
+ * Läuft keine Transaktion, z. B. in einer Methode mit
+ * {@code TransactionAttributeType.NOT_SUPPORTED} oder außerhalb eines
+ * Containers, wird die Aktualisierung sofort ausgeführt.
+ *
+ * @author Marco Glander
+ */
+@ApplicationScoped
+public class AfterCommit {
+
+	/**
+	 * Der Logger für diese Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(AfterCommit.class);
+
+	/**
+	 * Die Registry der Transaktionen des Containers
+	 */
+	@Resource
+	private TransactionSynchronizationRegistry registry;
+
+	/**
+	 * Führt {@code action} nach dem erfolgreichen Festschreiben der laufenden
+	 * Transaktion aus, oder sofort, falls keine Transaktion läuft. Eine dabei
+	 * ausgelöste Exception wird protokolliert, da die Transaktion zu diesem
+	 * Zeitpunkt bereits abgeschlossen ist.
+	 *
+	 * @param action
+	 *            Die auszuführende Aktualisierung.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code action == null} ist.
+	 */
+	public void execute(final Runnable action) {
+		assertNotNull(action);
+		if (registry == null || registry.getTransactionKey() == null) {
+			action.run();
+			return;
+		}
+		registry.registerInterposedSynchronization(new Synchronization() {
+			@Override
+			public void beforeCompletion() {
+			}
+
+			@Override
+			public void afterCompletion(final int status) {
+				if (status != Status.STATUS_COMMITTED)
+					return;
+				try {
+					action.run();
+				} catch (final RuntimeException e) {
+					logger.error("Update after commit failed", e);
+				}
+			}
+		});
+	}
+}
@@ -0,0 +1,80 @@
+package de.unibremen.gradelog.persistence;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ejb.Stateless;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceUnit;
+
+import org.apache.log4j.Logger;
+import org.eclipse.persistence.jpa.JpaCache;
+import org.eclipse.persistence.jpa.JpaEntityManagerFactory;
+import org.eclipse.persistence.sessions.SessionProfiler;
+
+import de.unibremen.gradelog.model.CacheUsage;
+
+/**
+ * Stellt die Zähler des {@link CacheProfiler}s für den Adminbereich bereit und
+ * erlaubt, den gemeinsamen Cache zu leeren, z. B. nachdem der Datenbestand
+ * außerhalb der Anwendung geändert wurde.
+ *
+ * @author Marco Glander
+ */
+@Stateless
+public class CacheMonitor implements Serializable {
+
+	/**
+	 * Die eindeutige ID für Serialisierung.
+	 */
+	private static final long serialVersionUID = 3016702459930474845L;
+
+	/**
+	 * Der Logger für diese Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(CacheMonitor.class);
+
+	/**
+	 * Die Persistenzeinheit, deren Caches überwacht werden
+	 */
+	@PersistenceUnit(unitName = "user")
+	private EntityManagerFactory emf;
+
+	/**
+	 * Gibt die Nutzung der Caches je Entität absteigend nach Anzahl der
+	 * Abfragen zurück.
+	 *
+	 * @return Die Nutzung der Caches oder eine leere Liste, falls der
+	 *         {@link CacheProfiler} nicht eingetragen ist.
+	 */
+	public List<CacheUsage> getUsage() {
+		final CacheProfiler profiler = getProfiler();
+		return profiler == null ? Collections.<CacheUsage> emptyList() : profiler.getUsage();
+	}
+
+	/**
+	 * Setzt die Zähler des {@link CacheProfiler}s zurück.
+	 */
+	public void reset() {
+		final CacheProfiler profiler = getProfiler();
+		if (profiler != null) {
+			profiler.reset();
+		}
+	}
+
+	/**
+	 * Verwirft alle Objekte und Abfrageergebnisse aus dem gemeinsamen Cache.
+	 */
+	public void clear() {
+		final JpaCache cache = emf.getCache().unwrap(JpaCache.class);
+		cache.evictAll();
+		cache.clearQueryCache();
+		logger.info("Cleared the shared cache");
+	}
+
+	private CacheProfiler getProfiler() {
+		final SessionProfiler profiler = emf.unwrap(JpaEntityManagerFactory.class).getServerSession().getProfiler();
+		return profiler instanceof CacheProfiler ? (CacheProfiler) profiler : null;
+	}
+}
@@ -0,0 +1,113 @@
+package de.unibremen.gradelog.persistence;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.persistence.internal.sessions.AbstractSession;
+import org.eclipse.persistence.queries.DatabaseQuery;
+import org.eclipse.persistence.sessions.Record;
+import org.eclipse.persistence.tools.profiler.SessionProfilerAdapter;
+
+import de.unibremen.gradelog.model.CacheUsage;
+
+/**
+ * Zählt je Entität die ausgeführten Leseabfragen und die dafür an die
+ * Datenbank gesendeten SQL-Anweisungen, woraus sich der Anteil der aus den
+ * Caches beantworteten Abfragen ergibt (vgl. {@link CacheUsage}). Der Profiler
+ * wird in 'persistence.xml' über 'eclipselink.profiler' eingetragen und von
+ * EclipseLink erzeugt, die Zähler sind über {@link CacheMonitor} abrufbar.
+ *
+ * Gezählt werden nur Abfragen, die nicht innerhalb einer anderen Abfrage
+ * ausgeführt werden. Reicht z. B. ein UnitOfWork eine Abfrage an die
+ * Server-Session weiter, wird sie nur einmal gezählt.
+ *
+ * @author Marco Glander
+ */
+public class CacheProfiler extends SessionProfilerAdapter {
+
+	/**
+	 * Die Tiefe der gerade im aktuellen Thread ausgeführten Abfragen
+	 */
+	private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+	/**
+	 * Die Zähler je Name einer Entität
+	 */
+	private final ConcurrentMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+	/**
+	 * Die Zähler einer Entität.
+	 */
+	private static final class Counters {
+
+		private final LongAdder queries = new LongAdder();
+
+		private final LongAdder statements = new LongAdder();
+	}
+
+	@Override
+	public Object profileExecutionOfQuery(final DatabaseQuery query, final Record row,
+			final AbstractSession session) {
+		final int[] level = depth.get();
+		if (level[0] == 0 && query.isReadQuery()) {
+			final Counters entity = countersOf(query);
+			if (entity != null) {
+				entity.queries.increment();
+			}
+		}
+		level[0]++;
+		try {
+			return super.profileExecutionOfQuery(query, row, session);
+		} finally {
+			level[0]--;
+		}
+	}
+
+	@Override
+	public void startOperationProfile(final String operationName, final DatabaseQuery query, final int weight) {
+		if (StatementExecute.equals(operationName) && query != null && query.isReadQuery()) {
+			final Counters entity = countersOf(query);
+			if (entity != null) {
+				entity.statements.increment();
+			}
+		}
+	}
+
+	@Override
+	public int getProfileWeight() {
+		return ALL;
+	}
+
+	/**
+	 * Gibt die Zähler aller Entitäten absteigend nach Anzahl der Abfragen
+	 * zurück.
+	 *
+	 * @return Die Nutzung der Caches je Entität.
+	 */
+	public List<CacheUsage> getUsage() {
+		final List<CacheUsage> usage = new ArrayList<>();
+		for (final Map.Entry<String, Counters> entry : counters.entrySet()) {
+			usage.add(new CacheUsage(entry.getKey(), entry.getValue().queries.sum(),
+					entry.getValue().statements.sum()));
+		}
+		usage.sort(Comparator.comparingLong(CacheUsage::getQueries).reversed());
+		return usage;
+	}
+
+	/**
+	 * Setzt alle Zähler zurück.
+	 */
+	public void reset() {
+		counters.clear();
+	}
+
+	private Counters countersOf(final DatabaseQuery query) {
+		final Class<?> entity = query.getReferenceClass();
+		return entity == null ? null : counters.computeIfAbsent(entity.getSimpleName(), name -> new Counters());
+	}
+}
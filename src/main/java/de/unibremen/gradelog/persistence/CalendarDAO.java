@@ -36,7 +36,7 @@ public class CalendarDAO extends JPADAO<Calendar> {
 	 *             Falls {@code calendar == null} oder {@code calendar} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(Calendar calendar) {
+	public void create(Calendar calendar) {
 		assertNotNull(calendar);
 		try {
 			super.create(calendar);
@@ -57,7 +57,7 @@ public class CalendarDAO extends JPADAO<Calendar> {
 	 *             Falls {@code calendar == null} oder {@code calendar} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Calendar calendar) {
+	public void update(Calendar calendar) {
 		assertNotNull(calendar);
 		try {
 			super.update(calendar);
@@ -69,7 +69,7 @@ public class CalendarDAO extends JPADAO<Calendar> {
 	/**
 	 * Löscht ein Calendar-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(Calendar object) {
+	public void delete(Calendar object) {
 		super.delete(object);
 	}
 
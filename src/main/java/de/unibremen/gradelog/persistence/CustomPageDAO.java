@@ -3,11 +3,15 @@ package de.unibremen.gradelog.persistence;
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
-import javax.persistence.TypedQuery;
 
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
 import de.unibremen.gradelog.exception.UnexpectedUniqueViolationException;
@@ -27,6 +31,35 @@ public class CustomPageDAO extends JPADAO<CustomPage> {
 	 */
 	private static final long serialVersionUID = -5819986024645333926L;
 
+	/**
+	 * Maximale Anzahl der Ids in einer Abfrage von {@link #addViews(Map)}
+	 */
+	static final int VIEW_BATCH_SIZE = 500;
+
+	/**
+	 * Die Zusammenfassungen des Dashboards
+	 */
+	@Inject
+	private DashboardSummary dashboardSummary;
+
+	/**
+	 * Schreibt die Zusammenfassungen erst nach dem Festschreiben fort
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+
+	/**
+	 * Die noch nicht geschriebenen Besuche der Seiten
+	 */
+	@Inject
+	private PageViewCounter pageViewCounter;
+
+	/**
+	 * DAO für die Versionen der Seiten
+	 */
+	@Inject
+	private CustomPageHistoryDAO historyDao;
+
 	/**
 	 * Fügt {@code customPage} dem Datenbestand hinzu. Falls {@code customPage}
 	 * bereits im Datenbestand vorhanden ist (vgl.
@@ -40,13 +73,14 @@ public class CustomPageDAO extends JPADAO<CustomPage> {
 	 *             Falls {@code customPage == null} oder {@code customPage} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(CustomPage customPage) {
+	public void create(final CustomPage customPage) {
 		assertNotNull(customPage);
 		try {
 			super.create(customPage);
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
 		}
+		afterCommit.execute(() -> dashboardSummary.pageSaved(customPage));
 	}
 
 	/**
@@ -61,13 +95,14 @@ public class CustomPageDAO extends JPADAO<CustomPage> {
 	 *             Falls {@code customPage == null} oder {@code customPage} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void update(CustomPage object) {
+	public void update(final CustomPage object) {
 		assertNotNull(object);
 		try {
 			super.update(object);
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
 		}
+		afterCommit.execute(() -> dashboardSummary.pageSaved(object));
 	}
 
 	/**
@@ -80,10 +115,17 @@ public class CustomPageDAO extends JPADAO<CustomPage> {
 	}
 
 	/**
-	 * Löscht ein Task-Objekt aus dem Datenbestand.
+	 * Löscht ein CustomPage-Objekt samt seiner Versionen aus dem Datenbestand.
 	 */
-	public synchronized void delete(CustomPage object) {
+	public void delete(final CustomPage object) {
+		final User owner = assertNotNull(object).getUser();
+		final int id = object.getId();
+		historyDao.deleteAll(object);
 		super.delete(object);
+		afterCommit.execute(() -> {
+			dashboardSummary.pageRemoved(owner, id);
+			pageViewCounter.pageRemoved(id);
+		});
 	}
 
 	public Class<CustomPage> getClazz() {
@@ -113,29 +155,88 @@ public class CustomPageDAO extends JPADAO<CustomPage> {
 				.setParameter(1, assertNotNull(user.getId())).getResultList();
 	}
 
+	/**
+	 * Gibt die zuletzt erstellten Seiten von {@code user} zurück.
+	 *
+	 * @param user
+	 *            Der Besitzer der Seiten.
+	 * @param limit
+	 *            Die maximale Anzahl der Seiten.
+	 * @return Die Seiten absteigend nach Id.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	public List<CustomPage> getLatestOwnedByUser(final User user, final int limit) {
+		return getEntityManager().createNamedQuery("CustomPage.findLatestOwnedByUser", getClazz())
+				.setParameter(1, assertNotNull(user).getId()).setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * Gibt die meistbesuchten Seiten von {@code user} zurück.
+	 *
+	 * @param user
+	 *            Der Besitzer der Seiten.
+	 * @param limit
+	 *            Die maximale Anzahl der Seiten.
+	 * @return Die Seiten absteigend nach Besucherzahl.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	public List<CustomPage> getMostViewedOwnedByUser(final User user, final int limit) {
+		return getEntityManager().createNamedQuery("CustomPage.findMostViewedOwnedByUser", getClazz())
+				.setParameter(1, assertNotNull(user).getId()).setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * Erhöht die Besucherzähler mehrerer Seiten. Seiten mit gleich vielen neuen
+	 * Besuchen werden gemeinsam mit einer Abfrage aktualisiert, ohne die Seiten
+	 * zu laden (vgl. {@link PageViewCounter}).
+	 *
+	 * @param views
+	 *            Die neuen Besuche je Id einer Seite.
+	 * @return Die Anzahl der aktualisierten Seiten.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code views == null} ist.
+	 */
+	public int addViews(final Map<Integer, Long> views) {
+		final Map<Long, List<Integer>> byDelta = new HashMap<>();
+		for (final Map.Entry<Integer, Long> entry : assertNotNull(views).entrySet()) {
+			byDelta.computeIfAbsent(entry.getValue(), delta -> new ArrayList<>()).add(entry.getKey());
+		}
+		int updated = 0;
+		for (final Map.Entry<Long, List<Integer>> entry : byDelta.entrySet()) {
+			final List<Integer> ids = entry.getValue();
+			for (int from = 0; from < ids.size(); from += VIEW_BATCH_SIZE) {
+				updated += getEntityManager().createNamedQuery("CustomPage.addViews")
+						.setParameter(1, entry.getKey().intValue())
+						.setParameter(2, ids.subList(from, Math.min(from + VIEW_BATCH_SIZE, ids.size())))
+						.executeUpdate();
+			}
+		}
+		return updated;
+	}
+
 	/**
 	 * Fässt für eine CustomPage alle freigegeben User zu einer Liste zusammen.
 	 * Auch User die indirekt durch Gruppen Freigabe erteilt bekommen haben
-	 * werden erfasst.
+	 * werden erfasst, ebenso der Besitzer der Seite.
 	 * 
 	 * @param object
-	 * @return
+	 *            Die CustomPage, deren Leser gesucht werden.
+	 * @return Alle Leser der CustomPage ohne Duplikate.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code object == null} ist.
 	 */
 	public List<User> getReaders(CustomPage object) {
-		ArrayList<User> result = new ArrayList<>();
-		EntityManager em = getEntityManager();
-		TypedQuery<Group> groupQuery = em.createNamedQuery("Group.findAll", Group.class);
-		List<Group> groups = groupQuery.getResultList();
-		for (Group g : groups) {
-			if (g.getSharedPages().contains(object))
-				result.addAll(g.getUsers());
-		}
-		TypedQuery<User> userQuery = em.createNamedQuery("User.findAll", User.class);
-		List<User> users = userQuery.getResultList();
-		for (User u : users) {
-			if (getOwnedByUser(u).contains(object))
-				result.add(u);
-		}
-		return result;
+		assertNotNull(object);
+		final EntityManager em = getEntityManager();
+		final Set<User> readers = new LinkedHashSet<>();
+		if (object.getUser() != null)
+			readers.add(object.getUser());
+		readers.addAll(em.createNamedQuery("CustomPage.findSubReaders", User.class).setParameter(1, object.getId())
+				.getResultList());
+		readers.addAll(em.createNamedQuery("CustomPage.findGroupReaders", User.class).setParameter(1, object.getId())
+				.getResultList());
+		return new ArrayList<>(readers);
 	}
 }
@@ -0,0 +1,272 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.ejb.Stateless;
+import javax.persistence.LockModeType;
+
+import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
+import de.unibremen.gradelog.exception.UnexpectedUniqueViolationException;
+import de.unibremen.gradelog.model.CustomPage;
+import de.unibremen.gradelog.model.CustomPageHistory;
+import de.unibremen.gradelog.util.TextDelta;
+
+/**
+ * Dieses DAO verwaltet die Versionen einer {@link CustomPage}. Eine neue
+ * Version wird als Delta zur vorherigen Version gespeichert (vgl.
+ * {@link TextDelta}), spätestens jede {@link #SNAPSHOT_INTERVAL}-te Version
+ * und jede Version, deren Delta nicht kürzer als ihr Inhalt ist, vollständig.
+ * Der Inhalt einer Version wird bei Bedarf aus der letzten vollständigen
+ * Version und den folgenden Deltas rekonstruiert, die Versionsliste wird
+ * ohne Inhalt seitenweise geladen (vgl.
+ * {@link #getInfos(CustomPage, int, int)}).
+ *
+ * @author Marco Glander
+ */
+@Stateless
+public class CustomPageHistoryDAO extends JPADAO<CustomPageHistory> {
+
+	/**
+	 * Die eindeutige ID für Serialisierung.
+	 */
+	private static final long serialVersionUID = -3102417165512349062L;
+
+	/**
+	 * Maximale Länge einer Kette aus einer vollständigen Version und den
+	 * folgenden Deltas
+	 */
+	static final int SNAPSHOT_INTERVAL = 10;
+
+	/**
+	 * Speichert den aktuellen Zustand von {@code page} als neue Version. Die
+	 * Zeile der Seite wird dabei bis zum Ende der Transaktion gesperrt, damit
+	 * gleichzeitige Aufrufe für dieselbe Seite die neueste Version nacheinander
+	 * lesen und nicht dieselbe Revision vergeben.
+	 *
+	 * @param page
+	 *            Die Seite, deren Zustand gespeichert wird.
+	 * @param author
+	 *            Der Anzeigename des speichernden Benutzers.
+	 * @return Die neue Version.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public CustomPageHistory record(final CustomPage page, final String author) {
+		assertNotNull(page);
+		assertNotNull(author);
+		getEntityManager().find(CustomPage.class, page.getId(), LockModeType.PESSIMISTIC_WRITE);
+		final CustomPageHistory latest = getLatest(page);
+		final CustomPageHistory history = new CustomPageHistory(page, latest == null ? 1 : latest.getRevision() + 1,
+				author);
+		final String content = page.getContent() == null ? "" : page.getContent();
+		if (latest == null || latest.getDepth() + 1 >= SNAPSHOT_INTERVAL) {
+			history.setSnapshot(content);
+		} else {
+			encode(history, reconstruct(getChain(latest)), latest.getDepth() + 1, content);
+		}
+		try {
+			super.create(history);
+		} catch (final DuplicateUniqueFieldException e) {
+			throw new UnexpectedUniqueViolationException(e);
+		}
+		return history;
+	}
+
+	/**
+	 * Gibt die Versionen von {@code page} ohne Inhalt zurück, die neueste
+	 * zuerst.
+	 *
+	 * @param page
+	 *            Die Seite.
+	 * @param first
+	 *            Die Position der ersten zurückgegebenen Version.
+	 * @param max
+	 *            Die maximale Anzahl der Versionen.
+	 * @return Die Versionen der Seite.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code page == null} ist.
+	 */
+	public List<CustomPageHistory.Info> getInfos(final CustomPage page, final int first, final int max) {
+		final List<Object[]> rows = getEntityManager()
+				.createNamedQuery("CustomPageHistory.findInfoByPage", Object[].class)
+				.setParameter(1, assertNotNull(page).getId()).setFirstResult(first).setMaxResults(max)
+				.getResultList();
+		final List<CustomPageHistory.Info> infos = new ArrayList<>(rows.size());
+		for (final Object[] row : rows) {
+			infos.add(new CustomPageHistory.Info(((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+					(Date) row[2], (String) row[3], ((Number) row[4]).intValue(), (String) row[5]));
+		}
+		return infos;
+	}
+
+	/**
+	 * Gibt die Anzahl der Versionen von {@code page} zurück.
+	 *
+	 * @param page
+	 *            Die Seite.
+	 * @return Die Anzahl der Versionen.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code page == null} ist.
+	 */
+	public int count(final CustomPage page) {
+		return getEntityManager().createNamedQuery("CustomPageHistory.countByPage", Long.class)
+				.setParameter(1, assertNotNull(page).getId()).getSingleResult().intValue();
+	}
+
+	/**
+	 * Rekonstruiert den Inhalt der Version mit der Id {@code id}.
+	 *
+	 * @param id
+	 *            Die Id der Version.
+	 * @return Der Inhalt der Version oder {@code null}, falls es sie nicht
+	 *         gibt.
+	 */
+	public String getContent(final int id) {
+		final CustomPageHistory history = getById(id);
+		return history == null ? null : reconstruct(getChain(history));
+	}
+
+	/**
+	 * Entfernt die Version mit der Id {@code id}. Baut die nachfolgende Version
+	 * auf ihr auf, wird diese zuvor neu kodiert.
+	 *
+	 * @param id
+	 *            Die Id der Version.
+	 */
+	public void remove(final int id) {
+		final CustomPageHistory removed = getById(id);
+		if (removed == null)
+			return;
+		final List<CustomPageHistory> next = getEntityManager()
+				.createNamedQuery("CustomPageHistory.findNext", CustomPageHistory.class)
+				.setParameter(1, removed.getCustomPage().getId()).setParameter(2, removed.getRevision())
+				.setMaxResults(1).getResultList();
+		if (!next.isEmpty() && !next.get(0).isSnapshot()) {
+			rebase(getChain(next.get(0)));
+		}
+		getEntityManager().remove(removed);
+	}
+
+	/**
+	 * Entfernt alle Versionen von {@code page} mit einer einzigen Abfrage.
+	 *
+	 * @param page
+	 *            Die Seite.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code page == null} ist.
+	 */
+	public void deleteAll(final CustomPage page) {
+		getEntityManager().createNamedQuery("CustomPageHistory.deleteByPage")
+				.setParameter(1, assertNotNull(page).getId()).executeUpdate();
+	}
+
+	public Class<CustomPageHistory> getClazz() {
+		return CustomPageHistory.class;
+	}
+
+	private CustomPageHistory getLatest(final CustomPage page) {
+		final List<CustomPageHistory> latest = getEntityManager()
+				.createNamedQuery("CustomPageHistory.findLatest", CustomPageHistory.class)
+				.setParameter(1, page.getId()).setMaxResults(1).getResultList();
+		return latest.isEmpty() ? null : latest.get(0);
+	}
+
+	/**
+	 * Lädt die letzte vollständige Version bis einschließlich {@code history}
+	 * und alle Versionen dazwischen.
+	 */
+	private List<CustomPageHistory> getChain(final CustomPageHistory history) {
+		return getEntityManager().createNamedQuery("CustomPageHistory.findChain", CustomPageHistory.class)
+				.setParameter(1, history.getCustomPage().getId()).setParameter(2, history.getRevision())
+				.getResultList();
+	}
+
+	/**
+	 * Speichert {@code content} in {@code history} als Delta zu {@code base},
+	 * sofern das Delta kürzer als der Inhalt ist, andernfalls vollständig.
+	 *
+	 * @param history
+	 *            Die zu befüllende Version.
+	 * @param base
+	 *            Der Inhalt der vorherigen Version.
+	 * @param depth
+	 *            Die Tiefe von {@code history} in der Kette, falls das Delta
+	 *            gespeichert wird.
+	 * @param content
+	 *            Der Inhalt von {@code history}.
+	 */
+	static void encode(final CustomPageHistory history, final String base, final int depth, final String content) {
+		final String delta = TextDelta.diff(base, content);
+		if (delta.length() < content.length()) {
+			history.setDelta(delta, content.length(), depth);
+		} else {
+			history.setSnapshot(content);
+		}
+	}
+
+	/**
+	 * Rekonstruiert den Inhalt der letzten Version von {@code chain}.
+	 *
+	 * @param chain
+	 *            Eine vollständige Version und die folgenden Versionen in
+	 *            aufsteigender Reihenfolge.
+	 * @return Der Inhalt der letzten Version.
+	 * @throws IllegalStateException
+	 *             Falls die Kette nicht mit einer vollständigen Version
+	 *             beginnt oder ein Delta nicht zur vorherigen Version passt.
+	 */
+	static String reconstruct(final List<CustomPageHistory> chain) {
+		if (chain.isEmpty() || !chain.get(0).isSnapshot())
+			throw new IllegalStateException("History chain does not start with a snapshot");
+		String content = null;
+		for (final CustomPageHistory history : chain) {
+			content = apply(content, history);
+		}
+		return content;
+	}
+
+	/**
+	 * Kodiert die letzte Version von {@code chain} neu, sodass sie nicht mehr
+	 * auf der vorletzten aufbaut. Sie wird dann als Delta zur drittletzten
+	 * oder, falls die vorletzte die vollständige Version der Kette war,
+	 * vollständig gespeichert.
+	 *
+	 * @param chain
+	 *            Eine vollständige Version und die folgenden Versionen in
+	 *            aufsteigender Reihenfolge, mindestens zwei.
+	 * @throws IllegalStateException
+	 *             Falls die Kette nicht mit einer vollständigen Version
+	 *             beginnt oder ein Delta nicht zur vorherigen Version passt.
+	 */
+	static void rebase(final List<CustomPageHistory> chain) {
+		if (chain.size() < 2 || !chain.get(0).isSnapshot())
+			throw new IllegalStateException("History chain does not start with a snapshot");
+		final int last = chain.size() - 1;
+		String previous = null;
+		String content = null;
+		for (int i = 0; i <= last; i++) {
+			if (i == last - 1)
+				previous = content;
+			content = apply(content, chain.get(i));
+		}
+		if (previous == null) {
+			chain.get(last).setSnapshot(content);
+		} else {
+			encode(chain.get(last), previous, chain.get(last - 1).getDepth(), content);
+		}
+	}
+
+	private static String apply(final String previous, final CustomPageHistory history) {
+		if (history.isSnapshot())
+			return history.getData();
+		try {
+			return TextDelta.apply(previous, history.getData());
+		} catch (final IllegalArgumentException e) {
+			throw new IllegalStateException("Corrupt delta in " + history, e);
+		}
+	}
+}
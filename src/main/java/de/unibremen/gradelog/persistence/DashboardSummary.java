@@ -0,0 +1,377 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import de.unibremen.gradelog.model.CustomPage;
+import de.unibremen.gradelog.model.Message;
+import de.unibremen.gradelog.model.Task;
+import de.unibremen.gradelog.model.User;
+import de.unibremen.gradelog.persistence.MessageDAO.Mailbox;
+import de.unibremen.gradelog.util.TopList;
+
+/**
+ * Hält für jeden Benutzer die Daten der Dashboard-Widgets als kleine,
+ * sortierte Listen vor: die nächsten Termine, die neuesten ungelesenen
+ * Nachrichten, die zuletzt erstellten und die meistbesuchten eigenen Seiten.
+ * Jede Liste wird beim ersten Zugriff mit einer begrenzten Abfrage befüllt und
+ * danach von den DAOs nach jeder festgeschriebenen Änderung fortgeschrieben
+ * (vgl. {@link TopList} und {@link AfterCommit}), sodass ein Aufruf des
+ * Dashboards je Widget nur {@value #SIZE} Einträge liest.
+ *
+ * Es werden höchstens {@value #MAX_USERS} Zusammenfassungen gehalten. Wird
+ * diese Zahl überschritten, werden die Zusammenfassungen verworfen, die länger
+ * als {@value #IDLE_MILLIS} ms nicht abgerufen wurden, und danach, falls
+ * nötig, die am längsten nicht abgerufenen. Verworfene Zusammenfassungen
+ * werden beim nächsten Aufruf des Dashboards neu geladen.
+ *
+ * @author Marco Glander
+ */
+@ApplicationScoped
+public class DashboardSummary {
+
+	/**
+	 * Anzahl der Einträge je Widget
+	 */
+	public static final int SIZE = 5;
+
+	/**
+	 * Maximale Anzahl der gehaltenen Zusammenfassungen
+	 */
+	static final int MAX_USERS = 2000;
+
+	/**
+	 * Zeit, nach der eine nicht abgerufene Zusammenfassung beim Verdrängen
+	 * zuerst verworfen wird
+	 */
+	static final long IDLE_MILLIS = 30 * 60 * 1000L;
+
+	/**
+	 * Termine aufsteigend nach Beginn
+	 */
+	private static final Comparator<Task> BY_START = Comparator.comparing(Task::getStartTime)
+			.thenComparingInt(Task::getId);
+
+	/**
+	 * Nachrichten und Seiten absteigend nach Id, d. h. die neuesten zuerst
+	 */
+	private static final Comparator<Message> NEWEST_MESSAGE = Comparator.comparingInt(Message::getId).reversed();
+
+	private static final Comparator<CustomPage> NEWEST_PAGE = Comparator.comparingInt(CustomPage::getId).reversed();
+
+	/**
+	 * Seiten absteigend nach Besucherzahl
+	 */
+	private static final Comparator<CustomPage> MOST_VIEWED = Comparator.comparingInt(CustomPage::getCounter)
+			.reversed().thenComparing(NEWEST_PAGE);
+
+	/**
+	 * DAO für die Persistenz von Tasks
+	 */
+	@Inject
+	private TaskDAO taskDao;
+
+	/**
+	 * DAO für die Persistenz von Nachrichten
+	 */
+	@Inject
+	private MessageDAO messageDao;
+
+	/**
+	 * DAO für die Persistenz von CustomPages
+	 */
+	@Inject
+	private CustomPageDAO customPageDao;
+
+	/**
+	 * Die Zusammenfassungen der Benutzer, die das Dashboard bereits aufgerufen
+	 * haben
+	 */
+	private final ConcurrentMap<Integer, Summary> summaries = new ConcurrentHashMap<>();
+
+	/**
+	 * Die Widget-Listen eines Benutzers.
+	 */
+	private static class Summary {
+
+		/**
+		 * Zeitpunkt des letzten Abrufs
+		 */
+		private volatile long lastAccess = System.currentTimeMillis();
+
+		private final TopList<Task> nextTasks = new TopList<>(SIZE, BY_START);
+
+		private final TopList<Message> unread = new TopList<>(SIZE, NEWEST_MESSAGE);
+
+		private final TopList<CustomPage> latestPages = new TopList<>(SIZE, NEWEST_PAGE);
+
+		private final TopList<CustomPage> mostViewed = new TopList<>(SIZE, MOST_VIEWED);
+	}
+
+	/**
+	 * Gibt die nächsten anstehenden Termine von {@code user} zurück.
+	 *
+	 * @param user
+	 *            Der Benutzer.
+	 * @return Höchstens {@value #SIZE} Termine aufsteigend nach Beginn.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	public List<Task> getNextTasks(final User user) {
+		final TopList<Task> tasks = summary(assertNotNull(user)).nextTasks;
+		synchronized (tasks) {
+			final java.util.Date today = today();
+			tasks.removeIf(t -> t.getStartTime().before(today));
+			if (!tasks.isValid())
+				tasks.reset(taskDao.getUpcoming(user, today, SIZE));
+			return tasks.get();
+		}
+	}
+
+	/**
+	 * Gibt die neuesten ungelesenen Nachrichten von {@code user} zurück.
+	 *
+	 * @param user
+	 *            Der Benutzer.
+	 * @return Höchstens {@value #SIZE} Nachrichten, die neueste zuerst.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	public List<Message> getLatestUnread(final User user) {
+		final TopList<Message> unread = summary(assertNotNull(user)).unread;
+		synchronized (unread) {
+			if (!unread.isValid())
+				unread.reset(messageDao.getMailbox(Mailbox.UNREAD, user, Integer.MAX_VALUE, 0, SIZE));
+			return unread.get();
+		}
+	}
+
+	/**
+	 * Gibt die zuletzt erstellten eigenen Seiten von {@code user} zurück.
+	 *
+	 * @param user
+	 *            Der Benutzer.
+	 * @return Höchstens {@value #SIZE} Seiten, die neueste zuerst.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	public List<CustomPage> getLatestPages(final User user) {
+		final TopList<CustomPage> pages = summary(assertNotNull(user)).latestPages;
+		synchronized (pages) {
+			if (!pages.isValid())
+				pages.reset(customPageDao.getLatestOwnedByUser(user, SIZE));
+			return pages.get();
+		}
+	}
+
+	/**
+	 * Gibt die meistbesuchten eigenen Seiten von {@code user} zurück.
+	 *
+	 * @param user
+	 *            Der Benutzer.
+	 * @return Höchstens {@value #SIZE} Seiten absteigend nach Besucherzahl.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	public List<CustomPage> getMostViewedPages(final User user) {
+		final TopList<CustomPage> pages = summary(assertNotNull(user)).mostViewed;
+		synchronized (pages) {
+			if (!pages.isValid())
+				pages.reset(customPageDao.getMostViewedOwnedByUser(user, SIZE));
+			return pages.get();
+		}
+	}
+
+	/**
+	 * Übernimmt einen neuen oder geänderten Termin.
+	 *
+	 * @param task
+	 *            Der gespeicherte Termin.
+	 */
+	public void taskSaved(final Task task) {
+		final Summary summary = cached(task.getCalendar() == null ? task.getUser() : task.getCalendar().getUser());
+		if (summary == null)
+			return;
+		if (task.getStartTime().before(today()))
+			summary.nextTasks.remove(task);
+		else
+			summary.nextTasks.offer(task);
+	}
+
+	/**
+	 * Entfernt einen gelöschten Termin. Da der Termin zu diesem Zeitpunkt meist
+	 * keinem Kalender mehr zugeordnet ist, werden alle Zusammenfassungen
+	 * durchsucht.
+	 *
+	 * @param taskId
+	 *            Die Id des gelöschten Termins.
+	 */
+	public void taskRemoved(final int taskId) {
+		for (final Summary summary : summaries.values()) {
+			summary.nextTasks.removeIf(t -> t.getId() == taskId);
+		}
+	}
+
+	/**
+	 * Übernimmt eine an die gegebenen Empfänger zugestellte Nachricht.
+	 *
+	 * @param message
+	 *            Die zugestellte Nachricht.
+	 * @param receiverIds
+	 *            Die Ids der Empfänger.
+	 */
+	public void messageDelivered(final Message message, final Collection<Integer> receiverIds) {
+		for (final Integer receiverId : receiverIds) {
+			final Summary summary = summaries.get(receiverId);
+			if (summary != null)
+				summary.unread.offer(message);
+		}
+	}
+
+	/**
+	 * Entfernt eine gelesene oder aus dem Postfach entfernte Nachricht.
+	 *
+	 * @param message
+	 *            Die Nachricht.
+	 * @param receiverId
+	 *            Die Id des Empfängers.
+	 */
+	public void messageRead(final Message message, final int receiverId) {
+		final Summary summary = summaries.get(receiverId);
+		if (summary != null)
+			summary.unread.remove(message);
+	}
+
+	/**
+	 * Entfernt eine gelöschte Nachricht aus allen Postfächern.
+	 *
+	 * @param messageId
+	 *            Die Id der gelöschten Nachricht.
+	 */
+	public void messageRemoved(final int messageId) {
+		for (final Summary summary : summaries.values()) {
+			summary.unread.removeIf(m -> m.getId() == messageId);
+		}
+	}
+
+	/**
+	 * Übernimmt eine neue oder geänderte Seite.
+	 *
+	 * @param page
+	 *            Die gespeicherte Seite.
+	 */
+	public void pageSaved(final CustomPage page) {
+		final Summary summary = cached(page.getUser());
+		if (summary != null) {
+			summary.latestPages.offer(page);
+			summary.mostViewed.offer(page);
+		}
+	}
+
+	/**
+	 * Verwirft die meistbesuchten Seiten der gegebenen Besitzer, nachdem neue
+	 * Besuche ihrer Seiten geschrieben wurden (vgl. {@link PageViewCounter}).
+	 * Die Listen werden beim nächsten Aufruf neu geladen.
+	 *
+	 * @param ownerIds
+	 *            Die Ids der Besitzer.
+	 */
+	public void pagesViewed(final Collection<Integer> ownerIds) {
+		for (final Integer ownerId : ownerIds) {
+			final Summary summary = summaries.get(ownerId);
+			if (summary != null)
+				summary.mostViewed.invalidate();
+		}
+	}
+
+	/**
+	 * Entfernt eine gelöschte Seite.
+	 *
+	 * @param owner
+	 *            Der Besitzer der Seite.
+	 * @param pageId
+	 *            Die Id der gelöschten Seite.
+	 */
+	public void pageRemoved(final User owner, final int pageId) {
+		final Summary summary = cached(owner);
+		if (summary != null) {
+			summary.latestPages.removeIf(p -> p.getId() == pageId);
+			summary.mostViewed.removeIf(p -> p.getId() == pageId);
+		}
+	}
+
+	/**
+	 * Verwirft die Zusammenfassung eines gelöschten Benutzers.
+	 *
+	 * @param userId
+	 *            Die Id des gelöschten Benutzers.
+	 */
+	public void userRemoved(final int userId) {
+		summaries.remove(userId);
+	}
+
+	/**
+	 * Gibt die Zusammenfassung von {@code user} zurück und legt sie bei Bedarf
+	 * an.
+	 */
+	private Summary summary(final User user) {
+		Summary summary = summaries.get(user.getId());
+		if (summary == null) {
+			summary = summaries.computeIfAbsent(user.getId(), id -> new Summary());
+			if (summaries.size() > MAX_USERS)
+				evict();
+		}
+		summary.lastAccess = System.currentTimeMillis();
+		return summary;
+	}
+
+	/**
+	 * Verwirft die länger nicht abgerufenen Zusammenfassungen und danach die am
+	 * längsten nicht abgerufenen, bis höchstens drei Viertel von
+	 * {@value #MAX_USERS} übrig sind, damit nicht jeder weitere Benutzer erneut
+	 * verdrängt.
+	 */
+	private synchronized void evict() {
+		final long now = System.currentTimeMillis();
+		summaries.values().removeIf(summary -> now - summary.lastAccess > IDLE_MILLIS);
+		final int excess = summaries.size() - MAX_USERS * 3 / 4;
+		if (excess > 0) {
+			final Comparator<Map.Entry<Integer, Summary>> leastRecent = Comparator
+					.comparingLong(entry -> entry.getValue().lastAccess);
+			summaries.entrySet().stream().sorted(leastRecent).limit(excess).map(Map.Entry::getKey)
+					.collect(Collectors.toList()).forEach(summaries::remove);
+		}
+	}
+
+	/**
+	 * Gibt die Anzahl der gehaltenen Zusammenfassungen zurück.
+	 *
+	 * @return Anzahl der Zusammenfassungen.
+	 */
+	int size() {
+		return summaries.size();
+	}
+
+	private Summary cached(final User user) {
+		return user == null ? null : summaries.get(user.getId());
+	}
+
+	/**
+	 * Termine werden tagesgenau gespeichert (vgl. {@link Task}), daher zählen
+	 * alle Termine des heutigen Tages als anstehend.
+	 */
+	private static java.util.Date today() {
+		return java.sql.Date.valueOf(LocalDate.now());
+	}
+}
@@ -0,0 +1,187 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.enterprise.context.ApplicationScoped;
+
+import de.unibremen.gradelog.util.Crypt;
+
+/**
+ * Legt die Inhalte im Dateisystem unter {@code <root>/<ab>/<hash>} ab, wobei
+ * {@code ab} die ersten beiden Zeichen des Hashes sind. Das Wurzelverzeichnis
+ * wird über die System-Property {@value #ROOT_PROPERTY} festgelegt und liegt
+ * standardmäßig im Home-Verzeichnis, also außerhalb des WAR-Archivs.
+ *
+ * Ein Upload wird zunächst in eine temporäre Datei desselben Verzeichnisses
+ * geschrieben und dabei gehasht, anschließend atomar an seinen endgültigen
+ * Platz verschoben. Leser sehen daher nie eine halb geschriebene Datei. Der
+ * Zeitpunkt der letzten Änderung eines Inhalts ist der seines letzten
+ * Speicherns; er bestimmt die Schonfrist beim Entfernen. Speichern und
+ * Entfernen desselben Inhalts schließen sich gegenseitig aus.
+ *
+ * @author Marco Glander
+ */
+@ApplicationScoped
+public class DiskFileStore implements FileStore {
+
+	/**
+	 * System-Property für das Wurzelverzeichnis
+	 */
+	public static final String ROOT_PROPERTY = "gradelog.files.dir";
+
+	/**
+	 * Größe des Puffers beim Kopieren
+	 */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * Gültige Hashes, verhindert u. a. Pfade wie {@code ../}
+	 */
+	private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+	/**
+	 * Anzahl der Sperren, auf die die Hashes verteilt werden
+	 */
+	private static final int LOCKS = 64;
+
+	/**
+	 * Das Wurzelverzeichnis
+	 */
+	private final Path root;
+
+	/**
+	 * Sperren für Speichern und Entfernen, je Hash eine
+	 */
+	private final Object[] locks = new Object[LOCKS];
+
+	/**
+	 * Erzeugt einen Speicher im konfigurierten Wurzelverzeichnis.
+	 */
+	public DiskFileStore() {
+		this(configuredRoot());
+	}
+
+	/**
+	 * Erzeugt einen Speicher im gegebenen Wurzelverzeichnis.
+	 *
+	 * @param root
+	 *            Das Wurzelverzeichnis.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code root == null} ist.
+	 */
+	public DiskFileStore(final Path root) {
+		this.root = assertNotNull(root);
+		for (int i = 0; i < LOCKS; i++) {
+			locks[i] = new Object();
+		}
+	}
+
+	/**
+	 * Gibt das über {@value #ROOT_PROPERTY} konfigurierte Wurzelverzeichnis
+	 * zurück.
+	 *
+	 * @return Das Wurzelverzeichnis.
+	 */
+	static Path configuredRoot() {
+		return Paths.get(System.getProperty(ROOT_PROPERTY,
+				Paths.get(System.getProperty("user.home"), "gradelog", "files").toString()));
+	}
+
+	@Override
+	public String store(final InputStream in) throws IOException {
+		assertNotNull(in);
+		Files.createDirectories(root);
+		final Path temp = Files.createTempFile(root, "upload", ".tmp");
+		try {
+			final MessageDigest digest = sha256();
+			final byte[] buffer = new byte[BUFFER_SIZE];
+			try (OutputStream out = Files.newOutputStream(temp)) {
+				int read;
+				while ((read = in.read(buffer)) != -1) {
+					digest.update(buffer, 0, read);
+					out.write(buffer, 0, read);
+				}
+			}
+			final String hash = Crypt.convertToHex(digest.digest());
+			final Path target = path(hash);
+			synchronized (lock(hash)) {
+				if (Files.exists(target)) {
+					Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+				} else {
+					Files.createDirectories(target.getParent());
+					try {
+						Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+					} catch (final FileAlreadyExistsException e) {
+						// gleichzeitig hochgeladen, der Inhalt ist identisch
+					}
+				}
+			}
+			return hash;
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	@Override
+	public Path resolve(final String hash) {
+		final Path path = path(hash);
+		return Files.isRegularFile(path) ? path : null;
+	}
+
+	@Override
+	public List<String> list() throws IOException {
+		if (!Files.isDirectory(root))
+			return new ArrayList<>();
+		try (Stream<Path> paths = Files.walk(root, 2)) {
+			return paths.filter(Files::isRegularFile).map(path -> path.getFileName().toString())
+					.filter(name -> HASH.matcher(name).matches()).collect(Collectors.toList());
+		}
+	}
+
+	@Override
+	public boolean release(final String hash, final long graceMillis) throws IOException {
+		final Path path = path(hash);
+		synchronized (lock(hash)) {
+			if (!Files.exists(path)
+					|| Files.getLastModifiedTime(path).toMillis() > System.currentTimeMillis() - graceMillis)
+				return false;
+			return Files.deleteIfExists(path);
+		}
+	}
+
+	private Object lock(final String hash) {
+		return locks[Math.floorMod(hash.hashCode(), LOCKS)];
+	}
+
+	private Path path(final String hash) {
+		if (hash == null || !HASH.matcher(hash).matches())
+			throw new IllegalArgumentException("Invalid content hash: " + hash);
+		return root.resolve(hash.substring(0, 2)).resolve(hash);
+	}
+
+	private static MessageDigest sha256() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (final NoSuchAlgorithmException e) {
+			// jede Java-Plattform muss SHA-256 unterstützen
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -2,7 +2,10 @@ package de.unibremen.gradelog.persistence;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
+import java.util.HashMap;
+
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
@@ -10,7 +13,10 @@ import de.unibremen.gradelog.exception.UnexpectedUniqueViolationException;
 import de.unibremen.gradelog.model.*;
 
 /**
- * Dieses DAO verwaltet Objekte der Klasse {@link Evaluation}.
+ * Dieses DAO verwaltet Objekte der Klasse {@link Evaluation}. Schreibende
+ * Methoden übernehmen die Antworten in derselben Transaktion in die Zähler von
+ * {@link EvaluationStatisticDAO}, bevor sie die Selbsteinschätzung schreiben
+ * (vgl. {@link EvaluationStatisticDAO#rebuild()}).
  * 
  * @author Marco Glander
  */
@@ -22,6 +28,12 @@ public class EvaluationDAO extends JPADAO<Evaluation> {
 	 */
 	private static final long serialVersionUID = 8919168583240893882L;
 
+	/**
+	 * DAO für die voraggregierten Antworten aller Selbsteinschätzungen
+	 */
+	@Inject
+	private EvaluationStatisticDAO statisticDao;
+
 	/**
 	 * Fügt {@code evaluation} dem Datenbestand hinzu. Falls {@code evaluation}
 	 * bereits im Datenbestand vorhanden ist (vgl.
@@ -35,8 +47,9 @@ public class EvaluationDAO extends JPADAO<Evaluation> {
 	 *             Falls {@code evaluation == null} oder {@code evaluation} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(Evaluation evaluation) {
+	public void create(Evaluation evaluation) {
 		assertNotNull(evaluation);
+		statisticDao.evaluationSaved(evaluation);
 		try {
 			super.create(evaluation);
 		} catch (final DuplicateUniqueFieldException e) {
@@ -56,8 +69,14 @@ public class EvaluationDAO extends JPADAO<Evaluation> {
 	 *             Falls {@code evaluation == null} oder {@code evaluation} kein durch JPA
 	 *             verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Evaluation evaluation) {
+	public void update(Evaluation evaluation) {
 		assertNotNull(evaluation);
+		final Evaluation stored = getById(evaluation.getId());
+		if (stored != null) {
+			// Die Antworten werden erst beim Zugriff geladen und sind nach dem
+			// Aktualisieren bereits die neuen, daher vorher kopieren.
+			statisticDao.evaluationChanged(new HashMap<>(stored.getEntries()), stored.getDate(), evaluation);
+		}
 		try {
 			super.update(evaluation);
 		} catch (final DuplicateUniqueFieldException e) {
@@ -68,7 +87,13 @@ public class EvaluationDAO extends JPADAO<Evaluation> {
 	/**
 	 * Löscht ein Evaluation-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(Evaluation evaluation) {
+	public void delete(Evaluation evaluation) {
+		assertNotNull(evaluation);
+		final Evaluation stored = evaluation.getId() > 0 ? getById(evaluation.getId()) : null;
+		if (stored != null) {
+			// wie beim Aktualisieren vor dem Löschen kopieren
+			statisticDao.evaluationRemoved(new HashMap<>(stored.getEntries()), stored.getDate());
+		}
 		super.delete(evaluation);
 	}
 
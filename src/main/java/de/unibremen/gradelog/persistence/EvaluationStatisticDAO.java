@@ -0,0 +1,313 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+
+import javax.annotation.Resource;
+import javax.ejb.SessionContext;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+
+import org.apache.log4j.Logger;
+
+import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
+import de.unibremen.gradelog.model.Evaluation;
+import de.unibremen.gradelog.model.EvaluationStatistic;
+import de.unibremen.gradelog.model.Question;
+import de.unibremen.gradelog.model.QuestionStatistics;
+
+/**
+ * Dieses DAO verwaltet die voraggregierten Antworten der Selbsteinschätzungen
+ * (vgl. {@link EvaluationStatistic}). {@link EvaluationDAO} übernimmt jede
+ * gespeicherte, geänderte oder gelöschte {@link Evaluation} in derselben
+ * Transaktion in die Zähler ihres Monats, sodass
+ * {@link #getStatistics(java.util.Date, java.util.Date)} die Auswertung aller
+ * Fragen mit einer gruppierten Abfrage über die Zähler liefert, statt alle
+ * Selbsteinschätzungen samt Antworten zu laden.
+ *
+ * Ein Zähler wird per {@code UPDATE} erhöht. Fehlt er, wird er in einer
+ * eigenen Transaktion mit dem Wert 0 angelegt (vgl.
+ * {@link #createBucket(int, Date, int)}) und das {@code UPDATE} wiederholt.
+ * Legt eine gleichzeitige Transaktion denselben Zähler an, verhindert das der
+ * Unique-Constraint; die dabei ausgelöste
+ * {@link DuplicateUniqueFieldException} wird ignoriert. Die Zähler werden
+ * nach Frage, Monat und Antwort geordnet geschrieben, sodass sich
+ * gleichzeitige Transaktionen nicht gegenseitig blockieren. Weichen die
+ * Zähler vom Datenbestand ab, z. B. nachdem eine Selbsteinschätzung außerhalb
+ * der Anwendung geändert wurde, berechnet {@link #rebuild()} sie neu.
+ *
+ * @author Marco Glander
+ */
+@Stateless
+public class EvaluationStatisticDAO extends JPADAO<EvaluationStatistic> {
+
+	/**
+	 * Die eindeutige ID für Serialisierung.
+	 */
+	private static final long serialVersionUID = -7521380935518267430L;
+
+	/**
+	 * Der Logger für diese Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(EvaluationStatisticDAO.class);
+
+	/**
+	 * Der Kontext dieser Bean, über den {@link #createBucket(int, Date, int)}
+	 * in einer eigenen Transaktion aufgerufen wird.
+	 */
+	@Resource
+	private SessionContext context;
+
+	/**
+	 * Ein Zähler: eine Antwort auf eine Frage in einem Monat.
+	 */
+	static final class Bucket implements Comparable<Bucket> {
+
+		private final int questionId;
+
+		private final Date period;
+
+		private final int answer;
+
+		Bucket(final int questionId, final Date period, final int answer) {
+			this.questionId = questionId;
+			this.period = period;
+			this.answer = answer;
+		}
+
+		@Override
+		public int compareTo(final Bucket other) {
+			int result = Integer.compare(questionId, other.questionId);
+			if (result == 0)
+				result = period.compareTo(other.period);
+			return result == 0 ? Integer.compare(answer, other.answer) : result;
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			if (!(other instanceof Bucket))
+				return false;
+			final Bucket bucket = (Bucket) other;
+			return questionId == bucket.questionId && answer == bucket.answer && period.equals(bucket.period);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(questionId, period, answer);
+		}
+	}
+
+	/**
+	 * Übernimmt die Antworten von {@code evaluation} in die Zähler.
+	 *
+	 * @param evaluation
+	 *            Die gespeicherte Selbsteinschätzung.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code evaluation == null} ist.
+	 */
+	@TransactionAttribute(TransactionAttributeType.MANDATORY)
+	public void evaluationSaved(final Evaluation evaluation) {
+		assertNotNull(evaluation);
+		final Map<Bucket, Long> deltas = new TreeMap<>();
+		add(deltas, evaluation.getEntries(), evaluation.getDate(), 1);
+		apply(deltas);
+	}
+
+	/**
+	 * Ersetzt die bisherigen Antworten {@code entries} vom Zeitpunkt
+	 * {@code date} durch die von {@code evaluation}. Die bisherigen Antworten
+	 * müssen vor dem Aktualisieren kopiert werden, da die der geladenen
+	 * Selbsteinschätzung erst beim Zugriff gelesen werden.
+	 *
+	 * @param entries
+	 *            Die bisherigen Antworten je Frage.
+	 * @param date
+	 *            Der bisherige Zeitpunkt der Selbsteinschätzung.
+	 * @param evaluation
+	 *            Die geänderte Selbsteinschätzung.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	@TransactionAttribute(TransactionAttributeType.MANDATORY)
+	public void evaluationChanged(final Map<Question, Integer> entries, final Timestamp date,
+			final Evaluation evaluation) {
+		assertNotNull(evaluation);
+		final Map<Bucket, Long> deltas = new TreeMap<>();
+		add(deltas, assertNotNull(entries), assertNotNull(date), -1);
+		add(deltas, evaluation.getEntries(), evaluation.getDate(), 1);
+		apply(deltas);
+	}
+
+	/**
+	 * Entfernt die Antworten {@code entries} einer am {@code date} erstellten
+	 * Selbsteinschätzung aus den Zählern. Die Antworten müssen vor dem Löschen
+	 * kopiert werden, da die der geladenen Selbsteinschätzung erst beim Zugriff
+	 * gelesen werden.
+	 *
+	 * @param entries
+	 *            Die bisherigen Antworten je Frage.
+	 * @param date
+	 *            Der Zeitpunkt der Selbsteinschätzung.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code entries == null} oder {@code date == null} ist.
+	 */
+	@TransactionAttribute(TransactionAttributeType.MANDATORY)
+	public void evaluationRemoved(final Map<Question, Integer> entries, final Timestamp date) {
+		final Map<Bucket, Long> deltas = new TreeMap<>();
+		add(deltas, assertNotNull(entries), assertNotNull(date), -1);
+		apply(deltas);
+	}
+
+	/**
+	 * Legt den Zähler für die Antwort {@code answer} auf die Frage mit der Id
+	 * {@code questionId} im Monat {@code period} mit dem Wert 0 an. Die Frage
+	 * wird dabei gesperrt, sodass kein Zähler angelegt wird, während
+	 * {@link #rebuild()} läuft. Wird nur über {@link #context} aufgerufen.
+	 *
+	 * @param questionId
+	 *            Die Id der Frage.
+	 * @param period
+	 *            Der erste Tag des Monats.
+	 * @param answer
+	 *            Die Antwort.
+	 * @throws DuplicateUniqueFieldException
+	 *             Falls der Zähler bereits existiert.
+	 */
+	@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+	public void createBucket(final int questionId, final Date period, final int answer)
+			throws DuplicateUniqueFieldException {
+		final Question question = getEntityManager().find(Question.class, questionId,
+				LockModeType.PESSIMISTIC_WRITE);
+		if (question != null)
+			create(new EvaluationStatistic(question, period, answer, 0));
+	}
+
+	/**
+	 * Trägt die Antworten {@code entries} vom Zeitpunkt {@code date} mit
+	 * {@code delta} in {@code deltas} ein.
+	 */
+	static void add(final Map<Bucket, Long> deltas, final Map<Question, Integer> entries, final Timestamp date,
+			final long delta) {
+		final Date period = period(date);
+		for (final Map.Entry<Question, Integer> entry : entries.entrySet()) {
+			deltas.merge(new Bucket(entry.getKey().getId(), period, entry.getValue()), delta, Long::sum);
+		}
+	}
+
+	private void apply(final Map<Bucket, Long> deltas) {
+		for (final Map.Entry<Bucket, Long> entry : deltas.entrySet()) {
+			final Bucket bucket = entry.getKey();
+			final long delta = entry.getValue();
+			if (delta != 0 && update(bucket, delta) == 0 && delta > 0) {
+				try {
+					context.getBusinessObject(EvaluationStatisticDAO.class).createBucket(bucket.questionId,
+							bucket.period, bucket.answer);
+				} catch (final DuplicateUniqueFieldException e) {
+					logger.debug("Bucket was created concurrently", e);
+				}
+				update(bucket, delta);
+			}
+		}
+	}
+
+	private int update(final Bucket bucket, final long delta) {
+		return getEntityManager().createNamedQuery("EvaluationStatistic.add").setParameter(1, delta)
+				.setParameter(2, bucket.questionId).setParameter(3, bucket.period).setParameter(4, bucket.answer)
+				.executeUpdate();
+	}
+
+	/**
+	 * Gibt die Auswertung je Id einer Frage für alle Selbsteinschätzungen
+	 * zwischen {@code from} und {@code to} zurück. Es wird monatsweise
+	 * ausgewertet, d. h. es zählen alle Monate ab dem von {@code from} bis
+	 * einschließlich dem von {@code to}.
+	 *
+	 * @param from
+	 *            Der Beginn des Zeitraums oder {@code null} für unbeschränkt.
+	 * @param to
+	 *            Das Ende des Zeitraums oder {@code null} für unbeschränkt.
+	 * @return Die Auswertung je Id einer Frage. Fragen ohne Antworten fehlen.
+	 */
+	@TransactionAttribute(TransactionAttributeType.SUPPORTS)
+	public Map<Integer, QuestionStatistics> getStatistics(final java.util.Date from, final java.util.Date to) {
+		final Date start = from == null ? new Date(0) : period(new Timestamp(from.getTime()));
+		final Date end = to == null ? Date.valueOf(LocalDate.of(9999, 1, 1))
+				: Date.valueOf(period(new Timestamp(to.getTime())).toLocalDate().plusMonths(1));
+		return toStatistics(getEntityManager().createNamedQuery("EvaluationStatistic.sumInRange", Object[].class)
+				.setParameter(1, start).setParameter(2, end).getResultList());
+	}
+
+	/**
+	 * Verwirft alle Zähler und berechnet sie aus den gespeicherten Antworten
+	 * neu. Die Fragen werden dabei gesperrt, sodass keine neuen Zähler
+	 * angelegt werden. Da {@link EvaluationDAO} die Zähler schreibt, bevor es
+	 * die Selbsteinschätzung schreibt, wartet eine gleichzeitige Änderung
+	 * entweder auf das Ende der Neuberechnung und ist darin noch nicht
+	 * enthalten, oder die Neuberechnung wartet auf sie und liest sie mit. Sie
+	 * wird also genau einmal gezählt.
+	 *
+	 * @return Die Anzahl der gelesenen Antworten.
+	 */
+	public int rebuild() {
+		final EntityManager em = getEntityManager();
+		em.createNamedQuery("EvaluationStatistic.lockQuestions", Question.class).getResultList();
+		em.createNamedQuery("EvaluationStatistic.deleteAll").executeUpdate();
+		final List<Object[]> answers = em.createNamedQuery("EvaluationStatistic.findAnswers", Object[].class)
+				.getResultList();
+		for (final Map.Entry<Bucket, Long> bucket : aggregate(answers).entrySet()) {
+			em.persist(new EvaluationStatistic(em.getReference(Question.class, bucket.getKey().questionId),
+					bucket.getKey().period, bucket.getKey().answer, bucket.getValue()));
+		}
+		em.flush();
+		logger.info(String.format("Rebuilt evaluation statistics from %d answers", answers.size()));
+		return answers.size();
+	}
+
+	/**
+	 * Gibt den ersten Tag des Monats von {@code date} zurück.
+	 */
+	static Date period(final Timestamp date) {
+		return Date.valueOf(date.toLocalDateTime().toLocalDate().withDayOfMonth(1));
+	}
+
+	/**
+	 * Zählt Zeilen aus Id der Frage, Antwort und Zeitpunkt je
+	 * {@link Bucket}.
+	 */
+	static Map<Bucket, Long> aggregate(final List<Object[]> answers) {
+		final Map<Bucket, Long> buckets = new HashMap<>();
+		for (final Object[] row : answers) {
+			final Bucket bucket = new Bucket(((Number) row[0]).intValue(), period((Timestamp) row[2]),
+					((Number) row[1]).intValue());
+			buckets.merge(bucket, 1L, Long::sum);
+		}
+		return buckets;
+	}
+
+	/**
+	 * Fasst Zeilen aus Id der Frage, Antwort und Anzahl je Frage zusammen.
+	 */
+	static Map<Integer, QuestionStatistics> toStatistics(final List<Object[]> rows) {
+		final Map<Integer, QuestionStatistics> statistics = new HashMap<>();
+		for (final Object[] row : rows) {
+			statistics.computeIfAbsent(((Number) row[0]).intValue(), id -> new QuestionStatistics())
+					.add(((Number) row[1]).intValue(), ((Number) row[2]).longValue());
+		}
+		return statistics;
+	}
+
+	public Class<EvaluationStatistic> getClazz() {
+		return EvaluationStatistic.class;
+	}
+}
@@ -2,6 +2,8 @@ package de.unibremen.gradelog.persistence;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
+import java.util.List;
+
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 
@@ -34,7 +36,7 @@ public class FileDAO extends JPADAO<File> {
 	 *             Falls {@code file == null} oder {@code file} kein durch JPA
 	 *             verwaltetes Objekt ist.
 	 */
-	public synchronized void create(File file) {
+	public void create(File file) {
 		assertNotNull(file);
 		try {
 			super.create(file);
@@ -55,7 +57,7 @@ public class FileDAO extends JPADAO<File> {
 	 *             Falls {@code file == null} oder {@code file} kein durch JPA
 	 *             verwaltetes Objekt ist.
 	 */
-	public synchronized void update(File file) {
+	public void update(File file) {
 		assertNotNull(file);
 		try {
 			super.update(file);
@@ -67,7 +69,7 @@ public class FileDAO extends JPADAO<File> {
 	/**
 	 * Löscht ein File-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(File file) {
+	public void delete(File file) {
 		super.delete(file);
 	}
 
@@ -75,6 +77,39 @@ public class FileDAO extends JPADAO<File> {
 		return File.class;
 	}
 
+	/**
+	 * Gibt zurück, ob noch eine Datei auf den Inhalt mit dem gegebenen Hash
+	 * verweist.
+	 *
+	 * @param hash
+	 *            Der Hash des Inhalts.
+	 * @return {@code true}, falls der Inhalt noch verwendet wird.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code hash == null} ist.
+	 */
+	public boolean isReferenced(final String hash) {
+		assertNotNull(hash);
+		return getEntityManager().createNamedQuery("File.countByHash", Long.class).setParameter(1, hash)
+				.getSingleResult() > 0;
+	}
+
+	/**
+	 * Gibt die Datei mit dem gegebenen Token zurück.
+	 *
+	 * @param token
+	 *            Das Token der Datei.
+	 * @return Die Datei oder {@code null}, falls es keine Datei mit diesem
+	 *         Token gibt.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code token == null} ist.
+	 */
+	public File getByToken(final String token) {
+		assertNotNull(token);
+		final List<File> files = getEntityManager().createNamedQuery("File.findByToken", File.class)
+				.setParameter(1, token).getResultList();
+		return files.isEmpty() ? null : files.get(0);
+	}
+
 	public File getById(int id) {
 		EntityManager em = getEntityManager();
 		return em.find(File.class, id);
@@ -0,0 +1,82 @@
+package de.unibremen.gradelog.persistence;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Ein inhaltsadressierter Speicher für hochgeladene Dateien. Jeder Inhalt wird
+ * unter seinem SHA-256-Hash abgelegt, sodass identische Dateien (z. B. dasselbe
+ * Arbeitsblatt mehrerer Schüler) nur einmal gespeichert werden. Die Metadaten
+ * einer Datei verwaltet weiterhin {@link FileDAO}; sie verweisen über den Hash
+ * auf den Inhalt.
+ *
+ * Da derselbe Inhalt gleichzeitig gelöscht und erneut hochgeladen werden kann,
+ * werden Inhalte nicht beim Löschen einer Datei entfernt, sondern von
+ * {@link FileStoreCollector} erst, wenn keine Datei mehr auf sie verweist und
+ * sie seit einer Schonfrist nicht mehr gespeichert wurden.
+ *
+ * @author Marco Glander
+ */
+public interface FileStore {
+
+	/**
+	 * Liest {@code in} vollständig, ohne den Inhalt im Speicher zu halten, und
+	 * legt ihn ab, falls er noch nicht vorhanden ist. Ist er bereits
+	 * vorhanden, beginnt seine Schonfrist (vgl. {@link #release(String, long)})
+	 * von neuem. Der Strom wird nicht geschlossen.
+	 *
+	 * @param in
+	 *            Der zu speichernde Inhalt.
+	 * @return Der SHA-256-Hash des Inhalts in hexadezimaler Form.
+	 * @throws IOException
+	 *             Falls der Inhalt nicht gelesen oder geschrieben werden kann.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code in == null} ist.
+	 */
+	String store(InputStream in) throws IOException;
+
+	/**
+	 * Gibt den Pfad zurück, unter dem der Inhalt mit dem gegebenen Hash
+	 * abgelegt ist.
+	 *
+	 * @param hash
+	 *            Der Hash des Inhalts.
+	 * @return Der Pfad des Inhalts oder {@code null}, falls es keinen Inhalt
+	 *         mit diesem Hash gibt.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code hash} kein gültiger Hash ist.
+	 */
+	Path resolve(String hash);
+
+	/**
+	 * Gibt die Hashes aller abgelegten Inhalte zurück.
+	 *
+	 * @return Die Hashes der Inhalte, niemals {@code null}.
+	 * @throws IOException
+	 *             Falls die Inhalte nicht aufgelistet werden können.
+	 */
+	List<String> list() throws IOException;
+
+	/**
+	 * Entfernt den Inhalt mit dem gegebenen Hash, falls er seit mindestens
+	 * {@code graceMillis} Millisekunden nicht gespeichert wurde (vgl.
+	 * {@link #store(InputStream)}). Der Aufrufer stellt sicher, dass keine
+	 * Datei mehr auf den Inhalt verweist (vgl.
+	 * {@link FileDAO#isReferenced(String)}). Ein Upload desselben Inhalts, der
+	 * danach noch nicht festgeschrieben wurde, liegt dann innerhalb der
+	 * Schonfrist.
+	 *
+	 * @param hash
+	 *            Der Hash des Inhalts.
+	 * @param graceMillis
+	 *            Die Schonfrist in Millisekunden.
+	 * @return {@code true}, falls der Inhalt entfernt wurde.
+	 * @throws IOException
+	 *             Falls der Inhalt nicht entfernt werden kann.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code hash} kein gültiger Hash ist.
+	 */
+	boolean release(String hash, long graceMillis) throws IOException;
+}
@@ -0,0 +1,67 @@
+package de.unibremen.gradelog.persistence;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Entfernt einmal täglich die Inhalte aus dem {@link FileStore}, auf die keine
+ * Datei mehr verweist. Ein Inhalt wird nicht schon beim Löschen einer Datei
+ * entfernt, da gleichzeitig derselbe Inhalt erneut hochgeladen werden kann:
+ * Der {@link FileStore} legt ihn dann nicht erneut ab, und die neue Datei ist
+ * noch nicht festgeschrieben, wenn geprüft wird, ob der Inhalt noch verwendet
+ * wird. Deshalb werden nur Inhalte entfernt, die seit {@value #GRACE_HOURS}
+ * Stunden nicht gespeichert wurden (vgl. {@link FileStore#release(String, long)}).
+ *
+ * @author Marco Glander
+ */
+@Singleton
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class FileStoreCollector {
+
+	/**
+	 * Schonfrist eines nicht mehr verwendeten Inhalts in Stunden
+	 */
+	public static final int GRACE_HOURS = 24;
+
+	/**
+	 * Der Logger für diese Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(FileStoreCollector.class);
+
+	/**
+	 * DAO, die für die Persistenz von Dateien verantwortlich ist.
+	 */
+	@Inject
+	private FileDAO fileDao;
+
+	/**
+	 * Speicher, in dem die Inhalte der Dateien abgelegt sind.
+	 */
+	@Inject
+	private FileStore fileStore;
+
+	/**
+	 * Entfernt alle nicht mehr verwendeten Inhalte außerhalb der Schonfrist.
+	 */
+	@Schedule(hour = "3", persistent = false)
+	public void collect() {
+		int released = 0;
+		try {
+			for (final String hash : fileStore.list()) {
+				if (!fileDao.isReferenced(hash) && fileStore.release(hash, TimeUnit.HOURS.toMillis(GRACE_HOURS)))
+					released++;
+			}
+		} catch (final IOException e) {
+			logger.warn("Could not collect unused file contents", e);
+		}
+		logger.info(String.format("Released %d unused file contents", released));
+	}
+}
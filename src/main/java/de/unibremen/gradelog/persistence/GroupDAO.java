@@ -6,6 +6,7 @@ import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 import java.util.List;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
@@ -25,6 +26,18 @@ public class GroupDAO extends JPADAO<Group> {
 	 */
 	private static final long serialVersionUID = -8893658707631074549L;
 
+	/**
+	 * Der Suchindex der Empfänger
+	 */
+	@Inject
+	private ReceiverIndex receiverIndex;
+
+	/**
+	 * Schreibt den Suchindex erst nach dem Festschreiben fort
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+
 	/**
 	 * Fügt {@code group} dem Datenbestand hinzu. Falls {@code group} bereits im
 	 * Datenbestand vorhanden ist (vgl. {@link JPADAO#create(JPAEntity)}, wird
@@ -37,10 +50,11 @@ public class GroupDAO extends JPADAO<Group> {
 	 *             Falls {@code group == null} oder {@code group} kein durch JPA
 	 *             verwaltetes Objekt ist.
 	 */
-	public synchronized void create(final Group group) {
+	public void create(final Group group) {
 		assertNotNull(group);
 		try {
 			super.create(group);
+			afterCommit.execute(() -> receiverIndex.groupSaved(group));
 		} catch (final DuplicateUniqueFieldException e) {
 			e.printStackTrace();
 		}
@@ -58,10 +72,11 @@ public class GroupDAO extends JPADAO<Group> {
 	 *             Falls {@code group == null} oder {@code group} kein durch JPA
 	 *             verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Group group) {
+	public void update(final Group group) {
 		assertNotNull(group);
 		try {
 			super.update(group);
+			afterCommit.execute(() -> receiverIndex.groupSaved(group));
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
 		}
@@ -74,11 +89,39 @@ public class GroupDAO extends JPADAO<Group> {
 		return groups.isEmpty() ? null : groups.get(0);
 	}
 
+	/**
+	 * Gibt die Ids aller Mitglieder der Gruppe mit dem gegebenen Namen zurück,
+	 * ohne Gruppe oder Mitglieder zu laden.
+	 *
+	 * @param theName
+	 *            Der Name der Gruppe.
+	 * @return Die Ids der Mitglieder; leer, falls die Gruppe nicht existiert.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code theName} leer oder {@code null} ist.
+	 */
+	public List<Integer> getMemberIds(final String theName) {
+		assertNotEmpty(theName);
+		return getEntityManager().createNamedQuery("Group.findMemberIds", Integer.class).setParameter(1, theName)
+				.getResultList();
+	}
+
+	/**
+	 * Lädt Id und Namen aller Gruppen, ohne die Gruppen selbst zu laden (vgl.
+	 * {@link ReceiverIndex}).
+	 *
+	 * @return Je Gruppe {@code [id, name]}.
+	 */
+	public List<Object[]> getReceivers() {
+		return getEntityManager().createNamedQuery("Group.findReceivers", Object[].class).getResultList();
+	}
+
 	/**
 	 * Löscht ein Group-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(Group group) {
+	public void delete(Group group) {
+		final int groupId = assertNotNull(group).getId();
 		super.delete(group);
+		afterCommit.execute(() -> receiverIndex.groupRemoved(groupId));
 	}
 
 	public Class<Group> getClazz() {
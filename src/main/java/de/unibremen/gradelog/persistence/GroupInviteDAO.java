@@ -34,7 +34,7 @@ public class GroupInviteDAO extends JPADAO<GroupInvite> {
      * @throws IllegalArgumentException Falls {@code groupInvite == null} oder {@code groupInvite}
      *                                  kein durch JPA verwaltetes Objekt ist.
      */
-    public synchronized void create(GroupInvite groupInvite) {
+    public void create(GroupInvite groupInvite) {
         assertNotNull(groupInvite);
         try {
             super.create(groupInvite);
@@ -52,7 +52,7 @@ public class GroupInviteDAO extends JPADAO<GroupInvite> {
      * @throws IllegalArgumentException Falls {@code groupInvite == null} oder {@code groupInvite}
      *                                  kein durch JPA verwaltetes Objekt ist.
      */
-    public synchronized void update(GroupInvite groupInvite) {
+    public void update(GroupInvite groupInvite) {
         assertNotNull(groupInvite);
         try {
             super.update(groupInvite);
@@ -64,7 +64,7 @@ public class GroupInviteDAO extends JPADAO<GroupInvite> {
     /**
      * Löscht ein GroupInvite-Objekt aus dem Datenbestand.
      */
-    public synchronized void delete(GroupInvite groupInvite) {
+    public void delete(GroupInvite groupInvite) {
         super.delete(groupInvite);
     }
 
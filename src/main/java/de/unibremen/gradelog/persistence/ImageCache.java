@@ -0,0 +1,186 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.enterprise.context.ApplicationScoped;
+
+import org.apache.log4j.Logger;
+
+import de.unibremen.gradelog.util.SpillingLruCache;
+import de.unibremen.gradelog.util.Thumbnails;
+
+/**
+ * Hält die verkleinerten Varianten der Profilbilder und Bilder von Fehlzeiten
+ * vor. Die Varianten werden beim ersten Abruf einmal erzeugt und in einem nach
+ * Bytes begrenzten LRU-Cache abgelegt, der selten genutzte Varianten auf die
+ * Platte auslagert. Die Schlüssel enthalten die Version des Bildes (vgl.
+ * {@link de.unibremen.gradelog.model.Profile#getPictureVersion()}), sodass
+ * geänderte Bilder nie veraltet ausgeliefert werden; alte Versionen altern
+ * einfach aus dem Cache heraus.
+ *
+ * Die Platzhalter für fehlende Bilder werden einmalig beim Start registriert
+ * und als JPEG kodiert.
+ *
+ * @author Marco Glander
+ */
+@ApplicationScoped
+public class ImageCache {
+
+	/**
+	 * Die auslieferbaren Größen eines Bildes.
+	 */
+	public enum Variant {
+		SMALL(48), MEDIUM(128), LARGE(256), ORIGINAL(0);
+
+		/**
+		 * Maximale Kantenlänge in Pixeln, {@code 0} für das Original
+		 */
+		private final int size;
+
+		Variant(final int size) {
+			this.size = size;
+		}
+
+		/**
+		 * Gibt die Variante zu ihrem Namen in der URL zurück, d. h. ihrer
+		 * Größe oder {@code original}.
+		 *
+		 * @param name
+		 *            Der Name der Variante.
+		 * @return Die Variante oder {@code null}, falls es keine solche gibt.
+		 */
+		public static Variant forName(final String name) {
+			for (final Variant variant : values()) {
+				if (variant.getName().equals(name))
+					return variant;
+			}
+			return null;
+		}
+
+		public String getName() {
+			return size == 0 ? "original" : String.valueOf(size);
+		}
+	}
+
+	/**
+	 * Maximale Größe der Varianten im Speicher
+	 */
+	private static final long MEMORY_BUDGET = 32L * 1024 * 1024;
+
+	/**
+	 * Maximale Größe der ausgelagerten Varianten
+	 */
+	private static final long DISK_BUDGET = 256L * 1024 * 1024;
+
+	/**
+	 * Verzeichnis der ausgelagerten Varianten unterhalb des Wurzelverzeichnisses
+	 * der Dateien, statt im für alle lesbaren temporären Verzeichnis
+	 */
+	private static final String SPILL_DIRECTORY = "thumbnails";
+
+	/**
+	 * Der Logger dieser Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(ImageCache.class);
+
+	/**
+	 * Die Platzhalter nach Namen, bereits als JPEG kodiert
+	 */
+	private final Map<String, byte[]> placeholders = new ConcurrentHashMap<>();
+
+	/**
+	 * Die erzeugten Varianten
+	 */
+	private SpillingLruCache variants;
+
+	@PostConstruct
+	public void init() {
+		variants = new SpillingLruCache(MEMORY_BUDGET, DISK_BUDGET,
+				DiskFileStore.configuredRoot().resolve(SPILL_DIRECTORY));
+	}
+
+	/**
+	 * Registriert einen Platzhalter für fehlende Bilder.
+	 *
+	 * @param name
+	 *            Der Name des Platzhalters.
+	 * @param image
+	 *            Das Bild in einem von {@link javax.imageio.ImageIO} lesbaren
+	 *            Format.
+	 * @throws IOException
+	 *             Falls {@code image} kein lesbares Bild ist.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public void registerPlaceholder(final String name, final byte[] image) throws IOException {
+		placeholders.put(assertNotNull(name), Thumbnails.toJpeg(image));
+	}
+
+	/**
+	 * Gibt eine Variante eines Bildes zurück. Das Original wird nicht
+	 * zwischengespeichert, da es ohnehin unverändert aus der Datenbank kommt.
+	 *
+	 * @param key
+	 *            Eindeutiger Schlüssel des Bildes inklusive seiner Version.
+	 * @param variant
+	 *            Die gewünschte Variante.
+	 * @param source
+	 *            Lädt das Original bei Bedarf, kann {@code null} liefern.
+	 * @param placeholder
+	 *            Name des Platzhalters, falls es kein lesbares Bild gibt.
+	 * @return Die Variante des Bildes bzw. des Platzhalters.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist oder
+	 *             {@code placeholder} nicht registriert wurde.
+	 */
+	public byte[] get(final String key, final Variant variant, final Supplier<byte[]> source,
+			final String placeholder) {
+		assertNotNull(variant);
+		assertNotNull(source);
+		if (variant == Variant.ORIGINAL) {
+			final byte[] original = source.get();
+			return original == null ? placeholder(placeholder) : original;
+		}
+		final String variantKey = assertNotNull(key) + '-' + variant.getName();
+		final byte[] cached = variants.get(variantKey);
+		if (cached != null)
+			return cached;
+		final byte[] original = source.get();
+		byte[] scaled;
+		try {
+			scaled = Thumbnails.scale(original == null ? placeholder(placeholder) : original, variant.size);
+		} catch (final IOException e) {
+			logger.debug(String.format("Image %s is not readable, using the placeholder.", key), e);
+			try {
+				scaled = Thumbnails.scale(placeholder(placeholder), variant.size);
+			} catch (final IOException impossible) {
+				// Platzhalter wurden bei der Registrierung bereits gelesen
+				throw new IllegalStateException(impossible);
+			}
+		}
+		variants.put(variantKey, scaled);
+		return scaled;
+	}
+
+	public long getHits() {
+		return variants.getHits();
+	}
+
+	public long getDiskHits() {
+		return variants.getDiskHits();
+	}
+
+	public long getMisses() {
+		return variants.getMisses();
+	}
+
+	private byte[] placeholder(final String name) {
+		return assertNotNull(placeholders.get(assertNotNull(name)), "Unknown placeholder: " + name);
+	}
+}
@@ -2,9 +2,17 @@ package de.unibremen.gradelog.persistence;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+
+import javax.persistence.AttributeNode;
+import javax.persistence.EntityGraph;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import javax.persistence.PersistenceException;
 import javax.persistence.TransactionRequiredException;
+import javax.persistence.TypedQuery;
 
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
 import de.unibremen.gradelog.model.JPAEntity;
@@ -13,6 +21,15 @@ import de.unibremen.gradelog.model.JPAEntity;
  * Ein DAO das JPA verwendet, um einen über die Laufzeit der Applikation hinaus
  * gültigen Datenbestand zu realisieren.
  *
+ * Eindeutigkeit wird nicht durch vorherige Abfragen, sondern durch
+ * Unique-Constraints der Datenbank sichergestellt. Schreibende Methoden
+ * schreiben den Persistenzkontext sofort in die Datenbank und übersetzen eine
+ * dabei gemeldete Verletzung eines solchen Constraints in eine
+ * {@link DuplicateUniqueFieldException} (vgl.
+ * {@link #toDuplicateException(String)}). Da somit kein Zustand geschützt
+ * werden muss, sind die Methoden nicht synchronisiert und können von allen
+ * Instanzen des Bean-Pools parallel ausgeführt werden.
+ *
  * @param <T>
  *            Das durch JPA zu persitierende Datum.
  * 
@@ -25,6 +42,17 @@ public abstract class JPADAO<T extends JPAEntity> implements GenericDAO<T> {
 	 */
 	private static final long serialVersionUID = -2225632806636989857L;
 
+	/**
+	 * SQLState, mit dem die Datenbank die Verletzung eines Unique-Constraints
+	 * meldet.
+	 */
+	private static final String UNIQUE_VIOLATION_STATE = "23505";
+
+	/**
+	 * Query-Hint, über den ein Entity-Graph als Ladeplan übergeben wird.
+	 */
+	static final String LOAD_GRAPH = "javax.persistence.loadgraph";
+
 	/**
 	 * Der für den Zugriff auf die Datenquelle verwendete Persistenzkontext.
 	 * Kann in der Datei 'resources/META-INF/persistence.xml' konfiguriert
@@ -73,6 +101,47 @@ public abstract class JPADAO<T extends JPAEntity> implements GenericDAO<T> {
 		return em.find(getClazz(), id);
 	}
 
+	/**
+	 * Gibt das Objekt mit der Id {@code id} zurück und lädt dabei die im
+	 * benannten Entity-Graphen aufgeführten Beziehungen mit.
+	 *
+	 * @param id
+	 *            Die Id des gesuchten Objektes.
+	 * @param graph
+	 *            Der Name des Entity-Graphen.
+	 * @return Das Objekt mit der Id {@code id} oder {@code null}, falls ein
+	 *         solches Objekt im Datenbestand nicht vorhanden ist.
+	 * @throws IllegalArgumentException
+	 *             Falls es keinen Entity-Graphen mit dem Namen {@code graph}
+	 *             gibt.
+	 */
+	public T getById(final int id, final String graph) {
+		return em.find(getClazz(), id,
+				Collections.<String, Object> singletonMap(LOAD_GRAPH, em.getEntityGraph(graph)));
+	}
+
+	/**
+	 * Versieht {@code query} mit dem benannten Entity-Graphen als Ladeplan.
+	 * Damit das Laden der Beziehungen nicht eine Abfrage je Ergebnis auslöst,
+	 * werden die Beziehungen des Graphen zusätzlich gebündelt nachgeladen.
+	 *
+	 * @param query
+	 *            Die Abfrage.
+	 * @param graph
+	 *            Der Name des Entity-Graphen.
+	 * @param alias
+	 *            Der in {@code query} verwendete Alias der Entität.
+	 * @return {@code query}
+	 */
+	<R> TypedQuery<R> withGraph(final TypedQuery<R> query, final String graph, final String alias) {
+		final EntityGraph<?> entityGraph = em.getEntityGraph(graph);
+		query.setHint(LOAD_GRAPH, entityGraph).setHint("eclipselink.batch.type", "IN");
+		for (final AttributeNode<?> node : entityGraph.getAttributeNodes()) {
+			query.setHint("eclipselink.batch", alias + "." + node.getAttributeName());
+		}
+		return query;
+	}
+
 	/**
 	 * Fügt {@code theT} dem Datenbestand hinzu. Falls {@code theT} bereits im
 	 * Datenbestand vorhanden ist ({@code theT.getId() != null}), wird eine
@@ -80,6 +149,9 @@ public abstract class JPADAO<T extends JPAEntity> implements GenericDAO<T> {
 	 *
 	 * @param t
 	 *            Das zu persistierende Objekt.
+	 * @throws DuplicateUniqueFieldException
+	 *             Falls durch das Speichern von {@code theT} ein
+	 *             Unique-Constraint verletzt würde.
 	 * @throws IllegalArgumentException
 	 *             Falls {@code theT == null}, {@code theT.getId() != null} oder
 	 *             {@code theT} kein durch JPA verwaltetes Objekt ist.
@@ -90,7 +162,43 @@ public abstract class JPADAO<T extends JPAEntity> implements GenericDAO<T> {
 	@Override
 	public void create(final T t) throws DuplicateUniqueFieldException {
 		assertNotNull(t);
-		em.persist(t);
+		try {
+			em.persist(t);
+			em.flush();
+		} catch (final PersistenceException e) {
+			throw translate(e);
+		}
+	}
+
+	/**
+	 * Fügt alle {@code ts} in einer Transaktion dem Datenbestand hinzu. Die
+	 * Objekte werden gemeinsam geschrieben, sodass die Inserts in JDBC-Batches
+	 * gebündelt werden (vgl. 'persistence.xml'), und anschließend vom
+	 * Persistenzkontext getrennt.
+	 *
+	 * @param ts
+	 *            Die zu persistierenden Objekte.
+	 * @throws DuplicateUniqueFieldException
+	 *             Falls durch das Speichern eines der Objekte ein
+	 *             Unique-Constraint verletzt würde. Es wird dann keines der
+	 *             Objekte gespeichert.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code ts == null} ist oder {@code null} enthält.
+	 * @throws TransactionRequiredException
+	 *             Falls zum Zeitpunkt des Aufrufs keine gültige Transaktion
+	 *             vorliegt (vgl. {@link EntityManager#persist(Object)}).
+	 */
+	public void createAll(final Collection<T> ts) throws DuplicateUniqueFieldException {
+		assertNotNull(ts);
+		try {
+			for (final T t : ts) {
+				em.persist(assertNotNull(t));
+			}
+			em.flush();
+		} catch (final PersistenceException e) {
+			throw translate(e);
+		}
+		em.clear();
 	}
 
 	/**
@@ -117,8 +225,13 @@ public abstract class JPADAO<T extends JPAEntity> implements GenericDAO<T> {
 		if(tId <= 0) throw new IllegalArgumentException("The id of the parameter must not be zero!");
 		else
 		{
-			if(getById(tId) != null) em.merge(t);
-			else throw new IllegalArgumentException("The specified object does not exist!");
+			if(getById(tId) == null) throw new IllegalArgumentException("The specified object does not exist!");
+			try {
+				em.merge(t);
+				em.flush();
+			} catch (final PersistenceException e) {
+				throw translate(e);
+			}
 		}
 	}
 
@@ -128,8 +241,6 @@ public abstract class JPADAO<T extends JPAEntity> implements GenericDAO<T> {
 	 * Fall ist nach Aufruf dieser Methode die Id von {@code theT} gleich
 	 * {@code null}.
 	 *
-	 * Hinweis: Die Methode ist synchronisiert!
-	 *
 	 * @param t
 	 *            Das zu entfernende Objekt.
 	 * @throws IllegalArgumentException
@@ -139,7 +250,7 @@ public abstract class JPADAO<T extends JPAEntity> implements GenericDAO<T> {
 	 *             vorliegt (vlg. {@link EntityManager#remove(Object)}).
 	 */
 	@Override
-	public synchronized void delete(final T t) {
+	public void delete(final T t) {
 		assertNotNull(t);
 		if (t.getId() > 0) {
 			final T entity = getById(t.getId());
@@ -151,4 +262,41 @@ public abstract class JPADAO<T extends JPAEntity> implements GenericDAO<T> {
 		else throw new IllegalArgumentException("The id of the parameter must not be zero!");
 	}
 
+	/**
+	 * Erzeugt die {@link DuplicateUniqueFieldException} für eine von der
+	 * Datenbank gemeldete Verletzung eines Unique-Constraints. Unterklassen
+	 * können anhand des Constraint-Namens in {@code violation} eine
+	 * spezifischere Exception erzeugen.
+	 *
+	 * @param violation
+	 *            Die Fehlermeldung der Datenbank, niemals {@code null}.
+	 * @return Die auszulösende Exception, niemals {@code null}.
+	 */
+	DuplicateUniqueFieldException toDuplicateException(final String violation) {
+		return new DuplicateUniqueFieldException(violation);
+	}
+
+	/**
+	 * Übersetzt die gegebene {@link PersistenceException} in eine
+	 * {@link DuplicateUniqueFieldException}, falls sie durch die Verletzung
+	 * eines Unique-Constraints verursacht wurde. Andernfalls wird sie
+	 * unverändert erneut ausgelöst.
+	 *
+	 * @param e
+	 *            Die aufgetretene Exception.
+	 * @return Die übersetzte Exception.
+	 * @throws PersistenceException
+	 *             Falls {@code e} keine Verletzung eines Unique-Constraints
+	 *             ist.
+	 */
+	private DuplicateUniqueFieldException translate(final PersistenceException e) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			if (cause instanceof SQLException && UNIQUE_VIOLATION_STATE.equals(((SQLException) cause).getSQLState())) {
+				final String violation = cause.getMessage();
+				return toDuplicateException(violation == null ? "" : violation);
+			}
+		}
+		throw e;
+	}
+
 }
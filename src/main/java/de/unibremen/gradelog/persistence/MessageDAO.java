@@ -1,7 +1,19 @@
 package de.unibremen.gradelog.persistence;
 
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.sql.Timestamp;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
 import de.unibremen.gradelog.exception.UnexpectedUniqueViolationException;
@@ -20,6 +32,41 @@ public class MessageDAO extends JPADAO<Message> {
 	 */
 	private static final long serialVersionUID = -7755086023909641999L;
 
+	/**
+	 * Die Zusammenfassungen des Dashboards
+	 */
+	@Inject
+	private DashboardSummary dashboardSummary;
+
+	/**
+	 * Schreibt die Zusammenfassungen erst nach dem Festschreiben fort
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+
+	/**
+	 * Die Postfächer eines Benutzers, die seitenweise geladen werden können.
+	 */
+	public static enum Mailbox {
+		INBOX("Message.findInbox", "Message.countInbox"), OUTBOX("Message.findOutbox",
+				"Message.countOutbox"), UNREAD("Message.findUnread", "MessageReceipt.countUnread");
+
+		/**
+		 * Name der Abfrage für eine Seite des Postfachs
+		 */
+		private final String findQuery;
+
+		/**
+		 * Name der Abfrage für die Größe des Postfachs
+		 */
+		private final String countQuery;
+
+		Mailbox(final String findQuery, final String countQuery) {
+			this.findQuery = findQuery;
+			this.countQuery = countQuery;
+		}
+	}
+
 	/**
 	 * Fügt {@code message} dem Datenbestand hinzu. Falls {@code message}
 	 * bereits im Datenbestand vorhanden ist (vgl.
@@ -33,7 +80,7 @@ public class MessageDAO extends JPADAO<Message> {
 	 *             Falls {@code message == null} oder {@code message} kein durch
 	 *             JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(Message message) {
+	public void create(Message message) {
 		try {
 			super.create(message);
 		} catch (final DuplicateUniqueFieldException e) {
@@ -53,7 +100,7 @@ public class MessageDAO extends JPADAO<Message> {
 	 *             Falls {@code message == null} oder {@code message} kein durch
 	 *             JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Message message) {
+	public void update(Message message) {
 		try {
 			super.update(message);
 		} catch (final DuplicateUniqueFieldException e) {
@@ -62,10 +109,229 @@ public class MessageDAO extends JPADAO<Message> {
 	}
 
 	/**
-	 * Löscht ein Message-Objekt aus dem Datenbestand.
+	 * Löscht ein Message-Objekt inklusive aller zugehörigen
+	 * {@link MessageReceipt}s aus dem Datenbestand.
 	 */
-	public synchronized void delete(Message message) {
+	public void delete(final Message message) {
+		assertNotNull(message);
+		getEntityManager().createNamedQuery("MessageReceipt.deleteByMessage").setParameter(1, message.getId())
+				.executeUpdate();
+		final int id = message.getId();
 		super.delete(message);
+		afterCommit.execute(() -> dashboardSummary.messageRemoved(id));
+	}
+
+	/**
+	 * Legt den gelesenen {@link MessageReceipt} an, über den {@code message} im
+	 * Postausgang ihres Autors erscheint.
+	 *
+	 * @param message
+	 *            Die bereits persistierte Nachricht.
+	 * @param author
+	 *            Der Autor der Nachricht.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public void addAuthorReceipt(final Message message, final User author) {
+		final EntityManager em = getEntityManager();
+		em.persist(new MessageReceipt(em.getReference(Message.class, assertNotNull(message).getId()),
+				em.getReference(User.class, assertNotNull(author).getId()), true));
+	}
+
+	/**
+	 * Legt für jeden der gegebenen Empfänger einen ungelesenen
+	 * {@link MessageReceipt} an. Läuft in einer eigenen Transaktion, damit eine
+	 * Zustellung an viele Empfänger abschnittsweise festgeschrieben wird.
+	 * Benutzer und Nachricht werden nur als Referenz verwendet und nicht
+	 * geladen; die Einträge werden durch das Batch-Writing von EclipseLink
+	 * (vgl. 'persistence.xml') gebündelt an die Datenbank übertragen.
+	 *
+	 * @param messageId
+	 *            Die Id der bereits persistierten Nachricht.
+	 * @param receiverIds
+	 *            Die Ids der Empfänger.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code receiverIds == null}.
+	 */
+	@TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+	public void addReceipts(final int messageId, final Collection<Integer> receiverIds) {
+		final EntityManager em = getEntityManager();
+		final Message message = em.getReference(Message.class, messageId);
+		for (final Integer receiverId : assertNotNull(receiverIds)) {
+			em.persist(new MessageReceipt(message, em.getReference(User.class, receiverId), false));
+		}
+		em.flush();
+		em.clear();
+	}
+
+	/**
+	 * Markiert {@code message} für {@code receiver} als gelesen.
+	 *
+	 * @param message
+	 *            Die gelesene Nachricht.
+	 * @param receiver
+	 *            Der Benutzer, der die Nachricht gelesen hat.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public void confirmRead(final Message message, final User receiver) {
+		getEntityManager().createNamedQuery("MessageReceipt.confirm").setParameter(1, assertNotNull(message).getId())
+				.setParameter(2, assertNotNull(receiver).getId()).executeUpdate();
+		afterCommit.execute(() -> dashboardSummary.messageRead(message, receiver.getId()));
+	}
+
+	/**
+	 * Entfernt den Lesestatus von {@code message} für {@code receiver}, z. B.
+	 * wenn der Empfänger die Nachricht aus seinem Postfach löscht.
+	 *
+	 * @param message
+	 *            Die entfernte Nachricht.
+	 * @param receiver
+	 *            Der Benutzer, der die Nachricht entfernt hat.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public void removeReceipt(final Message message, final User receiver) {
+		getEntityManager().createNamedQuery("MessageReceipt.deleteByMessageAndReceiver")
+				.setParameter(1, assertNotNull(message).getId()).setParameter(2, assertNotNull(receiver).getId())
+				.executeUpdate();
+		afterCommit.execute(() -> dashboardSummary.messageRead(message, receiver.getId()));
+	}
+
+	/**
+	 * Gibt die Anzahl der ungelesenen Nachrichten von {@code receiver} zurück.
+	 * Die Abfrage läuft ausschließlich über den Index
+	 * {@code (receiver, confirmed)} und lädt keine Nachrichten.
+	 *
+	 * @param receiver
+	 *            Der Empfänger.
+	 * @return Anzahl ungelesener Nachrichten.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code receiver == null}.
+	 */
+	public int getUnreadCount(final User receiver) {
+		final Long count = getEntityManager().createNamedQuery("MessageReceipt.countUnread", Long.class)
+				.setParameter(1, assertNotNull(receiver).getId()).getSingleResult();
+		return count == null ? 0 : count.intValue();
+	}
+
+	/**
+	 * Gibt die Ids aller für {@code receiver} ungelesenen Nachrichten zurück.
+	 *
+	 * @param receiver
+	 *            Der Empfänger.
+	 * @return Ids der ungelesenen Nachrichten.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code receiver == null}.
+	 */
+	public Set<Integer> getUnreadMessageIds(final User receiver) {
+		return new HashSet<>(getEntityManager().createNamedQuery("MessageReceipt.findUnreadMessageIds", Integer.class)
+				.setParameter(1, assertNotNull(receiver).getId()).getResultList());
+	}
+
+	/**
+	 * Lädt eine Seite des gegebenen Postfachs, absteigend nach Id sortiert. Die
+	 * Seite beginnt unmittelbar nach der Nachricht mit der Id {@code beforeId}
+	 * (Keyset-Pagination), sodass die Datenbank nur die angeforderten Zeilen
+	 * lesen muss. Ist die vorherige Seite nicht bekannt, können über
+	 * {@code skip} zusätzlich Zeilen ab diesem Schlüssel übersprungen werden.
+	 *
+	 * @param box
+	 *            Das zu ladende Postfach.
+	 * @param owner
+	 *            Der Besitzer des Postfachs.
+	 * @param beforeId
+	 *            Id der letzten Nachricht der vorherigen Seite oder
+	 *            {@link Integer#MAX_VALUE} für die erste Seite.
+	 * @param skip
+	 *            Anzahl der ab {@code beforeId} zu überspringenden Nachrichten.
+	 * @param limit
+	 *            Maximale Anzahl der zu ladenden Nachrichten.
+	 * @return Die Nachrichten der angeforderten Seite.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code box == null} oder {@code owner == null}.
+	 */
+	public List<Message> getMailbox(final Mailbox box, final User owner, final int beforeId, final int skip,
+			final int limit) {
+		assertNotNull(box);
+		assertNotNull(owner);
+		return getEntityManager().createNamedQuery(box.findQuery, getClazz()).setParameter(1, owner.getId())
+				.setParameter(2, owner.getReceiverName()).setParameter(3, beforeId).setFirstResult(skip)
+				.setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * Gibt die Anzahl der Nachrichten im gegebenen Postfach zurück.
+	 *
+	 * @param box
+	 *            Das zu zählende Postfach.
+	 * @param owner
+	 *            Der Besitzer des Postfachs.
+	 * @return Anzahl der Nachrichten.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code box == null} oder {@code owner == null}.
+	 */
+	public int countMailbox(final Mailbox box, final User owner) {
+		assertNotNull(owner);
+		final TypedQuery<Long> query = getEntityManager().createNamedQuery(assertNotNull(box).countQuery, Long.class)
+				.setParameter(1, owner.getId());
+		if (box != Mailbox.UNREAD)
+			query.setParameter(2, owner.getReceiverName());
+		final Long count = query.getSingleResult();
+		return count == null ? 0 : count.intValue();
+	}
+
+	/**
+	 * Lädt eine Seite der empfangenen Nachrichten, deren Datum im Intervall
+	 * {@code [from, to)} liegt (vgl.
+	 * {@link #getMailbox(Mailbox, User, int, int, int)}).
+	 *
+	 * @param owner
+	 *            Der Besitzer des Postfachs.
+	 * @param from
+	 *            Untere Grenze (inklusive).
+	 * @param to
+	 *            Obere Grenze (exklusive).
+	 * @param beforeId
+	 *            Id der letzten Nachricht der vorherigen Seite oder
+	 *            {@link Integer#MAX_VALUE} für die erste Seite.
+	 * @param skip
+	 *            Anzahl der ab {@code beforeId} zu überspringenden Nachrichten.
+	 * @param limit
+	 *            Maximale Anzahl der zu ladenden Nachrichten.
+	 * @return Die Nachrichten der angeforderten Seite.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Objektparameter {@code null} ist.
+	 */
+	public List<Message> getInboxBetween(final User owner, final Timestamp from, final Timestamp to,
+			final int beforeId, final int skip, final int limit) {
+		assertNotNull(owner);
+		return getEntityManager().createNamedQuery("Message.findInboxByDate", getClazz())
+				.setParameter(1, owner.getId()).setParameter(2, owner.getReceiverName()).setParameter(3, beforeId)
+				.setParameter(4, assertNotNull(from)).setParameter(5, assertNotNull(to)).setFirstResult(skip)
+				.setMaxResults(limit).getResultList();
+	}
+
+	/**
+	 * Gibt die Anzahl der empfangenen Nachrichten zurück, deren Datum im
+	 * Intervall {@code [from, to)} liegt.
+	 *
+	 * @param owner
+	 *            Der Besitzer des Postfachs.
+	 * @param from
+	 *            Untere Grenze (inklusive).
+	 * @param to
+	 *            Obere Grenze (exklusive).
+	 * @return Anzahl der Nachrichten.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public int countInboxBetween(final User owner, final Timestamp from, final Timestamp to) {
+		assertNotNull(owner);
+		final Long count = getEntityManager().createNamedQuery("Message.countInboxByDate", Long.class)
+				.setParameter(1, owner.getId()).setParameter(2, owner.getReceiverName())
+				.setParameter(3, assertNotNull(from)).setParameter(4, assertNotNull(to)).getSingleResult();
+		return count == null ? 0 : count.intValue();
 	}
 
 	public Class<Message> getClazz() {
@@ -0,0 +1,135 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import javax.ejb.AsyncResult;
+import javax.ejb.Asynchronous;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+
+import de.unibremen.gradelog.model.DeliveryProgress;
+import de.unibremen.gradelog.model.Message;
+
+/**
+ * Stellt eine bereits gespeicherte {@link Message} im Hintergrund an ihre
+ * Empfänger zu. Empfängernamen werden zu Benutzer-Ids aufgelöst (Gruppen zu den
+ * Ids ihrer Mitglieder), sodass weder Benutzer noch Gruppen geladen oder
+ * aktualisiert werden müssen. Die Postfacheinträge werden abschnittsweise über
+ * {@link MessageDAO#addReceipts(int, Collection)} in jeweils eigenen
+ * Transaktionen angelegt; nach jedem Abschnitt wird der Fortschritt
+ * fortgeschrieben.
+ *
+ * @author Marco Glander
+ */
+@Stateless
+public class MessageDispatcher {
+
+	/**
+	 * Anzahl der Empfänger, die in einer Transaktion beliefert werden.
+	 * Entspricht der in 'persistence.xml' konfigurierten Batch-Größe.
+	 */
+	public static final int BATCH_SIZE = 100;
+
+	/**
+	 * Der Logger für diese Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(MessageDispatcher.class);
+
+	/**
+	 * DAO für die Persistenz von Nachrichten
+	 */
+	@Inject
+	private MessageDAO messageDao;
+
+	/**
+	 * DAO für die Persistenz von Usern
+	 */
+	@Inject
+	private UserDAO userDao;
+
+	/**
+	 * DAO für die Persistenz von Gruppen
+	 */
+	@Inject
+	private GroupDAO groupDao;
+
+	/**
+	 * Die Zusammenfassungen des Dashboards
+	 */
+	@Inject
+	private DashboardSummary dashboardSummary;
+
+	/**
+	 * Stellt {@code message} an alle Empfänger zu. Jeder Benutzer wird
+	 * höchstens einmal beliefert, der Autor gar nicht.
+	 *
+	 * @param message
+	 *            Die bereits persistierte Nachricht.
+	 * @param authorId
+	 *            Die Id des Autors.
+	 * @param receiverNames
+	 *            E-Mail-Adressen von Benutzern oder Namen von Gruppen.
+	 * @param progress
+	 *            Der fortzuschreibende Fortschritt.
+	 * @return Die Anzahl der belieferten Empfänger.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Objektparameter {@code null} ist.
+	 */
+	@Asynchronous
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public Future<Integer> deliver(final Message message, final int authorId, final Collection<String> receiverNames,
+			final DeliveryProgress progress) {
+		assertNotNull(message);
+		assertNotNull(progress);
+		try {
+			final List<Integer> receiverIds = new ArrayList<>(resolve(assertNotNull(receiverNames), authorId));
+			progress.setTotal(receiverIds.size());
+			for (int from = 0; from < receiverIds.size(); from += BATCH_SIZE) {
+				final List<Integer> chunk = receiverIds.subList(from, Math.min(from + BATCH_SIZE, receiverIds.size()));
+				messageDao.addReceipts(message.getId(), chunk);
+				dashboardSummary.messageDelivered(message, chunk);
+				progress.addDelivered(chunk.size());
+			}
+			progress.finish(true);
+			return new AsyncResult<>(progress.getDelivered());
+		} catch (final RuntimeException e) {
+			logger.error(String.format("Delivery of %s stopped after %d receivers", message, progress.getDelivered()),
+					e);
+			progress.finish(false);
+			return new AsyncResult<>(progress.getDelivered());
+		}
+	}
+
+	/**
+	 * Löst die gegebenen Empfängernamen zu Benutzer-Ids auf.
+	 *
+	 * @param receiverNames
+	 *            E-Mail-Adressen von Benutzern oder Namen von Gruppen.
+	 * @param authorId
+	 *            Die Id des Autors, der nicht beliefert wird.
+	 * @return Die Ids aller Empfänger ohne Duplikate.
+	 */
+	private Set<Integer> resolve(final Collection<String> receiverNames, final int authorId) {
+		final Set<Integer> receiverIds = new LinkedHashSet<>();
+		for (final String name : receiverNames) {
+			final Integer userId = userDao.getUserIdByEmail(name);
+			if (userId != null)
+				receiverIds.add(userId);
+			else
+				receiverIds.addAll(groupDao.getMemberIds(name));
+		}
+		receiverIds.remove(authorId);
+		return receiverIds;
+	}
+}
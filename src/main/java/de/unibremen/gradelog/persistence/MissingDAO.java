@@ -2,6 +2,8 @@ package de.unibremen.gradelog.persistence;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
+import java.util.List;
+
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 
@@ -36,7 +38,7 @@ public class MissingDAO extends JPADAO<Missing> {
 	 *             Falls {@code missing == null} oder {@code missing} kein durch
 	 *             JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(Missing missing) {
+	public void create(Missing missing) {
 		assertNotNull(missing);
 		try {
 			super.create(missing);
@@ -57,7 +59,7 @@ public class MissingDAO extends JPADAO<Missing> {
 	 *             Falls {@code missing == null} oder {@code missing} kein durch
 	 *             JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Missing missing) {
+	public void update(Missing missing) {
 		assertNotNull(missing);
 		try {
 			super.update(missing);
@@ -67,12 +69,42 @@ public class MissingDAO extends JPADAO<Missing> {
 	}
 
 	/**
-	 * Löscht ein Missing-Objekt aus dem Datenbestand.
+	 * Löscht ein Missing-Objekt samt seines {@link MissingImage}s aus dem
+	 * Datenbestand.
 	 */
-	public synchronized void delete(Missing missing) {
+	public void delete(Missing missing) {
+		assertNotNull(missing);
+		deleteImage(missing.getId());
 		super.delete(missing);
 	}
 
+	/**
+	 * Ersetzt das Bild von {@code missing}, zählt die Version des Bildes hoch
+	 * und aktualisiert anschließend die Fehlzeit.
+	 *
+	 * @param missing
+	 *            Die Fehlzeit, deren Bild sich ändert.
+	 * @param image
+	 *            Das neue Bild oder {@code null}, um das Bild zu entfernen.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code missing == null} ist oder keinen Eintrag im
+	 *             Datenbestand hat.
+	 */
+	public void updateImage(final Missing missing, final byte[] image) {
+		assertNotNull(missing);
+		deleteImage(missing.getId());
+		if (image != null) {
+			getEntityManager().persist(new MissingImage(getEntityManager().getReference(Missing.class,
+					missing.getId()), image));
+		}
+		missing.incrementImageVersion();
+		update(missing);
+	}
+
+	private void deleteImage(final int id) {
+		getEntityManager().createNamedQuery("MissingImage.deleteByMissing").setParameter(1, id).executeUpdate();
+	}
+
 	public Class<Missing> getClazz() {
 		return Missing.class;
 	}
@@ -81,4 +113,32 @@ public class MissingDAO extends JPADAO<Missing> {
 		EntityManager em = getEntityManager();
 		return em.find(Missing.class, id);
 	}
+
+	/**
+	 * Lädt die zur Auslieferung eines Bildes nötigen Daten, ohne das Bild
+	 * selbst zu laden.
+	 *
+	 * @param id
+	 *            Die Id der Fehlzeit.
+	 * @return {@code [imageVersion, userId]} oder {@code null}, falls es keine
+	 *         solche Fehlzeit gibt.
+	 */
+	public Object[] getImageInfo(final int id) {
+		final List<Object[]> info = getEntityManager().createNamedQuery("Missing.findImageInfo", Object[].class)
+				.setParameter(1, id).getResultList();
+		return info.isEmpty() ? null : info.get(0);
+	}
+
+	/**
+	 * Lädt nur das Bild einer Fehlzeit.
+	 *
+	 * @param id
+	 *            Die Id der Fehlzeit.
+	 * @return Das Bild oder {@code null}, falls es keines gibt.
+	 */
+	public byte[] getImage(final int id) {
+		final List<byte[]> images = getEntityManager().createNamedQuery("MissingImage.findData", byte[].class)
+				.setParameter(1, id).getResultList();
+		return images.isEmpty() ? null : images.get(0);
+	}
 }
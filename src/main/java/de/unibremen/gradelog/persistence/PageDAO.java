@@ -9,10 +9,8 @@ import java.util.List;
 import javax.ejb.Stateless;
 import javax.persistence.TransactionRequiredException;
 
-import de.unibremen.gradelog.exception.DuplicateEmailException;
 import de.unibremen.gradelog.exception.DuplicatePageNameException;
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
-import de.unibremen.gradelog.exception.DuplicateUsernameException;
 import de.unibremen.gradelog.exception.UnexpectedUniqueViolationException;
 import de.unibremen.gradelog.model.JPAEntity;
 import de.unibremen.gradelog.model.Page;
@@ -37,11 +35,8 @@ public class PageDAO extends JPADAO<Page> {
 	 *
 	 * @param page
 	 *            Das zu aktualisierende {@link Page}-Objekt.
-	 * @throws DuplicateUsernameException
-	 *             Falls der zu aktualisierende Benutzername bereits an ein
-	 *             anderes Objekt vergeben ist.
-	 * @throws DuplicateEmailException
-	 *             Falls die zu aktualisierende E-Mail-Adresse bereits an ein
+	 * @throws DuplicatePageNameException
+	 *             Falls der zu aktualisierende Seitenname bereits an ein
 	 *             anderes Objekt vergeben ist.
 	 * @throws UnexpectedUniqueViolationException
 	 *             Falls der Aufruf der Oberklassenmethode unerwarteterweise
@@ -59,23 +54,16 @@ public class PageDAO extends JPADAO<Page> {
 	 *             {@link javax.persistence.EntityManager#merge(Object)}).
 	 */
 	@Override
-	public synchronized void update(final Page page) throws DuplicatePageNameException {
+	public void update(final Page page) throws DuplicatePageNameException {
 		final int pageId = assertNotNull(page.getId(), "The id of the parameter must not be null!");
 		assertNotNull(getById(pageId), "The parameter is not yet registered!");
 
-		final String englishName = assertNotNull(page.getEnglishName(), "The name of the parameter must not be null!");
-		final String germanName = assertNotNull(page.getGermanName(), "The name of the parameter must not be null!");
-
-		final Page pageByEnglishName = getPageByName(englishName);
-		if (pageByEnglishName != null && pageByEnglishName.getId() != pageId) {
-			throw new DuplicatePageNameException(format("Pagename '%s' is already in use", pageByEnglishName));
-		}
-		final Page pageByGermanName = getPageByName(germanName);
-		if (pageByGermanName != null && pageByGermanName.getId() != pageId) {
-			throw new DuplicatePageNameException(format("Pagename '%s' is already in use", pageByGermanName));
-		}
+		assertNotNull(page.getEnglishName(), "The name of the parameter must not be null!");
+		assertNotNull(page.getGermanName(), "The name of the parameter must not be null!");
 		try {
 			super.update(page);
+		} catch (final DuplicatePageNameException e) {
+			throw e;
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
 		}
@@ -104,23 +92,14 @@ public class PageDAO extends JPADAO<Page> {
 	 *             {@link javax.persistence.EntityManager#persist(Object)}).
 	 */
 	@Override
-	public synchronized void create(final Page page) throws DuplicatePageNameException {
+	public void create(final Page page) throws DuplicatePageNameException {
 		assertNotNull(page);
-		final String englishName = assertNotNull(page.getEnglishName(), "The name of the parameter must not be null!");
-		final String germanName = assertNotNull(page.getGermanName(), "The name of the parameter must not be null!");
-
-		final Page pageByEnglishName = getPageByName(englishName);
-		if (pageByEnglishName != null && pageByEnglishName.getEnglishName() != null
-				&& pageByEnglishName.getEnglishName().equals(page.getEnglishName())) {
-			throw new DuplicatePageNameException(format("Pagename '%s' is already in use", pageByEnglishName));
-		}
-		final Page pageByGermanName = getPageByName(germanName);
-		if (pageByGermanName != null && pageByGermanName.getGermanName() != null
-				&& pageByGermanName.getGermanName().equals(page.getGermanName())) {
-			throw new DuplicatePageNameException(format("Pagename '%s' is already in use", pageByGermanName));
-		}
+		assertNotNull(page.getEnglishName(), "The name of the parameter must not be null!");
+		assertNotNull(page.getGermanName(), "The name of the parameter must not be null!");
 		try {
 			super.create(page);
+		} catch (final DuplicatePageNameException e) {
+			throw e;
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
 		}
@@ -154,6 +133,11 @@ public class PageDAO extends JPADAO<Page> {
 		return getEntityManager().createNamedQuery("Page.findAll", getClazz()).getResultList();
 	}
 
+	@Override
+	DuplicateUniqueFieldException toDuplicateException(final String violation) {
+		return new DuplicatePageNameException(format("Pagename is already in use: %s", violation));
+	}
+
 	@Override
 	Class<Page> getClazz() {
 		return Page.class;
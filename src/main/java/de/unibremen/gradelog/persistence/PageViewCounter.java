@@ -0,0 +1,183 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PreDestroy;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+
+import de.unibremen.gradelog.model.CustomPage;
+
+/**
+ * Zählt die Besuche von CustomPages im Speicher und schreibt sie gesammelt
+ * zurück. Ein Besuch erhöht nur einen {@link LongAdder} der Seite, sodass
+ * gleichzeitige Besuche weder die Seite in der Datenbank aktualisieren noch
+ * aufeinander warten. Alle {@value #FLUSH_SECONDS} Sekunden werden die
+ * aufgelaufenen Besuche mit {@link CustomPageDAO#addViews(Map)} in die
+ * Datenbank übernommen und die Dashboard-Listen der Besitzer neu geladen.
+ *
+ * Die Besucherzahl einer Seite ergibt sich aus dem gespeicherten Zähler und
+ * den noch nicht geschriebenen Besuchen (vgl. {@link #getViews(CustomPage)}).
+ * Da der Zähler nur hier geschrieben wird, wird er beim Speichern einer Seite
+ * nicht überschrieben (vgl. {@link CustomPage#getCounter()}). Die Bean wird
+ * nicht vom Container synchronisiert und startet keine Transaktionen, ein
+ * Besuch kostet also keine Sperre.
+ *
+ * @author Marco Glander
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class PageViewCounter {
+
+	/**
+	 * Abstand, in dem die Besuche geschrieben werden
+	 */
+	public static final int FLUSH_SECONDS = 15;
+
+	/**
+	 * Der Logger für diese Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(PageViewCounter.class);
+
+	/**
+	 * DAO für die Persistenz von CustomPages
+	 */
+	@Inject
+	private CustomPageDAO customPageDao;
+
+	/**
+	 * Die Zusammenfassungen des Dashboards
+	 */
+	@Inject
+	private DashboardSummary dashboardSummary;
+
+	/**
+	 * Die Besuche je Id einer Seite seit dem Start der Anwendung
+	 */
+	private final ConcurrentMap<Integer, Views> views = new ConcurrentHashMap<>();
+
+	/**
+	 * Die Besuche einer Seite.
+	 */
+	private static final class Views {
+
+		private final int ownerId;
+
+		private final LongAdder total = new LongAdder();
+
+		/**
+		 * Anzahl der bereits geschriebenen Besuche, wird nur von
+		 * {@link PageViewCounter#flush()} geändert
+		 */
+		private volatile long flushed;
+
+		private Views(final int ownerId) {
+			this.ownerId = ownerId;
+		}
+
+		private long pending() {
+			return total.sum() - flushed;
+		}
+	}
+
+	/**
+	 * Zählt einen Besuch von {@code page}.
+	 *
+	 * @param page
+	 *            Die besuchte Seite.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code page == null} ist.
+	 */
+	public void increment(final CustomPage page) {
+		assertNotNull(page);
+		Views pageViews = views.get(page.getId());
+		if (pageViews == null) {
+			pageViews = views.computeIfAbsent(page.getId(),
+					id -> new Views(page.getUser() == null ? 0 : page.getUser().getId()));
+		}
+		pageViews.total.increment();
+	}
+
+	/**
+	 * Gibt die Besucherzahl von {@code page} einschließlich der noch nicht
+	 * geschriebenen Besuche zurück.
+	 *
+	 * @param page
+	 *            Die Seite.
+	 * @return Die Besucherzahl.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code page == null} ist.
+	 */
+	public int getViews(final CustomPage page) {
+		final Views pageViews = views.get(assertNotNull(page).getId());
+		return pageViews == null ? page.getCounter() : (int) (page.getCounter() + pageViews.pending());
+	}
+
+	/**
+	 * Verwirft die Besuche einer gelöschten Seite.
+	 *
+	 * @param pageId
+	 *            Die Id der gelöschten Seite.
+	 */
+	void pageRemoved(final int pageId) {
+		views.remove(pageId);
+	}
+
+	/**
+	 * Schreibt die aufgelaufenen Besuche in die Datenbank. Schlägt das fehl,
+	 * bleiben sie für den nächsten Aufruf erhalten.
+	 */
+	@Schedule(hour = "*", minute = "*", second = "*/" + FLUSH_SECONDS, persistent = false)
+	public synchronized void flush() {
+		final Map<Integer, Long> totals = new HashMap<>();
+		final Map<Integer, Long> deltas = new HashMap<>();
+		final Set<Integer> owners = new HashSet<>();
+		for (final Map.Entry<Integer, Views> entry : views.entrySet()) {
+			final Views pageViews = entry.getValue();
+			final long total = pageViews.total.sum();
+			if (total > pageViews.flushed) {
+				totals.put(entry.getKey(), total);
+				deltas.put(entry.getKey(), total - pageViews.flushed);
+				owners.add(pageViews.ownerId);
+			}
+		}
+		if (deltas.isEmpty())
+			return;
+		try {
+			customPageDao.addViews(deltas);
+		} catch (final RuntimeException e) {
+			logger.warn(String.format("Could not write the views of %d pages", deltas.size()), e);
+			return;
+		}
+		for (final Map.Entry<Integer, Long> entry : totals.entrySet()) {
+			final Views pageViews = views.get(entry.getKey());
+			if (pageViews != null)
+				pageViews.flushed = entry.getValue();
+		}
+		dashboardSummary.pagesViewed(owners);
+	}
+
+	/**
+	 * Schreibt die aufgelaufenen Besuche beim Beenden der Anwendung.
+	 */
+	@PreDestroy
+	public void shutdown() {
+		flush();
+	}
+}
@@ -5,6 +5,7 @@ import de.unibremen.gradelog.model.JPAEntity;
 import de.unibremen.gradelog.model.Preference;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.TransactionRequiredException;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
@@ -22,6 +23,19 @@ public class PreferenceDAO extends JPADAO<Preference> {
      */
     private static final long serialVersionUID = 1543383068333720238L;
 
+    /**
+     * Zwischengespeicherte Konfiguration der Seite
+     */
+    @Inject
+    private SiteConfiguration siteConfiguration;
+
+    /**
+     * Schreibt den Schnappschuss der Konfiguration erst nach dem Festschreiben
+     * fort
+     */
+    @Inject
+    private AfterCommit afterCommit;
+
     /**
      * Aktualisiert den Eintrag von {@code preference} im Datenbestand. Falls
      * {@code preference} noch nicht im Datenbestand vorhanden ist, wird eine
@@ -43,11 +57,12 @@ public class PreferenceDAO extends JPADAO<Preference> {
      *             {@link javax.persistence.EntityManager#merge(Object)}).
      */
     @Override
-    public synchronized void update(final Preference preference) {
+    public void update(final Preference preference) {
         final int preferenceId = assertNotNull(preference.getId(), "The id of the parameter must not be null!");
         assertNotNull(getById(preferenceId), "The parameter is not yet registered!");
         try {
             super.update(preference);
+            afterCommit.execute(() -> siteConfiguration.preferenceSaved(preference));
         } catch (final DuplicateUniqueFieldException e) {
             throw new UnexpectedUniqueViolationException(e);
         }
@@ -72,10 +87,11 @@ public class PreferenceDAO extends JPADAO<Preference> {
      *             {@link javax.persistence.EntityManager#persist(Object)}).
      */
     @Override
-    public synchronized void create(final Preference preference) {
+    public void create(final Preference preference) {
         assertNotNull(preference);
         try {
             super.create(preference);
+            afterCommit.execute(() -> siteConfiguration.preferenceSaved(preference));
         } catch (final DuplicateUniqueFieldException e) {
             throw new UnexpectedUniqueViolationException(e);
         }
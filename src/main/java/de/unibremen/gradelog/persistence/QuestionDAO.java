@@ -37,7 +37,7 @@ public class QuestionDAO extends JPADAO<Question> {
 	 *             Falls {@code question == null} oder {@code question} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(Question question) {
+	public void create(Question question) {
 		assertNotNull(question);
 		try {
 			super.create(question);
@@ -58,7 +58,7 @@ public class QuestionDAO extends JPADAO<Question> {
 	 *             Falls {@code question == null} oder {@code question} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Question question) {
+	public void update(Question question) {
 		assertNotNull(question);
 		try {
 			super.update(question);
@@ -70,7 +70,7 @@ public class QuestionDAO extends JPADAO<Question> {
 	/**
 	 * Löscht ein Question-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(Question question) {
+	public void delete(Question question) {
 		super.delete(question);
 	}
 
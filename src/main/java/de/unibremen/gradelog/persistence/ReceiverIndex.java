@@ -0,0 +1,575 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+import de.unibremen.gradelog.model.Group;
+import de.unibremen.gradelog.model.User;
+
+/**
+ * Suchindex über die Anzeigenamen aller Benutzer und Gruppen, die als
+ * Empfänger ({@link de.unibremen.gradelog.model.MessageReceiver}) in Frage
+ * kommen. Er beantwortet die Anfragen der Autovervollständigung, ohne je
+ * Tastendruck alle Benutzer zu laden und zu durchsuchen.
+ *
+ * Der Index wird beim ersten Zugriff per Projektion aus der Datenbank geladen
+ * und danach von {@link UserDAO} und {@link GroupDAO} fortgeschrieben. Gesucht
+ * wird auf einem unveränderlichen {@link Snapshot}. Da dessen Aufbau bei
+ * einigen tausend Benutzern spürbar dauert, werden Änderungen zunächst als
+ * ausstehend vermerkt, linear durchsucht und in das Ergebnis des Snapshots
+ * einsortiert; erst ab {@link #MAX_PENDING} ausstehenden Änderungen wird der
+ * Snapshot neu aufgebaut. Zuerst werden Einträge geliefert,
+ * bei denen ein Wort des Anzeigenamens mit der Anfrage beginnt (binäre Suche
+ * in den sortierten Wörtern), danach solche, deren Anzeigename die Anfrage an
+ * beliebiger Stelle enthält (Trigramm-Index).
+ *
+ * @author Marco Glander
+ */
+@ApplicationScoped
+public class ReceiverIndex {
+
+	/**
+	 * Anzahl der Vorschläge, die der Autovervollständigung angeboten werden
+	 */
+	public static final int SUGGESTIONS = 20;
+
+	/**
+	 * Anzahl der ausstehenden Änderungen, ab der der Snapshot neu aufgebaut
+	 * wird
+	 */
+	static final int MAX_PENDING = 1000;
+
+	/**
+	 * Trennt die Wörter eines Anzeigenamens
+	 */
+	private static final Pattern WORDS = Pattern.compile("[\\s()]+");
+
+	/**
+	 * Ein Snapshot und die seit seinem Aufbau geänderten Einträge.
+	 */
+	private static final class State {
+
+		private final Snapshot snapshot;
+
+		/**
+		 * Geänderte Einträge je Schlüssel, {@code null} für gelöschte
+		 */
+		private final Map<String, Entry> pending;
+
+		private State(final Snapshot snapshot, final Map<String, Entry> pending) {
+			this.snapshot = snapshot;
+			this.pending = pending;
+		}
+	}
+
+	/**
+	 * Ein Eintrag des Index, d. h. ein Benutzer oder eine Gruppe.
+	 */
+	public static final class Entry implements Serializable {
+
+		private static final long serialVersionUID = 3020532893016618563L;
+
+		private final boolean group;
+
+		private final int id;
+
+		private final String receiverName;
+
+		private final String displayName;
+
+		private final String normalized;
+
+		private final String key;
+
+		Entry(final boolean group, final int id, final String receiverName, final String displayName) {
+			this.group = group;
+			this.id = id;
+			this.receiverName = receiverName;
+			this.displayName = displayName;
+			normalized = normalize(displayName);
+			key = (group ? "G" : "U") + id;
+		}
+
+		static Entry of(final User user) {
+			return new Entry(false, user.getId(), user.getReceiverName(), user.getDisplayName());
+		}
+
+		static Entry of(final Group group) {
+			return new Entry(true, group.getId(), group.getReceiverName(), group.getDisplayName());
+		}
+
+		public boolean isGroup() {
+			return group;
+		}
+
+		public int getId() {
+			return id;
+		}
+
+		public String getReceiverName() {
+			return receiverName;
+		}
+
+		public String getDisplayName() {
+			return displayName;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("ReceiverIndex.Entry {%s, %s}", key, receiverName);
+		}
+	}
+
+	/**
+	 * Ein unveränderlicher Stand des Index.
+	 */
+	static final class Snapshot {
+
+		/**
+		 * Alle Einträge, sortiert nach Anzeigenamen
+		 */
+		private final Entry[] entries;
+
+		/**
+		 * Alle Wörter der Anzeigenamen, aufsteigend sortiert
+		 */
+		private final String[] words;
+
+		/**
+		 * Index des Eintrags in {@link #entries} je Wort in {@link #words}
+		 */
+		private final int[] wordEntries;
+
+		/**
+		 * Die vorkommenden Trigramm-Codes, aufsteigend sortiert (vgl.
+		 * {@link #trigram(String, int)})
+		 */
+		private final int[] trigrams;
+
+		/**
+		 * Beginn der Einträge je Trigramm in {@link #trigramEntries}; der
+		 * letzte Wert ist die Gesamtlänge.
+		 */
+		private final int[] trigramOffsets;
+
+		/**
+		 * Aufsteigende Indizes in {@link #entries} je Trigramm
+		 */
+		private final int[] trigramEntries;
+
+		Snapshot(final Collection<Entry> all) {
+			entries = all.toArray(new Entry[all.size()]);
+			Arrays.sort(entries, (a, b) -> {
+				final int compared = a.normalized.compareTo(b.normalized);
+				return compared != 0 ? compared : a.key.compareTo(b.key);
+			});
+			final List<String> wordList = new ArrayList<>();
+			final List<Integer> wordEntryList = new ArrayList<>();
+			long[] pairs = new long[1024];
+			int pairCount = 0;
+			for (int i = 0; i < entries.length; i++) {
+				final String name = entries[i].normalized;
+				for (final String word : WORDS.split(name)) {
+					if (!word.isEmpty()) {
+						wordList.add(word);
+						wordEntryList.add(i);
+					}
+				}
+				for (int j = 0; j + 3 <= name.length(); j++) {
+					if (pairCount == pairs.length) {
+						pairs = Arrays.copyOf(pairs, pairCount * 2);
+					}
+					pairs[pairCount++] = (long) trigram(name, j) << 32 | i;
+				}
+			}
+			final Integer[] order = new Integer[wordList.size()];
+			for (int i = 0; i < order.length; i++) {
+				order[i] = i;
+			}
+			Arrays.sort(order, (a, b) -> {
+				final int compared = wordList.get(a).compareTo(wordList.get(b));
+				return compared != 0 ? compared : Integer.compare(wordEntryList.get(a), wordEntryList.get(b));
+			});
+			words = new String[order.length];
+			wordEntries = new int[order.length];
+			for (int i = 0; i < order.length; i++) {
+				words[i] = wordList.get(order[i]);
+				wordEntries[i] = wordEntryList.get(order[i]);
+			}
+			Arrays.sort(pairs, 0, pairCount);
+			final int[] codes = new int[pairCount];
+			final int[] offsets = new int[pairCount + 1];
+			final int[] postings = new int[pairCount];
+			int codeCount = 0;
+			int postingCount = 0;
+			for (int i = 0; i < pairCount; i++) {
+				if (i > 0 && pairs[i] == pairs[i - 1]) {
+					continue;
+				}
+				final int code = (int) (pairs[i] >>> 32);
+				if (codeCount == 0 || codes[codeCount - 1] != code) {
+					codes[codeCount] = code;
+					offsets[codeCount++] = postingCount;
+				}
+				postings[postingCount++] = (int) pairs[i];
+			}
+			offsets[codeCount] = postingCount;
+			trigrams = Arrays.copyOf(codes, codeCount);
+			trigramOffsets = Arrays.copyOf(offsets, codeCount + 1);
+			trigramEntries = Arrays.copyOf(postings, postingCount);
+		}
+
+		int size() {
+			return entries.length;
+		}
+
+		List<Entry> search(final String query, final int limit, final Predicate<Entry> filter) {
+			final String normalized = normalize(query).trim();
+			final Set<Entry> result = new LinkedHashSet<>();
+			if (normalized.isEmpty()) {
+				collect(result, limit, filter, null);
+				return new ArrayList<>(result);
+			}
+			int low = 0;
+			int high = words.length;
+			while (low < high) {
+				final int middle = (low + high) >>> 1;
+				if (words[middle].compareTo(normalized) < 0) {
+					low = middle + 1;
+				} else {
+					high = middle;
+				}
+			}
+			for (int i = low; i < words.length && result.size() < limit && words[i].startsWith(normalized); i++) {
+				final Entry entry = entries[wordEntries[i]];
+				if (filter.test(entry)) {
+					result.add(entry);
+				}
+			}
+			if (result.size() < limit) {
+				collect(result, limit, filter, normalized);
+			}
+			return new ArrayList<>(result);
+		}
+
+		/**
+		 * Ergänzt {@code result} um die Einträge, deren Anzeigename
+		 * {@code query} enthält, bzw. um beliebige Einträge, falls
+		 * {@code query == null} ist.
+		 */
+		private void collect(final Set<Entry> result, final int limit, final Predicate<Entry> filter,
+				final String query) {
+			final int[] candidates = query == null || query.length() < 3 ? null : candidates(query);
+			final int count = candidates == null ? entries.length : candidates.length;
+			for (int i = 0; i < count && result.size() < limit; i++) {
+				final Entry entry = entries[candidates == null ? i : candidates[i]];
+				if ((query == null || entry.normalized.contains(query)) && filter.test(entry)) {
+					result.add(entry);
+				}
+			}
+		}
+
+		/**
+		 * Gibt die Indizes der Einträge zurück, deren Anzeigename alle
+		 * Trigramme von {@code query} enthält.
+		 */
+		private int[] candidates(final String query) {
+			final int[] positions = new int[query.length() - 2];
+			for (int i = 0; i < positions.length; i++) {
+				positions[i] = Arrays.binarySearch(trigrams, trigram(query, i));
+				if (positions[i] < 0) {
+					return new int[0];
+				}
+			}
+			int shortest = 0;
+			for (int i = 1; i < positions.length; i++) {
+				if (length(positions[i]) < length(positions[shortest])) {
+					shortest = i;
+				}
+			}
+			int[] candidates = Arrays.copyOfRange(trigramEntries, trigramOffsets[positions[shortest]],
+					trigramOffsets[positions[shortest] + 1]);
+			int size = candidates.length;
+			for (int i = 0; i < positions.length && size > 0; i++) {
+				if (i != shortest) {
+					size = retain(candidates, size, trigramOffsets[positions[i]], trigramOffsets[positions[i] + 1]);
+				}
+			}
+			return Arrays.copyOf(candidates, size);
+		}
+
+		private int length(final int position) {
+			return trigramOffsets[position + 1] - trigramOffsets[position];
+		}
+
+		/**
+		 * Behält von den ersten {@code size} Kandidaten nur die, die auch in
+		 * {@code trigramEntries[from, to)} vorkommen.
+		 *
+		 * @return Die Anzahl der verbliebenen Kandidaten.
+		 */
+		private int retain(final int[] candidates, final int size, final int from, final int to) {
+			int kept = 0;
+			for (int i = 0, j = from; i < size && j < to;) {
+				if (candidates[i] < trigramEntries[j]) {
+					i++;
+				} else if (candidates[i] > trigramEntries[j]) {
+					j++;
+				} else {
+					candidates[kept++] = candidates[i];
+					i++;
+					j++;
+				}
+			}
+			return kept;
+		}
+
+		/**
+		 * Bildet die drei Zeichen ab {@code start} auf einen Code ab. Zeichen
+		 * oberhalb von U+03FF können sich einen Code teilen, was nur zu
+		 * zusätzlichen, beim Abgleich verworfenen Kandidaten führt.
+		 */
+		private static int trigram(final String s, final int start) {
+			return (s.charAt(start) & 0x3FF) << 20 | (s.charAt(start + 1) & 0x3FF) << 10 | s.charAt(start + 2) & 0x3FF;
+		}
+	}
+
+	/**
+	 * DAO für die Persistenz von Usern
+	 */
+	@Inject
+	private UserDAO userDao;
+
+	/**
+	 * DAO für die Persistenz von Gruppen
+	 */
+	@Inject
+	private GroupDAO groupDao;
+
+	/**
+	 * Schützt {@link #entries} und Änderungen von {@link #state}.
+	 */
+	private final Object lock = new Object();
+
+	/**
+	 * Alle Einträge je Schlüssel; {@code null}, solange der Index noch nicht
+	 * geladen wurde.
+	 */
+	private Map<String, Entry> entries;
+
+	/**
+	 * Der aktuelle Stand oder {@code null}, solange der Index noch nicht
+	 * geladen wurde.
+	 */
+	private volatile State state;
+
+	/**
+	 * Gibt höchstens {@code limit} Benutzer und Gruppen zurück, deren
+	 * Anzeigename {@code query} enthält und die {@code filter} erfüllen. Groß-
+	 * und Kleinschreibung wird nicht unterschieden. Einträge, bei denen ein
+	 * Wort des Anzeigenamens mit {@code query} beginnt, werden zuerst
+	 * zurückgegeben.
+	 *
+	 * @param query
+	 *            Die eingegebene Zeichenkette.
+	 * @param limit
+	 *            Die maximale Anzahl an Ergebnissen.
+	 * @param filter
+	 *            Die Einträge, die in Frage kommen.
+	 * @return Die gefundenen Einträge.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Objektparameter {@code null} ist.
+	 */
+	public List<Entry> search(final String query, final int limit, final Predicate<Entry> filter) {
+		assertNotNull(query);
+		assertNotNull(filter);
+		final State current = state();
+		if (current.pending.isEmpty()) {
+			return current.snapshot.search(query, limit, filter);
+		}
+		final String normalized = normalize(query).trim();
+		final List<Entry> result = new ArrayList<>();
+		for (final Entry entry : current.pending.values()) {
+			if (entry != null && entry.normalized.contains(normalized) && filter.test(entry)) {
+				result.add(entry);
+			}
+		}
+		result.addAll(current.snapshot.search(query, limit,
+				entry -> !current.pending.containsKey(entry.key) && filter.test(entry)));
+		result.sort(ranking(normalized));
+		return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+	}
+
+	/**
+	 * Gibt die Reihenfolge zurück, in der {@link Snapshot#search} die Treffer
+	 * für {@code query} liefert: zuerst Einträge mit einem Wort, das mit
+	 * {@code query} beginnt, geordnet nach dem kleinsten solchen Wort, danach
+	 * die übrigen, jeweils nach Anzeigenamen.
+	 */
+	private static Comparator<Entry> ranking(final String query) {
+		final Comparator<Entry> byName = Comparator.comparing((Entry entry) -> entry.normalized)
+				.thenComparing(entry -> entry.key);
+		if (query.isEmpty()) {
+			return byName;
+		}
+		return Comparator.comparing((Entry entry) -> firstWord(entry, query),
+				Comparator.nullsLast(Comparator.<String> naturalOrder())).thenComparing(byName);
+	}
+
+	/**
+	 * Gibt das kleinste Wort des Anzeigenamens zurück, das mit {@code query}
+	 * beginnt, oder {@code null}, falls es keines gibt.
+	 */
+	private static String firstWord(final Entry entry, final String query) {
+		String first = null;
+		for (final String word : WORDS.split(entry.normalized)) {
+			if (!word.isEmpty() && word.startsWith(query) && (first == null || word.compareTo(first) < 0)) {
+				first = word;
+			}
+		}
+		return first;
+	}
+
+	/**
+	 * Nimmt den angelegten oder geänderten Benutzer in den Index auf.
+	 *
+	 * @param user
+	 *            Der Benutzer.
+	 */
+	void userSaved(final User user) {
+		put(Collections.singletonList(Entry.of(user)));
+	}
+
+	/**
+	 * Nimmt die angelegten Benutzer in den Index auf.
+	 *
+	 * @param users
+	 *            Die Benutzer.
+	 */
+	void usersSaved(final Collection<User> users) {
+		final List<Entry> added = new ArrayList<>(users.size());
+		for (final User user : users) {
+			added.add(Entry.of(user));
+		}
+		put(added);
+	}
+
+	/**
+	 * Entfernt den Benutzer mit der gegebenen Id aus dem Index.
+	 *
+	 * @param userId
+	 *            Die Id des gelöschten Benutzers.
+	 */
+	void userRemoved(final int userId) {
+		remove("U" + userId);
+	}
+
+	/**
+	 * Nimmt die angelegte oder geänderte Gruppe in den Index auf.
+	 *
+	 * @param group
+	 *            Die Gruppe.
+	 */
+	void groupSaved(final Group group) {
+		put(Collections.singletonList(Entry.of(group)));
+	}
+
+	/**
+	 * Entfernt die Gruppe mit der gegebenen Id aus dem Index.
+	 *
+	 * @param groupId
+	 *            Die Id der gelöschten Gruppe.
+	 */
+	void groupRemoved(final int groupId) {
+		remove("G" + groupId);
+	}
+
+	/**
+	 * Gibt den aktuellen Stand zurück und lädt den Index beim ersten Aufruf.
+	 */
+	private State state() {
+		final State current = state;
+		if (current != null) {
+			return current;
+		}
+		synchronized (lock) {
+			if (state == null) {
+				entries = load();
+				state = new State(new Snapshot(entries.values()), Collections.<String, Entry> emptyMap());
+			}
+			return state;
+		}
+	}
+
+	private Map<String, Entry> load() {
+		final Map<String, Entry> loaded = new HashMap<>();
+		for (final Object[] row : userDao.getReceivers()) {
+			final Entry entry = new Entry(false, (Integer) row[0], (String) row[1],
+					User.toDisplayName((String) row[2], (String) row[3], (String) row[1]));
+			loaded.put(entry.key, entry);
+		}
+		for (final Object[] row : groupDao.getReceivers()) {
+			final Entry entry = new Entry(true, (Integer) row[0], (String) row[1], Group.toDisplayName((String) row[1]));
+			loaded.put(entry.key, entry);
+		}
+		return loaded;
+	}
+
+	private void put(final Collection<Entry> changed) {
+		synchronized (lock) {
+			if (state == null) {
+				return;
+			}
+			final Map<String, Entry> pending = new HashMap<>(state.pending);
+			for (final Entry entry : changed) {
+				entries.put(entry.key, entry);
+				pending.put(entry.key, entry);
+			}
+			update(pending);
+		}
+	}
+
+	private void remove(final String key) {
+		synchronized (lock) {
+			if (state == null || entries.remove(key) == null) {
+				return;
+			}
+			final Map<String, Entry> pending = new HashMap<>(state.pending);
+			pending.put(key, null);
+			update(pending);
+		}
+	}
+
+	/**
+	 * Setzt den neuen Stand mit den gegebenen ausstehenden Änderungen bzw.
+	 * baut den Snapshot neu auf, falls es zu viele sind.
+	 */
+	private void update(final Map<String, Entry> pending) {
+		if (pending.size() < MAX_PENDING) {
+			state = new State(state.snapshot, pending);
+		} else {
+			state = new State(new Snapshot(entries.values()), Collections.<String, Entry> emptyMap());
+		}
+	}
+
+	private static String normalize(final String s) {
+		return s == null ? "" : s.toLowerCase(Locale.ROOT);
+	}
+}
@@ -0,0 +1,254 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+
+import de.unibremen.gradelog.model.Calendar;
+import de.unibremen.gradelog.model.Task;
+
+/**
+ * Hält für jeden Kalender, d. h. für jeden Benutzer, den Beginn der
+ * anstehenden Termine in einem Min-Heap vor und merkt sich, ob in der nächsten
+ * Stunde ein Termin beginnt. Der Heap wird beim ersten Zugriff aus den
+ * Terminen des Kalenders aufgebaut und danach vom {@code CalendarController}
+ * fortgeschrieben (vgl. {@link #taskSaved(Calendar, Task)} und
+ * {@link #taskRemoved(Calendar, Task)}). Einmal pro Minute werden vergangene
+ * Termine entfernt und die Markierungen neu berechnet, sodass
+ * {@link #isDue(Calendar)} nur eine Markierung liest.
+ *
+ * Geänderte und gelöschte Termine bleiben im Heap, bis sie oben ankommen, und
+ * werden dann anhand des aktuellen Beginns verworfen.
+ *
+ * @author Marco Glander
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class ReminderService {
+
+	/**
+	 * Zeitraum vor dem Beginn eines Termins, in dem erinnert wird
+	 */
+	static final long WINDOW = TimeUnit.HOURS.toMillis(1);
+
+	/**
+	 * Termine, die in weniger als einer Minute beginnen, gelten als begonnen
+	 */
+	static final long LEAD = TimeUnit.MINUTES.toMillis(1);
+
+	/**
+	 * Zeitzone, deren Sommerzeit bei der Berechnung ausgeglichen wird
+	 */
+	private static final TimeZone ZONE = TimeZone.getTimeZone("Europe/Berlin");
+
+	/**
+	 * Die Erinnerungen je Id eines Kalenders
+	 */
+	private final ConcurrentMap<Integer, Reminders> reminders = new ConcurrentHashMap<>();
+
+	/**
+	 * Der Beginn eines Termins, wie er in den Heap eingefügt wurde.
+	 */
+	private static final class Entry {
+
+		private final int taskId;
+
+		private final long start;
+
+		private Entry(final int taskId, final long start) {
+			this.taskId = taskId;
+			this.start = start;
+		}
+	}
+
+	/**
+	 * Die anstehenden Termine eines Kalenders. Alle Zugriffe außer auf
+	 * {@link #due} synchronisieren auf dem Objekt.
+	 */
+	private static final class Reminders {
+
+		/**
+		 * Der aktuelle Beginn je Id eines anstehenden Termins
+		 */
+		private final Map<Integer, Long> starts = new HashMap<>();
+
+		private final PriorityQueue<Entry> heap = new PriorityQueue<>(Comparator.comparingLong(e -> e.start));
+
+		private volatile boolean due;
+
+		private void put(final int taskId, final long start) {
+			starts.put(taskId, start);
+			heap.add(new Entry(taskId, start));
+			if (heap.size() > 2 * starts.size() + 16)
+				compact();
+		}
+
+		/**
+		 * Entfernt vergangene und veraltete Einträge von der Spitze des Heaps
+		 * und berechnet {@link #due} neu.
+		 */
+		private void update(final long from, final long to) {
+			Entry head = heap.peek();
+			while (head != null && (isStale(head) || head.start < from)) {
+				heap.poll();
+				if (!isStale(head))
+					starts.remove(head.taskId);
+				head = heap.peek();
+			}
+			due = head != null && head.start < to;
+		}
+
+		private boolean isStale(final Entry entry) {
+			final Long start = starts.get(entry.taskId);
+			return start == null || start != entry.start;
+		}
+
+		private void compact() {
+			heap.clear();
+			for (final Map.Entry<Integer, Long> entry : starts.entrySet()) {
+				heap.add(new Entry(entry.getKey(), entry.getValue()));
+			}
+		}
+	}
+
+	/**
+	 * Gibt zurück, ob in {@code calendar} in der nächsten Stunde ein Termin
+	 * beginnt. Beim ersten Aufruf für einen Kalender werden dessen Termine
+	 * einmalig übernommen.
+	 *
+	 * @param calendar
+	 *            Der Kalender.
+	 * @return {@code true}, falls bald ein Termin beginnt.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code calendar == null} ist.
+	 */
+	public boolean isDue(final Calendar calendar) {
+		Reminders calendarReminders = reminders.get(assertNotNull(calendar).getId());
+		if (calendarReminders == null) {
+			calendarReminders = reminders.computeIfAbsent(calendar.getId(), id -> load(calendar));
+		}
+		return calendarReminders.due;
+	}
+
+	/**
+	 * Übernimmt einen neuen oder verschobenen Termin aus {@code calendar}.
+	 *
+	 * @param calendar
+	 *            Der Kalender des Termins.
+	 * @param task
+	 *            Der gespeicherte Termin.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public void taskSaved(final Calendar calendar, final Task task) {
+		assertNotNull(task);
+		final Reminders calendarReminders = reminders.get(assertNotNull(calendar).getId());
+		if (calendarReminders == null)
+			return;
+		final long now = System.currentTimeMillis();
+		synchronized (calendarReminders) {
+			calendarReminders.put(task.getId(), task.getStartTime().getTime());
+			update(calendarReminders, now);
+		}
+	}
+
+	/**
+	 * Entfernt einen gelöschten Termin aus {@code calendar}.
+	 *
+	 * @param calendar
+	 *            Der Kalender des Termins.
+	 * @param task
+	 *            Der gelöschte Termin.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public void taskRemoved(final Calendar calendar, final Task task) {
+		assertNotNull(task);
+		final Reminders calendarReminders = reminders.get(assertNotNull(calendar).getId());
+		if (calendarReminders == null)
+			return;
+		final long now = System.currentTimeMillis();
+		synchronized (calendarReminders) {
+			calendarReminders.starts.remove(task.getId());
+			update(calendarReminders, now);
+		}
+	}
+
+	/**
+	 * Berechnet die Markierungen aller Kalender neu.
+	 */
+	@Schedule(hour = "*", minute = "*", persistent = false)
+	public void refresh() {
+		refresh(System.currentTimeMillis());
+	}
+
+	/**
+	 * Berechnet die Markierungen aller Kalender zum Zeitpunkt {@code now} neu.
+	 *
+	 * @param now
+	 *            Der Zeitpunkt in Millisekunden.
+	 */
+	void refresh(final long now) {
+		for (final Reminders calendarReminders : reminders.values()) {
+			synchronized (calendarReminders) {
+				update(calendarReminders, now);
+			}
+		}
+	}
+
+	/**
+	 * Verwirft die Erinnerungen eines gelöschten Kalenders.
+	 *
+	 * @param calendarId
+	 *            Die Id des Kalenders.
+	 */
+	public void calendarRemoved(final int calendarId) {
+		reminders.remove(calendarId);
+	}
+
+	private static Reminders load(final Calendar calendar) {
+		final Reminders calendarReminders = new Reminders();
+		final long now = System.currentTimeMillis();
+		synchronized (calendarReminders) {
+			for (final Task task : calendar.getTasks()) {
+				final long start = task.getStartTime().getTime();
+				if (start >= now)
+					calendarReminders.put(task.getId(), start);
+			}
+			update(calendarReminders, now);
+		}
+		return calendarReminders;
+	}
+
+	private static void update(final Reminders calendarReminders, final long now) {
+		final long offset = offset(now);
+		calendarReminders.update(now + offset + LEAD, now + offset + WINDOW);
+	}
+
+	/**
+	 * Die Termine werden während der Sommerzeit um eine Stunde verschoben
+	 * gespeichert, daher verschiebt sich das Erinnerungsfenster entsprechend.
+	 *
+	 * @param now
+	 *            Der Zeitpunkt in Millisekunden.
+	 * @return Die Verschiebung in Millisekunden.
+	 */
+	static long offset(final long now) {
+		return ZONE.inDaylightTime(new java.util.Date(now)) ? WINDOW : 0;
+	}
+}
@@ -1,15 +1,32 @@
 package de.unibremen.gradelog.persistence;
 
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
 
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
 import de.unibremen.gradelog.exception.UnexpectedUniqueViolationException;
 import de.unibremen.gradelog.model.*;
 
 /**
- * Dieses DAO verwaltet Objekte der Klasse {@link Representation}.
+ * Dieses DAO verwaltet Objekte der Klasse {@link Representation}. Ein neu
+ * importierter Vertretungsplan wird mit dem gespeicherten abgeglichen, sodass
+ * nur geänderte Einträge geschrieben werden (vgl. {@link #synchronize(List)}).
+ * Abfragen nach Zeitraum, Klasse und Lehrer nutzen die Indizes von
+ * {@link Representation} und werden von der Datenbank sortiert.
  * 
  * @author Marco Glander
  */
@@ -21,6 +38,56 @@ public class RepresentationDAO extends JPADAO<Representation> {
 	 */
 	private static final long serialVersionUID = 1978902975092614311L;
 
+	/**
+	 * Anzahl der Änderungen, nach denen der Persistenzkontext geschrieben wird.
+	 * Entspricht der in 'persistence.xml' konfigurierten Batch-Größe.
+	 */
+	static final int BATCH_SIZE = 100;
+
+	/**
+	 * Das Ergebnis des Abgleichs eines importierten mit dem gespeicherten
+	 * Vertretungsplan.
+	 */
+	public static final class Changes {
+
+		private final List<Representation> inserted = new ArrayList<>();
+
+		private final List<Representation> deleted = new ArrayList<>();
+
+		private int updated;
+
+		private int unchanged;
+
+		/**
+		 * @return Die neu anzulegenden Einträge.
+		 */
+		public List<Representation> getInserted() {
+			return Collections.unmodifiableList(inserted);
+		}
+
+		/**
+		 * @return Die zu löschenden, gespeicherten Einträge.
+		 */
+		public List<Representation> getDeleted() {
+			return Collections.unmodifiableList(deleted);
+		}
+
+		/**
+		 * @return Die Anzahl der gespeicherten Einträge, deren Angaben
+		 *         aktualisiert wurden.
+		 */
+		public int getUpdated() {
+			return updated;
+		}
+
+		/**
+		 * @return Die Anzahl der unveränderten Einträge.
+		 */
+		public int getUnchanged() {
+			return unchanged;
+		}
+	}
+
 	/**
 	 * Fügt {@code representation} dem Datenbestand hinzu. Falls
 	 * {@code representation} bereits im Datenbestand vorhanden ist (vgl.
@@ -34,7 +101,7 @@ public class RepresentationDAO extends JPADAO<Representation> {
 	 *             Falls {@code representation == null} oder
 	 *             {@code representation} kein durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(Representation representation) {
+	public void create(Representation representation) {
 		try {
 			super.create(representation);
 		} catch (final DuplicateUniqueFieldException e) {
@@ -54,7 +121,7 @@ public class RepresentationDAO extends JPADAO<Representation> {
 	 *             Falls {@code representation == null} oder
 	 *             {@code representation} kein durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Representation representation) {
+	public void update(Representation representation) {
 		try {
 			super.update(representation);
 		} catch (final DuplicateUniqueFieldException e) {
@@ -65,7 +132,7 @@ public class RepresentationDAO extends JPADAO<Representation> {
 	/**
 	 * Löscht ein Representation-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(Representation representation) {
+	public void delete(Representation representation) {
 		super.delete(representation);
 	}
 
@@ -74,8 +141,8 @@ public class RepresentationDAO extends JPADAO<Representation> {
 	}
 
 	/**
-	 * Liefert eine Liste mit allen Representations, die in der Datenbank
-	 * existieren.
+	 * Liefert eine nach Datum und Stunde sortierte Liste mit allen
+	 * Representations, die in der Datenbank existieren.
 	 * 
 	 * @return Liste aller bekannten Representations
 	 */
@@ -86,10 +153,161 @@ public class RepresentationDAO extends JPADAO<Representation> {
 	}
 
 	/**
-	 * Leert die Liste der Vertretungsplaneinträge. Wird verwendet, wenn ein
-	 * neuer Vertretungsplan importiert wird.
+	 * Liefert die nach Datum und Stunde sortierten Vertretungen im Zeitraum
+	 * von {@code from} (inklusive) bis {@code to} (exklusive).
+	 * 
+	 * @param from
+	 *            Der erste Tag des Zeitraums.
+	 * @param to
+	 *            Der erste Tag nach dem Zeitraum.
+	 * @return Die Vertretungen im Zeitraum.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public List<Representation> getRepresentations(final Date from, final Date to) {
+		return between("Representation.findBetween", from, to).getResultList();
+	}
+
+	/**
+	 * Liefert die nach Datum und Stunde sortierten Vertretungen der gegebenen
+	 * Klassen im Zeitraum von {@code from} (inklusive) bis {@code to}
+	 * (exklusive).
+	 * 
+	 * @param classes
+	 *            Die Klassen, wie sie im Vertretungsplan angegeben sind.
+	 * @param from
+	 *            Der erste Tag des Zeitraums.
+	 * @param to
+	 *            Der erste Tag nach dem Zeitraum.
+	 * @return Die Vertretungen der Klassen im Zeitraum.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
 	 */
-	public void clearRepresentations() {
-		getEntityManager().createNamedQuery("Representation.clear", getClazz()).executeUpdate();
+	public List<Representation> getRepresentationsForClasses(final String classes, final Date from, final Date to) {
+		return between("Representation.findBetweenForClasses", from, to)
+				.setParameter("classes", assertNotNull(classes))
+				.getResultList();
+	}
+
+	/**
+	 * Liefert die nach Datum und Stunde sortierten Vertretungen, in denen der
+	 * gegebene Lehrer vertreten wird oder vertritt, im Zeitraum von
+	 * {@code from} (inklusive) bis {@code to} (exklusive).
+	 * 
+	 * @param teacher
+	 *            Der Lehrer, wie er im Vertretungsplan angegeben ist.
+	 * @param from
+	 *            Der erste Tag des Zeitraums.
+	 * @param to
+	 *            Der erste Tag nach dem Zeitraum.
+	 * @return Die Vertretungen des Lehrers im Zeitraum.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public List<Representation> getRepresentationsForTeacher(final String teacher, final Date from, final Date to) {
+		return between("Representation.findBetweenForTeacher", from, to)
+				.setParameter("teacher", assertNotNull(teacher))
+				.getResultList();
+	}
+
+	/**
+	 * Ersetzt den gespeicherten Vertretungsplan durch {@code imported}. Statt
+	 * alle Einträge zu löschen und neu anzulegen, werden nur neue Einträge
+	 * angelegt, geänderte aktualisiert und entfallene gelöscht (vgl.
+	 * {@link #diff(Collection, Collection)}). Die Änderungen werden in Batches
+	 * von {@link #BATCH_SIZE} geschrieben.
+	 * 
+	 * @param imported
+	 *            Die Einträge des importierten Vertretungsplans.
+	 * @return Die vorgenommenen Änderungen.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code imported == null} ist oder {@code null}
+	 *             enthält.
+	 */
+	public Changes synchronize(final List<Representation> imported) {
+		final EntityManager em = getEntityManager();
+		final Changes changes = diff(getAllRepresentations(), imported);
+		int pending = changes.getUpdated();
+		for (final Representation representation : changes.deleted) {
+			em.remove(representation);
+			pending = flushBatch(em, pending + 1);
+		}
+		for (final Representation representation : changes.inserted) {
+			em.persist(representation);
+			pending = flushBatch(em, pending + 1);
+		}
+		em.flush();
+		return changes;
+	}
+
+	/**
+	 * Gleicht {@code imported} mit den gespeicherten Einträgen
+	 * {@code existing} ab. Einträge werden über Datum, Stunde, Klassen und
+	 * Lehrer einander zugeordnet. Bei zugeordneten Einträgen werden geänderte
+	 * Angaben in den gespeicherten Eintrag übernommen, nicht zugeordnete
+	 * importierte Einträge sind anzulegen und nicht zugeordnete gespeicherte
+	 * Einträge zu löschen.
+	 * 
+	 * @param existing
+	 *            Die gespeicherten Einträge.
+	 * @param imported
+	 *            Die importierten Einträge.
+	 * @return Die vorzunehmenden Änderungen.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist oder {@code null}
+	 *             enthält.
+	 */
+	static Changes diff(final Collection<Representation> existing, final Collection<Representation> imported) {
+		final Map<List<Object>, Deque<Representation>> stored = new HashMap<>();
+		for (final Representation representation : assertNotNull(existing)) {
+			stored.computeIfAbsent(key(representation), k -> new ArrayDeque<>()).add(representation);
+		}
+		final Changes changes = new Changes();
+		for (final Representation representation : assertNotNull(imported)) {
+			final Deque<Representation> candidates = stored.get(key(representation));
+			final Representation match = candidates == null ? null : candidates.poll();
+			if (match == null) {
+				changes.inserted.add(representation);
+			} else if (match.hasSameDetails(representation)) {
+				changes.unchanged++;
+			} else {
+				match.copyDetails(representation);
+				changes.updated++;
+			}
+		}
+		for (final Deque<Representation> remaining : stored.values()) {
+			changes.deleted.addAll(remaining);
+		}
+		return changes;
+	}
+
+	/**
+	 * Gibt den Schlüssel zurück, über den ein Eintrag beim Import
+	 * wiedererkannt wird.
+	 */
+	private static List<Object> key(final Representation representation) {
+		assertNotNull(representation);
+		return Arrays.<Object> asList(representation.getDate().getTime(), representation.getHour(),
+				representation.getClasses(), representation.getTeacher());
+	}
+
+	/**
+	 * Schreibt den Persistenzkontext, sobald {@link #BATCH_SIZE} Änderungen
+	 * ausstehen.
+	 * 
+	 * @return Die Anzahl der danach noch ausstehenden Änderungen.
+	 */
+	private static int flushBatch(final EntityManager em, final int pending) {
+		if (pending < BATCH_SIZE) {
+			return pending;
+		}
+		em.flush();
+		return 0;
+	}
+
+	private TypedQuery<Representation> between(final String query, final Date from, final Date to) {
+		return getEntityManager().createNamedQuery(query, getClazz())
+				.setParameter("from", new java.sql.Date(assertNotNull(from).getTime()))
+				.setParameter("to", new java.sql.Date(assertNotNull(to).getTime()));
 	}
 }
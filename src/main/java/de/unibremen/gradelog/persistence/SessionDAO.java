@@ -2,7 +2,13 @@ package de.unibremen.gradelog.persistence;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.enterprise.context.ApplicationScoped;
 import javax.inject.Named;
@@ -11,19 +17,120 @@ import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.User;
 
 /**
- * Dieses DAO verwaltet Objekte der Klasse {@link Session}.
+ * Dieses DAO verwaltet Objekte der Klasse {@link Session}. Die Sessions werden
+ * zusätzlich nach der Id des eingeloggten Benutzers indiziert, den
+ * {@link Session#setUser(User)} und {@link Session#destroy()} fortschreiben.
+ * So lassen sich der Online-Status eines Benutzers, seine Sessions und die
+ * Anzahl der eingeloggten Benutzer bestimmen, ohne alle Sessions zu
+ * durchlaufen oder einen Benutzer aus der Datenbank zu laden.
+ *
+ * Alle Operationen sind ohne globale Sperre threadsicher.
  *
  * @author Rune Krauss
  */
 @Named
 @ApplicationScoped
-public class SessionDAO extends TransientDAO<Session> {
+public class SessionDAO implements GenericDAO<Session> {
 
 	/**
 	 * Die eindeutige SerialisierungsID.
 	 */
 	private static final long serialVersionUID = -4448901874981927743L;
 
+	/**
+	 * Alle aktiven Sessions
+	 */
+	private final Set<Session> sessions = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Die eingeloggten Sessions je Benutzer-Id. Benutzer ohne eingeloggte
+	 * Session sind nicht enthalten.
+	 */
+	private final ConcurrentMap<Integer, Set<Session>> sessionsByUser = new ConcurrentHashMap<>();
+
+	/**
+	 * Die Anzahl der Benutzer mit mindestens einer eingeloggten Session
+	 */
+	private final AtomicInteger onlineUsers = new AtomicInteger();
+
+	@Override
+	public void create(final Session session) {
+		sessions.add(assertNotNull(session));
+	}
+
+	/**
+	 * Entfernt {@code session} aus dem Datenbestand. Ist in der Session noch
+	 * ein Benutzer eingeloggt, muss dieser vorher per
+	 * {@link #logout(Session, int)} ausgetragen werden.
+	 *
+	 * @param session
+	 *            Die zu entfernende Session.
+	 */
+	@Override
+	public void delete(final Session session) {
+		sessions.remove(assertNotNull(session));
+	}
+
+	@Override
+	public void update(final Session session) {
+	}
+
+	/**
+	 * Gibt eine Kopie des internen Datenbestandes zurück.
+	 *
+	 * @return Eine Kopie des internen Datenbestandes.
+	 */
+	public List<Session> getAll() {
+		return new ArrayList<>(sessions);
+	}
+
+	/**
+	 * Trägt {@code session} als Session des Benutzers mit der gegebenen Id in
+	 * den Index ein.
+	 *
+	 * @param session
+	 *            Die Session, in der sich der Benutzer eingeloggt hat.
+	 * @param userId
+	 *            Die Id des eingeloggten Benutzers.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code session == null} ist.
+	 */
+	public void login(final Session session, final int userId) {
+		assertNotNull(session);
+		sessionsByUser.compute(userId, (id, userSessions) -> {
+			if (userSessions == null) {
+				userSessions = ConcurrentHashMap.newKeySet();
+				onlineUsers.incrementAndGet();
+			}
+			userSessions.add(session);
+			return userSessions;
+		});
+	}
+
+	/**
+	 * Trägt {@code session} als Session des Benutzers mit der gegebenen Id aus
+	 * dem Index aus.
+	 *
+	 * @param session
+	 *            Die Session, aus der sich der Benutzer ausgeloggt hat bzw.
+	 *            die beendet wurde.
+	 * @param userId
+	 *            Die Id des ausgeloggten Benutzers.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code session == null} ist.
+	 */
+	public void logout(final Session session, final int userId) {
+		assertNotNull(session);
+		sessionsByUser.computeIfPresent(userId, (id, userSessions) -> {
+			userSessions.remove(session);
+			if (!userSessions.isEmpty()) {
+				return userSessions;
+			}
+			onlineUsers.decrementAndGet();
+			return null;
+		});
+	}
+
 	/**
 	 * Gibt zurück, ob der gegebene Benutzer eine aktive Session hat, d. h.
 	 * eingeloggt ist.
@@ -35,16 +142,41 @@ public class SessionDAO extends TransientDAO<Session> {
 	 * @throws IllegalArgumentException
 	 *             falls der übergebene Parameter den Wert {@code null} hat
 	 */
-	public boolean isUserLoggedIn(final User user) {
-		assertNotNull(user);
-		final List<Session> sessions = getAll();
-		for (final Session session : sessions) {
-			final User sessionUser = session.getUser();
-			if (sessionUser != null && sessionUser.equals(user)) {
-				return true;
-			}
-		}
-		return false;
+	public boolean isUserOnline(final User user) {
+		return sessionsByUser.containsKey(assertNotNull(user).getId());
 	}
 
+	/**
+	 * Gibt die Sessions zurück, in denen der gegebene Benutzer eingeloggt ist.
+	 *
+	 * @param user
+	 *            Der Benutzer.
+	 * @return Eine Kopie der Sessions des Benutzers, leer falls er nicht
+	 *         eingeloggt ist.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	public List<Session> getSessions(final User user) {
+		final Set<Session> userSessions = sessionsByUser.get(assertNotNull(user).getId());
+		return userSessions == null ? Collections.<Session> emptyList() : new ArrayList<>(userSessions);
+	}
+
+	/**
+	 * Gibt die Anzahl der aktiven Sessions zurück.
+	 *
+	 * @return Die Anzahl der aktiven Sessions.
+	 */
+	public int getSessionCount() {
+		return sessions.size();
+	}
+
+	/**
+	 * Gibt die Anzahl der Benutzer zurück, die in mindestens einer Session
+	 * eingeloggt sind.
+	 *
+	 * @return Die Anzahl der eingeloggten Benutzer.
+	 */
+	public int getOnlineUserCount() {
+		return onlineUsers.get();
+	}
 }
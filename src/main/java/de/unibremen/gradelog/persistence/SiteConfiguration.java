@@ -0,0 +1,221 @@
+package de.unibremen.gradelog.persistence;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+import javax.persistence.NoResultException;
+
+import de.unibremen.gradelog.model.Preference;
+import de.unibremen.gradelog.model.Template;
+import de.unibremen.gradelog.model.User;
+
+/**
+ * Hält die Konfiguration der Seite, d. h. das Front- und Backend-Template, die
+ * globale {@link Preference} und die E-Mail-Adresse des Administrators, als
+ * unveränderlichen Schnappschuss vor. Der Schnappschuss wird beim ersten
+ * Zugriff geladen und beim Speichern über die DAOs atomar ersetzt, sodass die
+ * Layouts ohne Datenbankzugriff gerendert werden.
+ *
+ * Die Getter geben Kopien zurück, damit Bearbeitungen in einer View erst nach
+ * dem Speichern für alle Benutzer sichtbar werden.
+ *
+ * @author Marco Glander
+ */
+@ApplicationScoped
+public class SiteConfiguration {
+
+	/**
+	 * Name des Frontend-Templates
+	 */
+	public static final String FRONTEND = "frontend";
+
+	/**
+	 * Name des Backend-Templates
+	 */
+	public static final String BACKEND = "backend";
+
+	/**
+	 * Id des beim Start angelegten Administrators (vgl. {@link DBInit})
+	 */
+	public static final int ADMIN_ID = 1;
+
+	/**
+	 * DAO für die Persistenz von Templates
+	 */
+	@Inject
+	private TemplateDAO templateDao;
+
+	/**
+	 * DAO für die Persistenz der Einstellungen
+	 */
+	@Inject
+	private PreferenceDAO preferenceDao;
+
+	/**
+	 * DAO für die Persistenz von Usern
+	 */
+	@Inject
+	private UserDAO userDao;
+
+	/**
+	 * Der aktuelle Schnappschuss oder {@code null}, falls noch keiner geladen
+	 * wurde
+	 */
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+	/**
+	 * Ein unveränderlicher Stand der Konfiguration. Die enthaltenen Objekte
+	 * werden nie herausgegeben.
+	 */
+	private static final class Snapshot {
+
+		private final Template frontend;
+
+		private final Template backend;
+
+		private final Preference preference;
+
+		private final String adminEmail;
+
+		private Snapshot(final Template frontend, final Template backend, final Preference preference,
+				final String adminEmail) {
+			this.frontend = frontend;
+			this.backend = backend;
+			this.preference = preference;
+			this.adminEmail = adminEmail;
+		}
+
+		private Snapshot withTemplate(final Template template) {
+			if (FRONTEND.equals(template.getName()))
+				return new Snapshot(template, backend, preference, adminEmail);
+			if (BACKEND.equals(template.getName()))
+				return new Snapshot(frontend, template, preference, adminEmail);
+			return this;
+		}
+
+		private Snapshot withoutTemplate(final String name) {
+			if (FRONTEND.equals(name))
+				return new Snapshot(null, backend, preference, adminEmail);
+			if (BACKEND.equals(name))
+				return new Snapshot(frontend, null, preference, adminEmail);
+			return this;
+		}
+
+		private Snapshot withPreference(final Preference newPreference) {
+			return new Snapshot(frontend, backend, newPreference, adminEmail);
+		}
+
+		private Snapshot withAdminEmail(final String newAdminEmail) {
+			return new Snapshot(frontend, backend, preference, newAdminEmail);
+		}
+	}
+
+	/**
+	 * Gibt eine Kopie des Frontend-Templates zurück.
+	 *
+	 * @return Das Frontend-Template oder {@code null}, falls es noch nicht
+	 *         angelegt wurde.
+	 */
+	public Template getFrontendTemplate() {
+		return copy(snapshot().frontend);
+	}
+
+	/**
+	 * Gibt eine Kopie des Backend-Templates zurück.
+	 *
+	 * @return Das Backend-Template oder {@code null}, falls es noch nicht
+	 *         angelegt wurde.
+	 */
+	public Template getBackendTemplate() {
+		return copy(snapshot().backend);
+	}
+
+	/**
+	 * Gibt eine Kopie der globalen Einstellungen zurück.
+	 *
+	 * @return Die Einstellungen oder {@code null}, falls sie noch nicht
+	 *         angelegt wurden.
+	 */
+	public Preference getPreference() {
+		final Preference preference = snapshot().preference;
+		return preference == null ? null : new Preference(preference);
+	}
+
+	/**
+	 * Gibt die E-Mail-Adresse des Administrators zurück.
+	 *
+	 * @return Die E-Mail-Adresse oder {@code null}, falls es den Administrator
+	 *         nicht gibt.
+	 */
+	public String getAdminEmail() {
+		return snapshot().adminEmail;
+	}
+
+	/**
+	 * Übernimmt ein gespeichertes Template in den Schnappschuss.
+	 *
+	 * @param template
+	 *            Das gespeicherte Template.
+	 */
+	void templateSaved(final Template template) {
+		final Template copy = copy(template);
+		snapshot.getAndUpdate(s -> s == null ? null : s.withTemplate(copy));
+	}
+
+	/**
+	 * Entfernt ein gelöschtes Template aus dem Schnappschuss.
+	 *
+	 * @param name
+	 *            Der Name des gelöschten Templates.
+	 */
+	void templateRemoved(final String name) {
+		snapshot.getAndUpdate(s -> s == null ? null : s.withoutTemplate(name));
+	}
+
+	/**
+	 * Übernimmt die gespeicherten Einstellungen in den Schnappschuss.
+	 *
+	 * @param preference
+	 *            Die gespeicherten Einstellungen.
+	 */
+	void preferenceSaved(final Preference preference) {
+		final Preference copy = new Preference(preference);
+		snapshot.getAndUpdate(s -> s == null ? null : s.withPreference(copy));
+	}
+
+	/**
+	 * Übernimmt die E-Mail-Adresse, falls der gespeicherte Benutzer der
+	 * Administrator ist.
+	 *
+	 * @param user
+	 *            Der gespeicherte Benutzer.
+	 */
+	void userSaved(final User user) {
+		if (user.getId() == ADMIN_ID) {
+			final String email = user.getEmail();
+			snapshot.getAndUpdate(s -> s == null ? null : s.withAdminEmail(email));
+		}
+	}
+
+	private Snapshot snapshot() {
+		final Snapshot current = snapshot.get();
+		if (current != null)
+			return current;
+		final User admin = userDao.getById(ADMIN_ID);
+		Preference preference;
+		try {
+			preference = preferenceDao.getPreference();
+		} catch (final NoResultException e) {
+			preference = null;
+		}
+		final Snapshot loaded = new Snapshot(copy(templateDao.getTemplateByName(FRONTEND)),
+				copy(templateDao.getTemplateByName(BACKEND)),
+				preference == null ? null : new Preference(preference), admin == null ? null : admin.getEmail());
+		return snapshot.compareAndSet(null, loaded) ? loaded : snapshot.get();
+	}
+
+	private static Template copy(final Template template) {
+		return template == null ? null : new Template(template);
+	}
+}
@@ -2,7 +2,10 @@ package de.unibremen.gradelog.persistence;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
+import java.util.List;
+
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.EntityManager;
 
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
@@ -23,6 +26,18 @@ public class TaskDAO extends JPADAO<Task> {
 	 */
 	private static final long serialVersionUID = 2471602382222515387L;
 
+	/**
+	 * Die Zusammenfassungen des Dashboards
+	 */
+	@Inject
+	private DashboardSummary dashboardSummary;
+
+	/**
+	 * Schreibt die Zusammenfassungen erst nach dem Festschreiben fort
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+
 	/**
 	 * Fügt {@code task} dem Datenbestand hinzu. Falls {@code task} bereits im
 	 * Datenbestand vorhanden ist (vgl. {@link JPADAO#create(JPAEntity)}, wird
@@ -35,13 +50,14 @@ public class TaskDAO extends JPADAO<Task> {
 	 *             Falls {@code task == null} oder {@code task} kein durch JPA
 	 *             verwaltetes Objekt ist.
 	 */
-	public synchronized void create(Task task) {
+	public void create(final Task task) {
 		assertNotNull(task);
 		try {
 			super.create(task);
 		} catch (final DuplicateUniqueFieldException e) {
 			e.printStackTrace();
 		}
+		afterCommit.execute(() -> dashboardSummary.taskSaved(task));
 	}
 
 	/**
@@ -56,20 +72,23 @@ public class TaskDAO extends JPADAO<Task> {
 	 *             Falls {@code task == null} oder {@code task} kein durch JPA
 	 *             verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Task task) {
+	public void update(final Task task) {
 		assertNotNull(task);
 		try {
 			super.update(task);
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
 		}
+		afterCommit.execute(() -> dashboardSummary.taskSaved(task));
 	}
 
 	/**
 	 * Löscht ein Task-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(Task task) {
+	public void delete(final Task task) {
+		final int id = assertNotNull(task).getId();
 		super.delete(task);
+		afterCommit.execute(() -> dashboardSummary.taskRemoved(id));
 	}
 
 	public Class<Task> getClazz() {
@@ -80,4 +99,47 @@ public class TaskDAO extends JPADAO<Task> {
 		EntityManager em = getEntityManager();
 		return em.find(Task.class, id);
 	}
+
+	/**
+	 * Gibt die nächsten Termine im Kalender von {@code user} zurück.
+	 *
+	 * @param user
+	 *            Der Besitzer des Kalenders.
+	 * @param from
+	 *            Der früheste Beginn der Termine.
+	 * @param limit
+	 *            Die maximale Anzahl der Termine.
+	 * @return Die Termine aufsteigend nach Beginn.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user} oder {@code from} {@code null} ist.
+	 */
+	public List<Task> getUpcoming(final User user, final java.util.Date from, final int limit) {
+		return getEntityManager().createNamedQuery("Task.findUpcoming", Task.class)
+				.setParameter(1, assertNotNull(user).getId())
+				.setParameter(2, new java.sql.Date(assertNotNull(from).getTime())).setMaxResults(limit)
+				.getResultList();
+	}
+
+	/**
+	 * Gibt die Termine in {@code calendar} zurück, die den Zeitraum von
+	 * {@code from} bis {@code to} überschneiden. Da Termine tagesgenau
+	 * gespeichert werden (vgl. {@link Task}), sind auch Termine der Randtage
+	 * enthalten.
+	 *
+	 * @param calendar
+	 *            Der Kalender.
+	 * @param from
+	 *            Der Beginn des Zeitraums.
+	 * @param to
+	 *            Das Ende des Zeitraums.
+	 * @return Die Termine aufsteigend nach Beginn.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public List<Task> getInRange(final Calendar calendar, final java.util.Date from, final java.util.Date to) {
+		return getEntityManager().createNamedQuery("Task.findInRange", Task.class)
+				.setParameter(1, assertNotNull(calendar).getId())
+				.setParameter(2, new java.sql.Date(assertNotNull(from).getTime()))
+				.setParameter(3, new java.sql.Date(assertNotNull(to).getTime())).getResultList();
+	}
 }
@@ -0,0 +1,95 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+
+import de.unibremen.gradelog.model.Telephone;
+import de.unibremen.gradelog.model.TelephoneChain;
+import de.unibremen.gradelog.model.User;
+
+/**
+ * Hält die {@link TelephoneChain} je Benutzer vor, sodass die Einträge beim
+ * Aufruf der Telefonkette nicht jedes Mal sortiert und zur Kette angeordnet
+ * werden. Die Kette eines Benutzers wird beim ersten Zugriff erzeugt und bei
+ * jeder Änderung eines Eintrags durch eine Kopie mit neuem Versionsstempel
+ * ersetzt (vgl. {@link #update(User, Telephone)}). Die Versionsstempel
+ * steigen über alle Benutzer hinweg, auch eine nach
+ * {@link #userRemoved(int)} neu erzeugte Kette hat also eine neue Version.
+ *
+ * Da die Ketten unveränderlich sind, wird die Bean nicht vom Container
+ * synchronisiert und startet keine Transaktionen.
+ *
+ * @author Marco Glander
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+public class TelephoneChainCache {
+
+	/**
+	 * Der zuletzt vergebene Versionsstempel
+	 */
+	private final AtomicLong versions = new AtomicLong();
+
+	/**
+	 * Die Ketten je Id eines Benutzers
+	 */
+	private final ConcurrentMap<Integer, TelephoneChain> chains = new ConcurrentHashMap<>();
+
+	/**
+	 * Gibt die Kette von {@code user} zurück und erzeugt sie beim ersten
+	 * Zugriff aus dessen Einträgen.
+	 *
+	 * @param user
+	 *            Der Benutzer.
+	 * @return Die Kette.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	public TelephoneChain get(final User user) {
+		assertNotNull(user);
+		final TelephoneChain chain = chains.get(user.getId());
+		if (chain != null)
+			return chain;
+		return chains.computeIfAbsent(user.getId(),
+				id -> TelephoneChain.of(user.getTelephones(), versions.incrementAndGet()));
+	}
+
+	/**
+	 * Übernimmt den geänderten {@code telephone} in die Kette von {@code user}.
+	 *
+	 * @param user
+	 *            Der Benutzer.
+	 * @param telephone
+	 *            Der geänderte Eintrag.
+	 * @return Die neue Kette.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public TelephoneChain update(final User user, final Telephone telephone) {
+		assertNotNull(user);
+		assertNotNull(telephone);
+		final TelephoneChain chain = chains.computeIfPresent(user.getId(),
+				(id, current) -> current.with(telephone, versions.incrementAndGet()));
+		return chain == null ? get(user) : chain;
+	}
+
+	/**
+	 * Verwirft die Kette des gelöschten Benutzers.
+	 *
+	 * @param userId
+	 *            Die Id des gelöschten Benutzers.
+	 */
+	void userRemoved(final int userId) {
+		chains.remove(userId);
+	}
+}
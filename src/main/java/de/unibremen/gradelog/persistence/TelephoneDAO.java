@@ -2,6 +2,9 @@ package de.unibremen.gradelog.persistence;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 
@@ -35,7 +38,7 @@ public class TelephoneDAO extends JPADAO<Telephone> {
 	 *             Falls {@code telephone == null} oder {@code telephone} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(Telephone telephone) {
+	public void create(Telephone telephone) {
 		assertNotNull(telephone);
 		try {
 			super.create(telephone);
@@ -44,6 +47,33 @@ public class TelephoneDAO extends JPADAO<Telephone> {
 		}
 	}
 
+	/**
+	 * Legt die {@value TelephoneChain#TELEPHONES} Einträge der Telefonkette
+	 * von {@code user} gebündelt in einer Transaktion an und ordnet sie dem
+	 * Benutzer zu, ohne diesen vollständig zu aktualisieren.
+	 *
+	 * @param user
+	 *            Der Benutzer, dessen Telefonkette angelegt wird.
+	 * @return Die angelegten Einträge in der Reihenfolge ihrer Ids.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist oder {@code user} nicht im
+	 *             Datenbestand vorhanden ist.
+	 */
+	public List<Telephone> createChain(final User user) {
+		assertNotNull(user);
+		final EntityManager em = getEntityManager();
+		final User managed = assertNotNull(em.find(User.class, user.getId()));
+		final List<Telephone> telephones = new ArrayList<>(TelephoneChain.TELEPHONES);
+		for (int i = 0; i < TelephoneChain.TELEPHONES; i++) {
+			final Telephone telephone = new Telephone(managed, "Person " + i, "");
+			em.persist(telephone);
+			telephones.add(telephone);
+		}
+		managed.getTelephones().addAll(telephones);
+		em.flush();
+		return telephones;
+	}
+
 	/**
 	 * Aktualisiert den Eintrag von {@code telephone} im Datenbestand. Falls
 	 * {@code telephone} noch nicht im Datenbestand vorhanden ist, wird eine
@@ -56,7 +86,7 @@ public class TelephoneDAO extends JPADAO<Telephone> {
 	 *             Falls {@code telephone == null} oder {@code telephone} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Telephone telephone) {
+	public void update(Telephone telephone) {
 		assertNotNull(telephone);
 		try {
 			super.update(telephone);
@@ -68,7 +98,7 @@ public class TelephoneDAO extends JPADAO<Telephone> {
 	/**
 	 * Löscht ein Telephone-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(Telephone telephone) {
+	public void delete(Telephone telephone) {
 		super.delete(telephone);
 	}
 
@@ -7,6 +7,7 @@ import static java.lang.String.format;
 import java.util.List;
 
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 import javax.persistence.TransactionRequiredException;
 
 import de.unibremen.gradelog.exception.DuplicateTemplateNameException;
@@ -28,11 +29,29 @@ public class TemplateDAO extends JPADAO<Template> {
 	 */
 	private static final long serialVersionUID = 1543383068333720238L;
 
+	/**
+	 * Zwischengespeicherte Konfiguration der Seite
+	 */
+	@Inject
+	private SiteConfiguration siteConfiguration;
+
+	/**
+	 * Schreibt den Schnappschuss der Konfiguration erst nach dem Festschreiben
+	 * fort
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+
 	@Override
 	Class<Template> getClazz() {
 		return Template.class;
 	}
 
+	@Override
+	DuplicateUniqueFieldException toDuplicateException(final String violation) {
+		return new DuplicateTemplateNameException(format("Templatename is already in use: %s", violation));
+	}
+
 	/**
 	 * Aktualisiert den Eintrag von {@code template} im Datenbestand. Falls
 	 * {@code theUser} noch nicht im Datenbestand vorhanden ist, wird eine
@@ -58,18 +77,16 @@ public class TemplateDAO extends JPADAO<Template> {
 	 *             {@link javax.persistence.EntityManager#merge(Object)}).
 	 */
 	@Override
-	public synchronized void update(final Template template) throws DuplicateTemplateNameException {
+	public void update(final Template template) throws DuplicateTemplateNameException {
 		final int templateId = assertNotNull(template.getId(), "The id of the parameter must not be null!");
 		assertNotNull(getById(templateId), "The parameter is not yet registered!");
 
-		final String name = assertNotNull(template.getName(), "The name of the parameter must not be null!");
-
-		final Template templateByName = getTemplateByName(name);
-		if (templateByName != null && templateByName.getId() != templateId) {
-			throw new DuplicateTemplateNameException(format("Pagename '%s' is already in use", templateByName));
-		}
+		assertNotNull(template.getName(), "The name of the parameter must not be null!");
 		try {
 			super.update(template);
+			afterCommit.execute(() -> siteConfiguration.templateSaved(template));
+		} catch (final DuplicateTemplateNameException e) {
+			throw e;
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
 		}
@@ -99,23 +116,35 @@ public class TemplateDAO extends JPADAO<Template> {
 	 *             {@link javax.persistence.EntityManager#persist(Object)}).
 	 */
 	@Override
-	public synchronized void create(final Template template) throws DuplicateTemplateNameException {
+	public void create(final Template template) throws DuplicateTemplateNameException {
 		assertNotNull(template);
-		final String name = assertNotNull(template.getName(), "The name of the parameter must not be null!");
-
-		final Template templateByName = getTemplateByName(name);
-		if (templateByName != null && templateByName.getName() != null
-				&& templateByName.getName().equals(template.getName())) {
-			throw new DuplicateTemplateNameException(format("Pagename '%s' is already in use", templateByName));
-		}
-
+		assertNotNull(template.getName(), "The name of the parameter must not be null!");
 		try {
 			super.create(template);
+			afterCommit.execute(() -> siteConfiguration.templateSaved(template));
+		} catch (final DuplicateTemplateNameException e) {
+			throw e;
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
 		}
 	}
 
+	/**
+	 * Löscht {@code template} aus dem Datenbestand und aus der
+	 * zwischengespeicherten Konfiguration der Seite.
+	 *
+	 * @param template
+	 *            Das zu löschende {@link Template}-Objekt.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code template == null} ist.
+	 */
+	@Override
+	public void delete(final Template template) {
+		final String name = assertNotNull(template).getName();
+		super.delete(template);
+		afterCommit.execute(() -> siteConfiguration.templateRemoved(name));
+	}
+
 	public Template getTemplateByName(final String name) {
 		assertNotEmpty(name);
 		final List<Template> templates = getEntityManager().createNamedQuery("Template.findByName", getClazz())
@@ -37,7 +37,7 @@ public class TimetableDAO extends JPADAO<Timetable> {
 	 *             Falls {@code timetable == null} oder {@code timetable} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(Timetable timetable) {
+	public void create(Timetable timetable) {
 		assertNotNull(timetable);
 		try {
 			super.create(timetable);
@@ -58,7 +58,7 @@ public class TimetableDAO extends JPADAO<Timetable> {
 	 *             Falls {@code timetable == null} oder {@code timetable} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void update(Timetable timetable) {
+	public void update(Timetable timetable) {
 		assertNotNull(timetable);
 		try {
 			super.update(timetable);
@@ -70,7 +70,7 @@ public class TimetableDAO extends JPADAO<Timetable> {
 	/**
 	 * Löscht ein Timetable-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(Timetable timetable) {
+	public void delete(Timetable timetable) {
 		super.delete(timetable);
 	}
 
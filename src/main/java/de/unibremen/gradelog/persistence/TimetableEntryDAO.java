@@ -2,6 +2,9 @@ package de.unibremen.gradelog.persistence;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
+import java.util.Collection;
+import java.util.List;
+
 import javax.ejb.Stateless;
 import javax.persistence.EntityManager;
 
@@ -36,7 +39,7 @@ public class TimetableEntryDAO extends JPADAO<TimetableEntry> {
 	 *             Falls {@code timetableEntry == null} oder {@code timetableEntry} kein
 	 *             durch JPA verwaltetes Objekt ist.
 	 */
-	public synchronized void create(TimetableEntry timetableEntry) {
+	public void create(TimetableEntry timetableEntry) {
 		assertNotNull(timetableEntry);
 		try {
 			super.create(timetableEntry);
@@ -45,6 +48,25 @@ public class TimetableEntryDAO extends JPADAO<TimetableEntry> {
 		}
 	}
 
+	/**
+	 * Fügt alle {@code timetableEntries} gebündelt in einer Transaktion dem
+	 * Datenbestand hinzu (vgl. {@link JPADAO#createAll(Collection)}).
+	 *
+	 * @param timetableEntries
+	 *            Die zu speichernden {@link TimetableEntry}-Objekte.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code timetableEntries == null} ist oder {@code null}
+	 *             enthält.
+	 */
+	@Override
+	public void createAll(final Collection<TimetableEntry> timetableEntries) {
+		try {
+			super.createAll(timetableEntries);
+		} catch (final DuplicateUniqueFieldException e) {
+			throw new UnexpectedUniqueViolationException(e);
+		}
+	}
+
 	/**
 	 * Aktualisiert den Eintrag von {@code timetableEntry} im Datenbestand. Falls
 	 * {@code timetableEntry} noch nicht im Datenbestand vorhanden ist, wird eine
@@ -57,7 +79,7 @@ public class TimetableEntryDAO extends JPADAO<TimetableEntry> {
 	 *             Falls {@code timetableEntry == null} oder {@code timetableEntry} kein durch JPA
 	 *             verwaltetes Objekt ist.
 	 */
-	public synchronized void update(TimetableEntry timetableEntry) {
+	public void update(TimetableEntry timetableEntry) {
 		assertNotNull(timetableEntry);
 		try {
 			super.update(timetableEntry);
@@ -69,7 +91,7 @@ public class TimetableEntryDAO extends JPADAO<TimetableEntry> {
 	/**
 	 * Löscht ein TimetableEntry-Objekt aus dem Datenbestand.
 	 */
-	public synchronized void delete(TimetableEntry timetableEntry) {
+	public void delete(TimetableEntry timetableEntry) {
 		super.delete(timetableEntry);
 	}
 
@@ -81,4 +103,42 @@ public class TimetableEntryDAO extends JPADAO<TimetableEntry> {
 		EntityManager em = getEntityManager();
 		return em.find(TimetableEntry.class, id);
 	}
+
+	/**
+	 * Gibt die nicht wöchentlichen Einträge in {@code timetable} zurück, die
+	 * den Zeitraum von {@code from} bis {@code to} überschneiden. Da Einträge
+	 * tagesgenau gespeichert werden, sind auch Einträge der Randtage enthalten.
+	 * Wöchentliche Einträge liefert {@link #getWeekly(Timetable)}.
+	 *
+	 * @param timetable
+	 *            Der Stundenplan.
+	 * @param from
+	 *            Der Beginn des Zeitraums.
+	 * @param to
+	 *            Das Ende des Zeitraums.
+	 * @return Die Einträge aufsteigend nach Beginn.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public List<TimetableEntry> getInRange(final Timetable timetable, final java.util.Date from,
+			final java.util.Date to) {
+		return getEntityManager().createNamedQuery("TimetableEntry.findInRange", TimetableEntry.class)
+				.setParameter(1, assertNotNull(timetable).getId())
+				.setParameter(2, new java.sql.Date(assertNotNull(from).getTime()))
+				.setParameter(3, new java.sql.Date(assertNotNull(to).getTime())).getResultList();
+	}
+
+	/**
+	 * Gibt die wöchentlichen Einträge in {@code timetable} zurück.
+	 *
+	 * @param timetable
+	 *            Der Stundenplan.
+	 * @return Die Einträge aufsteigend nach Beginn.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code timetable == null} ist.
+	 */
+	public List<TimetableEntry> getWeekly(final Timetable timetable) {
+		return getEntityManager().createNamedQuery("TimetableEntry.findWeekly", TimetableEntry.class)
+				.setParameter(1, assertNotNull(timetable).getId()).getResultList();
+	}
 }
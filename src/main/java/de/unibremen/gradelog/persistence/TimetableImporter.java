@@ -0,0 +1,147 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+import javax.ejb.Stateless;
+import javax.inject.Inject;
+
+import de.unibremen.gradelog.model.Timetable;
+import de.unibremen.gradelog.model.TimetableEntry;
+import de.unibremen.gradelog.util.CSVParser;
+import de.unibremen.gradelog.util.DIFColumns;
+
+/**
+ * Importiert einen Stundenplan aus einer UNTIS-Datei. Jede Zeile beschreibt
+ * eine wöchentlich stattfindende Stunde, wobei UNTIS dieselbe Stunde z. B. je
+ * Lehrkraft oder Klasse mehrfach ausgibt. Zeilen mit gleichem Fach, Raum,
+ * Wochentag, Beginn und Dauer werden daher zu einem wöchentlichen
+ * {@link TimetableEntry} zusammengefasst. Stunden, die der Stundenplan bereits
+ * enthält, werden übersprungen, sodass ein erneuter Import keine Duplikate
+ * erzeugt. Die neuen Einträge werden gebündelt in einer Transaktion angelegt
+ * (vgl. {@link TimetableEntryDAO#createAll(java.util.Collection)}).
+ *
+ * @author Marco Glander
+ */
+@Stateless
+public class TimetableImporter {
+
+	/**
+	 * Mittwoch, 07.01.1970, 00:00 UTC. Die Einträge werden in der Woche um
+	 * dieses Datum abgelegt, die der Stundenplan anzeigt (vgl.
+	 * {@link Timetable#getInitialDate()}).
+	 */
+	static final long WEEK_ORIGIN = 518400000L;
+
+	private static final long MINUTE = 60 * 1000L;
+
+	private static final long HOUR = 60 * MINUTE;
+
+	private static final long DAY = 24 * HOUR;
+
+	/**
+	 * DAO für die Persistenz von Stundenplaneinträgen
+	 */
+	@Inject
+	private TimetableEntryDAO timetableEntryDao;
+
+	/**
+	 * Eine Stunde im Stundenplan.
+	 */
+	private static final class Slot {
+
+		private final String title;
+
+		private final String place;
+
+		private final long start;
+
+		private final long end;
+
+		private Slot(final String title, final String place, final long start, final long end) {
+			this.title = title;
+			this.place = place;
+			this.start = start;
+			this.end = end;
+		}
+
+		private Slot(final TimetableEntry entry) {
+			this(entry.getTitle(), entry.getPlace(), entry.getStartTime().getTime(), entry.getEndTime().getTime());
+		}
+
+		private TimetableEntry toEntry(final Timetable timetable) {
+			final TimetableEntry entry = new TimetableEntry();
+			entry.setTitle(title);
+			entry.setPlace(place);
+			entry.setStartTime(new Date(start));
+			entry.setEndTime(new Date(end));
+			entry.setWeekly(true);
+			entry.setTimetable(timetable);
+			return entry;
+		}
+
+		@Override
+		public boolean equals(final Object other) {
+			if (!(other instanceof Slot))
+				return false;
+			final Slot slot = (Slot) other;
+			return start == slot.start && end == slot.end && Objects.equals(title, slot.title)
+					&& Objects.equals(place, slot.place);
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(title, place, start, end);
+		}
+	}
+
+	/**
+	 * Liest die Stunden aus {@code input} und legt die noch nicht in
+	 * {@code timetable} enthaltenen als wöchentliche Einträge an.
+	 *
+	 * @param timetable
+	 *            Der Stundenplan, in den importiert wird.
+	 * @param input
+	 *            Die UNTIS-Datei.
+	 * @return Die angelegten Einträge.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist oder die Datei
+	 *             nicht dem erwarteten Format entspricht.
+	 * @throws IOException
+	 *             Falls die Datei nicht gelesen werden kann.
+	 */
+	public List<TimetableEntry> importDIF(final Timetable timetable, final InputStream input) throws IOException {
+		assertNotNull(timetable);
+		final Set<Slot> slots = new LinkedHashSet<>();
+		try (CSVParser csvParser = new CSVParser(assertNotNull(input), StandardCharsets.UTF_8,
+				DIFColumns.TIMETABLE_CELLS)) {
+			while (csvParser.nextLine()) {
+				final long start = WEEK_ORIGIN + (csvParser.getInt(DIFColumns.Timetable.DAY) - 3) * DAY
+						+ csvParser.getInt(DIFColumns.Timetable.START) * MINUTE - HOUR;
+				final Slot slot = new Slot(csvParser.getString(DIFColumns.Timetable.SUBJECT),
+						csvParser.getString(DIFColumns.Timetable.ROOM), start,
+						start + csvParser.getInt(DIFColumns.Timetable.DURATION) * MINUTE);
+				slots.add(slot);
+			}
+		}
+		for (final TimetableEntry entry : timetableEntryDao.getWeekly(timetable)) {
+			slots.remove(new Slot(entry));
+		}
+		final List<TimetableEntry> entries = new ArrayList<>(slots.size());
+		for (final Slot slot : slots) {
+			entries.add(slot.toEntry(timetable));
+		}
+		if (!entries.isEmpty())
+			timetableEntryDao.createAll(entries);
+		return entries;
+	}
+}
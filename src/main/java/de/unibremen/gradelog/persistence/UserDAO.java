@@ -4,22 +4,24 @@ import static de.unibremen.gradelog.util.Assertion.assertNotEmpty;
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 import static java.lang.String.format;
 
-import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import javax.ejb.Stateless;
-import javax.persistence.EntityManager;
+import javax.enterprise.context.ContextNotActiveException;
+import javax.inject.Inject;
 import javax.persistence.TransactionRequiredException;
-import javax.persistence.TypedQuery;
 
 import de.unibremen.gradelog.exception.DuplicateEmailException;
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
 import de.unibremen.gradelog.exception.DuplicateUsernameException;
 import de.unibremen.gradelog.exception.UnexpectedUniqueViolationException;
 import de.unibremen.gradelog.model.CustomPage;
-import de.unibremen.gradelog.model.Group;
 import de.unibremen.gradelog.model.JPAEntity;
+import de.unibremen.gradelog.model.Profile;
+import de.unibremen.gradelog.model.ProfilePicture;
 import de.unibremen.gradelog.model.User;
 
 /**
@@ -36,6 +38,59 @@ public class UserDAO extends JPADAO<User> {
 	 */
 	private static final long serialVersionUID = 2816778704932701100L;
 
+	/**
+	 * Name des Unique-Constraints auf der E-Mail-Adresse (vgl. {@link User}).
+	 */
+	static final String EMAIL_CONSTRAINT = "UNQ_USER_EMAIL";
+
+	/**
+	 * Die in der aktuellen Anfrage geladenen Benutzer
+	 */
+	@Inject
+	private UserRequestCache userCache;
+
+	/**
+	 * Die Zusammenfassungen des Dashboards
+	 */
+	@Inject
+	private DashboardSummary dashboardSummary;
+
+	/**
+	 * Zwischengespeicherte Konfiguration der Seite
+	 */
+	@Inject
+	private SiteConfiguration siteConfiguration;
+
+	/**
+	 * Die Kennzahlen der Startseite
+	 */
+	@Inject
+	private UserStatistics userStatistics;
+
+	/**
+	 * Schreibt Kennzahlen und Indizes erst nach dem Festschreiben fort
+	 */
+	@Inject
+	private AfterCommit afterCommit;
+
+	/**
+	 * Der Suchindex der Empfänger
+	 */
+	@Inject
+	private ReceiverIndex receiverIndex;
+
+	/**
+	 * Die Erinnerungen an anstehende Termine
+	 */
+	@Inject
+	private ReminderService reminderService;
+
+	/**
+	 * Die zwischengespeicherten Telefonketten
+	 */
+	@Inject
+	private TelephoneChainCache telephoneChainCache;
+
 	/**
 	 * Fügt {@code user} dem Datenbestand hinzu. Falls {@code user} bereits im
 	 * Datenbestand vorhanden ist (vgl. {@link JPADAO#create(JPAEntity)}, wird
@@ -61,21 +116,58 @@ public class UserDAO extends JPADAO<User> {
 	 *             {@link javax.persistence.EntityManager#persist(Object)}).
 	 */
 	@Override
-	public synchronized void create(final User user) throws DuplicateUsernameException, DuplicateEmailException {
+	public void create(final User user) throws DuplicateUsernameException, DuplicateEmailException {
 		assertNotNull(user);
-		final String userName = assertNotNull(user.getLogin(), "The username of the parameter must not be null!");
-		final String userEmail = assertNotNull(user.getEmail(), "The email of the parameter must not be null!");
-
-		final User userByName = getUserByUsername(userName);
-		if (userByName != null && userByName.getLogin() != null && userByName.getLogin().equals(user.getLogin())) {
-			throw new DuplicateUsernameException(format("Username '%s' is already in use", userName));
+		assertNotNull(user.getLogin(), "The username of the parameter must not be null!");
+		assertNotNull(user.getEmail(), "The email of the parameter must not be null!");
+		try {
+			super.create(user);
+			afterCommit.execute(() -> {
+				userStatistics.userCreated();
+				receiverIndex.userSaved(user);
+			});
+		} catch (final DuplicateUsernameException | DuplicateEmailException e) {
+			throw e;
+		} catch (final DuplicateUniqueFieldException e) {
+			throw new UnexpectedUniqueViolationException(e);
 		}
-		final User userByEmail = getUserByEmail(userEmail);
-		if (userByEmail != null) {
-			throw new DuplicateEmailException(format("Email '%s' is already in use", userEmail));
+	}
+
+	/**
+	 * Fügt alle {@code users} in einer Transaktion und gebündelt in
+	 * JDBC-Batches dem Datenbestand hinzu (vgl.
+	 * {@link JPADAO#createAll(Collection)}).
+	 *
+	 * @param users
+	 *            Die zu speichernden Benutzer.
+	 * @throws DuplicateUsernameException
+	 *             Falls einer der Benutzernamen bereits vergeben ist.
+	 * @throws DuplicateEmailException
+	 *             Falls eine der E-Mail-Adressen bereits vergeben ist.
+	 * @throws UnexpectedUniqueViolationException
+	 *             Falls der Aufruf der Oberklassenmethode unerwarteterweise
+	 *             eine {@link DuplicateUniqueFieldException} ausgelöst hat.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code users == null} ist, {@code null} enthält oder
+	 *             einer der Benutzer keinen Benutzernamen oder keine
+	 *             E-Mail-Adresse hat.
+	 */
+	@Override
+	public void createAll(final Collection<User> users) throws DuplicateUsernameException, DuplicateEmailException {
+		for (final User user : assertNotNull(users)) {
+			assertNotNull(user);
+			assertNotNull(user.getLogin(), "The username of the parameter must not be null!");
+			assertNotNull(user.getEmail(), "The email of the parameter must not be null!");
 		}
 		try {
-			super.create(user);
+			super.createAll(users);
+			final int created = users.size();
+			afterCommit.execute(() -> {
+				userStatistics.usersCreated(created);
+				receiverIndex.usersSaved(users);
+			});
+		} catch (final DuplicateUsernameException | DuplicateEmailException e) {
+			throw e;
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
 		}
@@ -109,37 +201,186 @@ public class UserDAO extends JPADAO<User> {
 	 *             {@link javax.persistence.EntityManager#merge(Object)}).
 	 */
 	@Override
-	public synchronized void update(final User user) throws DuplicateUsernameException, DuplicateEmailException {
+	public void update(final User user) throws DuplicateUsernameException, DuplicateEmailException {
 		assertNotNull(user);
 		final int userId = assertNotNull(user.getId(), "The id of the parameter must not be null!");
 		assertNotNull(getById(userId), "The parameter is not yet registered!");
-		final String userName = assertNotNull(user.getLogin(), "The username of the parameter must not be null!");
-		final String userEmail = assertNotNull(user.getEmail(), "The email of the parameter must not be null!");
-
-		final User userByName = getUserByUsername(userName);
-
-		if (userByName != null && userByName.getId() != userId) {
-			throw new DuplicateUsernameException(format("Username '%s' is already in use", userName));
-		}
-		final User userByEmail = getUserByEmail(userEmail);
-		if (userByEmail != null && userByEmail.getId() != userId) {
-			throw new DuplicateEmailException(format("Email '%s' is already in use", userEmail));
-		}
+		assertNotNull(user.getLogin(), "The username of the parameter must not be null!");
+		assertNotNull(user.getEmail(), "The email of the parameter must not be null!");
 		try {
 			super.update(user);
+			afterCommit.execute(() -> {
+				siteConfiguration.userSaved(user);
+				receiverIndex.userSaved(user);
+			});
+		} catch (final DuplicateUsernameException | DuplicateEmailException e) {
+			throw e;
 		} catch (final DuplicateUniqueFieldException e) {
 			throw new UnexpectedUniqueViolationException(e);
+		} finally {
+			invalidateCachedUser(userId);
+		}
+	}
+
+	/**
+	 * Entfernt {@code user} inklusive seiner
+	 * {@link de.unibremen.gradelog.model.MessageReceipt}s und seines
+	 * {@link ProfilePicture}s aus dem Datenbestand.
+	 *
+	 * @param user
+	 *            Das zu entfernende {@link User}-Objekt.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	@Override
+	public void delete(final User user) {
+		assertNotNull(user);
+		final int userId = user.getId();
+		final int calendarId = user.getCalendar() == null ? 0 : user.getCalendar().getId();
+		getEntityManager().createNamedQuery("MessageReceipt.deleteByReceiver").setParameter(1, userId)
+				.executeUpdate();
+		if (user.getTimetable() != null) {
+			getEntityManager().createNamedQuery("TimetableEntry.deleteByTimetable")
+					.setParameter(1, user.getTimetable().getId()).executeUpdate();
+		}
+		if (user.getProfile() != null) {
+			deletePicture(user.getProfile().getId());
+		}
+		super.delete(user);
+		invalidateCachedUser(userId);
+		afterCommit.execute(() -> {
+			dashboardSummary.userRemoved(userId);
+			userStatistics.userRemoved();
+			receiverIndex.userRemoved(userId);
+			reminderService.calendarRemoved(calendarId);
+			telephoneChainCache.userRemoved(userId);
+		});
+	}
+
+	/**
+	 * Verwirft den Benutzer mit der gegebenen Id aus dem {@link UserRequestCache}
+	 * der aktuellen Anfrage. Läuft der Aufruf außerhalb einer Anfrage (z. B.
+	 * beim Start der Applikation), gibt es nichts zu verwerfen.
+	 *
+	 * @param userId
+	 *            Die Id des geänderten Benutzers.
+	 */
+	private void invalidateCachedUser(final int userId) {
+		if (userCache == null) {
+			return;
+		}
+		try {
+			userCache.invalidate(userId);
+		} catch (final ContextNotActiveException e) {
+			// kein Anfragekontext, also auch kein zwischengespeicherter Benutzer
 		}
 	}
 
+	/**
+	 * Zählt die registrierten Benutzer, ohne sie zu laden.
+	 *
+	 * @return Die Anzahl der registrierten Benutzer.
+	 */
+	public long countUsers() {
+		return getEntityManager().createNamedQuery("User.count", Long.class).getSingleResult();
+	}
+
+	/**
+	 * Lädt Id, E-Mail-Adresse, Vor- und Nachnamen aller Benutzer, ohne die
+	 * Benutzer selbst zu laden (vgl. {@link ReceiverIndex}).
+	 *
+	 * @return Je Benutzer {@code [id, email, firstName, lastName]}.
+	 */
+	public List<Object[]> getReceivers() {
+		return getEntityManager().createNamedQuery("User.findReceivers", Object[].class).getResultList();
+	}
+
+	/**
+	 * Lädt die zur Auslieferung eines Profilbildes nötigen Daten, ohne das
+	 * Bild selbst zu laden.
+	 *
+	 * @param profileId
+	 *            Die Id des Profils.
+	 * @return {@code [pictureVersion, sex, privated, userId]} oder {@code null},
+	 *         falls es kein solches Profil gibt.
+	 */
+	public Object[] getPictureInfo(final int profileId) {
+		final List<Object[]> info = getEntityManager().createNamedQuery("Profile.findPictureInfo", Object[].class)
+				.setParameter(1, profileId).getResultList();
+		return info.isEmpty() ? null : info.get(0);
+	}
+
+	/**
+	 * Lädt nur das Profilbild eines Profils.
+	 *
+	 * @param profileId
+	 *            Die Id des Profils.
+	 * @return Das Profilbild oder {@code null}, falls es keines gibt.
+	 */
+	public byte[] getPicture(final int profileId) {
+		final List<byte[]> pictures = getEntityManager().createNamedQuery("ProfilePicture.findData", byte[].class)
+				.setParameter(1, profileId).getResultList();
+		return pictures.isEmpty() ? null : pictures.get(0);
+	}
+
+	/**
+	 * Ersetzt das Profilbild von {@code user}, zählt die Version des Bildes
+	 * hoch und aktualisiert anschließend den Benutzer.
+	 *
+	 * @param user
+	 *            Der Benutzer, dessen Profilbild sich ändert.
+	 * @param picture
+	 *            Das neue Bild oder {@code null}, um das Bild zu entfernen.
+	 * @throws DuplicateUsernameException
+	 *             Vgl. {@link #update(User)}.
+	 * @throws DuplicateEmailException
+	 *             Vgl. {@link #update(User)}.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist oder keinen Eintrag im
+	 *             Datenbestand hat.
+	 */
+	public void updatePicture(final User user, final byte[] picture)
+			throws DuplicateUsernameException, DuplicateEmailException {
+		final Profile profile = assertNotNull(assertNotNull(user).getProfile());
+		deletePicture(profile.getId());
+		if (picture != null) {
+			getEntityManager().persist(new ProfilePicture(getEntityManager().getReference(Profile.class,
+					profile.getId()), picture));
+		}
+		profile.incrementPictureVersion();
+		update(user);
+	}
+
+	private void deletePicture(final int profileId) {
+		getEntityManager().createNamedQuery("ProfilePicture.deleteByProfile").setParameter(1, profileId)
+				.executeUpdate();
+	}
+
+	/**
+	 * Gibt alle Benutzer samt Profil zurück (vgl. {@link User#DIRECTORY}).
+	 *
+	 * @return Alle Benutzer.
+	 */
 	public List<User> getAllUsers() {
-		return getEntityManager().createNamedQuery("User.findAll", getClazz()).getResultList();
+		return withGraph(getEntityManager().createNamedQuery("User.findAll", getClazz()), User.DIRECTORY, "u")
+				.getResultList();
 	}
 
+	/**
+	 * Gibt den Benutzer mit dem gegebenen Benutzernamen zurück. Da die Abfrage
+	 * vor allem beim Login verwendet wird, werden die Beziehungen des
+	 * {@link User#SESSION}-Graphen mitgeladen.
+	 *
+	 * @param username
+	 *            Der Benutzername.
+	 * @return Der Benutzer oder {@code null}, falls es keinen solchen gibt.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code username} leer oder {@code null} ist.
+	 */
 	public User getUserByUsername(final String username) {
 		assertNotEmpty(username);
-		final List<User> users = getEntityManager().createNamedQuery("User.findByName", getClazz())
-				.setParameter(1, username).getResultList();
+		final List<User> users = withGraph(getEntityManager().createNamedQuery("User.findByName", getClazz()),
+				User.SESSION, "u").setParameter(1, username).getResultList();
 		return users.isEmpty() ? null : users.get(0);
 	}
 
@@ -150,26 +391,85 @@ public class UserDAO extends JPADAO<User> {
 		return users.isEmpty() ? null : users.get(0);
 	}
 
-	public List<CustomPage> getSharedPages(User object) {
-		ArrayList<CustomPage> result = new ArrayList<>();
-		EntityManager em = getEntityManager();
-		TypedQuery<Group> groupQuery = em.createNamedQuery("Group.findAll", Group.class);
-		List<Group> groups = groupQuery.getResultList();
-		Set<CustomPage> pages = object.getSharedPages();
-		for (Group g : groups) {
-			if (object.getGroups().contains(g)) {
-				pages.addAll(g.getSharedPages());
+	/**
+	 * Gibt die Id des Benutzers mit der gegebenen E-Mail-Adresse zurück, ohne
+	 * den Benutzer selbst zu laden.
+	 *
+	 * @param email
+	 *            Die E-Mail-Adresse des gesuchten Benutzers.
+	 * @return Die Id oder {@code null}, falls kein solcher Benutzer existiert.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code email} leer oder {@code null} ist.
+	 */
+	public Integer getUserIdByEmail(final String email) {
+		assertNotEmpty(email);
+		final List<Integer> ids = getEntityManager().createNamedQuery("User.findIdByEmail", Integer.class)
+				.setParameter(1, email).getResultList();
+		return ids.isEmpty() ? null : ids.get(0);
+	}
+
+	/**
+	 * Ermittelt mit einer einzigen Abfrage, welche der gegebenen Benutzernamen
+	 * und E-Mail-Adressen bereits vergeben sind.
+	 *
+	 * @param logins
+	 *            Die zu prüfenden Benutzernamen, nicht leer.
+	 * @param emails
+	 *            Die zu prüfenden E-Mail-Adressen, nicht leer.
+	 * @return Die bereits vergebenen Benutzernamen und E-Mail-Adressen.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} oder leer ist.
+	 */
+	public Set<String> getTakenLoginsAndEmails(final Collection<String> logins, final Collection<String> emails) {
+		if (assertNotNull(logins).isEmpty() || assertNotNull(emails).isEmpty()) {
+			throw new IllegalArgumentException("The parameters must not be empty!");
+		}
+		final Set<String> taken = new HashSet<>();
+		for (final Object[] row : getEntityManager().createNamedQuery("User.findByLoginsOrEmails", Object[].class)
+				.setParameter(1, logins).setParameter(2, emails).getResultList()) {
+			if (logins.contains(row[0])) {
+				taken.add((String) row[0]);
+			}
+			if (emails.contains(row[1])) {
+				taken.add((String) row[1]);
 			}
 		}
-		result.addAll(pages);
-		return result;
+		return taken;
+	}
+
+	/**
+	 * Gibt alle Seiten zurück, die {@code user} direkt oder über eine seiner
+	 * Gruppen freigegeben wurden. Die Besitzer der Seiten werden mitgeladen.
+	 *
+	 * @param user
+	 *            Der Benutzer, dessen freigegebene Seiten gesucht werden.
+	 * @return Die freigegebenen Seiten aufsteigend nach Id, ohne Duplikate.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code user == null} ist.
+	 */
+	public List<CustomPage> getSharedPages(final User user) {
+		assertNotNull(user);
+		return getEntityManager().createNamedQuery("CustomPage.findSharedWithUser", CustomPage.class)
+				.setParameter(1, user.getId()).getResultList();
 	}
 
 	public List<User> getAllTeachers() {
-		return getEntityManager().createNamedQuery("User.findAllTeachers", User.class)
+		return withGraph(getEntityManager().createNamedQuery("User.findAllTeachers", User.class), User.DIRECTORY, "u")
 				.setParameter(1, User.Roles.TEACHER).setParameter(2,  false).getResultList();
 	}
 
+	/**
+	 * Ordnet die Verletzung eines Unique-Constraints von {@link User} anhand
+	 * des Constraint-Namens der E-Mail-Adresse oder dem Benutzernamen zu.
+	 */
+	@Override
+	DuplicateUniqueFieldException toDuplicateException(final String violation) {
+		if (violation.toUpperCase().contains(EMAIL_CONSTRAINT)) {
+			return new DuplicateEmailException(format("Email is already in use: %s", violation));
+		}
+		return new DuplicateUsernameException(format("Username is already in use: %s", violation));
+	}
+
 	@Override
 	Class<User> getClazz() {
 		return User.class;
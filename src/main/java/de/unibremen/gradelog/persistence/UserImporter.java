@@ -0,0 +1,261 @@
+package de.unibremen.gradelog.persistence;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Future;
+
+import javax.ejb.AsyncResult;
+import javax.ejb.Asynchronous;
+import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+
+import de.unibremen.gradelog.exception.DuplicateEmailException;
+import de.unibremen.gradelog.exception.DuplicateUsernameException;
+import de.unibremen.gradelog.model.ImportProgress;
+import de.unibremen.gradelog.model.User;
+import de.unibremen.gradelog.util.CSVParser;
+import de.unibremen.gradelog.util.DIFColumns;
+import de.unibremen.gradelog.util.LoginGenerator;
+
+/**
+ * Importiert Benutzer aus einer UNTIS-Schülerliste im Hintergrund. Die Datei
+ * wird zeilenweise gelesen und abschnittsweise verarbeitet: Je Abschnitt
+ * prüft eine einzige Abfrage, welche Benutzernamen und E-Mail-Adressen bereits
+ * vergeben sind, Duplikate innerhalb der Datei werden im Speicher erkannt. Die
+ * übrigen Benutzer werden in einer Transaktion gebündelt angelegt (vgl.
+ * {@link UserDAO#createAll(java.util.Collection)}).
+ *
+ * Fehlerhafte Zeilen brechen den Import nicht ab, sondern werden samt Grund im
+ * {@link ImportProgress} vermerkt. Da Benutzernamen zufällig erzeugt werden,
+ * wird ein bereits vergebener Name bis zu {@link #MAX_NAME_ATTEMPTS}-mal neu
+ * erzeugt, bevor die Zeile abgelehnt wird.
+ *
+ * @author Marco Glander
+ */
+@Stateless
+public class UserImporter {
+
+	/**
+	 * Standardanzahl der Zeilen, die in einer Transaktion angelegt werden.
+	 * Entspricht der in 'persistence.xml' konfigurierten Batch-Größe.
+	 */
+	public static final int BATCH_SIZE = 100;
+
+	/**
+	 * Anzahl der Versuche, einen freien Benutzernamen zu erzeugen
+	 */
+	static final int MAX_NAME_ATTEMPTS = 5;
+
+	/**
+	 * Der Logger für diese Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(UserImporter.class);
+
+	/**
+	 * DAO für die Persistenz von Usern
+	 */
+	@Inject
+	private UserDAO userDao;
+
+	/**
+	 * Eine gelesene, noch nicht angelegte Zeile der Importdatei.
+	 */
+	private static final class Row {
+
+		private final int line;
+
+		private final String firstName;
+
+		private final String lastName;
+
+		private final String course;
+
+		private final int sex;
+
+		private final Date birthday;
+
+		private final String email;
+
+		private final String password;
+
+		private String login;
+
+		private Row(final CSVParser parser) {
+			line = parser.getLine();
+			firstName = parser.getString(DIFColumns.User.FIRST_NAME);
+			lastName = parser.getString(DIFColumns.User.LAST_NAME);
+			course = parser.getString(DIFColumns.User.COURSE);
+			sex = parser.getInt(DIFColumns.User.SEX);
+			birthday = parser.getDate(DIFColumns.User.BIRTHDAY);
+			email = parser.getString(DIFColumns.User.EMAIL);
+			password = LoginGenerator.generatePassword(8, 16, 1, 1, 1, 1);
+			regenerateLogin();
+		}
+
+		private void regenerateLogin() {
+			login = LoginGenerator.generateName(firstName, lastName);
+		}
+
+		private User toUser() {
+			final User user = new User();
+			user.getProfile().setFirstName(firstName);
+			user.getProfile().setLastName(lastName);
+			user.getProfile().setCourse(course);
+			if (sex == 1)
+				user.getProfile().setSex("female");
+			else if (sex == 2)
+				user.getProfile().setSex("male");
+			user.getProfile().setBirthday(birthday);
+			user.setEmail(email);
+			user.setLogin(login);
+			user.setPassword(password);
+			return user;
+		}
+	}
+
+	/**
+	 * Importiert alle Benutzer aus {@code input} und schließt den Datenstrom
+	 * anschließend.
+	 *
+	 * @param input
+	 *            Die Importdatei.
+	 * @param batchSize
+	 *            Anzahl der Zeilen, die gemeinsam geprüft und angelegt werden.
+	 * @param progress
+	 *            Der fortzuschreibende Fortschritt.
+	 * @return Die Anzahl der angelegten Benutzer.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Objektparameter {@code null} oder
+	 *             {@code batchSize < 1} ist.
+	 */
+	@Asynchronous
+	@TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+	public Future<Integer> importUsers(final InputStream input, final int batchSize, final ImportProgress progress) {
+		assertNotNull(input);
+		assertNotNull(progress);
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("The batch size must be positive!");
+		}
+		final Set<String> logins = new HashSet<>();
+		final Set<String> emails = new HashSet<>();
+		final List<Row> chunk = new ArrayList<>(batchSize);
+		try (InputStream in = input) {
+			final CSVParser parser = new CSVParser(in, StandardCharsets.UTF_8, DIFColumns.USER_CELLS);
+			for (;;) {
+				try {
+					if (!parser.nextLine())
+						break;
+					chunk.add(new Row(parser));
+				} catch (final IllegalArgumentException e) {
+					progress.addError(parser.getLine(), "errorInvalidFormat", e.getMessage());
+				}
+				progress.addRead(1);
+				if (chunk.size() == batchSize) {
+					importChunk(chunk, logins, emails, progress);
+					chunk.clear();
+				}
+			}
+			importChunk(chunk, logins, emails, progress);
+			progress.finish(true);
+		} catch (final IOException | RuntimeException e) {
+			logger.error(String.format("User import stopped after %d rows", progress.getRead()), e);
+			progress.finish(false);
+		}
+		return new AsyncResult<>(progress.getImported());
+	}
+
+	/**
+	 * Prüft die Zeilen eines Abschnitts auf Duplikate und legt die übrigen
+	 * Benutzer an.
+	 *
+	 * @param chunk
+	 *            Die Zeilen des Abschnitts.
+	 * @param logins
+	 *            Die bisher in dieser Datei vergebenen Benutzernamen.
+	 * @param emails
+	 *            Die bisher in dieser Datei gelesenen E-Mail-Adressen.
+	 * @param progress
+	 *            Der fortzuschreibende Fortschritt.
+	 */
+	private void importChunk(final List<Row> chunk, final Set<String> logins, final Set<String> emails,
+			final ImportProgress progress) {
+		List<Row> pending = new ArrayList<>();
+		for (final Row row : chunk) {
+			if (emails.add(row.email))
+				pending.add(row);
+			else
+				progress.addError(row.line, "errorEmailAlreadyInUse", row.email);
+		}
+		final List<Row> accepted = new ArrayList<>();
+		for (int attempt = 1; !pending.isEmpty(); attempt++) {
+			final List<String> pendingLogins = new ArrayList<>();
+			final List<String> pendingEmails = new ArrayList<>();
+			for (final Row row : pending) {
+				pendingLogins.add(row.login);
+				pendingEmails.add(row.email);
+			}
+			final Set<String> taken = userDao.getTakenLoginsAndEmails(pendingLogins, pendingEmails);
+			final List<Row> retry = new ArrayList<>();
+			for (final Row row : pending) {
+				if (taken.contains(row.email)) {
+					progress.addError(row.line, "errorEmailAlreadyInUse", row.email);
+				} else if (!taken.contains(row.login) && logins.add(row.login)) {
+					accepted.add(row);
+				} else if (attempt < MAX_NAME_ATTEMPTS) {
+					row.regenerateLogin();
+					retry.add(row);
+				} else {
+					progress.addError(row.line, "errorUsernameAlreadyInUse", row.login);
+				}
+			}
+			pending = retry;
+		}
+		if (!accepted.isEmpty()) {
+			create(accepted, progress);
+		}
+	}
+
+	/**
+	 * Legt die Benutzer der gegebenen Zeilen gemeinsam an. Schlägt das fehl,
+	 * weil zwischenzeitlich ein Benutzername oder eine E-Mail-Adresse vergeben
+	 * wurde, werden sie einzeln angelegt, um die betroffenen Zeilen zu
+	 * ermitteln.
+	 */
+	private void create(final List<Row> rows, final ImportProgress progress) {
+		final List<User> users = new ArrayList<>(rows.size());
+		for (final Row row : rows) {
+			users.add(row.toUser());
+		}
+		try {
+			userDao.createAll(users);
+			for (final Row row : rows) {
+				progress.addImported(row.login, row.password);
+			}
+			return;
+		} catch (final DuplicateUsernameException | DuplicateEmailException e) {
+			logger.info("Batch insert of imported users collided, falling back to single inserts", e);
+		}
+		for (final Row row : rows) {
+			try {
+				userDao.create(row.toUser());
+				progress.addImported(row.login, row.password);
+			} catch (final DuplicateUsernameException e) {
+				progress.addError(row.line, "errorUsernameAlreadyInUse", row.login);
+			} catch (final DuplicateEmailException e) {
+				progress.addError(row.line, "errorEmailAlreadyInUse", row.email);
+			}
+		}
+	}
+}
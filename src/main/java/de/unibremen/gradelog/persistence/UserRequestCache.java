@@ -0,0 +1,111 @@
+package de.unibremen.gradelog.persistence;
+
+import static java.lang.String.format;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.PreDestroy;
+import javax.enterprise.context.RequestScoped;
+import javax.inject.Inject;
+
+import org.apache.log4j.Logger;
+
+import de.unibremen.gradelog.model.User;
+
+/**
+ * Hält die während einer Anfrage geladenen {@link User}-Objekte vor, sodass
+ * wiederholte Aufrufe von
+ * {@link de.unibremen.gradelog.model.Session#getUser()} innerhalb derselben
+ * Anfrage nur einmal auf die Datenbank zugreifen. Einträge werden durch
+ * {@link UserDAO#update(User)} und {@link UserDAO#delete(User)} verworfen.
+ *
+ * Am Ende der Anfrage wird protokolliert, wie viele Abfragen eingespart wurden.
+ *
+ * @author Marco Glander
+ */
+@RequestScoped
+public class UserRequestCache implements Serializable {
+
+	/**
+	 * Die eindeutige ID für Serialisierung.
+	 */
+	private static final long serialVersionUID = 7000927180547226816L;
+
+	/**
+	 * Der Logger für diese Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(UserRequestCache.class);
+
+	/**
+	 * DAO für die Persistenz von Usern
+	 */
+	@Inject
+	private UserDAO userDao;
+
+	/**
+	 * Die in dieser Anfrage geladenen Benutzer
+	 */
+	private final Map<Integer, User> users = new HashMap<>();
+
+	/**
+	 * Anzahl der tatsächlich ausgeführten Abfragen
+	 */
+	private int finds;
+
+	/**
+	 * Anzahl der aus dem Cache beantworteten Abfragen
+	 */
+	private int savedFinds;
+
+	/**
+	 * Gibt den Benutzer mit der gegebenen Id zurück und lädt ihn nur beim
+	 * ersten Zugriff innerhalb der Anfrage.
+	 *
+	 * @param id
+	 *            Die Id des gesuchten Benutzers.
+	 * @return Der Benutzer oder {@code null}, falls es keinen solchen gibt.
+	 */
+	public User get(final int id) {
+		final User cached = users.get(id);
+		if (cached != null) {
+			savedFinds++;
+			return cached;
+		}
+		finds++;
+		final User user = userDao.getById(id, User.SESSION);
+		if (user != null) {
+			users.put(id, user);
+		}
+		return user;
+	}
+
+	/**
+	 * Verwirft den zwischengespeicherten Benutzer mit der gegebenen Id.
+	 *
+	 * @param id
+	 *            Die Id des zu verwerfenden Benutzers.
+	 */
+	public void invalidate(final int id) {
+		users.remove(id);
+	}
+
+	public int getFinds() {
+		return finds;
+	}
+
+	public int getSavedFinds() {
+		return savedFinds;
+	}
+
+	/**
+	 * Protokolliert am Ende der Anfrage die Anzahl der eingesparten Abfragen.
+	 */
+	@PreDestroy
+	public void report() {
+		if (logger.isDebugEnabled() && finds + savedFinds > 0) {
+			logger.debug(format("Saved %d of %d user lookups in this request", savedFinds, finds + savedFinds));
+		}
+	}
+}
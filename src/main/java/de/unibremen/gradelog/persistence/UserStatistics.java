@@ -0,0 +1,93 @@
+package de.unibremen.gradelog.persistence;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.inject.Inject;
+
+/**
+ * Stellt die Kennzahlen der Startseite bereit, d. h. die Anzahl der
+ * registrierten und der eingeloggten Benutzer. Die Anzahl der registrierten
+ * Benutzer wird einmalig gezählt und danach von der {@link UserDAO} beim
+ * Anlegen und Löschen fortgeschrieben. Die eingeloggten Benutzer werden von
+ * der {@link SessionDAO} gezählt.
+ *
+ * @author Marco Glander
+ */
+@ApplicationScoped
+public class UserStatistics {
+
+	/**
+	 * DAO für die Persistenz von Usern
+	 */
+	@Inject
+	private UserDAO userDao;
+
+	/**
+	 * Verwaltet die Sessions und den Online-Status
+	 */
+	@Inject
+	private SessionDAO sessionDao;
+
+	/**
+	 * Die Anzahl der registrierten Benutzer. Solange sie noch nicht gezählt
+	 * wurde, ist der Wert negativ und wird bei jeder Änderung weiter
+	 * verringert, sodass er als Stempel der Änderungen während des Zählens
+	 * dient.
+	 */
+	private final AtomicLong userCount = new AtomicLong(-1);
+
+	/**
+	 * Gibt die Anzahl der registrierten Benutzer zurück. Beim ersten Aufruf
+	 * wird sie per {@code COUNT} aus der Datenbank ermittelt. Wurde während
+	 * des Zählens ein Benutzer angelegt oder gelöscht, wird erneut gezählt,
+	 * da das Ergebnis die Änderung nicht sicher enthält.
+	 *
+	 * @return Die Anzahl der registrierten Benutzer.
+	 */
+	public long getUserCount() {
+		while (true) {
+			final long stamp = userCount.get();
+			if (stamp >= 0)
+				return stamp;
+			final long count = userDao.countUsers();
+			if (userCount.compareAndSet(stamp, count))
+				return count;
+		}
+	}
+
+	/**
+	 * Gibt die Anzahl der Benutzer zurück, die in mindestens einer Session
+	 * eingeloggt sind.
+	 *
+	 * @return Die Anzahl der eingeloggten Benutzer.
+	 */
+	public int getOnlineUserCount() {
+		return sessionDao.getOnlineUserCount();
+	}
+
+	/**
+	 * Zählt einen neu registrierten Benutzer.
+	 */
+	void userCreated() {
+		userCount.updateAndGet(n -> n < 0 ? n - 1 : n + 1);
+	}
+
+	/**
+	 * Zählt mehrere auf einmal registrierte Benutzer.
+	 *
+	 * @param count
+	 *            Die Anzahl der neuen Benutzer.
+	 */
+	void usersCreated(final int count) {
+		userCount.updateAndGet(n -> n < 0 ? n - 1 : n + count);
+	}
+
+	/**
+	 * Zählt einen gelöschten Benutzer ab. Ein noch nicht gezählter Wert wird
+	 * ebenso verringert und damit als geändert markiert.
+	 */
+	void userRemoved() {
+		userCount.decrementAndGet();
+	}
+}
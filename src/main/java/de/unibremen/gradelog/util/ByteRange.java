@@ -0,0 +1,117 @@
+package de.unibremen.gradelog.util;
+
+/**
+ * Ein zusammenhängender Bereich {@code [start, end]} einer Ressource, wie ihn
+ * der HTTP-Header {@code Range} (RFC 7233) anfordert. Es wird nur ein einzelner
+ * Bereich unterstützt; Anfragen mit mehreren Bereichen werden wie Anfragen
+ * ohne {@code Range} behandelt, was der Standard ausdrücklich erlaubt.
+ *
+ * @author Marco Glander
+ */
+public final class ByteRange {
+
+	/**
+	 * Ein Bereich, der außerhalb der Ressource liegt
+	 */
+	private static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+	/**
+	 * Erstes Byte des Bereichs
+	 */
+	private final long start;
+
+	/**
+	 * Letztes Byte des Bereichs (inklusive)
+	 */
+	private final long end;
+
+	private ByteRange(final long start, final long end) {
+		this.start = start;
+		this.end = end;
+	}
+
+	/**
+	 * Gibt den Bereich zurück, der die gesamte Ressource umfasst.
+	 *
+	 * @param length
+	 *            Länge der Ressource in Bytes.
+	 * @return Der Bereich {@code [0, length - 1]}.
+	 */
+	public static ByteRange full(final long length) {
+		return new ByteRange(0, length - 1);
+	}
+
+	/**
+	 * Wertet den Wert eines {@code Range}-Headers aus.
+	 *
+	 * @param header
+	 *            Der Wert des Headers, kann {@code null} sein.
+	 * @param length
+	 *            Länge der Ressource in Bytes.
+	 * @return Der angeforderte Bereich, ein nicht erfüllbarer Bereich (vgl.
+	 *         {@link #isSatisfiable()}) oder {@code null}, falls der Header
+	 *         fehlt, ungültig ist oder mehrere Bereiche anfordert und daher die
+	 *         gesamte Ressource auszuliefern ist.
+	 */
+	public static ByteRange parse(final String header, final long length) {
+		if (header == null || !header.startsWith("bytes="))
+			return null;
+		final String spec = header.substring("bytes=".length()).trim();
+		final int dash = spec.indexOf('-');
+		if (dash < 0 || spec.indexOf(',') >= 0)
+			return null;
+		try {
+			final String first = spec.substring(0, dash).trim();
+			final String last = spec.substring(dash + 1).trim();
+			if (first.isEmpty()) {
+				// Suffix: die letzten n Bytes
+				final long suffix = Long.parseLong(last);
+				if (suffix <= 0 || length == 0)
+					return UNSATISFIABLE;
+				return new ByteRange(Math.max(0, length - suffix), length - 1);
+			}
+			final long start = Long.parseLong(first);
+			final long requestedEnd = last.isEmpty() ? Long.MAX_VALUE : Long.parseLong(last);
+			if (start < 0 || requestedEnd < start)
+				return null;
+			return start >= length ? UNSATISFIABLE : new ByteRange(start, Math.min(requestedEnd, length - 1));
+		} catch (final NumberFormatException e) {
+			return null;
+		}
+	}
+
+	public boolean isSatisfiable() {
+		return start >= 0;
+	}
+
+	public long getStart() {
+		return start;
+	}
+
+	public long getEnd() {
+		return end;
+	}
+
+	/**
+	 * Gibt die Anzahl der Bytes des Bereichs zurück.
+	 *
+	 * @return Die Länge des Bereichs.
+	 */
+	public long getLength() {
+		return end - start + 1;
+	}
+
+	/**
+	 * Gibt den Wert des {@code Content-Range}-Headers für diesen Bereich
+	 * zurück.
+	 *
+	 * @param length
+	 *            Länge der Ressource in Bytes.
+	 * @return Z. B. {@code bytes 0-499/1234} bzw. {@code bytes *}{@code /1234}
+	 *         für einen nicht erfüllbaren Bereich.
+	 */
+	public String toContentRange(final long length) {
+		return isSatisfiable() ? String.format("bytes %d-%d/%d", start, end, length)
+				: String.format("bytes */%d", length);
+	}
+}
@@ -1,77 +1,308 @@
 package de.unibremen.gradelog.util;
 
-import java.io.BufferedReader;
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Calendar;
 import java.util.Date;
+import java.util.GregorianCalendar;
 
 /**
  * Stellt Funktionen bereit, um exportierte CSV-Dateien aus UNTIS in dieses System
- * zu importieren. Diese Klasse betrifft den Vertretungsplan sowie Nutzer-Importe.
- * 
+ * zu importieren. Diese Klasse betrifft den Vertretungsplan, Stundenpläne sowie
+ * Nutzer-Importe.
+ *
+ * Die Datei wird gemäß RFC 4180 zeilenweise gelesen: Zellen werden durch Kommas
+ * getrennt und können in Anführungszeichen stehen, um Kommas, Zeilenumbrüche
+ * oder (verdoppelte) Anführungszeichen zu enthalten. Der Inhalt einer Zeile
+ * liegt in wiederverwendeten Puffern, sodass das Lesen einer Zeile keine
+ * Objekte erzeugt. Zahlen und Datumsangaben werden direkt im Puffer geparst;
+ * nur {@link #getString(int)} und {@link #getDate(int)} erzeugen ihr Ergebnis.
+ *
+ * Die Zellen der UNTIS-Formate sind in {@link DIFColumns} beschrieben.
+ *
  * @author Marco Glander
  */
-public class CSVParser {
+public class CSVParser implements Closeable {
+
+	/**
+	 * Eine Spalte eines CSV-Formats.
+	 */
+	public interface Column {
+
+		/**
+		 * Gibt die Position der Spalte in einer Zeile zurück.
+		 *
+		 * @return Die Zellenposition, beginnend bei 0.
+		 */
+		int getIndex();
+	}
+
+	/**
+	 * Trennzeichen zwischen Zellen
+	 */
+	private static final char SEPARATOR = ',';
+
+	/**
+	 * Begrenzt Zellen mit Sonderzeichen
+	 */
+	private static final char QUOTE = '"';
+
 	/**
-	 * Zellen
+	 * Größe des Lesepuffers
 	 */
-	private String[] cells;
+	private static final int BUFFER_SIZE = 8192;
+
 	/**
 	 * Liest die Dateien ein.
 	 */
-	private final BufferedReader reader;
+	private final Reader reader;
+
+	/**
+	 * Lesepuffer
+	 */
+	private final char[] buffer = new char[BUFFER_SIZE];
+
+	/**
+	 * Position des nächsten Zeichens im Lesepuffer
+	 */
+	private int position;
+
+	/**
+	 * Anzahl der gültigen Zeichen im Lesepuffer
+	 */
+	private int limit;
+
+	/**
+	 * Inhalt aller Zellen der aktuellen Zeile, ohne Trennzeichen und
+	 * Anführungszeichen hintereinander
+	 */
+	private char[] chars = new char[256];
+
+	/**
+	 * Anzahl der belegten Zeichen in {@link #chars}
+	 */
+	private int size;
+
+	/**
+	 * Beginn der Zellen in {@link #chars}
+	 */
+	private int[] starts = new int[32];
+
+	/**
+	 * Ende (exklusiv) der Zellen in {@link #chars}
+	 */
+	private int[] ends = new int[32];
+
+	/**
+	 * Anzahl der Zellen der aktuellen Zeile
+	 */
+	private int cellCount;
+
 	/**
 	 * Zellenlänge
 	 */
 	private final int cellLength;
 
 	/**
-	 * Aktuelle Zeile
+	 * Aktuelle Zeile, beginnend bei 1
 	 */
 	private int line;
 
 	/**
-	 * Initialisiert die Zellenlänge und den Leser für den Datenstrom.
-	 * 
+	 * Anzahl der bisher gelesenen Zeilenumbrüche
+	 */
+	private int lineBreaks;
+
+	/**
+	 * Wird für das Parsen von Datumsangaben wiederverwendet
+	 */
+	private final Calendar calendar = new GregorianCalendar();
+
+	/**
+	 * Initialisiert die Zellenlänge und den Leser für den Datenstrom. Die Datei
+	 * wird als UTF-8 gelesen.
+	 *
 	 * @param input
 	 *            Eingabestrom
 	 * @param cellLength
 	 *            Anzahl der erwarteten Zellen.
 	 */
 	public CSVParser(InputStream input, int cellLength) {
+		this(input, StandardCharsets.UTF_8, cellLength);
+	}
+
+	/**
+	 * Initialisiert die Zellenlänge und den Leser für den Datenstrom.
+	 *
+	 * @param input
+	 *            Eingabestrom
+	 * @param charset
+	 *            Zeichensatz der Datei
+	 * @param cellLength
+	 *            Anzahl der erwarteten Zellen.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code input} oder {@code charset} {@code null} ist.
+	 */
+	public CSVParser(InputStream input, Charset charset, int cellLength) {
+		reader = new InputStreamReader(Assertion.assertNotNull(input), Assertion.assertNotNull(charset));
 		this.cellLength = cellLength;
-		reader = new BufferedReader(new InputStreamReader(input));
-		line = 1;
+		calendar.setLenient(false);
 	}
 
 	/**
-	 * Ermittelt, ob es in der jeweiligen Datei noch eine Zeile zum lesen
-	 * existiert. Anhand der Zellenlänge wird hierbei die Validierung
-	 * vorgenommen.
-	 * 
+	 * Liest die nächste Zeile. Leere Zeilen werden übersprungen. Anhand der
+	 * Zellenlänge wird hierbei die Validierung vorgenommen; eine ungültige
+	 * Zeile ist danach dennoch gelesen, sodass mit der nächsten fortgefahren
+	 * werden kann.
+	 *
 	 * @return Status gibt aus, ob noch eine weitere Zeile vorhanden ist (true=ja, false=nein)
+	 * @throws IllegalArgumentException
+	 *             Falls die Zeile weniger Zellen als die Zellenlänge hat oder
+	 *             ein Anführungszeichen nicht geschlossen wird.
 	 */
 	public boolean nextLine() {
-		String currentLine = null;
+		size = 0;
+		cellCount = 0;
 		try {
-			currentLine = reader.readLine();
+			int c = read();
+			while (c == '\r' || c == '\n') {
+				c = lineBreak(c);
+			}
+			if (c == -1) {
+				return false;
+			}
+			line = lineBreaks + 1;
+			for (;;) {
+				final int start = size;
+				if (c == QUOTE) {
+					c = readQuoted();
+				}
+				while (c != SEPARATOR && c != '\r' && c != '\n' && c != -1) {
+					append((char) c);
+					c = read();
+				}
+				addCell(start);
+				if (c != SEPARATOR) {
+					break;
+				}
+				c = read();
+			}
+			if (c != -1) {
+				lineBreak(c);
+			}
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new IllegalArgumentException("CSV File could not be read! (Line: " + line + ")", e);
+		}
+		if (cellCount < cellLength)
+			throw new IllegalArgumentException("CSV File line does not have the specified cell length! (Cells: "
+					+ cellCount + " specified cell length: " + cellLength + " Line: " + line + ")");
+		return true;
+	}
+
+	/**
+	 * Liest eine in Anführungszeichen stehende Zelle bis zum schließenden
+	 * Anführungszeichen.
+	 *
+	 * @return Das Zeichen nach dem schließenden Anführungszeichen.
+	 */
+	private int readQuoted() throws IOException {
+		for (;;) {
+			final int c = read();
+			if (c == -1) {
+				throw new IllegalArgumentException("CSV File contains an unterminated quote! (Line: " + line + ")");
+			}
+			if (c == QUOTE) {
+				if (peek() != QUOTE) {
+					return read();
+				}
+				read();
+			} else if (c == '\n') {
+				lineBreaks++;
+			}
+			append((char) c);
+		}
+	}
+
+	/**
+	 * Verarbeitet einen Zeilenumbruch ({@code \n}, {@code \r} oder
+	 * {@code \r\n}).
+	 *
+	 * @return Das Zeichen nach dem Zeilenumbruch.
+	 */
+	private int lineBreak(final int c) throws IOException {
+		lineBreaks++;
+		if (c == '\r' && peek() == '\n') {
+			read();
+		}
+		return read();
+	}
+
+	private int read() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position++];
+	}
+
+	private int peek() throws IOException {
+		if (position == limit && !fill()) {
+			return -1;
+		}
+		return buffer[position];
+	}
+
+	private boolean fill() throws IOException {
+		int read;
+		do {
+			read = reader.read(buffer, 0, buffer.length);
+		} while (read == 0);
+		if (read < 0) {
+			return false;
 		}
-		if (currentLine != null) {
-			currentLine = currentLine.replace("\"", "");
-			currentLine = currentLine.replace(" ", "");
-			cells = currentLine.split(",");
-			if (cells.length < cellLength)
-				throw new IllegalArgumentException("CSV File line does not have the specified cell length! (Cells: "
-						+ cells.length + " specified cell length: " + cellLength);
-			line++;
-			return true;
+		position = 0;
+		limit = read;
+		return true;
+	}
+
+	private void append(final char c) {
+		if (size == chars.length) {
+			chars = Arrays.copyOf(chars, size * 2);
 		}
-		return false;
+		chars[size++] = c;
+	}
+
+	private void addCell(final int start) {
+		if (cellCount == starts.length) {
+			starts = Arrays.copyOf(starts, cellCount * 2);
+			ends = Arrays.copyOf(ends, cellCount * 2);
+		}
+		starts[cellCount] = start;
+		ends[cellCount] = size;
+		cellCount++;
+	}
+
+	/**
+	 * Gibt die Anzahl der Zellen der aktuellen Zeile zurück.
+	 *
+	 * @return Die Anzahl der Zellen.
+	 */
+	public int getCellCount() {
+		return cellCount;
+	}
+
+	/**
+	 * Gibt die Nummer der Zeile zurück, in der die aktuelle Zeile beginnt.
+	 *
+	 * @return Die Zeilennummer, beginnend bei 1.
+	 */
+	public int getLine() {
+		return line;
 	}
 
 	/**
@@ -82,12 +313,34 @@ public class CSVParser {
 	 * @return Inhalt der Zelle als int
 	 */
 	public int getInt(int cellPosition) {
-		try {
-			return Integer.parseInt(cells[cellPosition]);
-		} catch (NumberFormatException e) {
-			throw new IllegalArgumentException(
-					"Date on this cell could not be parsed! (Line: " + line + " Cell: " + cellPosition);
+		checkCell(cellPosition);
+		int p = starts[cellPosition];
+		final int end = ends[cellPosition];
+		final boolean negative = p < end && chars[p] == '-';
+		if (negative || p < end && chars[p] == '+') {
+			p++;
+		}
+		if (p == end) {
+			throw invalid("Integer", cellPosition);
+		}
+		long value = 0;
+		for (; p < end; p++) {
+			final char c = chars[p];
+			if (c < '0' || c > '9') {
+				throw invalid("Integer", cellPosition);
+			}
+			value = value * 10 + (c - '0');
+			if (value > Integer.MAX_VALUE + 1L) {
+				throw invalid("Integer", cellPosition);
+			}
+		}
+		if (negative) {
+			value = -value;
+		}
+		if (value > Integer.MAX_VALUE) {
+			throw invalid("Integer", cellPosition);
 		}
+		return (int) value;
 	}
 
 	/**
@@ -98,7 +351,8 @@ public class CSVParser {
 	 * @return Inhalt der Zelle als String
 	 */
 	public String getString(int cellPosition) {
-		return cells[cellPosition];
+		checkCell(cellPosition);
+		return new String(chars, starts[cellPosition], ends[cellPosition] - starts[cellPosition]);
 	}
 
 	/**
@@ -110,14 +364,91 @@ public class CSVParser {
 	 * @return Inhalt der Zelle als Date mit dem Format yyyyMMdd
 	 */
 	public Date getDate(int cellPosition) {
-		SimpleDateFormat formatter = new SimpleDateFormat("yyyyMMdd");
+		checkCell(cellPosition);
+		final int start = starts[cellPosition];
+		if (ends[cellPosition] - start != 8) {
+			throw invalid("Date", cellPosition);
+		}
+		final int year = digits(start, 4);
+		final int month = digits(start + 4, 2);
+		final int day = digits(start + 6, 2);
+		if (year < 0 || month < 0 || day < 0) {
+			throw invalid("Date", cellPosition);
+		}
+		calendar.clear();
+		calendar.set(year, month - 1, day);
 		try {
-			Date result = new Date(0);
-			result = formatter.parse(getString(cellPosition));
-			return result;
-		} catch (ParseException e) {
+			return calendar.getTime();
+		} catch (IllegalArgumentException e) {
+			throw invalid("Date", cellPosition);
+		}
+	}
+
+	/**
+	 * Liefert den Inhalt der angegebenen Spalte als int zurück (vgl.
+	 * {@link #getInt(int)}).
+	 * @param column die angegebene Spalte
+	 * @return Inhalt der Zelle als int
+	 */
+	public int getInt(Column column) {
+		return getInt(column.getIndex());
+	}
+
+	/**
+	 * Liefert den Inhalt der angegebenen Spalte als String zurück (vgl.
+	 * {@link #getString(int)}).
+	 * @param column die angegebene Spalte
+	 * @return Inhalt der Zelle als String
+	 */
+	public String getString(Column column) {
+		return getString(column.getIndex());
+	}
+
+	/**
+	 * Liefert den Inhalt der angegebenen Spalte als Date zurück (vgl.
+	 * {@link #getDate(int)}).
+	 * @param column die angegebene Spalte
+	 * @return Inhalt der Zelle als Date
+	 */
+	public Date getDate(Column column) {
+		return getDate(column.getIndex());
+	}
+
+	/**
+	 * Schließt den zugrundeliegenden Datenstrom.
+	 */
+	@Override
+	public void close() throws IOException {
+		reader.close();
+	}
+
+	/**
+	 * Parst {@code count} Ziffern ab {@code from}.
+	 *
+	 * @return Die Zahl oder {@code -1}, falls eines der Zeichen keine Ziffer
+	 *         ist.
+	 */
+	private int digits(final int from, final int count) {
+		int value = 0;
+		for (int p = from; p < from + count; p++) {
+			final char c = chars[p];
+			if (c < '0' || c > '9') {
+				return -1;
+			}
+			value = value * 10 + (c - '0');
+		}
+		return value;
+	}
+
+	private void checkCell(final int cellPosition) {
+		if (cellPosition < 0 || cellPosition >= cellCount) {
 			throw new IllegalArgumentException(
-					"Date on this cell could not be parsed! (Line: " + line + " Cell: " + cellPosition);
+					"This cell does not exist! (Line: " + line + " Cell: " + cellPosition + ")");
 		}
 	}
-}
\ No newline at end of file
+
+	private IllegalArgumentException invalid(final String type, final int cellPosition) {
+		return new IllegalArgumentException(
+				type + " on this cell could not be parsed! (Line: " + line + " Cell: " + cellPosition + ")");
+	}
+}
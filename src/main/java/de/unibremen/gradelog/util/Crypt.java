@@ -34,7 +34,7 @@ public class Crypt {
 	 *            Der Byte-Strom.
 	 * @return Hexadezimalform.
 	 */
-	private static String convertToHex(byte[] data) {
+	public static String convertToHex(byte[] data) {
 		StringBuffer buf = new StringBuffer();
 
 		for (int i = 0; i < data.length; i++) {
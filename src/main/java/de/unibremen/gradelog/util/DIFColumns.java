@@ -0,0 +1,112 @@
+package de.unibremen.gradelog.util;
+
+/**
+ * Beschreibt die Spalten der aus UNTIS exportierten DIF-Dateien, die von
+ * {@link CSVParser} gelesen werden. Je Format gibt es eine Aufzählung der
+ * verwendeten Spalten und die Anzahl der Zellen, die eine Zeile mindestens
+ * haben muss.
+ *
+ * @author Marco Glander
+ */
+public final class DIFColumns {
+
+	/**
+	 * Anzahl der Zellen einer Zeile der Schülerliste
+	 */
+	public static final int USER_CELLS = 15;
+
+	/**
+	 * Anzahl der Zellen einer Zeile des Vertretungsplans
+	 */
+	public static final int REPRESENTATION_CELLS = 20;
+
+	/**
+	 * Anzahl der Zellen einer Zeile des Stundenplans
+	 */
+	public static final int TIMETABLE_CELLS = 8;
+
+	/**
+	 * Spalten der Schülerliste
+	 */
+	public enum User implements CSVParser.Column {
+		LAST_NAME(0), FIRST_NAME(7), COURSE(9),
+		/**
+		 * 1 = weiblich, 2 = männlich
+		 */
+		SEX(10),
+		/**
+		 * yyyyMMdd
+		 */
+		BIRTHDAY(12), EMAIL(13);
+
+		private final int index;
+
+		User(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public int getIndex() {
+			return index;
+		}
+	}
+
+	/**
+	 * Spalten des Vertretungsplans
+	 */
+	public enum Representation implements CSVParser.Column {
+		/**
+		 * yyyyMMdd
+		 */
+		DATE(1), HOUR(2), TEACHER(5), REPRESENTATIVE_TEACHER(6), SUBJECT(7), ROOM(11), REPRESENTATIVE_ROOM(12),
+		CLASSES(14);
+
+		private final int index;
+
+		Representation(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public int getIndex() {
+			return index;
+		}
+	}
+
+	/**
+	 * Spalten des Stundenplans
+	 */
+	public enum Timetable implements CSVParser.Column {
+		SUBJECT(3), ROOM(4),
+		/**
+		 * Wochentag, 1 = Montag
+		 */
+		DAY(5),
+		/**
+		 * Beginn in Minuten nach Mitternacht
+		 */
+		START(6),
+		/**
+		 * Dauer in Minuten
+		 */
+		DURATION(7);
+
+		private final int index;
+
+		Timetable(final int index) {
+			this.index = index;
+		}
+
+		@Override
+		public int getIndex() {
+			return index;
+		}
+	}
+
+	/**
+	 * Privater Konstruktor, der verhindert, dass eine Instanz dieser
+	 * Utility-Klasse erzeugt werden kann.
+	 */
+	private DIFColumns() {
+	}
+}
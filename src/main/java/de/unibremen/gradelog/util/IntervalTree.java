@@ -0,0 +1,225 @@
+package de.unibremen.gradelog.util;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ein Index über Elemente mit einem Zeitraum (z. B. Termine), der alle
+ * Elemente findet, die einen gegebenen Zeitraum überschneiden. Die Elemente
+ * werden in einem zentrierten Intervallbaum abgelegt: Jeder Knoten hält die
+ * Intervalle, die seinen Mittelpunkt enthalten, einmal nach Beginn und einmal
+ * nach Ende sortiert, links davon liegen die früheren und rechts die späteren
+ * Intervalle. Eine Abfrage kostet so {@code O(log n + k)} für {@code k}
+ * Treffer.
+ *
+ * Der Baum wird nach Änderungen (vgl. {@link #add(Object, long, long)} und
+ * {@link #remove(Object)}) bei der nächsten Abfrage einmal neu aufgebaut, da
+ * Abfragen deutlich häufiger als Änderungen sind. Die Klasse ist nicht
+ * synchronisiert.
+ *
+ * @param <T>
+ *            Der Typ der Elemente. Gleichheit wird über
+ *            {@link Object#equals(Object)} bestimmt.
+ *
+ * @author Marco Glander
+ */
+public class IntervalTree<T> implements Serializable {
+
+	/**
+	 * Die eindeutige id für Serialisierung.
+	 */
+	private static final long serialVersionUID = -2687350716394921305L;
+
+	private static final Comparator<Interval<?>> BY_START = Comparator.comparingLong(i -> i.start);
+
+	private static final Comparator<Interval<?>> BY_END_DESCENDING = Comparator
+			.<Interval<?>> comparingLong(i -> i.end).reversed();
+
+	/**
+	 * Die Intervalle je Element
+	 */
+	private final Map<T, Interval<T>> intervals = new HashMap<>();
+
+	/**
+	 * Die Wurzel des Baums oder {@code null}, falls er neu aufgebaut werden
+	 * muss
+	 */
+	private transient Node<T> root;
+
+	/**
+	 * Ein Element mit seinem Zeitraum {@code [start, end)}.
+	 */
+	private static final class Interval<T> implements Serializable {
+
+		private static final long serialVersionUID = 4203771563218702149L;
+
+		private final T item;
+
+		private final long start;
+
+		private final long end;
+
+		private Interval(final T item, final long start, final long end) {
+			this.item = item;
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/**
+	 * Ein Knoten mit den Intervallen, die {@link #center} enthalten.
+	 */
+	private static final class Node<T> {
+
+		private final long center;
+
+		private final List<Interval<T>> byStart;
+
+		private final List<Interval<T>> byEnd;
+
+		private final Node<T> left;
+
+		private final Node<T> right;
+
+		private Node(final long center, final List<Interval<T>> here, final Node<T> left, final Node<T> right) {
+			this.center = center;
+			byStart = new ArrayList<>(here);
+			byStart.sort(BY_START);
+			byEnd = new ArrayList<>(here);
+			byEnd.sort(BY_END_DESCENDING);
+			this.left = left;
+			this.right = right;
+		}
+	}
+
+	/**
+	 * Fügt {@code item} mit dem Zeitraum {@code [start, end)} hinzu. Ist
+	 * {@code item} bereits enthalten, wird sein Zeitraum ersetzt. Ein leerer
+	 * Zeitraum wird als Zeitpunkt {@code start} behandelt.
+	 *
+	 * @param item
+	 *            Das Element.
+	 * @param start
+	 *            Der Beginn in Millisekunden.
+	 * @param end
+	 *            Das Ende in Millisekunden (exklusiv).
+	 * @throws IllegalArgumentException
+	 *             Falls {@code item == null} ist.
+	 */
+	public void add(final T item, final long start, final long end) {
+		intervals.put(assertNotNull(item), new Interval<>(item, start, Math.max(end, start + 1)));
+		root = null;
+	}
+
+	/**
+	 * Entfernt {@code item}.
+	 *
+	 * @param item
+	 *            Das Element.
+	 * @return {@code true}, falls {@code item} enthalten war.
+	 */
+	public boolean remove(final T item) {
+		if (intervals.remove(item) == null)
+			return false;
+		root = null;
+		return true;
+	}
+
+	/**
+	 * Entfernt alle Elemente.
+	 */
+	public void clear() {
+		intervals.clear();
+		root = null;
+	}
+
+	/**
+	 * Gibt die Anzahl der Elemente zurück.
+	 *
+	 * @return Die Anzahl der Elemente.
+	 */
+	public int size() {
+		return intervals.size();
+	}
+
+	/**
+	 * Gibt alle Elemente zurück, deren Zeitraum {@code [from, to)} überschneidet.
+	 *
+	 * @param from
+	 *            Der Beginn in Millisekunden.
+	 * @param to
+	 *            Das Ende in Millisekunden (exklusiv).
+	 * @return Die Elemente aufsteigend nach Beginn.
+	 */
+	public List<T> query(final long from, final long to) {
+		if (from >= to || intervals.isEmpty())
+			return new ArrayList<>();
+		if (root == null)
+			root = build(new ArrayList<>(intervals.values()));
+		final List<Interval<T>> found = new ArrayList<>();
+		collect(root, from, to, found);
+		found.sort(BY_START);
+		final List<T> items = new ArrayList<>(found.size());
+		for (final Interval<T> interval : found) {
+			items.add(interval.item);
+		}
+		return items;
+	}
+
+	/**
+	 * Baut den Teilbaum für {@code all} auf. Der Mittelpunkt ist der mittlere
+	 * Beginn, sodass jeder Knoten mindestens ein Intervall hält und beide
+	 * Teilbäume höchstens halb so viele Intervalle enthalten.
+	 */
+	private static <T> Node<T> build(final List<Interval<T>> all) {
+		if (all.isEmpty())
+			return null;
+		all.sort(BY_START);
+		final long center = all.get(all.size() / 2).start;
+		final List<Interval<T>> left = new ArrayList<>();
+		final List<Interval<T>> here = new ArrayList<>();
+		final List<Interval<T>> right = new ArrayList<>();
+		for (final Interval<T> interval : all) {
+			if (interval.end <= center)
+				left.add(interval);
+			else if (interval.start > center)
+				right.add(interval);
+			else
+				here.add(interval);
+		}
+		return new Node<>(center, here, build(left), build(right));
+	}
+
+	private static <T> void collect(final Node<T> node, final long from, final long to,
+			final List<Interval<T>> found) {
+		if (node == null)
+			return;
+		if (to <= node.center) {
+			// alle Intervalle des Knotens enden nach to
+			for (final Interval<T> interval : node.byStart) {
+				if (interval.start >= to)
+					break;
+				found.add(interval);
+			}
+			collect(node.left, from, to, found);
+		} else if (from > node.center) {
+			// alle Intervalle des Knotens beginnen vor from
+			for (final Interval<T> interval : node.byEnd) {
+				if (interval.end <= from)
+					break;
+				found.add(interval);
+			}
+			collect(node.right, from, to, found);
+		} else {
+			found.addAll(node.byStart);
+			collect(node.left, from, to, found);
+			collect(node.right, from, to, found);
+		}
+	}
+}
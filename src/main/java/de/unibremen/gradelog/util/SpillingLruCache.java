@@ -0,0 +1,243 @@
+package de.unibremen.gradelog.util;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import org.apache.log4j.Logger;
+
+/**
+ * Ein nach Bytes begrenzter LRU-Cache für unveränderliche Byte-Arrays. Werden
+ * Einträge aus dem Speicher verdrängt, werden sie in ein Verzeichnis
+ * ausgelagert, das seinerseits nach Bytes begrenzt ist; die dort am längsten
+ * ungenutzten Einträge werden gelöscht. Ein Treffer auf der Platte holt den
+ * Eintrag zurück in den Speicher.
+ *
+ * Schlüssel werden als Dateinamen verwendet und dürfen daher nur aus
+ * Buchstaben, Ziffern, {@code -}, {@code _} und {@code .} bestehen. Das
+ * Verzeichnis wird, wo das Dateisystem es unterstützt, nur für den Besitzer
+ * lesbar angelegt. Alle Methoden sind synchronisiert.
+ *
+ * @author Marco Glander
+ */
+public class SpillingLruCache {
+
+	/**
+	 * Der Logger dieser Klasse.
+	 */
+	private static final Logger logger = Logger.getLogger(SpillingLruCache.class);
+
+	/**
+	 * Erlaubte Schlüssel
+	 */
+	private static final Pattern KEY = Pattern.compile("[A-Za-z0-9_.-]+");
+
+	/**
+	 * Maximale Größe der Einträge im Speicher
+	 */
+	private final long memoryBudget;
+
+	/**
+	 * Maximale Größe der ausgelagerten Einträge
+	 */
+	private final long diskBudget;
+
+	/**
+	 * Verzeichnis der ausgelagerten Einträge
+	 */
+	private final Path directory;
+
+	/**
+	 * Die Einträge im Speicher, der am längsten ungenutzte zuerst
+	 */
+	private final LinkedHashMap<String, byte[]> memory = new LinkedHashMap<>(16, 0.75f, true);
+
+	/**
+	 * Die Größen der ausgelagerten Einträge, der am längsten ungenutzte zuerst
+	 */
+	private final LinkedHashMap<String, Long> disk = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long memoryBytes;
+
+	private long diskBytes;
+
+	private long hits;
+
+	private long diskHits;
+
+	private long misses;
+
+	/**
+	 * Erzeugt einen leeren Cache. Im Verzeichnis vorhandene Dateien werden als
+	 * Überbleibsel eines früheren Laufs gelöscht.
+	 *
+	 * @param memoryBudget
+	 *            Maximale Größe der Einträge im Speicher in Bytes.
+	 * @param diskBudget
+	 *            Maximale Größe der ausgelagerten Einträge in Bytes,
+	 *            {@code 0} deaktiviert das Auslagern.
+	 * @param directory
+	 *            Verzeichnis für ausgelagerte Einträge.
+	 * @throws IllegalArgumentException
+	 *             Falls eines der Budgets negativ oder
+	 *             {@code directory == null} ist.
+	 */
+	public SpillingLruCache(final long memoryBudget, final long diskBudget, final Path directory) {
+		if (memoryBudget < 0 || diskBudget < 0)
+			throw new IllegalArgumentException("The budgets must not be negative!");
+		this.memoryBudget = memoryBudget;
+		this.diskBudget = diskBudget;
+		this.directory = assertNotNull(directory);
+		clearDirectory();
+	}
+
+	/**
+	 * Gibt den Eintrag zu {@code key} zurück.
+	 *
+	 * @param key
+	 *            Der Schlüssel.
+	 * @return Der Eintrag oder {@code null}, falls es keinen gibt.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code key} kein gültiger Schlüssel ist.
+	 */
+	public synchronized byte[] get(final String key) {
+		final byte[] value = memory.get(checkKey(key));
+		if (value != null) {
+			hits++;
+			return value;
+		}
+		final Long size = disk.remove(key);
+		if (size != null) {
+			final Path path = directory.resolve(key);
+			diskBytes -= size;
+			try {
+				final byte[] spilled = Files.readAllBytes(path);
+				Files.deleteIfExists(path);
+				diskHits++;
+				put(key, spilled);
+				return spilled;
+			} catch (final IOException e) {
+				logger.warn(String.format("Could not read spilled cache entry %s.", key), e);
+			}
+		}
+		misses++;
+		return null;
+	}
+
+	/**
+	 * Legt {@code value} unter {@code key} ab. Der Inhalt von {@code value}
+	 * darf danach nicht mehr verändert werden.
+	 *
+	 * @param key
+	 *            Der Schlüssel.
+	 * @param value
+	 *            Der Eintrag.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code key} kein gültiger Schlüssel oder
+	 *             {@code value == null} ist.
+	 */
+	public synchronized void put(final String key, final byte[] value) {
+		assertNotNull(value);
+		final byte[] previous = memory.put(checkKey(key), value);
+		if (previous != null)
+			memoryBytes -= previous.length;
+		memoryBytes += value.length;
+		final Iterator<Map.Entry<String, byte[]>> eldest = memory.entrySet().iterator();
+		while (memoryBytes > memoryBudget && eldest.hasNext()) {
+			final Map.Entry<String, byte[]> entry = eldest.next();
+			eldest.remove();
+			memoryBytes -= entry.getValue().length;
+			spill(entry.getKey(), entry.getValue());
+		}
+	}
+
+	public synchronized long getHits() {
+		return hits;
+	}
+
+	public synchronized long getDiskHits() {
+		return diskHits;
+	}
+
+	public synchronized long getMisses() {
+		return misses;
+	}
+
+	public synchronized long getMemoryBytes() {
+		return memoryBytes;
+	}
+
+	public synchronized long getDiskBytes() {
+		return diskBytes;
+	}
+
+	private void spill(final String key, final byte[] value) {
+		if (value.length > diskBudget)
+			return;
+		try {
+			createDirectory();
+			Files.write(directory.resolve(key), value);
+		} catch (final IOException e) {
+			logger.warn(String.format("Could not spill cache entry %s.", key), e);
+			return;
+		}
+		final Long previous = disk.put(key, (long) value.length);
+		if (previous != null)
+			diskBytes -= previous;
+		diskBytes += value.length;
+		final Iterator<Map.Entry<String, Long>> eldest = disk.entrySet().iterator();
+		while (diskBytes > diskBudget && eldest.hasNext()) {
+			final Map.Entry<String, Long> entry = eldest.next();
+			eldest.remove();
+			diskBytes -= entry.getValue();
+			try {
+				Files.deleteIfExists(directory.resolve(entry.getKey()));
+			} catch (final IOException e) {
+				logger.warn(String.format("Could not delete spilled cache entry %s.", entry.getKey()), e);
+			}
+		}
+	}
+
+	private void createDirectory() throws IOException {
+		if (Files.isDirectory(directory))
+			return;
+		if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+			final FileAttribute<?> ownerOnly = PosixFilePermissions
+					.asFileAttribute(PosixFilePermissions.fromString("rwx------"));
+			Files.createDirectories(directory, ownerOnly);
+		} else {
+			Files.createDirectories(directory);
+		}
+	}
+
+	private void clearDirectory() {
+		if (!Files.isDirectory(directory))
+			return;
+		try (Stream<Path> stale = Files.list(directory)) {
+			stale.forEach(path -> {
+				try {
+					Files.deleteIfExists(path);
+				} catch (final IOException e) {
+					logger.warn(String.format("Could not delete stale cache entry %s.", path), e);
+				}
+			});
+		} catch (final IOException e) {
+			logger.warn(String.format("Could not clear cache directory %s.", directory), e);
+		}
+	}
+
+	private static String checkKey(final String key) {
+		if (key == null || !KEY.matcher(key).matches())
+			throw new IllegalArgumentException("Invalid cache key: " + key);
+		return key;
+	}
+}
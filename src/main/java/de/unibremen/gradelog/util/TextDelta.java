@@ -0,0 +1,313 @@
+package de.unibremen.gradelog.util;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Berechnet und verwendet Deltas zwischen zwei Fassungen eines Textes (z. B.
+ * dem HTML-Inhalt einer CustomPage). Verglichen wird nicht zeichenweise,
+ * sondern in Abschnitten, die jeweils nach einem Zeilenumbruch oder dem Ende
+ * eines HTML-Tags enden. So bleiben auch Inhalte ohne Zeilenumbrüche fein
+ * genug unterteilt.
+ *
+ * Ein Delta ist eine Folge von Anweisungen, die die Basis von vorne nach
+ * hinten abarbeiten:
+ * <ul>
+ * <li>{@code =n} übernimmt die nächsten n Zeichen der Basis,</li>
+ * <li>{@code -n} überspringt die nächsten n Zeichen der Basis,</li>
+ * <li>{@code +n:text} fügt die n Zeichen {@code text} ein.</li>
+ * </ul>
+ * Die Abschnitte werden mit dem Verfahren von Myers verglichen. Weichen die
+ * Fassungen um mehr als {@link #MAX_EDITS} Abschnitte voneinander ab, wird der
+ * geänderte Bereich als Ganzes ersetzt.
+ *
+ * @author Marco Glander
+ */
+public final class TextDelta {
+
+	/**
+	 * Maximale Anzahl eingefügter oder entfernter Abschnitte, nach der die
+	 * Suche nach einem kürzesten Delta abgebrochen wird
+	 */
+	static final int MAX_EDITS = 512;
+
+	private static final char COPY = '=';
+
+	private static final char SKIP = '-';
+
+	private static final char INSERT = '+';
+
+	/**
+	 * Berechnet das Delta, das {@code base} in {@code target} überführt.
+	 *
+	 * @param base
+	 *            Die ältere Fassung.
+	 * @param target
+	 *            Die neuere Fassung.
+	 * @return Das Delta (vgl. {@link #apply(String, String)}).
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist.
+	 */
+	public static String diff(final String base, final String target) {
+		assertNotNull(base);
+		assertNotNull(target);
+		final Map<String, Integer> ids = new HashMap<>();
+		final List<String> baseTokens = tokenize(base);
+		final List<String> targetTokens = tokenize(target);
+		final int[] a = toIds(baseTokens, ids);
+		final int[] b = toIds(targetTokens, ids);
+
+		int prefix = 0;
+		while (prefix < a.length && prefix < b.length && a[prefix] == b[prefix])
+			prefix++;
+		int suffix = 0;
+		while (suffix < a.length - prefix && suffix < b.length - prefix
+				&& a[a.length - 1 - suffix] == b[b.length - 1 - suffix])
+			suffix++;
+
+		final Encoder encoder = new Encoder();
+		encoder.copy(length(baseTokens, 0, prefix));
+		final int n = a.length - prefix - suffix;
+		final int m = b.length - prefix - suffix;
+		final byte[] script = n == 0 || m == 0 ? null : script(a, prefix, n, b, prefix, m);
+		if (script == null) {
+			encoder.skip(length(baseTokens, prefix, prefix + n));
+			for (int j = prefix; j < prefix + m; j++)
+				encoder.insert(targetTokens.get(j));
+		} else {
+			int i = prefix;
+			int j = prefix;
+			for (final byte op : script) {
+				if (op == COPY) {
+					encoder.copy(baseTokens.get(i++).length());
+					j++;
+				} else if (op == SKIP) {
+					encoder.skip(baseTokens.get(i++).length());
+				} else {
+					encoder.insert(targetTokens.get(j++));
+				}
+			}
+		}
+		encoder.copy(length(baseTokens, a.length - suffix, a.length));
+		return encoder.toString();
+	}
+
+	/**
+	 * Wendet {@code delta} auf {@code base} an.
+	 *
+	 * @param base
+	 *            Die Fassung, zu der das Delta berechnet wurde.
+	 * @param delta
+	 *            Ein mit {@link #diff(String, String)} berechnetes Delta.
+	 * @return Die neuere Fassung.
+	 * @throws IllegalArgumentException
+	 *             Falls einer der Parameter {@code null} ist, das Delta
+	 *             fehlerhaft ist oder nicht zu {@code base} passt.
+	 */
+	public static String apply(final String base, final String delta) {
+		assertNotNull(base);
+		assertNotNull(delta);
+		final StringBuilder result = new StringBuilder(base.length());
+		int position = 0;
+		int i = 0;
+		while (i < delta.length()) {
+			final char op = delta.charAt(i++);
+			int count = 0;
+			final int start = i;
+			while (i < delta.length() && Character.isDigit(delta.charAt(i))) {
+				if (count > (Integer.MAX_VALUE - 9) / 10)
+					throw new IllegalArgumentException("Count overflow at offset " + start);
+				count = count * 10 + delta.charAt(i++) - '0';
+			}
+			if (i == start)
+				throw new IllegalArgumentException("Missing count at offset " + start);
+			if (op == COPY || op == SKIP) {
+				if (count > base.length() - position)
+					throw new IllegalArgumentException("Delta exceeds the base at offset " + start);
+				if (op == COPY)
+					result.append(base, position, position + count);
+				position += count;
+			} else if (op == INSERT) {
+				if (i >= delta.length() || delta.charAt(i) != ':' || count > delta.length() - i - 1)
+					throw new IllegalArgumentException("Malformed insertion at offset " + start);
+				result.append(delta, i + 1, i + 1 + count);
+				i += 1 + count;
+			} else {
+				throw new IllegalArgumentException("Unknown operation '" + op + "' at offset " + (start - 1));
+			}
+		}
+		if (position != base.length())
+			throw new IllegalArgumentException("Delta does not cover the base");
+		return result.toString();
+	}
+
+	/**
+	 * Zerlegt {@code text} in Abschnitte, die nach einem Zeilenumbruch oder
+	 * einem '>' enden.
+	 */
+	static List<String> tokenize(final String text) {
+		final List<String> tokens = new ArrayList<>();
+		int start = 0;
+		for (int i = 0; i < text.length(); i++) {
+			final char c = text.charAt(i);
+			if (c == '\n' || c == '>') {
+				tokens.add(text.substring(start, i + 1));
+				start = i + 1;
+			}
+		}
+		if (start < text.length())
+			tokens.add(text.substring(start));
+		return tokens;
+	}
+
+	private static int[] toIds(final List<String> tokens, final Map<String, Integer> ids) {
+		final int[] result = new int[tokens.size()];
+		for (int i = 0; i < result.length; i++) {
+			Integer id = ids.get(tokens.get(i));
+			if (id == null) {
+				id = ids.size();
+				ids.put(tokens.get(i), id);
+			}
+			result[i] = id;
+		}
+		return result;
+	}
+
+	private static int length(final List<String> tokens, final int from, final int to) {
+		int length = 0;
+		for (int i = from; i < to; i++)
+			length += tokens.get(i).length();
+		return length;
+	}
+
+	/**
+	 * Berechnet ein kürzestes Editierskript von {@code a[aOffset, aOffset + n)}
+	 * nach {@code b[bOffset, bOffset + m)} (E. Myers, "An O(ND) Difference
+	 * Algorithm and Its Variations", 1986). Je Schritt wird nur der belegte
+	 * Bereich der Diagonalen gesichert, der Speicherbedarf ist also
+	 * quadratisch in der Anzahl der Änderungen und nicht in der Textlänge.
+	 *
+	 * @return Die Folge von {@link #COPY}, {@link #SKIP} und {@link #INSERT}
+	 *         oder {@code null}, falls mehr als {@link #MAX_EDITS} Änderungen
+	 *         nötig sind.
+	 */
+	private static byte[] script(final int[] a, final int aOffset, final int n, final int[] b, final int bOffset,
+			final int m) {
+		final int limit = Math.min(n + m, MAX_EDITS);
+		final int offset = limit + 1;
+		final int[] v = new int[2 * limit + 3];
+		final List<int[]> trace = new ArrayList<>();
+		for (int d = 0; d <= limit; d++) {
+			for (int k = -d; k <= d; k += 2) {
+				int x = k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1]) ? v[offset + k + 1]
+						: v[offset + k - 1] + 1;
+				int y = x - k;
+				while (x < n && y < m && a[aOffset + x] == b[bOffset + y]) {
+					x++;
+					y++;
+				}
+				v[offset + k] = x;
+				if (x >= n && y >= m) {
+					return backtrack(trace, d, n, m);
+				}
+			}
+			final int[] round = new int[2 * d + 1];
+			System.arraycopy(v, offset - d, round, 0, round.length);
+			trace.add(round);
+		}
+		return null;
+	}
+
+	private static byte[] backtrack(final List<int[]> trace, final int edits, final int n, final int m) {
+		final byte[] script = new byte[(n + m + edits) / 2];
+		int position = script.length;
+		int x = n;
+		int y = m;
+		for (int d = edits; d > 0; d--) {
+			final int[] previous = trace.get(d - 1);
+			final int k = x - y;
+			final boolean down = k == -d || (k != d && previous[k - 1 + d - 1] < previous[k + 1 + d - 1]);
+			final int previousK = down ? k + 1 : k - 1;
+			final int previousX = previous[previousK + d - 1];
+			final int previousY = previousX - previousK;
+			final int snakeX = down ? previousX : previousX + 1;
+			while (x > snakeX) {
+				script[--position] = COPY;
+				x--;
+			}
+			script[--position] = (byte) (down ? INSERT : SKIP);
+			x = previousX;
+			y = previousY;
+		}
+		while (x > 0) {
+			script[--position] = COPY;
+			x--;
+		}
+		return script;
+	}
+
+	/**
+	 * Schreibt Anweisungen und fasst aufeinanderfolgende gleichartige
+	 * Anweisungen zusammen.
+	 */
+	private static final class Encoder {
+
+		private final StringBuilder delta = new StringBuilder();
+
+		private final StringBuilder insertion = new StringBuilder();
+
+		private char op;
+
+		private int count;
+
+		private void copy(final int length) {
+			append(COPY, length);
+		}
+
+		private void skip(final int length) {
+			append(SKIP, length);
+		}
+
+		private void insert(final String text) {
+			append(INSERT, text.length());
+			insertion.append(text);
+		}
+
+		private void append(final char nextOp, final int length) {
+			if (length == 0)
+				return;
+			if (nextOp != op)
+				flush();
+			op = nextOp;
+			count += length;
+		}
+
+		private void flush() {
+			if (count > 0) {
+				delta.append(op).append(count);
+				if (op == INSERT)
+					delta.append(':').append(insertion);
+			}
+			insertion.setLength(0);
+			count = 0;
+		}
+
+		@Override
+		public String toString() {
+			flush();
+			op = 0;
+			return delta.toString();
+		}
+	}
+
+	/**
+	 * Privater Konstruktor, der verhindert, dass eine Instanz dieser
+	 * Utility-Klasse erzeugt werden kann.
+	 */
+	private TextDelta() {
+	}
+}
@@ -0,0 +1,94 @@
+package de.unibremen.gradelog.util;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Erzeugt verkleinerte JPEG-Varianten von Bildern.
+ *
+ * @author Marco Glander
+ */
+public class Thumbnails {
+
+	/**
+	 * Privater Konstruktor, der verhindert, dass eine Instanz dieser
+	 * Utility-Klasse erzeugt werden kann.
+	 */
+	private Thumbnails() {
+	}
+
+	/**
+	 * Skaliert ein Bild unter Beibehaltung des Seitenverhältnisses so, dass es
+	 * in ein Quadrat der Kantenlänge {@code size} passt. Kleinere Bilder
+	 * werden nicht vergrößert.
+	 *
+	 * @param image
+	 *            Das Bild in einem von {@link ImageIO} lesbaren Format.
+	 * @param size
+	 *            Maximale Breite und Höhe in Pixeln.
+	 * @return Das skalierte Bild als JPEG.
+	 * @throws IOException
+	 *             Falls {@code image} kein lesbares Bild ist.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code image == null} oder {@code size < 1} ist.
+	 */
+	public static byte[] scale(final byte[] image, final int size) throws IOException {
+		assertNotNull(image);
+		if (size < 1)
+			throw new IllegalArgumentException("The size must be positive!");
+		final BufferedImage source = read(image);
+		final double factor = Math.min(1.0, (double) size / Math.max(source.getWidth(), source.getHeight()));
+		final int width = Math.max(1, (int) Math.round(source.getWidth() * factor));
+		final int height = Math.max(1, (int) Math.round(source.getHeight() * factor));
+		return encode(source, width, height);
+	}
+
+	/**
+	 * Kodiert ein Bild in beliebigem von {@link ImageIO} lesbarem Format als
+	 * JPEG in Originalgröße.
+	 *
+	 * @param image
+	 *            Das Bild.
+	 * @return Das Bild als JPEG.
+	 * @throws IOException
+	 *             Falls {@code image} kein lesbares Bild ist.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code image == null} ist.
+	 */
+	public static byte[] toJpeg(final byte[] image) throws IOException {
+		final BufferedImage source = read(assertNotNull(image));
+		return encode(source, source.getWidth(), source.getHeight());
+	}
+
+	private static BufferedImage read(final byte[] image) throws IOException {
+		final BufferedImage source = ImageIO.read(new ByteArrayInputStream(image));
+		if (source == null)
+			throw new IOException("Unsupported image format!");
+		return source;
+	}
+
+	private static byte[] encode(final BufferedImage source, final int width, final int height)
+			throws IOException {
+		// JPEG kennt keinen Alphakanal, daher immer nach RGB zeichnen
+		final BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+		final Graphics2D g = target.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(source, 0, 0, width, height, null);
+		} finally {
+			g.dispose();
+		}
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(target, "jpg", out);
+		return out.toByteArray();
+	}
+}
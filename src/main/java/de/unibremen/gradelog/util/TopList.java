@@ -0,0 +1,175 @@
+package de.unibremen.gradelog.util;
+
+import static de.unibremen.gradelog.util.Assertion.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Eine nach {@code order} sortierte Liste der höchstens {@code capacity}
+ * ersten Elemente einer größeren, nicht im Speicher gehaltenen Menge (z. B.
+ * der nächsten Termine eines Benutzers). Die Liste wird einmal aus der Quelle
+ * befüllt (vgl. {@link #reset(List)}) und danach durch {@link #offer(Object)}
+ * und {@link #remove(Object)} fortgeschrieben.
+ *
+ * Wird ein Element entfernt oder nach hinten verschoben, während die Quelle
+ * weitere Elemente enthalten kann, ist die Liste nicht mehr zuverlässig und
+ * muss neu befüllt werden (vgl. {@link #isValid()}). Alle Methoden sind
+ * synchronisiert.
+ *
+ * @param <T>
+ *            Der Typ der Elemente. Gleichheit wird über
+ *            {@link Object#equals(Object)} bestimmt.
+ *
+ * @author Marco Glander
+ */
+public class TopList<T> {
+
+	/**
+	 * Maximale Anzahl der gehaltenen Elemente
+	 */
+	private final int capacity;
+
+	/**
+	 * Reihenfolge der Elemente
+	 */
+	private final Comparator<? super T> order;
+
+	/**
+	 * Die ersten Elemente der Quelle in sortierter Reihenfolge
+	 */
+	private final List<T> elements;
+
+	/**
+	 * Enthält die Liste alle Elemente der Quelle?
+	 */
+	private boolean complete;
+
+	/**
+	 * Entspricht die Liste den ersten Elementen der Quelle?
+	 */
+	private boolean valid;
+
+	/**
+	 * Erzeugt eine leere, noch zu befüllende Liste.
+	 *
+	 * @param capacity
+	 *            Maximale Anzahl der Elemente, mindestens {@code 1}.
+	 * @param order
+	 *            Reihenfolge der Elemente.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code capacity < 1} oder {@code order == null} ist.
+	 */
+	public TopList(final int capacity, final Comparator<? super T> order) {
+		if (capacity < 1)
+			throw new IllegalArgumentException("The capacity must be positive!");
+		this.capacity = capacity;
+		this.order = assertNotNull(order);
+		elements = new ArrayList<>(capacity + 1);
+	}
+
+	/**
+	 * Befüllt die Liste neu mit den ersten Elementen der Quelle.
+	 *
+	 * @param top
+	 *            Die ersten höchstens {@code capacity} Elemente der Quelle.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code top == null} ist.
+	 */
+	public synchronized void reset(final List<? extends T> top) {
+		assertNotNull(top);
+		elements.clear();
+		elements.addAll(top.size() > capacity ? top.subList(0, capacity) : top);
+		Collections.sort(elements, order);
+		complete = top.size() < capacity;
+		valid = true;
+	}
+
+	/**
+	 * Übernimmt ein neues oder geändertes Element der Quelle.
+	 *
+	 * @param element
+	 *            Das neue oder geänderte Element.
+	 * @throws IllegalArgumentException
+	 *             Falls {@code element == null} ist.
+	 */
+	public synchronized void offer(final T element) {
+		assertNotNull(element);
+		if (!valid)
+			return;
+		final boolean present = elements.remove(element);
+		int index = Collections.binarySearch(elements, element, order);
+		if (index < 0)
+			index = -index - 1;
+		if (index >= capacity || (index == elements.size() && !complete)) {
+			// hinter dem letzten gehaltenen Element: ein bisher gehaltenes
+			// Element kann von einem unbekannten überholt worden sein
+			if (present)
+				valid = false;
+			else
+				complete = false;
+			return;
+		}
+		elements.add(index, element);
+		if (elements.size() > capacity) {
+			elements.remove(capacity);
+			complete = false;
+		}
+	}
+
+	/**
+	 * Entfernt ein Element, das nicht mehr Teil der Quelle ist.
+	 *
+	 * @param element
+	 *            Das entfernte Element.
+	 * @return {@code true}, falls das Element gehalten wurde.
+	 */
+	public synchronized boolean remove(final Object element) {
+		return removeIf(element::equals);
+	}
+
+	/**
+	 * Entfernt alle Elemente, die nicht mehr Teil der Quelle sind.
+	 *
+	 * @param filter
+	 *            Trifft auf die zu entfernenden Elemente zu.
+	 * @return {@code true}, falls mindestens ein Element entfernt wurde.
+	 */
+	public synchronized boolean removeIf(final Predicate<? super T> filter) {
+		boolean removed = false;
+		for (final Iterator<T> it = elements.iterator(); it.hasNext();) {
+			if (filter.test(it.next())) {
+				it.remove();
+				removed = true;
+			}
+		}
+		if (removed && !complete)
+			valid = false;
+		return removed;
+	}
+
+	/**
+	 * Erzwingt ein erneutes Befüllen der Liste.
+	 */
+	public synchronized void invalidate() {
+		valid = false;
+	}
+
+	public synchronized boolean isValid() {
+		return valid;
+	}
+
+	/**
+	 * Gibt eine Kopie der gehaltenen Elemente in sortierter Reihenfolge
+	 * zurück.
+	 *
+	 * @return Die gehaltenen Elemente.
+	 */
+	public synchronized List<T> get() {
+		return new ArrayList<>(elements);
+	}
+}
@@ -16,11 +16,19 @@ import org.primefaces.event.FileUploadEvent;
 import org.primefaces.event.RowEditEvent;
 import org.primefaces.model.UploadedFile;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
+import de.unibremen.gradelog.model.ImportProgress;
 import de.unibremen.gradelog.model.Page;
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.User;
@@ -28,6 +36,7 @@ import de.unibremen.gradelog.persistence.PageDAO;
 import de.unibremen.gradelog.persistence.RepresentationDAO;
 import de.unibremen.gradelog.persistence.SessionDAO;
 import de.unibremen.gradelog.persistence.UserDAO;
+import de.unibremen.gradelog.persistence.UserImporter;
 
 /*
  * @author Rune Krauss
@@ -51,6 +60,9 @@ public class AdminControllerTest {
 	@Mock
 	private RepresentationDAO representationDAO;
 
+	@Mock
+	private UserImporter userImporter;
+
 	@Mock
 	private Session session;
 
@@ -96,6 +108,8 @@ public class AdminControllerTest {
 		Whitebox.setInternalState(adminBean, "userDAO", userDAO);
 		Whitebox.setInternalState(adminBean, "pageDAO", pageDAO);
 		Whitebox.setInternalState(adminBean, "representationDAO", representationDAO);
+		Whitebox.setInternalState(adminBean, "userImporter", userImporter);
+		Whitebox.setInternalState(adminBean, "exporter", session);
 	}
 
 	@After
@@ -158,7 +172,7 @@ public class AdminControllerTest {
 	@Test
 	@Ignore
 	public void testRemoveSuccess() throws Exception {
-		when(sessionDAO.isUserLoggedIn(user)).thenReturn(false);
+		when(sessionDAO.isUserOnline(user)).thenReturn(false);
 		doNothing().when((AbstractController) adminBean).addMessage(any());
 		when(event.getObject()).thenReturn(user);
 		when(selectedUser.getLogin()).thenReturn("bob");
@@ -173,7 +187,7 @@ public class AdminControllerTest {
 
 	@Test
 	public void testRemoveWithoutPermission() throws Exception {
-		when(sessionDAO.isUserLoggedIn(user)).thenReturn(true);
+		when(sessionDAO.isUserOnline(user)).thenReturn(true);
 		doNothing().when((AbstractController) adminBean).addMessage(any());
 
 		adminBean.remove();
@@ -224,6 +238,51 @@ public class AdminControllerTest {
 		doNothing().when((AbstractController) adminBean).addMessage(any());
 
 		adminBean.uploadDIF(fue);
-		verify(userDAO, never()).create(user);
+		verify(userImporter, never()).importUsers(any(), anyInt(), any());
+	}
+
+	@Test
+	public void testUploadDIFStartsImport() throws Exception {
+		when(session.isLoggedIn()).thenReturn(true);
+		doNothing().when((AbstractController) adminBean).addMessage(any());
+		when(fue.getFile()).thenReturn(file);
+		final InputStream input = new ByteArrayInputStream(new byte[0]);
+		when(file.getInputstream()).thenReturn(input);
+
+		adminBean.uploadDIF(fue);
+		final ImportProgress progress = adminBean.getImportProgress();
+		assertNotNull(progress);
+		verify(userImporter).importUsers(eq(input), eq(UserImporter.BATCH_SIZE), eq(progress));
+		verify(file, never()).getContents();
+	}
+
+	@Test
+	public void testUploadDIFWhileImportRunning() throws Exception {
+		when(session.isLoggedIn()).thenReturn(true);
+		doNothing().when((AbstractController) adminBean).addMessage(any());
+		Whitebox.setInternalState(adminBean, "importProgress", new ImportProgress());
+
+		adminBean.uploadDIF(fue);
+		verify(userImporter, never()).importUsers(any(), anyInt(), any());
+	}
+
+	@Test
+	public void testCheckImportExportsCredentialsOnce() throws Exception {
+		doNothing().when((AbstractController) adminBean).addMessage(any());
+		doNothing().when(adminBean).init();
+		final Map<String, String> exported = new HashMap<>();
+		when(session.getImportedUserMap()).thenReturn(exported);
+		final ImportProgress progress = new ImportProgress();
+		progress.addImported("jjonas42", "secret");
+		Whitebox.setInternalState(adminBean, "importProgress", progress);
+
+		adminBean.checkImport();
+		assertTrue(exported.isEmpty());
+
+		progress.finish(true);
+		adminBean.checkImport();
+		adminBean.checkImport();
+		assertEquals("secret", exported.get("jjonas42"));
+		verify(adminBean, times(1)).init();
 	}
 }
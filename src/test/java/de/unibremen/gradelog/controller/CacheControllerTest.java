@@ -0,0 +1,100 @@
+package de.unibremen.gradelog.controller;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.internal.util.reflection.Whitebox;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import de.unibremen.gradelog.model.CacheUsage;
+import de.unibremen.gradelog.model.Session;
+import de.unibremen.gradelog.persistence.CacheMonitor;
+
+/*
+ * @author Marco Glander
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class CacheControllerTest {
+
+	@InjectMocks
+	@Spy
+	private CacheController cacheBean;
+
+	@Mock
+	private CacheMonitor cacheMonitor;
+
+	@Mock
+	private Session session;
+
+	@Before
+	public void setUp() {
+		Whitebox.setInternalState(cacheBean, "cacheMonitor", cacheMonitor);
+		Whitebox.setInternalState(cacheBean, "session", session);
+	}
+
+	@Test
+	public void testUsageIsLoadedOnce() {
+		final List<CacheUsage> usage = Collections.singletonList(new CacheUsage("Page", 10, 1));
+		when(cacheMonitor.getUsage()).thenReturn(usage);
+
+		assertSame(usage, cacheBean.getUsage());
+		assertSame(usage, cacheBean.getUsage());
+		verify(cacheMonitor, times(1)).getUsage();
+
+		cacheBean.refresh();
+		cacheBean.getUsage();
+		verify(cacheMonitor, times(2)).getUsage();
+	}
+
+	@Test
+	public void testReset() {
+		when(session.isLoggedIn()).thenReturn(true);
+		doNothing().when((AbstractController) cacheBean).addMessage("cacheStatisticsReset");
+
+		cacheBean.reset();
+
+		verify(cacheMonitor).reset();
+		verify((AbstractController) cacheBean).addMessage("cacheStatisticsReset");
+	}
+
+	@Test
+	public void testClear() {
+		when(session.isLoggedIn()).thenReturn(true);
+		doNothing().when((AbstractController) cacheBean).addMessage("cacheCleared");
+
+		cacheBean.clear();
+
+		verify(cacheMonitor).clear();
+		verify((AbstractController) cacheBean).addMessage("cacheCleared");
+	}
+
+	@Test
+	public void testClearNotLoggedIn() {
+		when(session.isLoggedIn()).thenReturn(false);
+
+		cacheBean.clear();
+
+		verify(cacheMonitor, never()).clear();
+	}
+
+	@Test
+	public void testHitRatio() {
+		assertEquals(0.9, new CacheUsage("Page", 10, 1).getHitRatio(), 1e-9);
+		assertEquals(0, new CacheUsage("Page", 1, 3).getHitRatio(), 0);
+		assertEquals(0, new CacheUsage("Page", 0, 0).getHitRatio(), 0);
+	}
+}
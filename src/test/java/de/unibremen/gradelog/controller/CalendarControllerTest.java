@@ -13,6 +13,8 @@ import org.mockito.internal.util.reflection.Whitebox;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.primefaces.event.ScheduleEntryMoveEvent;
 
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
@@ -21,9 +23,13 @@ import java.util.Set;
 import javax.faces.event.ActionEvent;
 
 import de.unibremen.gradelog.model.Calendar;
+import de.unibremen.gradelog.model.CalendarEvent;
+import de.unibremen.gradelog.model.CalendarScheduleModel;
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.Task;
+import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.persistence.CalendarDAO;
+import de.unibremen.gradelog.persistence.ReminderService;
 import de.unibremen.gradelog.persistence.SessionDAO;
 import de.unibremen.gradelog.persistence.TaskDAO;
 
@@ -46,6 +52,18 @@ public class CalendarControllerTest {
 	@Mock
 	private SessionDAO sessionDAO;
 
+	@Mock
+	private ReminderService reminderService;
+
+	@Mock
+	private CalendarScheduleModel scheduleModel;
+
+	@Mock
+	private CalendarEvent todoEvent;
+
+	@Mock
+	private User user;
+
 	@Mock
 	private ActionEvent event;
 
@@ -87,6 +105,10 @@ public class CalendarControllerTest {
 		Whitebox.setInternalState(calendarBean, "calendarDAO", calendarDAO);
 		Whitebox.setInternalState(calendarBean, "calendar", calendar);
 		Whitebox.setInternalState(calendarBean, "task", todo);
+		Whitebox.setInternalState(calendarBean, "reminderService", reminderService);
+		Whitebox.setInternalState(calendarBean, "user", user);
+		Whitebox.setInternalState(calendarBean, "scheduleModel", scheduleModel);
+		when(todo.getCalendarEvent()).thenReturn(todoEvent);
 	}
 
 	@After
@@ -151,6 +173,8 @@ public class CalendarControllerTest {
 		verify(todoDAO).create(todo);
 		verify(calendarDAO).update(calendar);
 		verify(todoDAO).update(todo);
+		verify(reminderService).taskSaved(calendar, todo);
+		verify(scheduleModel).updateEvent(todoEvent);
 	}
 
 	@Test
@@ -162,6 +186,8 @@ public class CalendarControllerTest {
 		calendarBean.removeTask(event);
 		verify(calendarDAO).update(calendar);
 		verify(todoDAO).delete(todo);
+		verify(reminderService).taskRemoved(calendar, todo);
+		verify(scheduleModel).deleteEvent(todoEvent);
 	}
 
 	@Test
@@ -174,4 +200,20 @@ public class CalendarControllerTest {
 		verify(todoDAO, never()).delete(todo);
 	}
 
+	@Test
+	public void testReminderReadsSchedule() throws Exception {
+		when(user.isActivatedReminder()).thenReturn(true);
+		when(reminderService.isDue(calendar)).thenReturn(true);
+
+		assertTrue(calendarBean.reminder());
+		verify(calendar, never()).getTasks();
+	}
+
+	@Test
+	public void testReminderDeactivated() throws Exception {
+		when(user.isActivatedReminder()).thenReturn(false);
+
+		assertFalse(calendarBean.reminder());
+		verify(reminderService, never()).isDue(calendar);
+	}
 }
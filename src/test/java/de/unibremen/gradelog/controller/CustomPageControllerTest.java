@@ -17,6 +17,7 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.Shareable;
@@ -26,9 +27,12 @@ import de.unibremen.gradelog.exception.DuplicateUsernameException;
 import de.unibremen.gradelog.model.CustomPage;
 import de.unibremen.gradelog.model.CustomPageHistory;
 import de.unibremen.gradelog.model.Group;
+import de.unibremen.gradelog.persistence.ReceiverIndex;
 import de.unibremen.gradelog.persistence.UserDAO;
 import de.unibremen.gradelog.persistence.CustomPageDAO;
+import de.unibremen.gradelog.persistence.CustomPageHistoryDAO;
 import de.unibremen.gradelog.persistence.GroupDAO;
+import de.unibremen.gradelog.persistence.PageViewCounter;
 
 /*
  * @author Christopher Wojtkow
@@ -43,9 +47,18 @@ public class CustomPageControllerTest {
 	@Mock
 	private CustomPageDAO customPageDao;
 
+	@Mock
+	private CustomPageHistoryDAO historyDao;
+
 	@Mock
 	private GroupDAO groupDao;
 
+	@Mock
+	private ReceiverIndex receiverIndex;
+
+	@Mock
+	private PageViewCounter pageViews;
+
 	@Mock
 	private UserDAO userDao;
 	/*
@@ -69,8 +82,8 @@ public class CustomPageControllerTest {
 	@Mock
 	private CustomPage anotherPage;
 
-	@Mock
-	private CustomPageHistory customPageHistory;
+	private final CustomPageHistory.Info customPageHistory = new CustomPageHistory.Info(7, 3, new java.util.Date(0),
+			"Alter Titel", 11, "Autor");
 
 	/*
 	 * @Mock private User dbUser;
@@ -91,7 +104,10 @@ public class CustomPageControllerTest {
 	@Before
 	public void setUp() {
 		Whitebox.setInternalState(pageBean, "customPageDao", customPageDao);
+		Whitebox.setInternalState(pageBean, "historyDao", historyDao);
 		Whitebox.setInternalState(pageBean, "userDao", userDao);
+		Whitebox.setInternalState(pageBean, "receiverIndex", receiverIndex);
+		Whitebox.setInternalState(pageBean, "pageViews", pageViews);
 		Whitebox.setInternalState(pageBean, "groupDao", groupDao);
 		Whitebox.setInternalState(pageBean, "session", session);
 		Whitebox.setInternalState(pageBean, "user", user);
@@ -264,7 +280,6 @@ public class CustomPageControllerTest {
 		when(customPage.getTitle()).thenReturn("Title");
 		when(customPage.getContent()).thenReturn("Content");
 		when(customPage.getDate()).thenReturn(new java.util.Date());
-		doNothing().when(customPage).saveToHistory(any());
 		doNothing().when(customPage).apply(any(), any());
 		doNothing().when(customPageDao).update(any());
 		doNothing().when((AbstractController) pageBean).addMessage(any());
@@ -273,9 +288,48 @@ public class CustomPageControllerTest {
 
 		verify(customPageDao).getById(99);
 		verify(customPageDao, never()).create(any());// niemals in saveEdit
+		verify(historyDao, never()).record(any(), any());// unverändert
 		verify((AbstractController) pageBean).addMessage(any());
 	}
 
+	// data gesetzt, Inhalt geändert -> alter Stand wird als Version gespeichert
+	@Test
+	public void testSaveEditRecordsPreviousVersion() {
+		Whitebox.setInternalState(pageBean, "data", "99");
+
+		when(session.isLoggedIn()).thenReturn(true);
+		when(customPageDao.getById(99)).thenReturn(customPage);
+		when(customPage.getUser()).thenReturn(user);
+		when(customPage.getTitle()).thenReturn("Title");
+		when(customPage.getContent()).thenReturn("Content");
+		when(anotherPage.getTitle()).thenReturn("Title");
+		when(anotherPage.getContent()).thenReturn("Neuer Content");
+		when(user.getDisplayName()).thenReturn("Autor");
+		doNothing().when((AbstractController) pageBean).addMessage(any());
+
+		pageBean.save(anotherPage);
+
+		verify(historyDao).record(customPage, "Autor");
+		verify(customPage).apply(eq(anotherPage), any());
+		verify(customPageDao).update(customPage);
+	}
+
+	// freigegebene Seite angezeigt -> Besuch wird gezählt, Seite nicht gespeichert
+	@Test
+	public void testShowSharedPageCountsView() {
+		when(session.isLoggedIn()).thenReturn(true);
+		when(customPageDao.getById(99)).thenReturn(customPage);
+		when(customPage.getUser()).thenReturn(anotherUser);
+		when(customPage.getSubs()).thenReturn(Collections.singletonList(user));
+		when(customPage.getGroups()).thenReturn(Collections.emptyList());
+
+		pageBean.onRedirect("99", "show");
+
+		assertEquals(customPage, pageBean.getCustomPage());
+		verify(pageViews).increment(customPage);
+		verify(customPageDao, never()).update(any());
+	}
+
 	// success CustomPage gefunden; keine Shareables zu entfernen
 	@Test
 	public void testRemoveSuccess() throws DuplicateUsernameException, DuplicateEmailException {
@@ -322,22 +376,34 @@ public class CustomPageControllerTest {
 	@Test
 	public void testApplyHistorySuccess() {
 		when(session.isLoggedIn()).thenReturn(true);
-		when(customPage.getTitle()).thenReturn("Neuer Titel");
-		when(customPage.getContent()).thenReturn("Neuer Content");
-		when(customPage.getDate()).thenReturn(new java.util.Date());
-		doNothing().when(customPage).saveToHistory(any());
-		doNothing().when(customPage).applyHistory(any());
+		when(user.getDisplayName()).thenReturn("Autor");
+		when(historyDao.getContent(7)).thenReturn("Alter Content");
 		doNothing().when(customPageDao).update(customPage);
 		doNothing().when((AbstractController) pageBean).addMessage(any());
 
 		pageBean.applyHistory(customPage, customPageHistory);
 
-		verify(customPage).saveToHistory(any());
-		verify(customPage).applyHistory(customPageHistory);
+		verify(historyDao).record(customPage, "Autor");
+		verify(customPage).restore(eq("Alter Titel"), eq("Alter Content"), any());
 		verify(customPageDao).update(customPage);
+		verify(historyDao).remove(7);
 		verify((AbstractController) pageBean).addMessage(any());
 	}
 
+	// Version existiert nicht mehr
+	@Test
+	public void testApplyHistoryRemovedVersionFail() {
+		when(session.isLoggedIn()).thenReturn(true);
+		when(historyDao.getContent(7)).thenReturn(null);
+		doNothing().when((AbstractController) pageBean).addMessageWithLogging(any(), any(), any(), any());
+
+		pageBean.applyHistory(customPage, customPageHistory);
+
+		verify(historyDao, never()).record(any(), any());
+		verify(customPageDao, never()).update(any());
+		verify((AbstractController) pageBean).addMessageWithLogging(any(), any(), any(), any());
+	}
+
 	// nicht eingeloggt
 	@Test
 	public void testApplyHistoryNotLoggedInFail() {
@@ -345,7 +411,7 @@ public class CustomPageControllerTest {
 
 		pageBean.applyHistory(customPage, customPageHistory);
 
-		verify(customPage, never()).saveToHistory(any());
+		verify(historyDao, never()).record(any(), any());
 	}
 
 	// null als CustomPage
@@ -357,7 +423,7 @@ public class CustomPageControllerTest {
 		// wirft IllegalArgument und fängt sie
 		pageBean.applyHistory(null, customPageHistory);
 
-		verify(customPage, never()).saveToHistory(any());
+		verify(historyDao, never()).record(any(), any());
 		verify((AbstractController) pageBean).addMessageWithLogging(any(), any(), any(), any());
 	}
 
@@ -370,7 +436,7 @@ public class CustomPageControllerTest {
 		// wirft IllegalArgument und fängt sie
 		pageBean.applyHistory(customPage, null);
 
-		verify(customPage, never()).saveToHistory(any());
+		verify(historyDao, never()).record(any(), any());
 		verify((AbstractController) pageBean).addMessageWithLogging(any(), any(), any(), any());
 	}
 
@@ -378,14 +444,11 @@ public class CustomPageControllerTest {
 	@Test
 	public void testRemoveHistorySuccess() throws DuplicateUsernameException, DuplicateEmailException {
 		when(session.isLoggedIn()).thenReturn(true);
-		doNothing().when(customPage).removeHistory(customPageHistory);
-		doNothing().when(customPageDao).update(any());
-		doNothing().when(userDao).update(any());
 		doNothing().when((AbstractController) pageBean).addMessage(any());
 
 		pageBean.removeHistory(customPage, customPageHistory);
 
-		verify(customPageDao).update(any());
+		verify(historyDao).remove(7);
 		verify((AbstractController) pageBean).addMessage(any());
 	}
 
@@ -398,7 +461,7 @@ public class CustomPageControllerTest {
 		// wirft IllegalArgument und fängt sie
 		pageBean.removeHistory(null, customPageHistory);
 
-		verify(customPage, never()).saveToHistory(any());
+		verify(historyDao, never()).remove(anyInt());
 		verify((AbstractController) pageBean).addMessageWithLogging(any(), any(), any(), any());
 	}
 
@@ -411,7 +474,7 @@ public class CustomPageControllerTest {
 		// wirft IllegalArgument und fängt sie
 		pageBean.removeHistory(customPage, null);
 
-		verify(customPage, never()).saveToHistory(any());
+		verify(historyDao, never()).remove(anyInt());
 		verify((AbstractController) pageBean).addMessageWithLogging(any(), any(), any(), any());
 	}
 
@@ -422,7 +485,7 @@ public class CustomPageControllerTest {
 
 		pageBean.removeHistory(customPage, customPageHistory);
 
-		verify(customPage, never()).saveToHistory(any());
+		verify(historyDao, never()).remove(anyInt());
 	}
 
 	// valide parameter/Zustand ->addShareable erfolgreich
@@ -470,7 +533,7 @@ public class CustomPageControllerTest {
 		// wirft IllegalArgument und fängt sie
 		pageBean.addShareable(null);
 
-		verify(customPage, never()).saveToHistory(any());
+		verify(customPageDao, never()).update(any());
 		verify((AbstractController) pageBean).addMessageWithLogging(any(), any(), any(), any());
 	}
 
@@ -13,16 +13,21 @@ import org.mockito.internal.util.reflection.Whitebox;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.primefaces.event.DashboardReorderEvent;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
+import java.util.Collections;
 import java.util.List;
 
+import de.unibremen.gradelog.model.CustomPage;
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.persistence.UserDAO;
-import de.unibremen.gradelog.persistence.CustomPageDAO;
+import de.unibremen.gradelog.persistence.DashboardSummary;
+import de.unibremen.gradelog.persistence.PageViewCounter;
 import org.primefaces.model.DefaultDashboardModel;
+import org.primefaces.model.chart.PieChartModel;
 
 /*
  * @author Rune Krauss
@@ -41,7 +46,10 @@ public class DashboardControllerTest {
 	private UserDAO userDAO;
 
 	@Mock
-	private CustomPageDAO customPageDAO;
+	private DashboardSummary dashboardSummary;
+
+	@Mock
+	private PageViewCounter pageViews;
 
 	@Mock
 	private User user;
@@ -72,6 +80,7 @@ public class DashboardControllerTest {
 		Whitebox.setInternalState(dashboardBean, "userDAO", userDAO);
 		Whitebox.setInternalState(dashboardBean, "user", user);
 		Whitebox.setInternalState(dashboardBean, "widgets", widgets);
+		Whitebox.setInternalState(dashboardBean, "pageViews", pageViews);
 	}
 
 	@After
@@ -97,4 +106,25 @@ public class DashboardControllerTest {
 		dashboardBean.handleReorder(event);
 		verify(userDAO, never()).update(user);
 	}
+
+	@Test
+	public void getLastTodosReadsSummary() {
+		when(user.isActivatedAllTodos()).thenReturn(false);
+
+		dashboardBean.getLastTodos();
+		verify(dashboardSummary).getNextTasks(user);
+		verify(user, never()).getCalendar();
+	}
+
+	@Test
+	public void getPieModelCountsPendingViews() {
+		final CustomPage page = mock(CustomPage.class);
+		when(page.getTitle()).thenReturn("Elternabend");
+		when(dashboardSummary.getMostViewedPages(user)).thenReturn(Collections.singletonList(page));
+		when(pageViews.getViews(page)).thenReturn(12);
+
+		final PieChartModel pieModel = dashboardBean.getPieModel();
+		assertEquals(12, pieModel.getData().get("Elternabend"));
+		verify(page, never()).getCounter();
+	}
 }
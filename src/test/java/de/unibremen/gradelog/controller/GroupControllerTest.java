@@ -1,5 +1,6 @@
 package de.unibremen.gradelog.controller;
 
+import de.unibremen.gradelog.persistence.ReceiverIndex;
 import de.unibremen.gradelog.persistence.CustomPageDAO;
 import org.junit.After;
 import org.junit.AfterClass;
@@ -47,6 +48,9 @@ public class GroupControllerTest {
 	@Mock
 	private GroupInviteDAO groupInviteDao;
 
+	@Mock
+	private ReceiverIndex receiverIndex;
+
 	@Mock
 	private CustomPageDAO customPageDAO;
 
@@ -96,6 +100,7 @@ public class GroupControllerTest {
 		Whitebox.setInternalState(groupBean, "groupDao", groupDao);
 		Whitebox.setInternalState(groupBean, "groupInviteDao", groupInviteDao);
 		Whitebox.setInternalState(groupBean, "userDao", userDao);
+		Whitebox.setInternalState(groupBean, "receiverIndex", receiverIndex);
 		Whitebox.setInternalState(groupBean, "session", session);
 		Whitebox.setInternalState(groupBean, "group", group);
 	}
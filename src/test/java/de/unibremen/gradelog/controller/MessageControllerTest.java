@@ -16,16 +16,19 @@ import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.junit.Assert.*;
 import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.*;
 
+import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Date;
 
 import de.unibremen.gradelog.exception.DuplicateEmailException;
 import de.unibremen.gradelog.exception.DuplicateUsernameException;
+import de.unibremen.gradelog.persistence.ReceiverIndex;
 import de.unibremen.gradelog.persistence.UserDAO;
-import de.unibremen.gradelog.persistence.GroupDAO;
 import de.unibremen.gradelog.persistence.MessageDAO;
+import de.unibremen.gradelog.persistence.MessageDispatcher;
 
 /*
  * @author Christopher Wojtkow
@@ -41,7 +44,10 @@ public class MessageControllerTest {
 	private MessageDAO messageDao;
 
 	@Mock
-	private GroupDAO groupDao;
+	private MessageDispatcher messageDispatcher;
+
+	@Mock
+	private ReceiverIndex receiverIndex;
 
 	@Mock
 	private UserDAO userDao;
@@ -84,7 +90,8 @@ public class MessageControllerTest {
 	public void setUp() {
 		Whitebox.setInternalState(messageBean, "messageDao", messageDao);
 		Whitebox.setInternalState(messageBean, "userDao", userDao);
-		Whitebox.setInternalState(messageBean, "groupDao", groupDao);
+		Whitebox.setInternalState(messageBean, "receiverIndex", receiverIndex);
+		Whitebox.setInternalState(messageBean, "messageDispatcher", messageDispatcher);
 		Whitebox.setInternalState(messageBean, "session", session);
 		Whitebox.setInternalState(messageBean, "message", message);
 		Whitebox.setInternalState(messageBean, "user", user);
@@ -95,65 +102,30 @@ public class MessageControllerTest {
 	}
 
 	@Test
-	public void testSaveSuccess() throws DuplicateUsernameException, DuplicateEmailException {
+	public void testSaveSuccess() {
 
 		ArrayList<String> receivers = new ArrayList<>();
 		receivers.add("Pflaumen Gruppe");
 		receivers.add("admin@offline.de");
 		Whitebox.setInternalState(messageBean, "selectedReceivers", receivers);
-		HashSet<Message> allMessages = new HashSet<>();
-		allMessages.add(message);
-		ArrayList<User> users = new ArrayList<>();
-		users.add(user);
-		users.add(anotherUser);
 
 		when(session.isLoggedIn()).thenReturn(true);
 		when(message.getContent()).thenReturn("Test");
 		when(session.getUser()).thenReturn(user);
-		when(user.getProfile()).thenReturn(profile);
-		when(profile.getAboutMe()).thenReturn("Test");
 		when(user.getEmail()).thenReturn("admin@offline.de");
+		when(user.getId()).thenReturn(1);
 		doNothing().when((AbstractController) messageBean).addMessage(any());
-		doNothing().when(message).setAuthor("admin@offline.de");
-		doNothing().when(message).setReceivers(any());
-		doNothing().when(messageDao).create(message);
-		when(user.addMessage(message)).thenReturn(null);
-		when(userDao.getUserByEmail("Pflaumen Gruppe")).thenReturn(null);
-		when(userDao.getUserByEmail("admin@offline.de")).thenReturn(user);
-		when(groupDao.getGroupByName("Pflaumen Gruppe")).thenReturn(group);
-
-		HashSet<User> userSet = new HashSet<User>();
-		userSet.add(anotherUser);
-		HashSet<User> userSet2 = new HashSet<User>();
-		userSet.add(user);
-
-		when(group.getUserSet()).thenReturn(userSet);
-		when(user.getUserSet()).thenReturn(userSet2);
-		// when(user.addMessage(message)).thenReturn(null);// schon oben
-		when(anotherUser.addMessage(message)).thenReturn(null);
-		doNothing().when(userDao).update(any());
-		// init call mocks
-		when(user.getMessages()).thenReturn(allMessages);
-		doNothing().when(messageDao).update(message);
-		when(userDao.getAllUsers()).thenReturn(users);
-		// init call end
-		// when(user.getMessages()).thenReturn("admin@offline.de");
 
 		messageBean.save();
 
-		// jede menge verify hier
-
-		verify(userDao).getUserByEmail("Pflaumen Gruppe");
-		verify(userDao).getUserByEmail("admin@offline.de");
-		verify(groupDao).getGroupByName("Pflaumen Gruppe");
-		verify(userDao, times(2)).update(user);
+		verify(message).setAuthor("admin@offline.de");
+		verify(messageDao).create(message);
+		verify(messageDao).addAuthorReceipt(message, user);
+		verify(messageDispatcher).deliver(eq(message), eq(1), eq(receivers), any(DeliveryProgress.class));
+		verify(userDao, never()).update(any());
+		assertNotNull(messageBean.getDeliveryProgress());
 		// nach init
-		verify(user).getMessages();
-		verify(userDao).getAllUsers();
-		ArrayList<User> testList = new ArrayList<>();
-		testList.add(user);
-		testList.add(anotherUser);
-		assertEquals("allUsers sollte eigentlich die liste aller User halten", testList, messageBean.getAllUsers());
+		verify(userDao, never()).getAllUsers();
 		assertEquals("SelectedReceivers haette leer sein sollen nach dem init cal zum schluss von save",
 				new ArrayList<String>(), messageBean.getSelectedReceivers());
 	}
@@ -201,6 +173,28 @@ public class MessageControllerTest {
 		verify(messageDao, never()).update(message);
 	}
 
+	@Test
+	public void testCheckUnreadQueriesOnce() {
+		when(messageDao.getUnreadCount(user)).thenReturn(3);
+
+		assertEquals(3, messageBean.checkUnread());
+		assertEquals(3, messageBean.checkUnread());
+
+		verify(messageDao, times(1)).getUnreadCount(user);
+	}
+
+	@Test
+	public void testConfirmReadInvalidatesUnreadCount() {
+		when(messageDao.getUnreadCount(user)).thenReturn(1, 0);
+
+		assertEquals(1, messageBean.checkUnread());
+		messageBean.confirmRead(message);
+		assertEquals(0, messageBean.checkUnread());
+
+		verify(messageDao).confirmRead(message, user);
+		verify(messageDao, times(2)).getUnreadCount(user);
+	}
+
 	@Test
 	public void testRemoveSuccess() {
 		when(session.isLoggedIn()).thenReturn(true);
@@ -230,4 +224,18 @@ public class MessageControllerTest {
 		verify(messageDao, never()).delete(message);
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void testFilterInboxIncludesLastDay() {
+		final Date from = new Date(1_000_000_000L);
+		final Date to = new Date(2_000_000_000L);
+		messageBean.setInboxFrom(from);
+		messageBean.setInboxTo(to);
+		messageBean.filterInbox();
+		messageBean.getInbox().load(0, 10, null, null, null);
+		final Timestamp end = new Timestamp(to.getTime() + 24 * 60 * 60 * 1000L);
+		verify(messageDao).getInboxBetween(user, new Timestamp(from.getTime()), end, Integer.MAX_VALUE, 0, 10);
+		verify(messageDao).countInboxBetween(user, new Timestamp(from.getTime()), end);
+		verify(messageDao, never()).getMailbox(any(), any(), anyInt(), anyInt(), anyInt());
+	}
+
+}
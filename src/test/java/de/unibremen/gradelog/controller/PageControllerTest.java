@@ -2,7 +2,7 @@ package de.unibremen.gradelog.controller;
 
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.persistence.PageDAO;
-import de.unibremen.gradelog.persistence.UserDAO;
+import de.unibremen.gradelog.persistence.UserStatistics;
 import org.junit.After;
 import org.junit.AfterClass;
 import org.junit.Before;
@@ -16,11 +16,7 @@ import org.mockito.internal.util.reflection.Whitebox;
 import org.mockito.runners.MockitoJUnitRunner;
 
 import static org.junit.Assert.*;
-
-import java.util.ArrayList;
-import java.util.List;
-
-import de.unibremen.gradelog.model.User;
+import static org.mockito.Mockito.*;
 
 /*
  * @author Rune Krauss
@@ -39,9 +35,7 @@ public class PageControllerTest {
 	private PageDAO pageDAO;
 
 	@Mock
-	private UserDAO userDAO;
-
-	private List<User> allUsers;
+	private UserStatistics userStatistics;
 
 	public PageControllerTest() {
 	}
@@ -56,24 +50,7 @@ public class PageControllerTest {
 
 	@Before
 	public void setUp() {
-		User user1 = new User();
-		user1.setLogin("alice");
-		user1.setPassword("apfel");
-		user1.setEmail("alice@test.de");
-		user1.setOnline(true);
-		User user2 = new User();
-		user2.setLogin("bob");
-		user2.setPassword("birne");
-		user2.setEmail("bob@test.de");
-		User user3 = new User();
-		user2.setLogin("mallory");
-		user2.setPassword("kiwi");
-		user2.setEmail("mallory@test.de");
-		allUsers = new ArrayList<>();
-		allUsers.add(user1);
-		allUsers.add(user2);
-		allUsers.add(user3);
-		Whitebox.setInternalState(pageBean, "allUsers", allUsers);
+		Whitebox.setInternalState(pageBean, "userStatistics", userStatistics);
 	}
 
 	@After
@@ -83,7 +60,14 @@ public class PageControllerTest {
 
 	@Test
 	public void testOnlineUsersAmount() throws Exception {
+		when(userStatistics.getOnlineUserCount()).thenReturn(1);
 		assertEquals(1, pageBean.getAllOnlineUsers());
 	}
 
+	@Test
+	public void testUsersAmount() throws Exception {
+		when(userStatistics.getUserCount()).thenReturn(3L);
+		assertEquals(3, pageBean.getAllUsers());
+	}
+
 }
@@ -15,9 +15,14 @@ import org.mockito.runners.MockitoJUnitRunner;
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
+import java.util.Collections;
+import java.util.Date;
+
+import de.unibremen.gradelog.model.QuestionStatistics;
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.model.Question;
+import de.unibremen.gradelog.persistence.EvaluationStatisticDAO;
 import de.unibremen.gradelog.persistence.QuestionDAO;
 
 /*
@@ -33,6 +38,9 @@ public class QuestionControllerTest {
 	@Mock
 	private QuestionDAO questionDao;
 
+	@Mock
+	private EvaluationStatisticDAO statisticDao;
+
 	@Mock
 	private Session session;
 
@@ -56,6 +64,7 @@ public class QuestionControllerTest {
 	@Before
 	public void setUp() {
 		Whitebox.setInternalState(questionBean, "questionDao", questionDao);
+		Whitebox.setInternalState(questionBean, "statisticDao", statisticDao);
 		Whitebox.setInternalState(questionBean, "question", question);
 		Whitebox.setInternalState(questionBean, "session", session);
 	}
@@ -184,4 +193,43 @@ public class QuestionControllerTest {
 		verify(questionDao, never()).update(question);
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void testStatisticsAreLoadedOncePerPeriod() {
+		final QuestionStatistics stored = new QuestionStatistics();
+		stored.add(2, 3);
+		final Date from = new Date(0);
+		when(question.getId()).thenReturn(4);
+		when(statisticDao.getStatistics(null, null)).thenReturn(Collections.singletonMap(4, stored));
+
+		assertSame(stored, questionBean.getStatistics(question));
+		assertSame(stored, questionBean.getStatistics(question));
+		verify(statisticDao).getStatistics(null, null);
+
+		questionBean.setStatisticsFrom(from);
+		questionBean.filterStatistics();
+
+		assertEquals(0, questionBean.getStatistics(question).getCount());
+		verify(statisticDao).getStatistics(from, null);
+	}
+
+	@Test
+	public void testRebuildStatistics() {
+		when(session.isLoggedIn()).thenReturn(true);
+		doNothing().when((AbstractController) questionBean).addMessage("statisticsRebuilt");
+
+		questionBean.rebuildStatistics();
+
+		verify(statisticDao).rebuild();
+		verify((AbstractController) questionBean).addMessage("statisticsRebuilt");
+	}
+
+	// nicht eingeloggt
+	@Test
+	public void testRebuildStatisticsNotLoggedInFail() {
+		when(session.isLoggedIn()).thenReturn(false);
+
+		questionBean.rebuildStatistics();
+
+		verify(statisticDao, never()).rebuild();
+	}
+}
@@ -12,14 +12,15 @@ import org.mockito.Spy;
 import org.mockito.internal.util.reflection.Whitebox;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.*;
 
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.Template;
 import de.unibremen.gradelog.persistence.SessionDAO;
+import de.unibremen.gradelog.persistence.SiteConfiguration;
 import de.unibremen.gradelog.persistence.TemplateDAO;
-import de.unibremen.gradelog.persistence.UserDAO;
 
 /*
  * @author Rune Krauss
@@ -35,7 +36,7 @@ public class TemplateControllerTest {
 	private TemplateDAO templateDAO;
 
 	@Mock
-	private UserDAO userDAO;
+	private SiteConfiguration siteConfiguration;
 
 	@Mock
 	private SessionDAO sessionDAO;
@@ -63,7 +64,7 @@ public class TemplateControllerTest {
 	@Before
 	public void setUp() {
 		Whitebox.setInternalState(templateBean, "templateDAO", templateDAO);
-		Whitebox.setInternalState(templateBean, "userDAO", userDAO);
+		Whitebox.setInternalState(templateBean, "siteConfiguration", siteConfiguration);
 		Whitebox.setInternalState(templateBean, "backendTemplate", backend);
 		Whitebox.setInternalState(templateBean, "frontendTemplate", frontend);
 	}
@@ -114,4 +115,13 @@ public class TemplateControllerTest {
 		templateBean.saveFrontend();
 		verify(templateDAO, never()).update(frontend);
 	}
+
+	@Test
+	public void testAdminEmailFromSiteConfiguration() {
+		when(siteConfiguration.getAdminEmail()).thenReturn("admin@gradelog.de");
+
+		assertEquals("admin@gradelog.de", templateBean.getAdminEmail());
+		assertEquals("admin@gradelog.de", templateBean.getAdminEmail());
+		verify(siteConfiguration, times(2)).getAdminEmail();
+	}
 }
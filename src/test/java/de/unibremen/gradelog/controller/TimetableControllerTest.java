@@ -17,16 +17,24 @@ import static org.mockito.Mockito.*;
 
 import javax.faces.event.ActionEvent;
 
+import java.io.InputStream;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 
+import org.primefaces.event.FileUploadEvent;
+import org.primefaces.model.UploadedFile;
+
 import de.unibremen.gradelog.model.Session;
 import de.unibremen.gradelog.model.Timetable;
 import de.unibremen.gradelog.model.TimetableEntry;
+import de.unibremen.gradelog.model.TimetableEvent;
+import de.unibremen.gradelog.model.TimetableScheduleModel;
 import de.unibremen.gradelog.model.User;
 import de.unibremen.gradelog.model.Group;
 import de.unibremen.gradelog.persistence.TimetableDAO;
 import de.unibremen.gradelog.persistence.TimetableEntryDAO;
+import de.unibremen.gradelog.persistence.TimetableImporter;
 
 /*
  * @author Christopher Wojtkow
@@ -43,6 +51,9 @@ public class TimetableControllerTest {
 	@Mock
 	private TimetableEntryDAO timetableEntryDao;
 
+	@Mock
+	private TimetableImporter timetableImporter;
+
 	/*
 	 * @Mock private SessionDAO sessionDao;
 	 */
@@ -63,9 +74,24 @@ public class TimetableControllerTest {
 	@Mock
 	private Timetable timetable;
 
+	@Mock
+	private TimetableScheduleModel scheduleModel;
+
+	@Mock
+	private TimetableEvent timetableEvent;
+
 	@Mock
 	private ActionEvent actionEvent;
 
+	@Mock
+	private FileUploadEvent fue;
+
+	@Mock
+	private UploadedFile file;
+
+	@Mock
+	private InputStream input;
+
 	@Mock
 	private HashSet<TimetableEntry> what_am_i_testing_jpeg;
 
@@ -93,9 +119,12 @@ public class TimetableControllerTest {
 	public void setUp() {
 		Whitebox.setInternalState(timetableBean, "timetableDao", timetableDao);
 		Whitebox.setInternalState(timetableBean, "timetableEntryDao", timetableEntryDao);
+		Whitebox.setInternalState(timetableBean, "timetableImporter", timetableImporter);
 		Whitebox.setInternalState(timetableBean, "session", session);
 		Whitebox.setInternalState(timetableBean, "timetable", timetable);
 		Whitebox.setInternalState(timetableBean, "startDate", startDate);
+		Whitebox.setInternalState(timetableBean, "scheduleModel", scheduleModel);
+		when(timetableEntry.getTimetableEvent()).thenReturn(timetableEvent);
 	}
 
 	@After
@@ -134,6 +163,7 @@ public class TimetableControllerTest {
 
 		verify(timetableEntryDao).create(timetableEntry);
 		verify(timetable).addEntry(timetableEntry);
+		verify(scheduleModel).updateEvent(timetableEvent);
 		verify((AbstractController) timetableBean, never()).addMessage("errorInvalidTimetableTime");
 		verify((AbstractController) timetableBean).addMessage("successEntryAdded");
 	}
@@ -182,6 +212,7 @@ public class TimetableControllerTest {
 
 		timetableBean.removeTimetableEntry(actionEvent);
 
+		verify(scheduleModel).deleteEvent(timetableEvent);
 		verify((AbstractController) timetableBean).addMessage("successEntryDeleted");
 	}
 
@@ -195,4 +226,29 @@ public class TimetableControllerTest {
 		verify(timetableDao, never()).update(any());
 		verify(timetableEntryDao, never()).delete(any());
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testUploadDIFImportsAndReloads() throws Exception {
+		when(session.isLoggedIn()).thenReturn(true);
+		when(fue.getFile()).thenReturn(file);
+		when(file.getInputstream()).thenReturn(input);
+		when(timetableImporter.importDIF(timetable, input)).thenReturn(Collections.<TimetableEntry> emptyList());
+		doNothing().when((AbstractController) timetableBean).addMessage("successImportTimetable");
+		doNothing().when(timetableBean).init();
+
+		timetableBean.uploadDIF(fue);
+
+		verify(timetableImporter).importDIF(timetable, input);
+		verify(scheduleModel).invalidate();
+		verify((AbstractController) timetableBean).addMessage("successImportTimetable");
+	}
+
+	@Test
+	public void testUploadDIFNotLoggedInFail() throws Exception {
+		when(session.isLoggedIn()).thenReturn(false);
+
+		timetableBean.uploadDIF(fue);
+
+		verify(timetableImporter, never()).importDIF(any(), any());
+	}
+}
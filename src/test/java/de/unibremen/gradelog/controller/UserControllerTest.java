@@ -115,7 +115,7 @@ public class UserControllerTest {
 		when(file.getContents()).thenReturn(content);
 
 		userBean.upload(fue);
-		verify(userDAO).update(user);
+		verify(userDAO).updatePicture(user, content);
 	}
 
 	@Test
@@ -124,7 +124,7 @@ public class UserControllerTest {
 		doNothing().when((AbstractController) userBean).addMessage(any());
 
 		userBean.upload(fue);
-		verify(userDAO, never()).update(user);
+		verify(userDAO, never()).updatePicture(any(), any());
 	}
 
 	@Test(expected = IllegalArgumentException.class)
@@ -0,0 +1,113 @@
+package de.unibremen.gradelog.integration;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+
+/*
+ * Hilfsmethoden für die Benchmarks dieses Pakets. Sie laufen mit failsafe
+ * (*IT) gegen eine In-Memory-Derby-Datenbank.
+ *
+ * @author Marco Glander
+ */
+public class BenchmarkUtil {
+
+	public static final String PERSISTENCE_XML = "META-INF/benchmark-persistence.xml";
+
+	public static final String PERSISTENCE_UNIT = "benchmark";
+
+	private BenchmarkUtil() {
+	}
+
+	public static EntityManagerFactory createEntityManagerFactory() {
+		final Map<String, String> properties = new HashMap<>();
+		properties.put("eclipselink.persistencexml", PERSISTENCE_XML);
+		return Persistence.createEntityManagerFactory(PERSISTENCE_UNIT, properties);
+	}
+
+	/*
+	 * Führt die Aufgabe in jeweils eigenen EntityManagern aus, damit kein
+	 * Durchlauf vom Persistenzkontext des vorherigen profitiert, und gibt die
+	 * mittlere Laufzeit eines gemessenen Durchlaufs in Millisekunden zurück.
+	 */
+	public static double measure(final EntityManagerFactory emf, final int warmups, final int iterations,
+			final Task task) throws Exception {
+		return measure(warmups, iterations, () -> run(emf, task));
+	}
+
+	/*
+	 * Gibt die mittlere Laufzeit eines gemessenen Durchlaufs der Aufgabe in
+	 * Millisekunden zurück.
+	 */
+	public static double measure(final int warmups, final int iterations, final Action action) throws Exception {
+		for (int i = 0; i < warmups; i++) {
+			action.run();
+		}
+		final long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			action.run();
+		}
+		return (System.nanoTime() - start) / 1e6 / iterations;
+	}
+
+	/*
+	 * Wie measure, gibt aber die mittlere Anzahl der während eines gemessenen
+	 * Durchlaufs im aktuellen Thread allokierten Bytes zurück.
+	 */
+	public static long measureAllocation(final EntityManagerFactory emf, final int warmups, final int iterations,
+			final Task task) throws Exception {
+		return measureAllocation(warmups, iterations, () -> run(emf, task));
+	}
+
+	public static long measureAllocation(final int warmups, final int iterations, final Action action)
+			throws Exception {
+		final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		final long thread = Thread.currentThread().getId();
+		for (int i = 0; i < warmups; i++) {
+			action.run();
+		}
+		final long start = threads.getThreadAllocatedBytes(thread);
+		for (int i = 0; i < iterations; i++) {
+			action.run();
+		}
+		return (threads.getThreadAllocatedBytes(thread) - start) / iterations;
+	}
+
+	public static void report(final String benchmark, final double millis) {
+		System.out.println(String.format("%-40s %10.3f ms/op", benchmark, millis));
+	}
+
+	public static void reportAllocation(final String benchmark, final long bytes) {
+		System.out.println(String.format("%-40s %10.3f MB/op", benchmark, bytes / (1024.0 * 1024.0)));
+	}
+
+	public static void reportRate(final String benchmark, final double perSecond) {
+		System.out.println(String.format("%-40s %10.1f ops/s", benchmark, perSecond));
+	}
+
+	public static void reportSize(final String benchmark, final long chars) {
+		System.out.println(String.format("%-40s %10d chars", benchmark, chars));
+	}
+
+	private static void run(final EntityManagerFactory emf, final Task task) throws Exception {
+		final EntityManager em = emf.createEntityManager();
+		try {
+			task.run(em);
+		} finally {
+			em.close();
+		}
+	}
+
+	public interface Task {
+		void run(EntityManager em) throws Exception;
+	}
+
+	public interface Action {
+		void run() throws Exception;
+	}
+}
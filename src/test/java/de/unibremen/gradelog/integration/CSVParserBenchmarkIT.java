@@ -0,0 +1,141 @@
+package de.unibremen.gradelog.integration;
+
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measure;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measureAllocation;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.report;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.reportAllocation;
+import static org.junit.Assert.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import de.unibremen.gradelog.util.CSVParser;
+import de.unibremen.gradelog.util.DIFColumns;
+
+/*
+ * Vergleicht den CSVParser mit der vorherigen Implementierung, die jede Zeile
+ * per String#replace und String#split zerlegt und je Datum ein neues
+ * SimpleDateFormat erzeugt hat, beim Lesen einer Schülerliste mit 100000
+ * Zeilen.
+ *
+ * @author Marco Glander
+ */
+public class CSVParserBenchmarkIT {
+
+	private static final int LINES = 100000;
+
+	private static final int WARMUPS = 3;
+
+	private static final int ITERATIONS = 10;
+
+	private static byte[] file;
+
+	@BeforeClass
+	public static void generate() {
+		final StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < LINES; i++) {
+			builder.append("\"Nachname").append(i).append("\",x,x,x,x,x,x,\"Vorname").append(i)
+					.append("\",x,\"").append(5 + i % 8).append("a\",").append(1 + i % 2).append(",x,")
+					.append(19900101 + i % 28).append(",\"schueler").append(i).append("@schule.de\",x\r\n");
+		}
+		file = builder.toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void benchmarkParser() throws Exception {
+		assertEquals(LINES, parse());
+		assertEquals(LINES, parseLegacy());
+
+		report("CSVParser (legacy)", measure(WARMUPS, ITERATIONS, CSVParserBenchmarkIT::parseLegacy));
+		report("CSVParser", measure(WARMUPS, ITERATIONS, CSVParserBenchmarkIT::parse));
+		reportAllocation("CSVParser (legacy)",
+				measureAllocation(WARMUPS, ITERATIONS, CSVParserBenchmarkIT::parseLegacy));
+		reportAllocation("CSVParser", measureAllocation(WARMUPS, ITERATIONS, CSVParserBenchmarkIT::parse));
+	}
+
+	/*
+	 * Liest alle Spalten, die der Benutzerimport verwendet.
+	 */
+	private static int parse() throws IOException {
+		int rows = 0;
+		try (CSVParser parser = new CSVParser(new ByteArrayInputStream(file), StandardCharsets.UTF_8,
+				DIFColumns.USER_CELLS)) {
+			while (parser.nextLine()) {
+				parser.getString(DIFColumns.User.LAST_NAME);
+				parser.getString(DIFColumns.User.FIRST_NAME);
+				parser.getString(DIFColumns.User.COURSE);
+				parser.getInt(DIFColumns.User.SEX);
+				parser.getDate(DIFColumns.User.BIRTHDAY);
+				parser.getString(DIFColumns.User.EMAIL);
+				rows++;
+			}
+		}
+		return rows;
+	}
+
+	private static int parseLegacy() throws IOException, ParseException {
+		int rows = 0;
+		final LegacyParser parser = new LegacyParser(new ByteArrayInputStream(file), DIFColumns.USER_CELLS);
+		while (parser.nextLine()) {
+			parser.getString(0);
+			parser.getString(7);
+			parser.getString(9);
+			parser.getInt(10);
+			parser.getDate(12);
+			parser.getString(13);
+			rows++;
+		}
+		return rows;
+	}
+
+	/*
+	 * Die vorherige Implementierung des CSVParser als Referenz
+	 */
+	private static final class LegacyParser {
+
+		private final BufferedReader reader;
+
+		private final int cellLength;
+
+		private String[] cells;
+
+		private LegacyParser(final InputStream input, final int cellLength) {
+			this.cellLength = cellLength;
+			reader = new BufferedReader(new InputStreamReader(input));
+		}
+
+		private boolean nextLine() throws IOException {
+			String currentLine = reader.readLine();
+			if (currentLine == null)
+				return false;
+			currentLine = currentLine.replace("\"", "");
+			currentLine = currentLine.replace(" ", "");
+			cells = currentLine.split(",");
+			if (cells.length < cellLength)
+				throw new IllegalArgumentException();
+			return true;
+		}
+
+		private int getInt(final int cellPosition) {
+			return Integer.parseInt(cells[cellPosition]);
+		}
+
+		private String getString(final int cellPosition) {
+			return cells[cellPosition];
+		}
+
+		private Date getDate(final int cellPosition) throws ParseException {
+			return new SimpleDateFormat("yyyyMMdd").parse(cells[cellPosition]);
+		}
+	}
+}
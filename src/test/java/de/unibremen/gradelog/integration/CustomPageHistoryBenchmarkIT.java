@@ -0,0 +1,163 @@
+package de.unibremen.gradelog.integration;
+
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measure;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.report;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.reportSize;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.CustomPage;
+import de.unibremen.gradelog.model.CustomPageHistory;
+import de.unibremen.gradelog.persistence.CustomPageHistoryDAO;
+
+/*
+ * Spielt ein synthetisches Bearbeitungsprotokoll einer Seite mit 30 bis 45
+ * Absätzen ab (je Bearbeitung werden ein bis drei Absätze geändert,
+ * eingefügt oder gelöscht) und vergleicht den Speicherbedarf der Versionen
+ * mit dem vollständiger Kopien, wie sie bisher je Bearbeitung gespeichert
+ * wurden.
+ * Außerdem werden die erste Seite der Versionsliste gegen das Laden aller
+ * Versionen und die Rekonstruktion einzelner Versionen gemessen.
+ *
+ * @author Marco Glander
+ */
+public class CustomPageHistoryBenchmarkIT {
+
+	private static final int EDITS = 500;
+
+	private static final int PARAGRAPHS = 30;
+
+	private static final int ROWS = 7;
+
+	private static final int WARMUPS = 3;
+
+	private static final int ITERATIONS = 20;
+
+	private static EntityManagerFactory emf;
+
+	private static int pageId;
+
+	private static final List<String> versions = new ArrayList<>();
+
+	@BeforeClass
+	public static void seed() {
+		emf = BenchmarkUtil.createEntityManagerFactory();
+		final EntityManager em = emf.createEntityManager();
+		final Random random = new Random(42);
+		final List<String> paragraphs = new ArrayList<>();
+		for (int i = 0; i < PARAGRAPHS; i++) {
+			paragraphs.add(paragraph(random));
+		}
+		em.getTransaction().begin();
+		final CustomPage page = new CustomPage();
+		page.setTitle("Klassenseite");
+		page.setContent(String.join("", paragraphs));
+		em.persist(page);
+		final CustomPageHistoryDAO historyDao = historyDao(em);
+		for (int edit = 0; edit < EDITS; edit++) {
+			versions.add(page.getContent());
+			historyDao.record(page, "Lehrkraft");
+			for (int changes = 1 + random.nextInt(3); changes > 0; changes--) {
+				final int position = random.nextInt(paragraphs.size());
+				final int kind = random.nextInt(4);
+				if (kind == 0 && paragraphs.size() > PARAGRAPHS)
+					paragraphs.remove(position);
+				else if (kind == 1 && paragraphs.size() < PARAGRAPHS * 3 / 2)
+					paragraphs.add(position, paragraph(random));
+				else
+					paragraphs.set(position, paragraph(random));
+			}
+			page.setContent(String.join("", paragraphs));
+			if (edit % 100 == 99) {
+				em.getTransaction().commit();
+				em.getTransaction().begin();
+			}
+		}
+		em.getTransaction().commit();
+		pageId = page.getId();
+		em.close();
+	}
+
+	@AfterClass
+	public static void close() {
+		emf.close();
+	}
+
+	@Test
+	public void benchmarkStorage() {
+		final EntityManager em = emf.createEntityManager();
+		final Object[] snapshots = em
+				.createQuery("SELECT COUNT(h), SUM(LENGTH(h.data)) FROM CustomPageHistory h "
+						+ "WHERE h.customPage.id = ?1 AND h.snapshot = TRUE", Object[].class)
+				.setParameter(1, pageId).getSingleResult();
+		final long stored = em
+				.createQuery("SELECT SUM(LENGTH(h.data)) FROM CustomPageHistory h WHERE h.customPage.id = ?1",
+						Number.class)
+				.setParameter(1, pageId).getSingleResult().longValue();
+		final long full = em
+				.createQuery("SELECT SUM(h.size) FROM CustomPageHistory h WHERE h.customPage.id = ?1", Number.class)
+				.setParameter(1, pageId).getSingleResult().longValue();
+		em.close();
+
+		reportSize("CustomPageHistory (full copies)", full);
+		reportSize("CustomPageHistory (deltas)", stored);
+		reportSize("  thereof " + snapshots[0] + " snapshots", ((Number) snapshots[1]).longValue());
+		assertTrue(stored * 3 < full);
+	}
+
+	@Test
+	public void benchmarkHistoryList() throws Exception {
+		final int[] loaded = new int[2];
+		report("History list (all rows)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			loaded[0] = em.createQuery("SELECT h FROM CustomPageHistory h WHERE h.customPage.id = ?1",
+					CustomPageHistory.class).setParameter(1, pageId).getResultList().size();
+		}));
+		report("History list (first page, metadata)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			loaded[1] = historyDao(em).getInfos(em.find(CustomPage.class, pageId), 0, ROWS).size();
+		}));
+		assertEquals(EDITS, loaded[0]);
+		assertEquals(ROWS, loaded[1]);
+	}
+
+	@Test
+	public void benchmarkReconstruction() throws Exception {
+		final EntityManager em = emf.createEntityManager();
+		final CustomPageHistoryDAO historyDao = historyDao(em);
+		final CustomPage page = em.find(CustomPage.class, pageId);
+		final List<CustomPageHistory.Info> infos = historyDao.getInfos(page, 0, EDITS);
+		for (final CustomPageHistory.Info info : infos) {
+			assertEquals(versions.get(info.getRevision() - 1), historyDao.getContent(info.getId()));
+		}
+		em.close();
+
+		final Random random = new Random(7);
+		report("CustomPageHistoryDAO.getContent", measure(emf, WARMUPS, ITERATIONS,
+				e -> historyDao(e).getContent(infos.get(random.nextInt(infos.size())).getId())));
+	}
+
+	private static String paragraph(final Random random) {
+		final StringBuilder builder = new StringBuilder("<p>");
+		for (int words = 8 + random.nextInt(12); words > 0; words--) {
+			builder.append("Wort").append(random.nextInt(500)).append(' ');
+		}
+		return builder.append("</p>\n").toString();
+	}
+
+	private static CustomPageHistoryDAO historyDao(final EntityManager em) {
+		final CustomPageHistoryDAO historyDao = new CustomPageHistoryDAO();
+		Whitebox.setInternalState(historyDao, "em", em);
+		return historyDao;
+	}
+}
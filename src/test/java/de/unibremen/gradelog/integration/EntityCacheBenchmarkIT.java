@@ -0,0 +1,212 @@
+package de.unibremen.gradelog.integration;
+
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measure;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.report;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.eclipse.persistence.jpa.JpaEntityManagerFactory;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.CacheUsage;
+import de.unibremen.gradelog.model.Page;
+import de.unibremen.gradelog.model.Preference;
+import de.unibremen.gradelog.model.Question;
+import de.unibremen.gradelog.model.Representation;
+import de.unibremen.gradelog.model.Template;
+import de.unibremen.gradelog.persistence.CacheProfiler;
+import de.unibremen.gradelog.persistence.PageDAO;
+import de.unibremen.gradelog.persistence.PreferenceDAO;
+import de.unibremen.gradelog.persistence.QuestionDAO;
+import de.unibremen.gradelog.persistence.RepresentationDAO;
+import de.unibremen.gradelog.persistence.TemplateDAO;
+
+/*
+ * Simuliert Seitenaufrufe, die wie die Seiten der Anwendung Einstellungen,
+ * Template, Menüseiten, Fragen und den Vertretungsplan der Woche lesen, und
+ * zählt die SQL-Anweisungen je Aufruf mit dem CacheProfiler. Verglichen wird
+ * mit denselben Abfragen ohne zwischengespeicherte Abfrageergebnisse, wie sie
+ * bisher bei jedem Aufruf an die Datenbank gingen.
+ *
+ * @author Marco Glander
+ */
+public class EntityCacheBenchmarkIT {
+
+	private static final int PAGES = 20;
+
+	private static final int QUESTIONS = 15;
+
+	private static final int REPRESENTATIONS = 500;
+
+	private static final int THREADS = 8;
+
+	private static final int VIEWS_PER_THREAD = 50;
+
+	private static final int WARMUPS = 1;
+
+	private static final int ITERATIONS = 3;
+
+	private static final long DAY = 24 * 60 * 60 * 1000L;
+
+	private static final Date MONDAY = new Date(1514764800000L);
+
+	private static final Date SATURDAY = new Date(MONDAY.getTime() + 5 * DAY);
+
+	private static EntityManagerFactory emf;
+
+	private static CacheProfiler profiler;
+
+	@BeforeClass
+	public static void seed() {
+		emf = BenchmarkUtil.createEntityManagerFactory();
+		final EntityManager em = emf.createEntityManager();
+		em.getTransaction().begin();
+		final Preference preference = new Preference();
+		preference.setFileSuffix("pdf;png");
+		preference.setFileSize(10);
+		preference.setFileNumber(5);
+		em.persist(preference);
+		final Template template = new Template();
+		template.setName("default");
+		em.persist(template);
+		for (int i = 0; i < PAGES; i++) {
+			final Page page = new Page();
+			page.setGermanName("seite" + i);
+			page.setEnglishName("page" + i);
+			page.setActivated(true);
+			em.persist(page);
+		}
+		for (int i = 0; i < QUESTIONS; i++) {
+			final Question question = new Question();
+			question.setQuestion("question" + i);
+			question.setInUse(i % 3 != 0);
+			em.persist(question);
+		}
+		for (int i = 0; i < REPRESENTATIONS; i++) {
+			final Representation representation = new Representation();
+			representation.setDate(new Date(MONDAY.getTime() + (i % 20) * DAY));
+			representation.setHour(1 + i % 8);
+			representation.setClasses("class" + i % 25);
+			representation.setTeacher("T" + i % 40);
+			em.persist(representation);
+		}
+		em.getTransaction().commit();
+		em.close();
+		profiler = (CacheProfiler) emf.unwrap(JpaEntityManagerFactory.class).getServerSession().getProfiler();
+	}
+
+	@AfterClass
+	public static void close() {
+		emf.close();
+	}
+
+	@Test
+	public void benchmarkPageViews() throws Exception {
+		final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			final int[] uncachedResults = new int[1];
+			final int[] cachedResults = new int[1];
+			profiler.reset();
+			report("page view (no query cache)", measure(WARMUPS, ITERATIONS,
+					() -> uncachedResults[0] = load(executor, false)) / (THREADS * VIEWS_PER_THREAD));
+			final double uncached = statementsPerView();
+
+			emf.getCache().evictAll();
+			profiler.reset();
+			report("page view (query cache)", measure(WARMUPS, ITERATIONS,
+					() -> cachedResults[0] = load(executor, true)) / (THREADS * VIEWS_PER_THREAD));
+			final double cached = statementsPerView();
+
+			System.out.println(String.format("%-40s %10.3f statements/view", "page view (no query cache)", uncached));
+			System.out.println(String.format("%-40s %10.3f statements/view", "page view (query cache)", cached));
+			for (final CacheUsage usage : profiler.getUsage()) {
+				System.out.println(String.format("%-40s %10.1f %% hits", usage.getEntity(),
+						usage.getHitRatio() * 100));
+			}
+			assertEquals(uncachedResults[0], cachedResults[0]);
+			assertTrue(cached < uncached);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * Führt die Seitenaufrufe aller Threads aus und gibt die Anzahl der
+	 * gelesenen Objekte eines Aufrufs zurück.
+	 */
+	private static int load(final ExecutorService executor, final boolean queryCache) throws Exception {
+		final List<Future<Integer>> results = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			results.add(executor.submit(() -> {
+				int objects = 0;
+				for (int v = 0; v < VIEWS_PER_THREAD; v++) {
+					final EntityManager em = emf.createEntityManager();
+					try {
+						objects = queryCache ? view(em) : legacyView(em);
+					} finally {
+						em.close();
+					}
+				}
+				return objects;
+			}));
+		}
+		int read = 0;
+		for (final Future<Integer> result : results) {
+			read = result.get();
+		}
+		return read;
+	}
+
+	private static int view(final EntityManager em) {
+		final PreferenceDAO preferenceDao = dao(new PreferenceDAO(), em);
+		final TemplateDAO templateDao = dao(new TemplateDAO(), em);
+		final PageDAO pageDao = dao(new PageDAO(), em);
+		final QuestionDAO questionDao = dao(new QuestionDAO(), em);
+		final RepresentationDAO representationDao = dao(new RepresentationDAO(), em);
+		return (preferenceDao.getPreference() == null ? 0 : 1)
+				+ (templateDao.getTemplateByName("default") == null ? 0 : 1) + pageDao.getAllPages().size()
+				+ questionDao.getAllRemainingQuestions().size()
+				+ representationDao.getRepresentations(MONDAY, SATURDAY).size();
+	}
+
+	private static int legacyView(final EntityManager em) {
+		final String hint = "eclipselink.query-results-cache";
+		return em.createNamedQuery("Preference.find", Preference.class).setHint(hint, false).getResultList()
+				.size()
+				+ em.createNamedQuery("Template.findByName", Template.class).setParameter(1, "default")
+						.setHint(hint, false).getResultList().size()
+				+ em.createNamedQuery("Page.findAll", Page.class).setHint(hint, false).getResultList().size()
+				+ em.createNamedQuery("Question.findAllRemaining", Question.class).setHint(hint, false)
+						.getResultList().size()
+				+ em.createNamedQuery("Representation.findBetween", Representation.class)
+						.setParameter("from", new java.sql.Date(MONDAY.getTime()))
+						.setParameter("to", new java.sql.Date(SATURDAY.getTime())).setHint(hint, false)
+						.getResultList().size();
+	}
+
+	private static double statementsPerView() {
+		long statements = 0;
+		for (final CacheUsage usage : profiler.getUsage()) {
+			statements += usage.getStatements();
+		}
+		return (double) statements / ((WARMUPS + ITERATIONS) * THREADS * VIEWS_PER_THREAD);
+	}
+
+	private static <D> D dao(final D dao, final EntityManager em) {
+		Whitebox.setInternalState(dao, "em", em);
+		return dao;
+	}
+}
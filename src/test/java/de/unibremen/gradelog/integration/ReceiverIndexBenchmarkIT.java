@@ -0,0 +1,94 @@
+package de.unibremen.gradelog.integration;
+
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measure;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.report;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.User;
+import de.unibremen.gradelog.persistence.GroupDAO;
+import de.unibremen.gradelog.persistence.ReceiverIndex;
+import de.unibremen.gradelog.persistence.UserDAO;
+
+/*
+ * Vergleicht die Autovervollständigung über den ReceiverIndex mit der
+ * vorherigen Implementierung, die je Tastendruck die Anzeigenamen aller
+ * Benutzer klein geschrieben und durchsucht hat, bei 20000 Benutzern. Das
+ * Laden der Benutzer aus der Datenbank, das bisher zusätzlich je Anfrage
+ * anfiel, ist nicht enthalten.
+ *
+ * @author Marco Glander
+ */
+public class ReceiverIndexBenchmarkIT {
+
+	private static final int USERS = 20000;
+
+	private static final int WARMUPS = 200;
+
+	private static final int ITERATIONS = 2000;
+
+	private static final String[] FIRST_NAMES = { "Anna", "Ben", "Clara", "David", "Emma", "Felix", "Greta",
+			"Hannes", "Ida", "Jonas", "Klara", "Lukas", "Mia", "Noah", "Olga", "Paul" };
+
+	private static final String[] LAST_NAMES = { "Müller", "Schmidt", "Schneider", "Fischer", "Weber", "Meyer",
+			"Wagner", "Becker", "Schulz", "Hoffmann", "Koch", "Richter" };
+
+	private static final String[] QUERIES = { "a", "mü", "schm", "anna1", "user1234", "ller3", "schule" };
+
+	private static final List<String> displayNames = new ArrayList<>();
+
+	private static final ReceiverIndex index = new ReceiverIndex();
+
+	@BeforeClass
+	public static void seed() {
+		final List<Object[]> rows = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			final String firstName = FIRST_NAMES[i % FIRST_NAMES.length] + i % 97;
+			final String lastName = LAST_NAMES[i / 7 % LAST_NAMES.length] + i % 31;
+			final String email = "user" + i + "@schule.de";
+			rows.add(new Object[] { i + 1, email, firstName, lastName });
+			displayNames.add(User.toDisplayName(firstName, lastName, email));
+		}
+		final UserDAO userDao = mock(UserDAO.class);
+		final GroupDAO groupDao = mock(GroupDAO.class);
+		when(userDao.getReceivers()).thenReturn(rows);
+		when(groupDao.getReceivers()).thenReturn(Collections.<Object[]> emptyList());
+		Whitebox.setInternalState(index, "userDao", userDao);
+		Whitebox.setInternalState(index, "groupDao", groupDao);
+	}
+
+	@Test
+	public void benchmarkCompletion() throws Exception {
+		final long start = System.nanoTime();
+		assertEquals(ReceiverIndex.SUGGESTIONS, index.search("a", ReceiverIndex.SUGGESTIONS, entry -> true).size());
+		report("ReceiverIndex (load and build)", (System.nanoTime() - start) / 1e6);
+
+		for (final String query : QUERIES) {
+			assertTrue(!scan(query).isEmpty());
+			report("completion (legacy) '" + query + "'", measure(WARMUPS, ITERATIONS, () -> scan(query)));
+			report("completion '" + query + "'", measure(WARMUPS, ITERATIONS,
+					() -> index.search(query, ReceiverIndex.SUGGESTIONS, entry -> entry.getId() != 1)));
+		}
+	}
+
+	private static List<String> scan(final String query) {
+		final List<String> result = new ArrayList<>();
+		for (final String displayName : displayNames) {
+			if (displayName.toLowerCase(Locale.ROOT).contains(query.toLowerCase(Locale.ROOT))) {
+				result.add(displayName);
+			}
+		}
+		return result;
+	}
+}
@@ -0,0 +1,144 @@
+package de.unibremen.gradelog.integration;
+
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measure;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.report;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.enterprise.context.ContextNotActiveException;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.Matchers;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.Session;
+import de.unibremen.gradelog.model.User;
+import de.unibremen.gradelog.persistence.SessionDAO;
+import de.unibremen.gradelog.persistence.UserDAO;
+import de.unibremen.gradelog.persistence.UserRequestCache;
+
+/*
+ * Vergleicht den Index der SessionDAO mit der vorherigen Implementierung, die
+ * für SessionDAO#isUserLoggedIn alle Sessions kopiert und für jede den
+ * Benutzer geladen hat, bei 5000 gleichzeitigen Sessions.
+ *
+ * @author Marco Glander
+ */
+public class SessionIndexBenchmarkIT {
+
+	private static final int SESSIONS = 5000;
+
+	private static final int CHECKS = 20;
+
+	private static final int WARMUPS = 2;
+
+	private static final int ITERATIONS = 5;
+
+	private static EntityManagerFactory emf;
+
+	private static final UserDAO userDao = new UserDAO();
+
+	private static final TransientDAO<Session> legacy = new TransientDAO<>();
+
+	private static final SessionDAO indexed = new SessionDAO();
+
+	private static final List<User> users = new ArrayList<>();
+
+	@BeforeClass
+	public static void seed() {
+		emf = BenchmarkUtil.createEntityManagerFactory();
+		final EntityManager em = emf.createEntityManager();
+		em.getTransaction().begin();
+		for (int i = 0; i < SESSIONS; i++) {
+			final User user = new User();
+			user.setLogin("user" + i);
+			user.setEmail("user" + i + "@gradelog.de");
+			em.persist(user);
+			users.add(user);
+		}
+		em.getTransaction().commit();
+		em.close();
+
+		// außerhalb einer Anfrage lädt Session#getUser direkt über die DAO
+		final UserRequestCache noRequest = mock(UserRequestCache.class);
+		when(noRequest.get(Matchers.anyInt())).thenThrow(new ContextNotActiveException());
+		for (final User user : users) {
+			final Session session = newSession(indexed, noRequest);
+			indexed.create(session);
+			legacy.create(session);
+			session.setUser(user);
+		}
+	}
+
+	@AfterClass
+	public static void close() {
+		emf.close();
+	}
+
+	@Test
+	public void benchmarkLoginCheck() throws Exception {
+		final User absent = new User();
+		absent.setId(-2);
+		final int[] found = new int[2];
+		report("isUserOnline (scan, " + CHECKS + "x)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			Whitebox.setInternalState(userDao, "em", em);
+			found[0] = 0;
+			for (int i = 0; i < CHECKS; i++) {
+				if (legacyIsUserLoggedIn(i % 2 == 0 ? users.get(i * 97 % SESSIONS) : absent))
+					found[0]++;
+			}
+		}));
+		report("isUserOnline (index, " + CHECKS + "x)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			found[1] = 0;
+			for (int i = 0; i < CHECKS; i++) {
+				if (indexed.isUserOnline(i % 2 == 0 ? users.get(i * 97 % SESSIONS) : absent))
+					found[1]++;
+			}
+		}));
+		assertEquals(found[0], found[1]);
+	}
+
+	@Test
+	public void benchmarkSessionChurn() throws Exception {
+		final List<Session> churn = new ArrayList<>();
+		for (int i = 0; i < SESSIONS; i++) {
+			churn.add(new Session());
+		}
+		report("create/delete " + SESSIONS + " (list)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			churn.forEach(legacy::create);
+			churn.forEach(legacy::delete);
+		}));
+		report("create/delete " + SESSIONS + " (index)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			churn.forEach(indexed::create);
+			churn.forEach(indexed::delete);
+		}));
+		assertEquals(SESSIONS, legacy.getAll().size());
+		assertEquals(SESSIONS, indexed.getSessionCount());
+	}
+
+	private static boolean legacyIsUserLoggedIn(final User user) {
+		for (final Session session : legacy.getAll()) {
+			final User sessionUser = session.getUser();
+			if (sessionUser != null && sessionUser.equals(user)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Session newSession(final SessionDAO sessionDao, final UserRequestCache userCache) {
+		final Session session = new Session();
+		Whitebox.setInternalState(session, "sessionDAO", sessionDao);
+		Whitebox.setInternalState(session, "userDAO", userDao);
+		Whitebox.setInternalState(session, "userCache", userCache);
+		return session;
+	}
+}
@@ -0,0 +1,169 @@
+package de.unibremen.gradelog.integration;
+
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measure;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.report;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.CustomPage;
+import de.unibremen.gradelog.model.Group;
+import de.unibremen.gradelog.model.User;
+import de.unibremen.gradelog.persistence.CustomPageDAO;
+import de.unibremen.gradelog.persistence.UserDAO;
+
+/*
+ * Vergleicht die Join-Abfragen von UserDAO#getSharedPages und
+ * CustomPageDAO#getReaders mit den vorherigen Implementierungen, die alle
+ * Gruppen bzw. alle Benutzer geladen und im Speicher gefiltert haben.
+ *
+ * @author Marco Glander
+ */
+public class SharedPagesBenchmarkIT {
+
+	private static final int USERS = 10000;
+
+	private static final int GROUPS = 500;
+
+	private static final int PAGES = 1000;
+
+	private static final int WARMUPS = 2;
+
+	private static final int ITERATIONS = 5;
+
+	private static EntityManagerFactory emf;
+
+	private static int userId;
+
+	private static int pageId;
+
+	@BeforeClass
+	public static void seed() {
+		emf = BenchmarkUtil.createEntityManagerFactory();
+		final EntityManager em = emf.createEntityManager();
+		em.getTransaction().begin();
+		final List<User> users = new ArrayList<>();
+		for (int i = 0; i < USERS; i++) {
+			final User user = new User();
+			user.setLogin("user" + i);
+			user.setEmail("user" + i + "@gradelog.de");
+			em.persist(user);
+			users.add(user);
+		}
+		final List<Group> groups = new ArrayList<>();
+		for (int g = 0; g < GROUPS; g++) {
+			final Group group = new Group();
+			group.setName("group" + g);
+			for (int u = g; u < USERS; u += GROUPS) {
+				group.addUser(users.get(u));
+			}
+			em.persist(group);
+			groups.add(group);
+		}
+		for (int p = 0; p < PAGES; p++) {
+			final CustomPage page = new CustomPage();
+			page.setTitle("page" + p);
+			page.setUser(users.get(p * 10 % USERS));
+			page.addSub(users.get(p * 7 % USERS));
+			page.addSub(users.get(p * 13 % USERS));
+			page.addGroup(groups.get(p % GROUPS));
+			em.persist(page);
+		}
+		em.getTransaction().commit();
+		userId = users.get(0).getId();
+		em.close();
+
+		final EntityManager lookup = emf.createEntityManager();
+		pageId = lookup.createQuery("SELECT c.id FROM CustomPage c WHERE c.title = 'page0'", Integer.class)
+				.getSingleResult();
+		lookup.close();
+	}
+
+	@AfterClass
+	public static void close() {
+		emf.close();
+	}
+
+	@Test
+	public void benchmarkSharedPages() throws Exception {
+		final Set<CustomPage> legacy = new HashSet<>();
+		final Set<CustomPage> joined = new HashSet<>();
+		report("UserDAO.getSharedPages (group scan)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			legacy.clear();
+			legacy.addAll(legacySharedPages(em, em.find(User.class, userId)));
+		}));
+		report("UserDAO.getSharedPages (join)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			joined.clear();
+			joined.addAll(userDao(em).getSharedPages(em.find(User.class, userId)));
+		}));
+		assertEquals(legacy, joined);
+	}
+
+	@Test
+	public void benchmarkReaders() throws Exception {
+		final Set<User> legacy = new HashSet<>();
+		final Set<User> joined = new HashSet<>();
+		final Set<User> subs = new HashSet<>();
+		report("CustomPageDAO.getReaders (user scan)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			legacy.clear();
+			legacy.addAll(legacyReaders(em, em.find(CustomPage.class, pageId)));
+		}));
+		report("CustomPageDAO.getReaders (join)", measure(emf, WARMUPS, ITERATIONS, em -> {
+			final CustomPage page = em.find(CustomPage.class, pageId);
+			joined.clear();
+			joined.addAll(customPageDao(em).getReaders(page));
+			subs.clear();
+			subs.addAll(page.getSubs());
+		}));
+		// die Join-Abfrage berücksichtigt zusätzlich direkte Freigaben
+		legacy.addAll(subs);
+		assertEquals(legacy, joined);
+	}
+
+	private static UserDAO userDao(final EntityManager em) {
+		final UserDAO userDao = new UserDAO();
+		Whitebox.setInternalState(userDao, "em", em);
+		return userDao;
+	}
+
+	private static CustomPageDAO customPageDao(final EntityManager em) {
+		final CustomPageDAO customPageDao = new CustomPageDAO();
+		Whitebox.setInternalState(customPageDao, "em", em);
+		return customPageDao;
+	}
+
+	private static List<CustomPage> legacySharedPages(final EntityManager em, final User user) {
+		final Set<CustomPage> pages = new HashSet<>(user.getSharedPages());
+		for (final Group g : em.createNamedQuery("Group.findAll", Group.class).getResultList()) {
+			if (user.getGroups().contains(g)) {
+				pages.addAll(g.getSharedPages());
+			}
+		}
+		return new ArrayList<>(pages);
+	}
+
+	private static List<User> legacyReaders(final EntityManager em, final CustomPage page) {
+		final List<User> result = new ArrayList<>();
+		for (final Group g : em.createNamedQuery("Group.findAll", Group.class).getResultList()) {
+			if (g.getSharedPages().contains(page))
+				result.addAll(g.getUsers());
+		}
+		final CustomPageDAO customPageDao = customPageDao(em);
+		for (final User u : em.createNamedQuery("User.findAll", User.class).getResultList()) {
+			if (customPageDao.getOwnedByUser(u).contains(page))
+				result.add(u);
+		}
+		return result;
+	}
+}
@@ -1,4 +1,4 @@
-package de.unibremen.gradelog.persistence;
+package de.unibremen.gradelog.integration;
 
 import static de.unibremen.gradelog.util.Assertion.assertNotNull;
 
@@ -7,6 +7,7 @@ import java.util.List;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
+import de.unibremen.gradelog.persistence.GenericDAO;
 
 /**
  * Eine DAO, welche Listen verwendet, um einen für die Laufzeit der Applikation
@@ -14,6 +15,10 @@ import de.unibremen.gradelog.exception.DuplicateUniqueFieldException;
  * Datenbestand zugreifen, sind durch geeignete Maßnahmen synchronisiert, sodass
  * Instanzen dieser Klasse parallel verwendet werden können.
  *
+ * Bis zur Indizierung der Sessions war dies die Grundlage der
+ * {@link de.unibremen.gradelog.persistence.SessionDAO}. Sie wird nur noch als
+ * Vergleichsbasis in {@link SessionIndexBenchmarkIT} verwendet.
+ *
  * @param <T>
  *            Das durch die Liste zu verwaltene Datum.
  * 
@@ -0,0 +1,102 @@
+package de.unibremen.gradelog.integration;
+
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measure;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measureAllocation;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.report;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.reportAllocation;
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.ProfilePicture;
+import de.unibremen.gradelog.model.User;
+import de.unibremen.gradelog.persistence.UserDAO;
+
+/*
+ * Misst Laufzeit und Heap-Allokation von UserDAO#getAllUsers bei 5.000
+ * Benutzern mit Profilbild. Zum Vergleich werden die Benutzer zusammen mit
+ * ihren Bildern geladen, wie es die frühere Abbildung des Bildes als Attribut
+ * des eager geladenen Profils getan hat.
+ *
+ * @author Marco Glander
+ */
+public class UserDirectoryBenchmarkIT {
+
+	private static final int USERS = 5000;
+
+	private static final int PICTURE_SIZE = 16 * 1024;
+
+	private static final int WARMUPS = 2;
+
+	private static final int ITERATIONS = 5;
+
+	private static EntityManagerFactory emf;
+
+	@BeforeClass
+	public static void seed() {
+		emf = BenchmarkUtil.createEntityManagerFactory();
+		final EntityManager em = emf.createEntityManager();
+		em.getTransaction().begin();
+		final byte[] picture = new byte[PICTURE_SIZE];
+		for (int i = 0; i < USERS; i++) {
+			final User user = new User();
+			user.setLogin("user" + i);
+			user.setEmail("user" + i + "@gradelog.de");
+			user.getProfile().setOwnPicture(true);
+			em.persist(user);
+			em.persist(new ProfilePicture(user.getProfile(), picture));
+			if (i % 500 == 0) {
+				em.flush();
+				em.clear();
+			}
+		}
+		em.getTransaction().commit();
+		em.close();
+	}
+
+	@AfterClass
+	public static void close() {
+		emf.close();
+	}
+
+	@Test
+	public void benchmarkGetAllUsers() throws Exception {
+		final int[] loaded = new int[2];
+		final BenchmarkUtil.Task withPictures = em -> {
+			final List<User> users = em.createNamedQuery("User.findAll", User.class).getResultList();
+			for (final User user : users) {
+				user.getProfile().getPureName();
+			}
+			em.createQuery("SELECT p.profile, p.data FROM ProfilePicture p", Object[].class).getResultList();
+			loaded[0] = users.size();
+		};
+		final BenchmarkUtil.Task directory = em -> {
+			final List<User> users = userDao(em).getAllUsers();
+			for (final User user : users) {
+				user.getProfile().getPureName();
+			}
+			loaded[1] = users.size();
+		};
+		report("UserDAO.getAllUsers (with pictures)", measure(emf, WARMUPS, ITERATIONS, withPictures));
+		report("UserDAO.getAllUsers (directory)", measure(emf, WARMUPS, ITERATIONS, directory));
+		reportAllocation("UserDAO.getAllUsers (with pictures)",
+				measureAllocation(emf, WARMUPS, ITERATIONS, withPictures));
+		reportAllocation("UserDAO.getAllUsers (directory)", measureAllocation(emf, WARMUPS, ITERATIONS, directory));
+		assertEquals(USERS, loaded[0]);
+		assertEquals(USERS, loaded[1]);
+	}
+
+	private static UserDAO userDao(final EntityManager em) {
+		final UserDAO userDao = new UserDAO();
+		Whitebox.setInternalState(userDao, "em", em);
+		return userDao;
+	}
+}
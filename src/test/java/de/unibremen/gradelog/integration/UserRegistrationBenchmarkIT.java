@@ -0,0 +1,190 @@
+package de.unibremen.gradelog.integration;
+
+import static de.unibremen.gradelog.integration.BenchmarkUtil.measure;
+import static de.unibremen.gradelog.integration.BenchmarkUtil.reportRate;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.exception.DuplicateEmailException;
+import de.unibremen.gradelog.exception.DuplicateUsernameException;
+import de.unibremen.gradelog.model.User;
+import de.unibremen.gradelog.persistence.AfterCommit;
+import de.unibremen.gradelog.persistence.ReceiverIndex;
+import de.unibremen.gradelog.persistence.UserDAO;
+import de.unibremen.gradelog.persistence.UserStatistics;
+
+/*
+ * Vergleicht parallele Registrierungen über UserDAO#create, deren Eindeutigkeit
+ * die Unique-Constraints der Datenbank sichern, mit der vorherigen
+ * Implementierung, die Benutzername und E-Mail-Adresse unter einem gemeinsamen
+ * Monitor nachgeschlagen und erst dann gespeichert hat. Jede fünfte
+ * Registrierung verwendet einen bereits vergebenen Benutzernamen oder eine
+ * bereits vergebene E-Mail-Adresse und wird abgelehnt.
+ *
+ * @author Marco Glander
+ */
+public class UserRegistrationBenchmarkIT {
+
+	private static final int THREADS = 8;
+
+	private static final int USERS_PER_THREAD = 50;
+
+	private static final int DUPLICATE_EVERY = 5;
+
+	private static final int WARMUPS = 1;
+
+	private static final int ITERATIONS = 3;
+
+	private static final int REGISTRATIONS = THREADS * USERS_PER_THREAD;
+
+	private static final Object MONITOR = new Object();
+
+	private static final AtomicInteger runs = new AtomicInteger();
+
+	private static EntityManagerFactory emf;
+
+	private static ExecutorService executor;
+
+	private static final UserStatistics userStatistics = mock(UserStatistics.class);
+
+	private static final ReceiverIndex receiverIndex = mock(ReceiverIndex.class);
+
+	private static final AfterCommit afterCommit = new AfterCommit();
+
+	@BeforeClass
+	public static void seed() {
+		emf = BenchmarkUtil.createEntityManagerFactory();
+		final EntityManager em = emf.createEntityManager();
+		em.getTransaction().begin();
+		em.persist(newUser("taken", "taken"));
+		em.getTransaction().commit();
+		em.close();
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@AfterClass
+	public static void close() {
+		executor.shutdownNow();
+		emf.close();
+	}
+
+	@Test
+	public void benchmarkParallelRegistration() throws Exception {
+		final int[] rejected = new int[2];
+		final double synchronizedMillis = measure(WARMUPS, ITERATIONS,
+				() -> rejected[0] = registerAll(UserRegistrationBenchmarkIT::legacyCreate));
+		final double constraintMillis = measure(WARMUPS, ITERATIONS,
+				() -> rejected[1] = registerAll(UserRegistrationBenchmarkIT::create));
+		reportRate("register " + REGISTRATIONS + " (synchronized)", REGISTRATIONS * 1000 / synchronizedMillis);
+		reportRate("register " + REGISTRATIONS + " (constraints)", REGISTRATIONS * 1000 / constraintMillis);
+		assertEquals(REGISTRATIONS / DUPLICATE_EVERY, rejected[0]);
+		assertEquals(REGISTRATIONS / DUPLICATE_EVERY, rejected[1]);
+	}
+
+	/*
+	 * Registriert REGISTRATIONS Benutzer auf THREADS Threads und gibt die
+	 * Anzahl der abgelehnten Registrierungen zurück.
+	 */
+	private static int registerAll(final Registration registration) throws Exception {
+		final int run = runs.incrementAndGet();
+		final List<Callable<Integer>> threads = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			threads.add(() -> {
+				final EntityManager em = emf.createEntityManager();
+				try {
+					int rejected = 0;
+					for (int i = 0; i < USERS_PER_THREAD; i++) {
+						final String name = run + "_" + thread + "_" + i;
+						final User user;
+						if (i % DUPLICATE_EVERY != DUPLICATE_EVERY - 1)
+							user = newUser(name, name);
+						else if (i % 2 == 0)
+							user = newUser("taken", name);
+						else
+							user = newUser(name, "taken");
+						if (!register(em, registration, user))
+							rejected++;
+					}
+					return rejected;
+				} finally {
+					em.close();
+				}
+			});
+		}
+		int rejected = 0;
+		for (final Future<Integer> result : executor.invokeAll(threads)) {
+			rejected += result.get();
+		}
+		return rejected;
+	}
+
+	private static boolean register(final EntityManager em, final Registration registration, final User user)
+			throws Exception {
+		em.getTransaction().begin();
+		try {
+			registration.register(em, user);
+			em.getTransaction().commit();
+			return true;
+		} catch (final DuplicateUsernameException | DuplicateEmailException e) {
+			return false;
+		} finally {
+			if (em.getTransaction().isActive())
+				em.getTransaction().rollback();
+			em.clear();
+		}
+	}
+
+	private static void create(final EntityManager em, final User user) throws Exception {
+		final UserDAO userDao = new UserDAO();
+		Whitebox.setInternalState(userDao, "em", em);
+		Whitebox.setInternalState(userDao, "userStatistics", userStatistics);
+		Whitebox.setInternalState(userDao, "afterCommit", afterCommit);
+		Whitebox.setInternalState(userDao, "receiverIndex", receiverIndex);
+		userDao.create(user);
+	}
+
+	/*
+	 * Die frühere Implementierung: Nachschlagen und Speichern unter einem
+	 * gemeinsamen Monitor.
+	 */
+	private static void legacyCreate(final EntityManager em, final User user) throws Exception {
+		synchronized (MONITOR) {
+			if (!em.createNamedQuery("User.findByName", User.class).setParameter(1, user.getLogin())
+					.getResultList().isEmpty())
+				throw new DuplicateUsernameException("Username is already in use: " + user.getLogin());
+			if (!em.createNamedQuery("User.findByEmail", User.class).setParameter(1, user.getEmail())
+					.getResultList().isEmpty())
+				throw new DuplicateEmailException("Email is already in use: " + user.getEmail());
+			em.persist(user);
+			em.flush();
+		}
+	}
+
+	private static User newUser(final String login, final String mailbox) {
+		final User user = new User();
+		user.setLogin(login);
+		user.setEmail(mailbox + "@gradelog.de");
+		return user;
+	}
+
+	private interface Registration {
+		void register(EntityManager em, User user) throws Exception;
+	}
+}
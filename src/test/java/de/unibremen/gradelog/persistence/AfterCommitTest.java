@@ -0,0 +1,83 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.internal.util.reflection.Whitebox;
+
+/*
+ * @author Marco Glander
+ */
+public class AfterCommitTest {
+
+	private AfterCommit afterCommit;
+
+	private TransactionSynchronizationRegistry registry;
+
+	private AtomicInteger runs;
+
+	@Before
+	public void setUp() {
+		afterCommit = new AfterCommit();
+		registry = mock(TransactionSynchronizationRegistry.class);
+		Whitebox.setInternalState(afterCommit, "registry", registry);
+		runs = new AtomicInteger();
+	}
+
+	@Test
+	public void testRunsImmediatelyWithoutTransaction() {
+		afterCommit.execute(runs::incrementAndGet);
+
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	public void testRunsOnlyAfterCommit() {
+		final Synchronization synchronization = register();
+		assertEquals(0, runs.get());
+
+		synchronization.beforeCompletion();
+		assertEquals(0, runs.get());
+
+		synchronization.afterCompletion(Status.STATUS_COMMITTED);
+		assertEquals(1, runs.get());
+	}
+
+	@Test
+	public void testSkippedOnRollback() {
+		register().afterCompletion(Status.STATUS_ROLLEDBACK);
+
+		assertEquals(0, runs.get());
+	}
+
+	@Test
+	public void testFailureDoesNotPropagate() {
+		when(registry.getTransactionKey()).thenReturn(new Object());
+		afterCommit.execute(() -> {
+			throw new IllegalStateException();
+		});
+		final ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+		verify(registry).registerInterposedSynchronization(captor.capture());
+
+		captor.getValue().afterCompletion(Status.STATUS_COMMITTED);
+	}
+
+	private Synchronization register() {
+		when(registry.getTransactionKey()).thenReturn(new Object());
+		afterCommit.execute(runs::incrementAndGet);
+		final ArgumentCaptor<Synchronization> captor = ArgumentCaptor.forClass(Synchronization.class);
+		verify(registry).registerInterposedSynchronization(captor.capture());
+		return captor.getValue();
+	}
+}
@@ -0,0 +1,104 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+import de.unibremen.gradelog.model.CustomPage;
+import de.unibremen.gradelog.model.CustomPageHistory;
+
+/*
+ * @author Marco Glander
+ */
+public class CustomPageHistoryDAOTest {
+
+	private static final String[] VERSIONS = { "<h1>Elternabend</h1>\n<p>Am Dienstag um 19 Uhr.</p>\n<p>Raum 104</p>",
+			"<h1>Elternabend</h1>\n<p>Am Mittwoch um 19 Uhr.</p>\n<p>Raum 104</p>",
+			"<h1>Elternabend</h1>\n<p>Am Mittwoch um 19 Uhr.</p>\n<p>Raum 104</p>\n<p>Bitte pünktlich sein.</p>",
+			"<h1>Elternabend</h1>\n<p>Am Mittwoch um 19 Uhr.</p>\n<p>Bitte pünktlich sein.</p>" };
+
+	private final CustomPage page = new CustomPage();
+
+	@Test
+	public void testEncodeStoresDeltaForSmallEdit() {
+		final CustomPageHistory history = new CustomPageHistory(page, 2, "Autor");
+		CustomPageHistoryDAO.encode(history, VERSIONS[0], 1, VERSIONS[1]);
+
+		assertFalse(history.isSnapshot());
+		assertEquals(1, history.getDepth());
+		assertEquals(VERSIONS[1].length(), history.getSize());
+		assertTrue(history.getData().length() < VERSIONS[1].length());
+	}
+
+	@Test
+	public void testEncodeStoresSnapshotIfDeltaIsNotShorter() {
+		final CustomPageHistory history = new CustomPageHistory(page, 2, "Autor");
+		CustomPageHistoryDAO.encode(history, "abc", 1, "xyz");
+
+		assertTrue(history.isSnapshot());
+		assertEquals(0, history.getDepth());
+		assertEquals("xyz", history.getData());
+	}
+
+	@Test
+	public void testReconstructEveryVersion() {
+		final List<CustomPageHistory> chain = record(VERSIONS);
+		for (int i = 0; i < VERSIONS.length; i++) {
+			assertEquals(VERSIONS[i], CustomPageHistoryDAO.reconstruct(chain.subList(0, i + 1)));
+		}
+	}
+
+	@Test
+	public void testRebaseAfterRemovingDelta() {
+		final List<CustomPageHistory> chain = record(VERSIONS[0], VERSIONS[1], VERSIONS[2]);
+		CustomPageHistoryDAO.rebase(chain);
+
+		final CustomPageHistory successor = chain.get(2);
+		assertFalse(successor.isSnapshot());
+		assertEquals(1, successor.getDepth());
+		assertEquals(VERSIONS[2], CustomPageHistoryDAO.reconstruct(Arrays.asList(chain.get(0), successor)));
+	}
+
+	@Test
+	public void testRebaseAfterRemovingSnapshot() {
+		final List<CustomPageHistory> chain = record(VERSIONS[0], VERSIONS[1]);
+		CustomPageHistoryDAO.rebase(chain);
+
+		assertTrue(chain.get(1).isSnapshot());
+		assertEquals(VERSIONS[1], chain.get(1).getData());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReconstructRequiresSnapshot() {
+		final List<CustomPageHistory> chain = record(VERSIONS);
+		CustomPageHistoryDAO.reconstruct(chain.subList(1, chain.size()));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testReconstructDetectsForeignDelta() {
+		final List<CustomPageHistory> chain = record(VERSIONS);
+		CustomPageHistoryDAO.reconstruct(Arrays.asList(chain.get(0), chain.get(3)));
+	}
+
+	/*
+	 * Baut die Versionen so auf, wie CustomPageHistoryDAO#record sie speichert.
+	 */
+	private List<CustomPageHistory> record(final String... contents) {
+		final List<CustomPageHistory> chain = new ArrayList<>();
+		for (int i = 0; i < contents.length; i++) {
+			final CustomPageHistory history = new CustomPageHistory(page, i + 1, "Autor");
+			if (i == 0)
+				history.setSnapshot(contents[i]);
+			else
+				CustomPageHistoryDAO.encode(history, contents[i - 1], chain.get(i - 1).getDepth() + 1, contents[i]);
+			chain.add(history);
+		}
+		return chain;
+	}
+}
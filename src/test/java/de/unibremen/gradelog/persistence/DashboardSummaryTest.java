@@ -0,0 +1,65 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.CustomPage;
+import de.unibremen.gradelog.model.User;
+
+/*
+ * @author Marco Glander
+ */
+public class DashboardSummaryTest {
+
+	private DashboardSummary summary;
+
+	private CustomPageDAO customPageDao;
+
+	@Before
+	public void setUp() {
+		summary = new DashboardSummary();
+		customPageDao = mock(CustomPageDAO.class);
+		Whitebox.setInternalState(summary, "customPageDao", customPageDao);
+	}
+
+	@Test
+	public void testSummariesAreBounded() {
+		for (int id = 1; id <= DashboardSummary.MAX_USERS + 1; id++) {
+			summary.getLatestPages(user(id));
+		}
+
+		assertTrue(summary.size() <= DashboardSummary.MAX_USERS * 3 / 4);
+	}
+
+	@Test
+	public void testPageRemovedById() {
+		final User owner = user(1);
+		final CustomPage page = mock(CustomPage.class);
+		when(page.getId()).thenReturn(7);
+		when(customPageDao.getLatestOwnedByUser(any(User.class), anyInt()))
+				.thenReturn(Collections.singletonList(page));
+		assertEquals(1, summary.getLatestPages(owner).size());
+
+		summary.pageRemoved(owner, 7);
+
+		when(customPageDao.getLatestOwnedByUser(any(User.class), anyInt()))
+				.thenReturn(Collections.<CustomPage> emptyList());
+		assertTrue(summary.getLatestPages(owner).isEmpty());
+	}
+
+	private static User user(final int id) {
+		final User user = mock(User.class);
+		when(user.getId()).thenReturn(id);
+		return user;
+	}
+}
@@ -0,0 +1,94 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * @author Marco Glander
+ */
+public class DiskFileStoreTest {
+
+	private static final byte[] WORKSHEET = "Arbeitsblatt 1".getBytes(StandardCharsets.UTF_8);
+
+	/*
+	 * echo -n "Arbeitsblatt 1" | sha256sum
+	 */
+	private static final String WORKSHEET_HASH = "5b590e1bed4a3e8b89446e3e5a02a2198ff10a1b6712508a5ebdd46301c43218";
+
+	private static final long GRACE = 60 * 60 * 1000L;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private DiskFileStore store;
+
+	@Before
+	public void setUp() {
+		store = new DiskFileStore(folder.getRoot().toPath());
+	}
+
+	@Test
+	public void testStoreIsContentAddressed() throws Exception {
+		final String hash = store.store(new ByteArrayInputStream(WORKSHEET));
+		assertEquals(WORKSHEET_HASH, hash);
+		assertArrayEquals(WORKSHEET, Files.readAllBytes(store.resolve(hash)));
+	}
+
+	@Test
+	public void testIdenticalContentIsStoredOnce() throws Exception {
+		final String first = store.store(new ByteArrayInputStream(WORKSHEET));
+		final String second = store.store(new ByteArrayInputStream(WORKSHEET.clone()));
+		assertEquals(first, second);
+		try (Stream<Path> files = Files.walk(folder.getRoot().toPath())) {
+			assertEquals(1, files.filter(Files::isRegularFile).count());
+		}
+	}
+
+	@Test
+	public void testReleaseRemovesContent() throws Exception {
+		final String hash = store.store(new ByteArrayInputStream(WORKSHEET));
+		assertNotNull(store.resolve(hash));
+		Files.setLastModifiedTime(store.resolve(hash), FileTime.fromMillis(0));
+		assertTrue(store.release(hash, GRACE));
+		assertNull(store.resolve(hash));
+	}
+
+	@Test
+	public void testStoringAgainRestartsGracePeriod() throws Exception {
+		final String hash = store.store(new ByteArrayInputStream(WORKSHEET));
+		Files.setLastModifiedTime(store.resolve(hash), FileTime.fromMillis(0));
+		store.store(new ByteArrayInputStream(WORKSHEET.clone()));
+
+		assertFalse(store.release(hash, GRACE));
+		assertNotNull(store.resolve(hash));
+	}
+
+	@Test
+	public void testListReturnsHashes() throws Exception {
+		final String hash = store.store(new ByteArrayInputStream(WORKSHEET));
+
+		assertEquals(Collections.singletonList(hash), store.list());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidHashIsRejected() {
+		store.resolve("../../etc/passwd");
+	}
+}
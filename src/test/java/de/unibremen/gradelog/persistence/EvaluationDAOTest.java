@@ -0,0 +1,88 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.Hashtable;
+
+import javax.persistence.EntityManager;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.Evaluation;
+import de.unibremen.gradelog.model.Question;
+
+/*
+ * @author Marco Glander
+ */
+public class EvaluationDAOTest {
+
+	private static final Timestamp DATE = new Timestamp(0);
+
+	private EvaluationDAO evaluationDao;
+
+	private EntityManager em;
+
+	private EvaluationStatisticDAO statisticDao;
+
+	private Question question;
+
+	private Hashtable<Question, Integer> entries;
+
+	private Evaluation evaluation;
+
+	private Evaluation stored;
+
+	@Before
+	public void setUp() {
+		evaluationDao = new EvaluationDAO();
+		em = mock(EntityManager.class);
+		statisticDao = mock(EvaluationStatisticDAO.class);
+		Whitebox.setInternalState(evaluationDao, "em", em);
+		Whitebox.setInternalState(evaluationDao, "statisticDao", statisticDao);
+		question = mock(Question.class);
+		entries = new Hashtable<>();
+		entries.put(question, 2);
+		evaluation = mock(Evaluation.class);
+		when(evaluation.getId()).thenReturn(7);
+		stored = mock(Evaluation.class);
+		when(stored.getEntries()).thenReturn(entries);
+		when(stored.getDate()).thenReturn(DATE);
+		when(em.find(Evaluation.class, 7)).thenReturn(stored);
+	}
+
+	@Test
+	public void testUpdateReplacesStoredAnswers() {
+		// Die Antworten des geladenen Objekts entsprechen nach dem
+		// Aktualisieren den neuen Antworten.
+		doAnswer(invocation -> entries.put(question, 5)).when(em).merge(evaluation);
+
+		evaluationDao.update(evaluation);
+
+		final InOrder order = inOrder(statisticDao, em);
+		order.verify(statisticDao).evaluationChanged(Collections.singletonMap(question, 2), DATE, evaluation);
+		order.verify(em).merge(evaluation);
+	}
+
+	@Test
+	public void testDeleteRemovesStoredAnswers() {
+		// Die Antworten werden erst nach dem Löschen gelesen.
+		doAnswer(invocation -> {
+			entries.clear();
+			return null;
+		}).when(em).remove(stored);
+
+		evaluationDao.delete(evaluation);
+
+		final InOrder order = inOrder(statisticDao, em);
+		order.verify(statisticDao).evaluationRemoved(Collections.singletonMap(question, 2), DATE);
+		order.verify(em).remove(stored);
+	}
+}
@@ -0,0 +1,92 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.unibremen.gradelog.model.QuestionStatistics;
+
+/*
+ * @author Marco Glander
+ */
+public class EvaluationStatisticDAOTest {
+
+	private static final Timestamp MARCH = Timestamp.valueOf(LocalDateTime.of(2018, 3, 31, 23, 30));
+
+	private static final Timestamp APRIL = Timestamp.valueOf(LocalDateTime.of(2018, 4, 1, 0, 30));
+
+	@Test
+	public void testPeriodIsFirstDayOfMonth() {
+		assertEquals(Date.valueOf("2018-03-01"), EvaluationStatisticDAO.period(MARCH));
+		assertEquals(Date.valueOf("2018-04-01"), EvaluationStatisticDAO.period(APRIL));
+	}
+
+	@Test
+	public void testAggregateCountsPerQuestionMonthAndAnswer() {
+		final Map<EvaluationStatisticDAO.Bucket, Long> buckets = EvaluationStatisticDAO.aggregate(Arrays.asList(
+				new Object[] { 1, 2, MARCH }, new Object[] { 1, 2, MARCH }, new Object[] { 1, 2, APRIL },
+				new Object[] { 1, 3, MARCH }, new Object[] { 2, 2, MARCH }));
+
+		assertEquals(4, buckets.size());
+		assertEquals(Long.valueOf(2),
+				buckets.get(new EvaluationStatisticDAO.Bucket(1, Date.valueOf("2018-03-01"), 2)));
+		assertEquals(Long.valueOf(1),
+				buckets.get(new EvaluationStatisticDAO.Bucket(1, Date.valueOf("2018-04-01"), 2)));
+		assertNull(buckets.get(new EvaluationStatisticDAO.Bucket(2, Date.valueOf("2018-04-01"), 2)));
+	}
+
+	@Test
+	public void testStatisticsMatchRawAnswers() {
+		final Random random = new Random(7);
+		final List<Integer> answers = new ArrayList<>();
+		final long[] histogram = new long[5];
+		for (int i = 0; i < 500; i++) {
+			final int answer = 1 + random.nextInt(4);
+			answers.add(answer);
+			histogram[answer]++;
+		}
+		final List<Object[]> rows = new ArrayList<>();
+		for (int answer = 1; answer <= 4; answer++) {
+			// zwei Monate je Antwort, wie sie die gruppierte Abfrage liefert
+			rows.add(new Object[] { 9, answer, histogram[answer] / 2 });
+			rows.add(new Object[] { 9, answer, histogram[answer] - histogram[answer] / 2 });
+		}
+
+		final QuestionStatistics statistics = EvaluationStatisticDAO.toStatistics(rows).get(9);
+
+		double mean = 0;
+		for (final int answer : answers) {
+			mean += answer;
+		}
+		mean /= answers.size();
+		double variance = 0;
+		for (final int answer : answers) {
+			variance += (answer - mean) * (answer - mean);
+		}
+		variance /= answers.size();
+		assertEquals(answers.size(), statistics.getCount());
+		assertEquals(mean, statistics.getMean(), 1e-9);
+		assertEquals(variance, statistics.getVariance(), 1e-9);
+		for (int answer = 1; answer <= 4; answer++) {
+			assertEquals(histogram[answer], statistics.getCount(answer));
+		}
+	}
+
+	@Test
+	public void testEmptyStatistics() {
+		final QuestionStatistics statistics = new QuestionStatistics();
+		assertEquals(0, statistics.getCount());
+		assertEquals(0, statistics.getMean(), 0);
+		assertEquals(0, statistics.getVariance(), 0);
+	}
+}
@@ -0,0 +1,144 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyMapOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.CustomPage;
+import de.unibremen.gradelog.model.User;
+
+/*
+ * @author Marco Glander
+ */
+public class PageViewCounterTest {
+
+	private PageViewCounter counter;
+
+	private CustomPageDAO customPageDao;
+
+	private DashboardSummary dashboardSummary;
+
+	private CustomPage page;
+
+	private CustomPage otherPage;
+
+	@Before
+	public void setUp() {
+		customPageDao = mock(CustomPageDAO.class);
+		dashboardSummary = mock(DashboardSummary.class);
+		counter = new PageViewCounter();
+		Whitebox.setInternalState(counter, "customPageDao", customPageDao);
+		Whitebox.setInternalState(counter, "dashboardSummary", dashboardSummary);
+
+		final User owner = mock(User.class);
+		when(owner.getId()).thenReturn(10);
+		page = mock(CustomPage.class);
+		when(page.getId()).thenReturn(1);
+		when(page.getUser()).thenReturn(owner);
+		when(page.getCounter()).thenReturn(3);
+		otherPage = mock(CustomPage.class);
+		when(otherPage.getId()).thenReturn(2);
+		when(otherPage.getUser()).thenReturn(owner);
+	}
+
+	@Test
+	public void testGetViewsAddsPendingViews() {
+		counter.increment(page);
+		counter.increment(page);
+
+		assertEquals(5, counter.getViews(page));
+		assertEquals(0, counter.getViews(otherPage));
+		verify(customPageDao, never()).update(page);
+	}
+
+	@Test
+	public void testFlushWritesDeltas() {
+		counter.increment(page);
+		counter.increment(page);
+		counter.increment(otherPage);
+		counter.flush();
+
+		final Map<Integer, Long> expected = new HashMap<>();
+		expected.put(1, 2L);
+		expected.put(2, 1L);
+		verify(customPageDao).addViews(expected);
+		verify(dashboardSummary).pagesViewed(Collections.singleton(10));
+		assertEquals(3, counter.getViews(page));
+
+		counter.increment(page);
+		counter.flush();
+		verify(customPageDao).addViews(Collections.singletonMap(1, 1L));
+	}
+
+	@Test
+	public void testFlushWithoutViewsWritesNothing() {
+		counter.flush();
+
+		verify(customPageDao, never()).addViews(anyMapOf(Integer.class, Long.class));
+	}
+
+	@Test
+	public void testRemovedPageIsDropped() {
+		counter.increment(page);
+		counter.increment(otherPage);
+		counter.pageRemoved(1);
+
+		assertEquals(3, counter.getViews(page));
+		counter.flush();
+		verify(customPageDao).addViews(Collections.singletonMap(2, 1L));
+	}
+
+	@Test
+	public void testFailedFlushKeepsViews() {
+		doThrow(new RuntimeException()).when(customPageDao).addViews(anyMapOf(Integer.class, Long.class));
+		counter.increment(page);
+		counter.flush();
+
+		assertEquals(4, counter.getViews(page));
+		verify(dashboardSummary, never()).pagesViewed(Collections.singleton(10));
+
+		counter.increment(page);
+		counter.flush();
+		verify(customPageDao).addViews(Collections.singletonMap(1, 2L));
+	}
+
+	@Test
+	public void testConcurrentIncrements() throws InterruptedException {
+		final CustomPage shared = new CustomPage();
+		shared.setId(1);
+		final List<Thread> threads = new ArrayList<>();
+		for (int i = 0; i < 8; i++) {
+			threads.add(new Thread(() -> {
+				for (int j = 0; j < 1000; j++) {
+					counter.increment(shared);
+				}
+			}));
+		}
+		for (final Thread thread : threads) {
+			thread.start();
+		}
+		for (final Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(8000, counter.getViews(shared));
+		counter.flush();
+
+		verify(customPageDao, times(1)).addViews(Collections.singletonMap(1, 8000L));
+		verify(dashboardSummary).pagesViewed(Collections.singleton(0));
+	}
+}
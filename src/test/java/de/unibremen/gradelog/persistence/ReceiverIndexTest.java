@@ -0,0 +1,122 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.Group;
+import de.unibremen.gradelog.model.User;
+
+/*
+ * @author Marco Glander
+ */
+public class ReceiverIndexTest {
+
+	private ReceiverIndex index;
+
+	private UserDAO userDao;
+
+	@Before
+	public void setUp() {
+		userDao = mock(UserDAO.class);
+		final GroupDAO groupDao = mock(GroupDAO.class);
+		when(userDao.getReceivers()).thenReturn(Arrays.asList(
+				new Object[] { 1, "justus@rocky-beach.com", "Justus", "Jonas" },
+				new Object[] { 2, "peter@rocky-beach.com", "Peter", "Shaw" },
+				new Object[] { 3, "bob@rocky-beach.com", "Bob", "Andrews" },
+				new Object[] { 4, "jelena@rocky-beach.com", "Jelena", "Charkova" }));
+		when(groupDao.getReceivers()).thenReturn(Arrays.<Object[]> asList(new Object[] { 1, "Detektive" }));
+		index = new ReceiverIndex();
+		Whitebox.setInternalState(index, "userDao", userDao);
+		Whitebox.setInternalState(index, "groupDao", groupDao);
+	}
+
+	@Test
+	public void testWordPrefixMatchesComeFirst() {
+		assertEquals(Arrays.asList("jelena@rocky-beach.com", "justus@rocky-beach.com"),
+				names(index.search("J", 10, entry -> true)));
+		assertEquals(Arrays.asList("jelena@rocky-beach.com", "bob@rocky-beach.com", "justus@rocky-beach.com",
+				"peter@rocky-beach.com"), names(index.search("ch", 10, entry -> true)));
+		assertEquals(Arrays.asList("bob@rocky-beach.com"), names(index.search("andr", 10, entry -> true)));
+	}
+
+	@Test
+	public void testSubstringMatches() {
+		assertEquals(Arrays.asList("jelena@rocky-beach.com"), names(index.search("ARKO", 10, entry -> true)));
+		assertEquals(Arrays.asList("Detektive"), names(index.search("(g) det", 10, entry -> true)));
+		assertTrue(index.search("xyz", 10, entry -> true).isEmpty());
+	}
+
+	@Test
+	public void testLimitAndFilter() {
+		assertEquals(2, index.search("rocky", 2, entry -> true).size());
+		assertEquals(Arrays.asList("peter@rocky-beach.com"),
+				names(index.search("e", 1, entry -> !entry.isGroup() && entry.getId() == 2)));
+	}
+
+	@Test
+	public void testUpdatesAfterChanges() {
+		index.search("", 1, entry -> true);
+
+		final User skinny = mock(User.class);
+		when(skinny.getId()).thenReturn(5);
+		when(skinny.getReceiverName()).thenReturn("skinny@rocky-beach.com");
+		when(skinny.getDisplayName()).thenReturn("Skinny Norris (skinny@rocky-beach.com)");
+		index.userSaved(skinny);
+		assertEquals(Arrays.asList("skinny@rocky-beach.com"), names(index.search("norr", 10, entry -> true)));
+
+		final Group group = mock(Group.class);
+		when(group.getId()).thenReturn(1);
+		when(group.getReceiverName()).thenReturn("Die drei ???");
+		when(group.getDisplayName()).thenReturn("(G) Die drei ???");
+		index.groupSaved(group);
+		assertTrue(index.search("detektive", 10, entry -> true).isEmpty());
+		assertEquals(Arrays.asList("Die drei ???"), names(index.search("drei", 10, entry -> true)));
+
+		index.userRemoved(1);
+		assertTrue(index.search("justus", 10, entry -> true).isEmpty());
+		verify(userDao, times(1)).getReceivers();
+	}
+
+	@Test
+	public void testPendingChangesAreRanked() {
+		index.search("", 1, entry -> true);
+
+		index.userSaved(user(5, "anna@rocky-beach.com", "Anna Jung"));
+		index.userSaved(user(6, "jan@rocky-beach.com", "Jan Zorn"));
+
+		assertEquals(Arrays.asList("jan@rocky-beach.com", "jelena@rocky-beach.com", "justus@rocky-beach.com",
+				"anna@rocky-beach.com"), names(index.search("J", 10, entry -> true)));
+		assertEquals(Arrays.asList("jan@rocky-beach.com", "jelena@rocky-beach.com"),
+				names(index.search("J", 2, entry -> true)));
+		assertEquals(Arrays.asList("Detektive", "anna@rocky-beach.com"),
+				names(index.search("", 2, entry -> true)));
+	}
+
+	private static User user(final int id, final String receiverName, final String name) {
+		final User user = mock(User.class);
+		when(user.getId()).thenReturn(id);
+		when(user.getReceiverName()).thenReturn(receiverName);
+		when(user.getDisplayName()).thenReturn(name + " (" + receiverName + ")");
+		return user;
+	}
+
+	private static List<String> names(final List<ReceiverIndex.Entry> entries) {
+		final List<String> names = new ArrayList<>();
+		for (final ReceiverIndex.Entry entry : entries) {
+			names.add(entry.getReceiverName());
+		}
+		return names;
+	}
+}
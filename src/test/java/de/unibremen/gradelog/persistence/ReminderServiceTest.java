@@ -0,0 +1,131 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.Calendar;
+import de.unibremen.gradelog.model.Task;
+
+/*
+ * @author Marco Glander
+ */
+public class ReminderServiceTest {
+
+	private static final long MINUTE = TimeUnit.MINUTES.toMillis(1);
+
+	private ReminderService service;
+
+	private Calendar calendar;
+
+	private Set<Task> tasks;
+
+	private long now;
+
+	@Before
+	public void setUp() {
+		service = new ReminderService();
+		tasks = new HashSet<>();
+		calendar = mock(Calendar.class);
+		when(calendar.getId()).thenReturn(1);
+		when(calendar.getTasks()).thenReturn(tasks);
+		now = System.currentTimeMillis();
+	}
+
+	private Task task(final int id, final long start) {
+		final Task task = new Task();
+		task.setId(id);
+		task.setStartTime(new java.util.Date(start));
+		task.setEndTime(new java.util.Date(start + 60 * MINUTE));
+		return task;
+	}
+
+	/*
+	 * Beginn eines Termins, der zum Zeitpunkt time in minutes Minuten ansteht
+	 */
+	private static long in(final long time, final int minutes) {
+		return time + ReminderService.offset(time) + minutes * MINUTE;
+	}
+
+	@Test
+	public void testDueWithinWindow() {
+		tasks.add(task(1, in(now, 30)));
+		tasks.add(task(2, in(now, 300)));
+
+		assertTrue(service.isDue(calendar));
+	}
+
+	@Test
+	public void testDueAfterRefresh() {
+		final long start = in(now, 180);
+		tasks.add(task(1, start));
+		assertFalse(service.isDue(calendar));
+
+		service.refresh(now + 150 * MINUTE);
+		assertTrue(service.isDue(calendar));
+
+		service.refresh(now + 181 * MINUTE);
+		assertFalse(service.isDue(calendar));
+	}
+
+	@Test
+	public void testTaskSavedMovesReminder() {
+		final Task task = task(1, in(now, 300));
+		tasks.add(task);
+		assertFalse(service.isDue(calendar));
+
+		task.setStartTime(new java.util.Date(in(now, 30)));
+		service.taskSaved(calendar, task);
+		assertTrue(service.isDue(calendar));
+
+		task.setStartTime(new java.util.Date(in(now, 300)));
+		service.taskSaved(calendar, task);
+		assertFalse(service.isDue(calendar));
+	}
+
+	@Test
+	public void testTaskRemoved() {
+		final Task task = task(1, in(now, 30));
+		tasks.add(task);
+		assertTrue(service.isDue(calendar));
+
+		service.taskRemoved(calendar, task);
+		assertFalse(service.isDue(calendar));
+	}
+
+	@Test
+	public void testTaskSavedBeforeFirstAccess() {
+		final Task task = task(1, in(now, 30));
+		service.taskSaved(calendar, task);
+		tasks.add(task);
+
+		assertTrue(service.isDue(calendar));
+	}
+
+	@Test
+	public void testMovedTasksDoNotAccumulate() {
+		final Task task = task(1, in(now, 300));
+		tasks.add(task);
+		service.isDue(calendar);
+		for (int i = 0; i < 100; i++) {
+			task.setStartTime(new java.util.Date(in(now, 300 + i)));
+			service.taskSaved(calendar, task);
+		}
+
+		final Object reminders = ((Map<?, ?>) Whitebox.getInternalState(service, "reminders")).get(1);
+		final Collection<?> heap = (Collection<?>) Whitebox.getInternalState(reminders, "heap");
+		assertTrue(heap.size() <= 2 + 16 + 1);
+		assertFalse(service.isDue(calendar));
+	}
+}
@@ -0,0 +1,96 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+
+import org.junit.Test;
+
+import de.unibremen.gradelog.model.Representation;
+
+/*
+ * @author Marco Glander
+ */
+public class RepresentationDAOTest {
+
+	private static final Date MONDAY = new Date(1514764800000L);
+
+	private static final Date TUESDAY = new Date(MONDAY.getTime() + 24 * 60 * 60 * 1000L);
+
+	@Test
+	public void testDiffOnlyChangesDifferences() {
+		final Representation kept = newRepresentation(MONDAY, 1, "9a", "MEI", "R101");
+		final Representation moved = newRepresentation(MONDAY, 2, "9a", "MEI", "R101");
+		final Representation cancelled = newRepresentation(TUESDAY, 3, "9b", "SCH", "R202");
+		final Representation added = newRepresentation(TUESDAY, 4, "9b", "SCH", "R202");
+
+		final RepresentationDAO.Changes changes = RepresentationDAO.diff(Arrays.asList(kept, moved, cancelled),
+				Arrays.asList(newRepresentation(MONDAY, 1, "9a", "MEI", "R101"),
+						newRepresentation(MONDAY, 2, "9a", "MEI", "R303"), added));
+
+		assertEquals(1, changes.getUnchanged());
+		assertEquals(1, changes.getUpdated());
+		assertEquals("R303", moved.getRepreRoom());
+		assertEquals(Collections.singletonList(added), changes.getInserted());
+		assertEquals(Collections.singletonList(cancelled), changes.getDeleted());
+	}
+
+	@Test
+	public void testDiffKeysOnDateLessonClassesAndTeacher() {
+		final Representation stored = newRepresentation(MONDAY, 1, "9a", "MEI", "R101");
+
+		final RepresentationDAO.Changes changes = RepresentationDAO.diff(Collections.singletonList(stored),
+				Arrays.asList(newRepresentation(TUESDAY, 1, "9a", "MEI", "R101"),
+						newRepresentation(MONDAY, 2, "9a", "MEI", "R101"),
+						newRepresentation(MONDAY, 1, "9b", "MEI", "R101"),
+						newRepresentation(MONDAY, 1, "9a", "SCH", "R101")));
+
+		assertEquals(4, changes.getInserted().size());
+		assertEquals(Collections.singletonList(stored), changes.getDeleted());
+	}
+
+	@Test
+	public void testDiffMatchesDuplicatesOneToOne() {
+		final Representation first = newRepresentation(MONDAY, 1, "9a", "MEI", "R101");
+		final Representation second = newRepresentation(MONDAY, 1, "9a", "MEI", "R101");
+
+		final RepresentationDAO.Changes once = RepresentationDAO.diff(Arrays.asList(first, second),
+				Collections.singletonList(newRepresentation(MONDAY, 1, "9a", "MEI", "R101")));
+		assertEquals(1, once.getUnchanged());
+		assertEquals(1, once.getDeleted().size());
+
+		final Representation third = newRepresentation(MONDAY, 1, "9a", "MEI", "R101");
+		final RepresentationDAO.Changes twice = RepresentationDAO.diff(Collections.singletonList(first),
+				Arrays.asList(newRepresentation(MONDAY, 1, "9a", "MEI", "R101"), third));
+		assertEquals(1, twice.getUnchanged());
+		assertSame(third, twice.getInserted().get(0));
+	}
+
+	@Test
+	public void testDiffOfEmptyPlan() {
+		final RepresentationDAO.Changes changes = RepresentationDAO.diff(Collections.<Representation> emptyList(),
+				Collections.<Representation> emptyList());
+		assertTrue(changes.getInserted().isEmpty());
+		assertTrue(changes.getDeleted().isEmpty());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testDiffNullImport() {
+		RepresentationDAO.diff(Collections.<Representation> emptyList(), null);
+	}
+
+	private static Representation newRepresentation(final Date date, final int hour, final String classes,
+			final String teacher, final String repreRoom) {
+		final Representation representation = new Representation();
+		representation.setDate(date);
+		representation.setHour(hour);
+		representation.setClasses(classes);
+		representation.setTeacher(teacher);
+		representation.setRepreRoom(repreRoom);
+		return representation;
+	}
+}
@@ -0,0 +1,109 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.Session;
+import de.unibremen.gradelog.model.User;
+
+/*
+ * @author Marco Glander
+ */
+public class SessionDAOTest {
+
+	private SessionDAO sessionDao;
+
+	private User alice;
+
+	private User bob;
+
+	@Before
+	public void setUp() {
+		sessionDao = new SessionDAO();
+		alice = newUser(1, "alice");
+		bob = newUser(2, "bob");
+	}
+
+	@Test
+	public void testSetUserMaintainsIndex() {
+		final Session first = newSession();
+		final Session second = newSession();
+		first.setUser(alice);
+		second.setUser(alice);
+
+		assertTrue(sessionDao.isUserOnline(alice));
+		assertFalse(sessionDao.isUserOnline(bob));
+		assertEquals(new HashSet<>(Arrays.asList(first, second)), new HashSet<>(sessionDao.getSessions(alice)));
+		assertEquals(1, sessionDao.getOnlineUserCount());
+
+		second.setUser(bob);
+		assertEquals(Arrays.asList(first), sessionDao.getSessions(alice));
+		assertEquals(Arrays.asList(second), sessionDao.getSessions(bob));
+		assertEquals(2, sessionDao.getOnlineUserCount());
+	}
+
+	@Test
+	public void testDestroyLogsOut() {
+		final Session session = newSession();
+		session.setUser(alice);
+		session.destroy();
+
+		assertFalse(sessionDao.isUserOnline(alice));
+		assertTrue(sessionDao.getSessions(alice).isEmpty());
+		assertEquals(0, sessionDao.getOnlineUserCount());
+		assertEquals(0, sessionDao.getSessionCount());
+	}
+
+	@Test
+	public void testRepeatedLogoutIsIgnored() {
+		final Session session = newSession();
+		session.setUser(alice);
+		sessionDao.logout(session, alice.getId());
+		sessionDao.logout(session, alice.getId());
+
+		assertFalse(sessionDao.isUserOnline(alice));
+		assertEquals(0, sessionDao.getOnlineUserCount());
+	}
+
+	@Test
+	public void testOnlineUsersCountedOncePerUser() {
+		final Session first = newSession();
+		final Session second = newSession();
+		final Session third = newSession();
+		first.setUser(alice);
+		second.setUser(alice);
+		third.setUser(bob);
+		assertEquals(2, sessionDao.getOnlineUserCount());
+
+		first.destroy();
+		assertTrue(sessionDao.isUserOnline(alice));
+		assertEquals(2, sessionDao.getOnlineUserCount());
+
+		second.destroy();
+		assertFalse(sessionDao.isUserOnline(alice));
+		assertTrue(sessionDao.isUserOnline(bob));
+		assertEquals(1, sessionDao.getOnlineUserCount());
+	}
+
+	private Session newSession() {
+		final Session session = new Session();
+		Whitebox.setInternalState(session, "sessionDAO", sessionDao);
+		sessionDao.create(session);
+		return session;
+	}
+
+	private static User newUser(final int id, final String login) {
+		final User user = new User();
+		user.setId(id);
+		user.setLogin(login);
+		return user;
+	}
+}
@@ -0,0 +1,81 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import de.unibremen.gradelog.model.Telephone;
+import de.unibremen.gradelog.model.TelephoneChain;
+import de.unibremen.gradelog.model.User;
+
+/*
+ * @author Marco Glander
+ */
+public class TelephoneChainCacheTest {
+
+	private TelephoneChainCache cache;
+
+	private User user;
+
+	@Before
+	public void setUp() {
+		cache = new TelephoneChainCache();
+		user = new User();
+		user.setId(1);
+		for (int i = TelephoneChain.TELEPHONES; i > 0; i--) {
+			final Telephone telephone = new Telephone(user, "Person " + i, "");
+			telephone.setId(i);
+			user.addTelephone(telephone);
+		}
+	}
+
+	@Test
+	public void testChainIsSortedAndShaped() {
+		final TelephoneChain chain = cache.get(user);
+		assertEquals(TelephoneChain.NODES, chain.size());
+		for (int i = 0; i < chain.size(); i++) {
+			assertEquals(i + 1, chain.getId(i));
+		}
+		assertEquals(-1, chain.getParent(0));
+		assertEquals(0, chain.getParent(1));
+		assertEquals(0, chain.getParent(2));
+		assertEquals(1, chain.getParent(3));
+		assertEquals(7, chain.getParent(15));
+		assertEquals(14, chain.getParent(22));
+	}
+
+	@Test
+	public void testChainIsBuiltOnce() {
+		final TelephoneChain chain = cache.get(user);
+		Collections.reverse(user.getTelephones());
+		assertSame(chain, cache.get(user));
+	}
+
+	@Test
+	public void testUpdatePatchesSingleNode() {
+		final TelephoneChain chain = cache.get(user);
+		final Telephone telephone = new Telephone(user, "Anna", "0421 123");
+		telephone.setId(5);
+
+		final TelephoneChain updated = cache.update(user, telephone);
+
+		assertNotEquals(chain.getVersion(), updated.getVersion());
+		assertSame(updated, cache.get(user));
+		assertEquals("Anna", updated.getName(4));
+		assertEquals("0421 123", updated.getNumber(4));
+		assertEquals("Person 5", chain.getName(4));
+		assertEquals("Person 6", updated.getName(5));
+	}
+
+	@Test
+	public void testRemovedUserGetsNewVersion() {
+		final long version = cache.get(user).getVersion();
+		cache.userRemoved(user.getId());
+		assertNotEquals(version, cache.get(user).getVersion());
+	}
+}
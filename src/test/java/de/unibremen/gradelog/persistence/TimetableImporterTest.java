@@ -0,0 +1,99 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.model.Timetable;
+import de.unibremen.gradelog.model.TimetableEntry;
+
+/*
+ * @author Marco Glander
+ */
+public class TimetableImporterTest {
+
+	private TimetableImporter importer;
+
+	private TimetableEntryDAO timetableEntryDao;
+
+	private Timetable timetable;
+
+	@Before
+	public void setUp() {
+		timetableEntryDao = mock(TimetableEntryDAO.class);
+		importer = new TimetableImporter();
+		Whitebox.setInternalState(importer, "timetableEntryDao", timetableEntryDao);
+		timetable = new Timetable();
+	}
+
+	private static InputStream dif(final String... lines) {
+		final StringBuilder builder = new StringBuilder();
+		for (final String line : lines) {
+			builder.append("xxx,xxx,xxx,").append(line).append('\n');
+		}
+		return new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testRepeatedLessonsAreStoredOnce() throws Exception {
+		final List<TimetableEntry> entries = importer.importDIF(timetable,
+				dif("Mathe,R1,1,480,45", "Mathe,R1,1,480,45", "Mathe,R1,3,480,45", "Mathe,R1,1,480,45"));
+
+		assertEquals(2, entries.size());
+		for (final TimetableEntry entry : entries) {
+			assertTrue(entry.isWeekly());
+			assertSame(timetable, entry.getTimetable());
+		}
+		verify(timetableEntryDao).createAll(entries);
+	}
+
+	@Test
+	public void testLessonIsPlacedInDisplayedWeek() throws Exception {
+		final TimetableEntry entry = importer.importDIF(timetable, dif("Mathe,R1,1,480,45")).get(0);
+
+		// Montag, 05.01.1970, 08:00 GMT+1
+		final long monday = TimetableImporter.WEEK_ORIGIN - 2 * 24 * 60 * 60 * 1000L;
+		assertEquals(monday + 7 * 60 * 60 * 1000L, entry.getStartTime().getTime());
+		assertEquals(45 * 60 * 1000L, entry.getEndTime().getTime() - entry.getStartTime().getTime());
+		assertEquals("Mathe", entry.getTitle());
+		assertEquals("R1", entry.getPlace());
+	}
+
+	@Test
+	public void testExistingLessonsAreSkipped() throws Exception {
+		final TimetableEntry existing = importer.importDIF(timetable, dif("Mathe,R1,1,480,45")).get(0);
+		when(timetableEntryDao.getWeekly(timetable)).thenReturn(Arrays.asList(existing));
+
+		final List<TimetableEntry> entries = importer.importDIF(timetable,
+				dif("Mathe,R1,1,480,45", "Deutsch,R2,2,525,90"));
+
+		assertEquals(1, entries.size());
+		assertEquals("Deutsch", entries.get(0).getTitle());
+	}
+
+	@Test
+	public void testReimportWritesNothing() throws Exception {
+		final TimetableEntry existing = importer.importDIF(timetable, dif("Mathe,R1,1,480,45")).get(0);
+		final TimetableEntryDAO dao = mock(TimetableEntryDAO.class);
+		when(dao.getWeekly(timetable)).thenReturn(Arrays.asList(existing));
+		Whitebox.setInternalState(importer, "timetableEntryDao", dao);
+
+		assertTrue(importer.importDIF(timetable, dif("Mathe,R1,1,480,45")).isEmpty());
+		verify(dao, never()).createAll(anyCollectionOf(TimetableEntry.class));
+	}
+}
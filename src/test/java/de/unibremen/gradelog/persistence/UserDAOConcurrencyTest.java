@@ -0,0 +1,148 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+import de.unibremen.gradelog.exception.DuplicateEmailException;
+import de.unibremen.gradelog.exception.DuplicateUsernameException;
+import de.unibremen.gradelog.model.User;
+
+/**
+ * Prüft, dass parallele Registrierungen nicht mehr über einen gemeinsamen
+ * Monitor serialisiert werden und Verletzungen der Unique-Constraints korrekt
+ * übersetzt werden. Die Datenbank wird durch einen {@link EntityManager} ersetzt,
+ * der jeden Aufruf von persist so lange anhält, bis alle Threads dort
+ * angekommen sind.
+ *
+ * @author Marco Glander
+ */
+public class UserDAOConcurrencyTest {
+
+	private static final int THREADS = 8;
+
+	private static final int USERS_PER_THREAD = 25;
+
+	private static final long TIMEOUT_SECONDS = 10;
+
+	private UserDAO userDao;
+
+	private EntityManager em;
+
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() {
+		userDao = new UserDAO();
+		em = mock(EntityManager.class);
+		Whitebox.setInternalState(userDao, "em", em);
+		Whitebox.setInternalState(userDao, "userStatistics", mock(UserStatistics.class));
+		Whitebox.setInternalState(userDao, "afterCommit", new AfterCommit());
+		Whitebox.setInternalState(userDao, "receiverIndex", mock(ReceiverIndex.class));
+		executor = Executors.newFixedThreadPool(THREADS);
+	}
+
+	@After
+	public void tearDown() {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void testParallelRegistrationsAreNotSerialized() throws Exception {
+		// Jeder persist-Aufruf wartet, bis alle Threads gleichzeitig in
+		// persist stehen. Würden die Registrierungen serialisiert, liefe die
+		// Barriere in den Timeout.
+		final CyclicBarrier barrier = new CyclicBarrier(THREADS);
+		doAnswer(new Answer<Void>() {
+			@Override
+			public Void answer(final InvocationOnMock invocation) throws Exception {
+				barrier.await(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+				return null;
+			}
+		}).when(em).persist(any(User.class));
+
+		final List<Callable<Void>> registrations = new ArrayList<>();
+		for (int t = 0; t < THREADS; t++) {
+			final int thread = t;
+			registrations.add(new Callable<Void>() {
+				@Override
+				public Void call() throws Exception {
+					for (int i = 0; i < USERS_PER_THREAD; i++) {
+						userDao.create(newUser(thread + "_" + i));
+					}
+					return null;
+				}
+			});
+		}
+
+		for (final Future<Void> future : executor.invokeAll(registrations)) {
+			future.get();
+		}
+
+		assertFalse(barrier.isBroken());
+		verify(em, times(THREADS * USERS_PER_THREAD)).persist(any(User.class));
+	}
+
+	@Test(expected = DuplicateEmailException.class)
+	public void testEmailViolationIsTranslated() throws Exception {
+		doThrow(uniqueViolation("UNQ_USER_EMAIL")).when(em).flush();
+		userDao.create(newUser("duplicate"));
+	}
+
+	@Test(expected = DuplicateUsernameException.class)
+	public void testLoginViolationIsTranslated() throws Exception {
+		doThrow(uniqueViolation("UNQ_USER_LOGIN")).when(em).flush();
+		userDao.create(newUser("duplicate"));
+	}
+
+	@Test
+	public void testOtherFailuresAreRethrown() throws Exception {
+		final PersistenceException failure = new PersistenceException(new SQLException("connection lost", "08006"));
+		doThrow(failure).when(em).flush();
+		try {
+			userDao.create(newUser("lost"));
+		} catch (final PersistenceException e) {
+			assertEquals(failure, e);
+			return;
+		}
+		throw new AssertionError("PersistenceException expected");
+	}
+
+	private static User newUser(final String name) {
+		final User user = new User();
+		user.setLogin(name);
+		user.setEmail(name + "@gradelog.de");
+		return user;
+	}
+
+	private static PersistenceException uniqueViolation(final String constraint) {
+		return new PersistenceException(new SQLException(String.format(
+				"The statement was aborted because it would have caused a duplicate key value in a unique or primary key constraint or unique index identified by '%s' defined on 'USERS'.",
+				constraint), "23505"));
+	}
+}
@@ -0,0 +1,134 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyCollectionOf;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+
+import de.unibremen.gradelog.exception.DuplicateEmailException;
+import de.unibremen.gradelog.model.ImportProgress;
+import de.unibremen.gradelog.model.User;
+
+/*
+ * @author Marco Glander
+ */
+public class UserImporterTest {
+
+	private UserImporter importer;
+
+	private UserDAO userDao;
+
+	private ImportProgress progress;
+
+	@Before
+	public void setUp() {
+		userDao = mock(UserDAO.class);
+		when(userDao.getTakenLoginsAndEmails(anyCollectionOf(String.class), anyCollectionOf(String.class)))
+				.thenReturn(Collections.<String> emptySet());
+		importer = new UserImporter();
+		Whitebox.setInternalState(importer, "userDao", userDao);
+		progress = new ImportProgress();
+	}
+
+	/*
+	 * Jede Zeile erhält den Teil der E-Mail-Adresse vor dem '@' als Nachnamen,
+	 * damit sich die generierten Benutzernamen trotz zufälliger Ziffern nicht
+	 * überschneiden und keine zusätzliche Prüfung auslösen.
+	 */
+	private static InputStream csv(final String... emails) {
+		final StringBuilder builder = new StringBuilder();
+		for (final String email : emails) {
+			builder.append(email.substring(0, email.indexOf('@')))
+					.append(",xxx,xxx,xxx,xxx,xxx,xxx,Justus,18,9a,2,xxx,19980304,").append(email).append(",xxx\n");
+		}
+		return new ByteArrayInputStream(builder.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testOneLookupAndOneInsertPerChunk() throws Exception {
+		importer.importUsers(csv("a@b.de", "b@b.de", "c@b.de", "d@b.de", "e@b.de"), 2, progress);
+
+		assertTrue(progress.isDone());
+		assertFalse(progress.isFailed());
+		assertEquals(5, progress.getRead());
+		verify(userDao, times(3)).getTakenLoginsAndEmails(anyCollectionOf(String.class),
+				anyCollectionOf(String.class));
+		verify(userDao, times(3)).createAll(anyCollectionOf(User.class));
+	}
+
+	@Test
+	public void testDuplicatesAreReportedPerRow() throws Exception {
+		when(userDao.getTakenLoginsAndEmails(anyCollectionOf(String.class), anyCollectionOf(String.class)))
+				.thenReturn(new HashSet<>(Arrays.asList("taken@b.de")));
+		final String row = "Jonas,xxx,xxx,xxx,xxx,xxx,xxx,Justus,18,9a,2,xxx,19980304,%s,xxx\n";
+		final String content = String.format(row, "a@b.de") + String.format(row, "taken@b.de")
+				+ String.format(row, "a@b.de") + "Jonas,xxx\n";
+
+		importer.importUsers(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), 10, progress);
+
+		assertTrue(progress.isDone());
+		assertEquals(4, progress.getRead());
+		assertEquals(1, progress.getImported());
+		final Map<Integer, String> errors = new HashMap<>();
+		for (final ImportProgress.RowError error : progress.getErrors()) {
+			errors.put(error.getLine(), error.getMessageKey());
+		}
+		assertEquals(3, errors.size());
+		assertEquals("errorEmailAlreadyInUse", errors.get(2));
+		assertEquals("errorEmailAlreadyInUse", errors.get(3));
+		assertEquals("errorInvalidFormat", errors.get(4));
+	}
+
+	@Test
+	public void testFailedBatchFallsBackToSingleInserts() throws Exception {
+		doThrow(new DuplicateEmailException("b@b.de")).when(userDao).createAll(anyCollectionOf(User.class));
+		doThrow(new DuplicateEmailException("b@b.de")).when(userDao).create(any(User.class));
+
+		importer.importUsers(csv("a@b.de", "b@b.de"), 10, progress);
+
+		verify(userDao, times(2)).create(any(User.class));
+		assertEquals(0, progress.getImported());
+		assertEquals(2, progress.getErrorCount());
+	}
+
+	@Test
+	public void testTakenLoginIsRegenerated() throws Exception {
+		final Collection<String> taken = new HashSet<>();
+		when(userDao.getTakenLoginsAndEmails(anyCollectionOf(String.class), anyCollectionOf(String.class)))
+				.thenAnswer(invocation -> {
+					if (taken.isEmpty()) {
+						@SuppressWarnings("unchecked")
+						final Collection<String> logins = (Collection<String>) invocation.getArguments()[0];
+						taken.addAll(logins);
+						return new HashSet<>(logins);
+					}
+					return Collections.<String> emptySet();
+				});
+
+		importer.importUsers(csv("a@b.de"), 10, progress);
+
+		assertEquals(1, progress.getImported());
+		verify(userDao, times(2)).getTakenLoginsAndEmails(anyCollectionOf(String.class),
+				anyCollectionOf(String.class));
+	}
+}
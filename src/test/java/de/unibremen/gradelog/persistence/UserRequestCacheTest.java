@@ -0,0 +1,60 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+import de.unibremen.gradelog.model.User;
+
+/**
+ * @author Marco Glander
+ */
+@RunWith(MockitoJUnitRunner.class)
+public class UserRequestCacheTest {
+
+	@InjectMocks
+	private UserRequestCache userCache;
+
+	@Mock
+	private UserDAO userDao;
+
+	@Mock
+	private User user;
+
+	@Test
+	public void testRepeatedLookupsQueryOnce() {
+		when(userDao.getById(1, User.SESSION)).thenReturn(user);
+		for (int i = 0; i < 5; i++) {
+			assertSame(user, userCache.get(1));
+		}
+		verify(userDao, times(1)).getById(1, User.SESSION);
+		assertEquals(1, userCache.getFinds());
+		assertEquals(4, userCache.getSavedFinds());
+	}
+
+	@Test
+	public void testInvalidateReloads() {
+		when(userDao.getById(1, User.SESSION)).thenReturn(user);
+		userCache.get(1);
+		userCache.invalidate(1);
+		userCache.get(1);
+		verify(userDao, times(2)).getById(1, User.SESSION);
+		assertEquals(0, userCache.getSavedFinds());
+	}
+
+	@Test
+	public void testUnknownUserIsNotCached() {
+		assertNull(userCache.get(2));
+		assertNull(userCache.get(2));
+		verify(userDao, times(2)).getById(2, User.SESSION);
+	}
+}
@@ -0,0 +1,60 @@
+package de.unibremen.gradelog.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.internal.util.reflection.Whitebox;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+
+/*
+ * @author Marco Glander
+ */
+public class UserStatisticsTest {
+
+	private UserStatistics userStatistics;
+
+	private UserDAO userDao;
+
+	@Before
+	public void setUp() {
+		userStatistics = new UserStatistics();
+		userDao = mock(UserDAO.class);
+		Whitebox.setInternalState(userStatistics, "userDao", userDao);
+	}
+
+	@Test
+	public void testCountsOnce() {
+		when(userDao.countUsers()).thenReturn(10L);
+		assertEquals(10, userStatistics.getUserCount());
+		userStatistics.userCreated();
+		userStatistics.usersCreated(3);
+		userStatistics.userRemoved();
+		assertEquals(13, userStatistics.getUserCount());
+		verify(userDao).countUsers();
+	}
+
+	@Test
+	public void testRecountsIfModifiedWhileCounting() {
+		// Die erste Zählung läuft, bevor die Registrierung festgeschrieben
+		// ist; deren Fortschreibung trifft erst während der Zählung ein.
+		when(userDao.countUsers()).thenAnswer(new Answer<Long>() {
+			private long count = 10;
+
+			@Override
+			public Long answer(final InvocationOnMock invocation) {
+				if (count == 10)
+					userStatistics.userCreated();
+				return count++;
+			}
+		});
+		assertEquals(11, userStatistics.getUserCount());
+		assertEquals(11, userStatistics.getUserCount());
+		verify(userDao, times(2)).countUsers();
+	}
+}
@@ -0,0 +1,60 @@
+package de.unibremen.gradelog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/*
+ * @author Marco Glander
+ */
+public class ByteRangeTest {
+
+	private static final long LENGTH = 1000;
+
+	@Test
+	public void testClosedRange() {
+		final ByteRange range = ByteRange.parse("bytes=0-499", LENGTH);
+		assertEquals(0, range.getStart());
+		assertEquals(499, range.getEnd());
+		assertEquals(500, range.getLength());
+		assertEquals("bytes 0-499/1000", range.toContentRange(LENGTH));
+	}
+
+	@Test
+	public void testOpenRangeEndsAtLastByte() {
+		final ByteRange range = ByteRange.parse("bytes=900-", LENGTH);
+		assertEquals(900, range.getStart());
+		assertEquals(999, range.getEnd());
+	}
+
+	@Test
+	public void testEndIsClampedToLength() {
+		assertEquals(999, ByteRange.parse("bytes=500-5000", LENGTH).getEnd());
+	}
+
+	@Test
+	public void testSuffixRange() {
+		final ByteRange range = ByteRange.parse("bytes=-100", LENGTH);
+		assertEquals(900, range.getStart());
+		assertEquals(100, range.getLength());
+		assertEquals(0, ByteRange.parse("bytes=-5000", LENGTH).getStart());
+	}
+
+	@Test
+	public void testRangeBehindEndIsUnsatisfiable() {
+		final ByteRange range = ByteRange.parse("bytes=1000-", LENGTH);
+		assertFalse(range.isSatisfiable());
+		assertEquals("bytes */1000", range.toContentRange(LENGTH));
+	}
+
+	@Test
+	public void testInvalidAndMultipleRangesAreIgnored() {
+		assertNull(ByteRange.parse(null, LENGTH));
+		assertNull(ByteRange.parse("items=0-1", LENGTH));
+		assertNull(ByteRange.parse("bytes=abc", LENGTH));
+		assertNull(ByteRange.parse("bytes=500-100", LENGTH));
+		assertNull(ByteRange.parse("bytes=0-1,5-6", LENGTH));
+	}
+}
@@ -5,6 +5,7 @@ import static org.junit.Assert.*;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.util.Calendar;
 import java.util.Date;
 
 import org.junit.Test;
@@ -62,4 +63,88 @@ public class CSVParserTest {
 		}
 		assertNotNull(date);
 	}
+
+	private static CSVParser parser(final String content, final int cellLength) {
+		return new CSVParser(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)),
+				StandardCharsets.UTF_8, cellLength);
+	}
+
+	@Test
+	public void testQuotedCellsKeepSeparatorsQuotesAndSpaces() {
+		CSVParser parser = parser("\"M\u00fcller, Anna\",\"Sie sagt \"\"Hallo\"\"\", van Dyk \n", 3);
+		assertTrue(parser.nextLine());
+		assertEquals("M\u00fcller, Anna", parser.getString(0));
+		assertEquals("Sie sagt \"Hallo\"", parser.getString(1));
+		assertEquals(" van Dyk ", parser.getString(2));
+		assertFalse(parser.nextLine());
+	}
+
+	@Test
+	public void testLineBreaksAndEmptyLines() {
+		CSVParser parser = parser("a,\"b\r\nc\"\r\n\r\nd,e", 2);
+		assertTrue(parser.nextLine());
+		assertEquals(1, parser.getLine());
+		assertEquals("b\r\nc", parser.getString(1));
+		assertTrue(parser.nextLine());
+		assertEquals(4, parser.getLine());
+		assertEquals("e", parser.getString(1));
+		assertFalse(parser.nextLine());
+	}
+
+	@Test
+	public void testTypedAccessors() {
+		CSVParser parser = parser("-42,+7,19980304,2147483647", 4);
+		assertTrue(parser.nextLine());
+		assertEquals(-42, parser.getInt(0));
+		assertEquals(7, parser.getInt(1));
+		assertEquals(2147483647, parser.getInt(3));
+		Calendar calendar = Calendar.getInstance();
+		calendar.setTime(parser.getDate(2));
+		assertEquals(1998, calendar.get(Calendar.YEAR));
+		assertEquals(Calendar.MARCH, calendar.get(Calendar.MONTH));
+		assertEquals(4, calendar.get(Calendar.DAY_OF_MONTH));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseIntOverflow() {
+		CSVParser parser = parser("2147483648", 1);
+		parser.nextLine();
+		parser.getInt(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testParseInvalidCalendarDate() {
+		CSVParser parser = parser("19980231", 1);
+		parser.nextLine();
+		parser.getDate(0);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUnterminatedQuote() {
+		parser("a,\"b", 2).nextLine();
+	}
+
+	@Test
+	public void testInvalidLineCanBeSkipped() {
+		CSVParser parser = parser("a\nb,c", 2);
+		try {
+			parser.nextLine();
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertEquals(1, parser.getLine());
+		}
+		assertTrue(parser.nextLine());
+		assertEquals("c", parser.getString(1));
+	}
+
+	@Test
+	public void testColumnMapping() {
+		CSVParser parser = parser("Jonas,xxx,xxx,xxx,xxx,xxx,xxx,Justus,18,9a,2,xxx,19980304,justus@jonas.de,xxx",
+				DIFColumns.USER_CELLS);
+		assertTrue(parser.nextLine());
+		assertEquals("Jonas", parser.getString(DIFColumns.User.LAST_NAME));
+		assertEquals("Justus", parser.getString(DIFColumns.User.FIRST_NAME));
+		assertEquals(2, parser.getInt(DIFColumns.User.SEX));
+		assertEquals("justus@jonas.de", parser.getString(DIFColumns.User.EMAIL));
+	}
 }
@@ -0,0 +1,86 @@
+package de.unibremen.gradelog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * @author Marco Glander
+ */
+public class IntervalTreeTest {
+
+	private IntervalTree<String> tree;
+
+	@Before
+	public void setUp() {
+		tree = new IntervalTree<>();
+		tree.add("a", 0, 10);
+		tree.add("b", 5, 15);
+		tree.add("c", 20, 30);
+		tree.add("d", 12, 12);
+	}
+
+	@Test
+	public void testQueryReturnsOverlapsByStart() {
+		assertEquals(Arrays.asList("a", "b", "d"), tree.query(8, 13));
+		assertEquals(Arrays.asList("c"), tree.query(16, 40));
+		assertEquals(Collections.emptyList(), tree.query(30, 40));
+	}
+
+	@Test
+	public void testQueryBoundsAreHalfOpen() {
+		assertEquals(Arrays.asList("b"), tree.query(10, 12));
+		assertEquals(Arrays.asList("b", "d"), tree.query(12, 13));
+		assertEquals(Collections.emptyList(), tree.query(15, 20));
+	}
+
+	@Test
+	public void testAddReplacesInterval() {
+		tree.add("a", 40, 50);
+
+		assertEquals(4, tree.size());
+		assertEquals(Arrays.asList("b"), tree.query(0, 10));
+		assertEquals(Arrays.asList("a"), tree.query(45, 46));
+	}
+
+	@Test
+	public void testRemove() {
+		assertTrue(tree.remove("b"));
+		assertFalse(tree.remove("b"));
+
+		assertEquals(Arrays.asList("a"), tree.query(8, 12));
+	}
+
+	@Test
+	public void testMatchesLinearScan() {
+		final Random random = new Random(42);
+		final IntervalTree<Integer> large = new IntervalTree<>();
+		final long[][] intervals = new long[2000][];
+		for (int i = 0; i < intervals.length; i++) {
+			final long start = random.nextInt(100000);
+			intervals[i] = new long[] { start, start + random.nextInt(i % 10 == 0 ? 20000 : 500) };
+			large.add(i, intervals[i][0], intervals[i][1]);
+		}
+		for (int query = 0; query < 200; query++) {
+			final long from = random.nextInt(100000);
+			final long to = from + 1 + random.nextInt(5000);
+			final List<Integer> expected = new ArrayList<>();
+			for (int i = 0; i < intervals.length; i++) {
+				if (intervals[i][0] < to && Math.max(intervals[i][1], intervals[i][0] + 1) > from)
+					expected.add(i);
+			}
+			final List<Integer> found = large.query(from, to);
+			Collections.sort(found);
+			assertEquals(expected, found);
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package de.unibremen.gradelog.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermissions;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/*
+ * @author Marco Glander
+ */
+public class SpillingLruCacheTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private SpillingLruCache cache;
+
+	@Before
+	public void setUp() {
+		cache = new SpillingLruCache(20, 20, folder.getRoot().toPath());
+	}
+
+	@Test
+	public void testLeastRecentlyUsedIsSpilledAndRestored() {
+		cache.put("a", new byte[10]);
+		cache.put("b", new byte[10]);
+		cache.get("a");
+		cache.put("c", new byte[10]);
+
+		assertEquals(20, cache.getMemoryBytes());
+		assertEquals(10, cache.getDiskBytes());
+		assertArrayEquals(new byte[10], cache.get("b"));
+		assertEquals(1, cache.getDiskHits());
+	}
+
+	@Test
+	public void testDiskBudgetDropsOldestSpilledEntries() {
+		for (final String key : new String[] { "a", "b", "c", "d", "e" }) {
+			cache.put(key, new byte[10]);
+		}
+		assertEquals(20, cache.getDiskBytes());
+		assertNull(cache.get("a"));
+		assertEquals(1, cache.getMisses());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testKeysMustBeFileNames() {
+		cache.put("../a", new byte[1]);
+	}
+
+	@Test
+	public void testSpillDirectoryIsOwnerOnly() throws Exception {
+		final Path directory = folder.getRoot().toPath().resolve("spill");
+		assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+		final SpillingLruCache spilling = new SpillingLruCache(10, 20, directory);
+		spilling.put("a", new byte[10]);
+		spilling.put("b", new byte[10]);
+
+		assertEquals(10, spilling.getDiskBytes());
+		assertEquals("rwx------", PosixFilePermissions.toString(Files.getPosixFilePermissions(directory)));
+	}
+}
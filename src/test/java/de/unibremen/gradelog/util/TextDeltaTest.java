@@ -0,0 +1,102 @@
+package de.unibremen.gradelog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/*
+ * @author Marco Glander
+ */
+public class TextDeltaTest {
+
+	private static final String PAGE = "<h1>Klassenfahrt</h1>\n<p>Wir fahren am <b>Montag</b> los.</p>\n"
+			+ "<p>Treffpunkt ist der Bahnhof.</p>\n<ul><li>Schlafsack</li><li>Regenjacke</li></ul>";
+
+	@Test
+	public void testIdenticalTextsCopyEverything() {
+		assertEquals("=" + PAGE.length(), TextDelta.diff(PAGE, PAGE));
+		assertEquals(PAGE, TextDelta.apply(PAGE, TextDelta.diff(PAGE, PAGE)));
+	}
+
+	@Test
+	public void testSmallEditOnlyStoresChangedSection() {
+		final String edited = PAGE.replace("Montag", "Dienstag");
+		final String delta = TextDelta.diff(PAGE, edited);
+		assertTrue(delta, delta.contains("Dienstag"));
+		assertTrue(delta, !delta.contains("Bahnhof"));
+		assertTrue(delta.length() < 40);
+		assertEquals(edited, TextDelta.apply(PAGE, delta));
+	}
+
+	@Test
+	public void testInsertAndRemoveSections() {
+		final String edited = PAGE.replace("<p>Treffpunkt ist der Bahnhof.</p>\n", "")
+				.replace("<li>Regenjacke</li>", "<li>Regenjacke</li><li>Taschenlampe</li>");
+		assertEquals(edited, TextDelta.apply(PAGE, TextDelta.diff(PAGE, edited)));
+		assertEquals(PAGE, TextDelta.apply(edited, TextDelta.diff(edited, PAGE)));
+	}
+
+	@Test
+	public void testEmptyTexts() {
+		assertEquals("", TextDelta.diff("", ""));
+		assertEquals(PAGE, TextDelta.apply("", TextDelta.diff("", PAGE)));
+		assertEquals("", TextDelta.apply(PAGE, TextDelta.diff(PAGE, "")));
+	}
+
+	@Test
+	public void testInsertedTextMayContainOperators() {
+		final String edited = PAGE + "=12-3+4:x";
+		assertEquals(edited, TextDelta.apply(PAGE, TextDelta.diff(PAGE, edited)));
+	}
+
+	@Test
+	public void testRandomEditsRoundTrip() {
+		final Random random = new Random(42);
+		String text = PAGE;
+		for (int round = 0; round < 200; round++) {
+			final List<String> tokens = new ArrayList<>(TextDelta.tokenize(text));
+			for (int edits = random.nextInt(4); edits >= 0; edits--) {
+				final int position = random.nextInt(tokens.size() + 1);
+				if (random.nextBoolean() && position < tokens.size())
+					tokens.remove(position);
+				else
+					tokens.add(position, "<p>Absatz " + random.nextInt(20) + "</p>\n");
+			}
+			final String edited = String.join("", tokens);
+			assertEquals(edited, TextDelta.apply(text, TextDelta.diff(text, edited)));
+			text = edited;
+		}
+	}
+
+	@Test
+	public void testManyChangesFallBackToReplacement() {
+		final StringBuilder base = new StringBuilder();
+		final StringBuilder target = new StringBuilder();
+		for (int i = 0; i < TextDelta.MAX_EDITS; i++) {
+			base.append("<p>").append(i).append("</p>");
+			target.append("<p>").append(-i).append("</p>");
+		}
+		final String delta = TextDelta.diff(base.toString(), target.toString());
+		assertEquals(target.toString(), TextDelta.apply(base.toString(), delta));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testApplyToWrongBaseFails() {
+		TextDelta.apply(PAGE + "x", TextDelta.diff(PAGE, PAGE));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testApplyMalformedInsertionFails() {
+		TextDelta.apply("", "+5:ab");
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testApplyUnknownOperationFails() {
+		TextDelta.apply("abc", "*3");
+	}
+}
@@ -0,0 +1,67 @@
+package de.unibremen.gradelog.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/*
+ * @author Marco Glander
+ */
+public class TopListTest {
+
+	private TopList<Integer> top;
+
+	@Before
+	public void setUp() {
+		top = new TopList<>(3, Comparator.<Integer> naturalOrder());
+	}
+
+	@Test
+	public void testOfferKeepsOrderAndCapacity() {
+		top.reset(Arrays.asList(2, 4));
+		top.offer(3);
+		top.offer(1);
+		assertEquals(Arrays.asList(1, 2, 3), top.get());
+		top.offer(5);
+		assertEquals(Arrays.asList(1, 2, 3), top.get());
+		assertTrue(top.isValid());
+	}
+
+	@Test
+	public void testRemoveFromCompleteListStaysValid() {
+		top.reset(Arrays.asList(1, 2));
+		assertTrue(top.remove(1));
+		assertTrue(top.isValid());
+		assertEquals(Arrays.asList(2), top.get());
+	}
+
+	@Test
+	public void testRemoveFromTruncatedListInvalidates() {
+		top.reset(Arrays.asList(1, 2, 3));
+		assertTrue(top.remove(2));
+		assertFalse(top.isValid());
+	}
+
+	@Test
+	public void testOfferBehindTruncatedListIsIgnored() {
+		top.reset(Arrays.asList(1, 2, 3));
+		top.offer(4);
+		assertEquals(Arrays.asList(1, 2, 3), top.get());
+		assertTrue(top.isValid());
+	}
+
+	@Test
+	public void testOfferAtCapacityMarksListIncomplete() {
+		top.reset(Arrays.asList(1, 2));
+		top.offer(3);
+		top.offer(4);
+		assertTrue(top.remove(3));
+		assertFalse(top.isValid());
+	}
+}